@@ -0,0 +1,56 @@
+package jmh;
+
+import java.util.Random;
+
+/**
+ * Input data distributions of benchmarks, generated from a fixed seed so runs are comparable
+ */
+public enum Distribution {
+    RANDOM,
+    SORTED,
+    REVERSED,
+    // Ascending runs of 1000 values
+    SAWTOOTH,
+    // Random values among 100 distinct values
+    DUPLICATES;
+
+    public static final long SEED = 20170103L;
+
+    public int[] generate(int size) {
+        Random random = new Random(SEED);
+        int[] values = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            switch (this) {
+                case RANDOM:
+                    values[i] = random.nextInt();
+                    break;
+                case SORTED:
+                    values[i] = i;
+                    break;
+                case REVERSED:
+                    values[i] = size - i;
+                    break;
+                case SAWTOOTH:
+                    values[i] = i % 1000;
+                    break;
+                case DUPLICATES:
+                    values[i] = random.nextInt(100);
+                    break;
+            }
+        }
+
+        return values;
+    }
+
+    public Integer[] generateObjects(int size) {
+        int[] values = generate(size);
+        Integer[] objects = new Integer[size];
+
+        for (int i = 0; i < size; i++) {
+            objects[i] = values[i];
+        }
+
+        return objects;
+    }
+}
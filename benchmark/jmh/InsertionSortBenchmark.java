@@ -0,0 +1,50 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+import utils.data.DataComparator;
+import utils.data.sort.InsertionSort;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insertion sort, kept apart from SorterBenchmark as its quadratic time only allows small sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertionSortBenchmark {
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    @Param
+    public Distribution distribution;
+
+    private Integer[] objects;
+    private int[] values;
+    private Comparator<Integer> comparator;
+
+    @Setup
+    public void setUp() {
+        objects = distribution.generateObjects(size);
+        values = distribution.generate(size);
+        comparator = DataComparator.buildComparator();
+    }
+
+    @Benchmark
+    public Integer[] insertionSortObjects() {
+        Integer[] array = objects.clone();
+        InsertionSort.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public int[] insertionSortValues() {
+        int[] array = values.clone();
+        InsertionSort.sort(array);
+        return array;
+    }
+}
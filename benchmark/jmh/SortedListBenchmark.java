@@ -0,0 +1,139 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+import utils.data.IntSortedList;
+import utils.data.SortedListArray;
+import utils.data.SortedListAvl;
+import utils.data.SortedListBTree;
+import utils.data.TreeList;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building, lookups and modifications of SortedListAvl, SortedListArray, SortedListBTree, IntSortedList and TreeList.
+ *
+ * TreeList keeps insertion order instead of sorted order, its lookups by value are linear.
+ * Lookup and churn benchmarks report the time of a single operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortedListBenchmark {
+    private static final int OPERATIONS = 1000;
+
+    @Param({"SortedListAvl", "SortedListArray", "SortedListBTree", "IntSortedList", "TreeList"})
+    public String implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param
+    public Distribution distribution;
+
+    private Integer[] objects;
+    private List<Integer> list;
+
+    // Indices and values looked up / added & removed by each invocation
+    private int[] indices;
+    private Integer[] values;
+
+    @Setup
+    public void setUp() {
+        objects = distribution.generateObjects(size);
+        list = build();
+
+        Random random = new Random(Distribution.SEED);
+
+        indices = new int[OPERATIONS];
+        values = new Integer[OPERATIONS];
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            indices[i] = random.nextInt(size);
+            values[i] = objects[random.nextInt(size)];
+        }
+    }
+
+    @Benchmark
+    public List<Integer> build() {
+        List<Integer> list = create();
+
+        for (Integer o : objects) {
+            list.add(o);
+        }
+
+        return list;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int get() {
+        int sum = 0;
+
+        for (int index : indices) {
+            sum += list.get(index);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int indexOf() {
+        int sum = 0;
+
+        for (Integer value : values) {
+            sum += list.indexOf(value);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public List<Integer> addRemove() {
+        for (Integer value : values) {
+            list.add(value);
+        }
+
+        for (Integer value : values) {
+            list.remove(value);
+        }
+
+        return list;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public Integer removeAtAdd() {
+        Integer last = null;
+
+        for (int index : indices) {
+            last = list.remove(index);
+            list.add(last);
+        }
+
+        return last;
+    }
+
+    private List<Integer> create() {
+        switch (implementation) {
+            case "SortedListAvl":
+                return new SortedListAvl<>();
+            case "SortedListArray":
+                return new SortedListArray<>();
+            case "SortedListBTree":
+                return new SortedListBTree<>();
+            case "IntSortedList":
+                return new IntSortedList();
+            case "TreeList":
+                return new TreeList<>();
+            default:
+                throw new IllegalArgumentException("Unknown list implementation: " + implementation);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package jmh;
+
+import org.openjdk.jmh.annotations.*;
+import utils.data.DataComparator;
+import utils.data.sort.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting algorithms of utils.data.sort over object and int arrays.
+ *
+ * Every benchmark sorts a fresh copy of the source array, copy benchmarks measure the copying alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SorterBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param
+    public Distribution distribution;
+
+    private Integer[] objects;
+    private int[] values;
+    private Comparator<Integer> comparator;
+
+    private final KeySort.IntKeyExtractor<Integer> identity = new KeySort.IntKeyExtractor<Integer>() {
+        @Override
+        public int extractKey(Integer o) {
+            return o;
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        objects = distribution.generateObjects(size);
+        values = distribution.generate(size);
+        comparator = DataComparator.buildComparator();
+    }
+
+    @Benchmark
+    public Integer[] copyObjects() {
+        return objects.clone();
+    }
+
+    @Benchmark
+    public Integer[] mergeSortObjects() {
+        Integer[] array = objects.clone();
+        MergeSort.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] timSortObjects() {
+        Integer[] array = objects.clone();
+        TimSort.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] introSortObjects() {
+        Integer[] array = objects.clone();
+        IntroSort.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] multiSortObjects() {
+        Integer[] array = objects.clone();
+        MultiSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] heapSortObjects() {
+        Integer[] array = objects.clone();
+        HeapSort.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] singlePivotQuickSortObjects() {
+        Integer[] array = objects.clone();
+        SinglePivotQuickSort.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] dualPivotQuickSortObjects() {
+        Integer[] array = objects.clone();
+        DualPivotQuickSort.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] keySortObjects() {
+        Integer[] array = objects.clone();
+        KeySort.sortByIntKey(array, identity);
+        return array;
+    }
+
+    @Benchmark
+    public int[] argSortObjects() {
+        return ArgSort.argsort(objects, comparator);
+    }
+
+    @Benchmark
+    public Integer[] partialSortObjects() {
+        Integer[] array = objects.clone();
+        IntroSort.partialSort(array, comparator, 100);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] parallelMergeSortObjects() {
+        Integer[] array = objects.clone();
+        MergeSort.parallelSort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] parallelTimSortObjects() {
+        Integer[] array = objects.clone();
+        TimSort.parallelSort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] adaptiveSortObjects() {
+        Integer[] array = objects.clone();
+        AdaptiveSort.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public Integer[] arraysSortObjects() {
+        Integer[] array = objects.clone();
+        Arrays.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public int[] copyValues() {
+        return values.clone();
+    }
+
+    @Benchmark
+    public int[] mergeSortValues() {
+        int[] array = values.clone();
+        MergeSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] introSortValues() {
+        int[] array = values.clone();
+        IntroSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] multiSortValues() {
+        int[] array = values.clone();
+        MultiSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] heapSortValues() {
+        int[] array = values.clone();
+        HeapSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] singlePivotQuickSortValues() {
+        int[] array = values.clone();
+        SinglePivotQuickSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] dualPivotQuickSortValues() {
+        int[] array = values.clone();
+        DualPivotQuickSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] radixSortValues() {
+        int[] array = values.clone();
+        RadixSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] combSortValues() {
+        int[] array = values.clone();
+        CombSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] shellSortValues() {
+        int[] array = values.clone();
+        ShellSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] argSortValues() {
+        return ArgSort.argsort(values);
+    }
+
+    @Benchmark
+    public int[] partialSortValues() {
+        int[] array = values.clone();
+        IntroSort.partialSort(array, 100);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelIntroSortValues() {
+        int[] array = values.clone();
+        IntroSort.parallelSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelDualPivotQuickSortValues() {
+        int[] array = values.clone();
+        DualPivotQuickSort.parallelSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] adaptiveSortValues() {
+        int[] array = values.clone();
+        AdaptiveSort.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] arraysSortValues() {
+        int[] array = values.clone();
+        Arrays.sort(array);
+        return array;
+    }
+}
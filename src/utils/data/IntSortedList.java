@@ -0,0 +1,1163 @@
+package utils.data;
+
+import utils.data.sort.AdaptiveSort;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * Sorted list of int values in ascending order, backed by a B+-tree of primitive leaves.
+ *
+ * Values are stored in leaves of up to leaf capacity values, which are primitive arrays on heap or direct buffers
+ * outside the java heap for off-heap lists. Inner nodes keep the size of each subtree for index access and a
+ * separator value per child for searching, leaves are linked for iteration. Storage costs about 4 bytes per value
+ * instead of a tree node and a boxed value per element. Duplicates are allowed.
+ *
+ * Direct buffers of off-heap lists do not count against the heap, but the JVM caps all direct buffers together at
+ * -XX:MaxDirectMemorySize, which defaults to the maximum heap size (-Xmx). Off-heap lists that do not fit in the heap
+ * need that flag raised, otherwise adding values fails with OutOfMemoryError: Direct buffer memory.
+ *
+ * Boxed List / SortedList methods are provided for compatibility, primitive methods avoid boxing.
+ * Not thread safe, concurrent reads without modification are safe.
+ */
+public class IntSortedList extends AbstractList<Integer> implements SortedList<Integer>, RandomAccess {
+    public static final int DEFAULT_LEAF_CAPACITY = 512;
+
+    // Maximum number of children of inner nodes
+    private static final int NODE_CAPACITY = 64;
+
+    private static final long serialVersionUID = 1L;
+
+    private int leafCapacity;
+    private boolean offHeap;
+
+    private transient Node root;
+    private transient Leaf head, tail;
+
+    public IntSortedList() {
+        this(DEFAULT_LEAF_CAPACITY, false);
+    }
+
+    public IntSortedList(boolean offHeap) {
+        this(DEFAULT_LEAF_CAPACITY, offHeap);
+    }
+
+    /**
+     * Create an empty list
+     *
+     * @param leafCapacity maximum number of values per leaf
+     * @param offHeap store values in direct buffers outside the java heap, limited by -XX:MaxDirectMemorySize
+     */
+    public IntSortedList(int leafCapacity, boolean offHeap) {
+        if (leafCapacity < 4) {
+            throw new IllegalArgumentException("Leaf capacity must be at least 4");
+        }
+
+        this.leafCapacity = leafCapacity;
+        this.offHeap = offHeap;
+    }
+
+    public IntSortedList(int[] values) {
+        this();
+        addAll(values);
+    }
+
+    public IntSortedList(Collection<? extends Integer> c) {
+        this();
+        addAll(c);
+    }
+
+    public int getLeafCapacity() {
+        return leafCapacity;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    @Override
+    public int size() {
+        return (root == null)? 0 : root.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public void clear() {
+        root = head = tail = null;
+        modCount++;
+    }
+
+    /**
+     * Add a value into the list, after all values equal to it
+     *
+     * @param value value to be added
+     * @return true
+     */
+    public boolean add(int value) {
+        if (root == null) {
+            root = head = tail = new Leaf(this);
+        }
+
+        Node split = insert(root, value);
+
+        if (split != null) {
+            Inner inner = new Inner();
+
+            inner.children[0] = root;
+            inner.children[1] = split;
+            inner.separators[1] = split.first();
+            inner.count = 2;
+            inner.size = root.size + split.size;
+            root = inner;
+        }
+
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Add a value into the list with duplication control flag
+     *
+     * @param value value to be added
+     * @param allowDuplicate duplication control flag, if false, value already in the list is ignored
+     * @return true if added
+     */
+    public boolean add(int value, boolean allowDuplicate) {
+        return (allowDuplicate || !contains(value)) && add(value);
+    }
+
+    /**
+     * Add all values, sorting them once and rebuilding the tree when they are many compared to the list
+     *
+     * @param values values to be added
+     * @return true if any value is added
+     */
+    public boolean addAll(int[] values) {
+        return addAll(values, true);
+    }
+
+    /**
+     * Add all values with duplication control flag
+     *
+     * @param values values to be added
+     * @param allowDuplicate duplication control flag, false to ignore values already in the list or added before
+     * @return true if any value is added
+     */
+    public boolean addAll(int[] values, boolean allowDuplicate) {
+        int size = size();
+
+        if (values.length * 16L < size) {
+            boolean changed = false;
+
+            for (int value : values) {
+                changed |= add(value, allowDuplicate);
+            }
+
+            return changed;
+        }
+
+        int[] added = values.clone();
+        AdaptiveSort.sort(added);
+
+        int count = added.length;
+
+        if (!allowDuplicate) {
+            count = 0;
+
+            for (int i = 0; i < added.length; i++) {
+                if ((count == 0 || compare(added[count - 1], added[i]) != 0) && !contains(added[i])) {
+                    added[count++] = added[i];
+                }
+            }
+        }
+
+        if (count == 0) {
+            return false;
+        }
+
+        // Merge with current values, current values first among equal ones
+        int[] current = toIntArray(), merged = new int[size + count];
+
+        for (int i = 0, j = 0, k = 0; k < merged.length; k++) {
+            merged[k] = (j >= count || (i < size && compare(current[i], added[j]) <= 0))? current[i++] : added[j++];
+        }
+
+        build(merged, 0, merged.length);
+        modCount++;
+
+        return true;
+    }
+
+    public int getInt(int index) {
+        checkIndex(index, size());
+
+        Node node = root;
+
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = 0;
+
+            while (index >= inner.children[i].size) {
+                index -= inner.children[i++].size;
+            }
+
+            node = inner.children[i];
+        }
+
+        return ((Leaf) node).get(index);
+    }
+
+    /**
+     * Remove the value at index
+     *
+     * @param index index of the value
+     * @return removed value
+     */
+    public int removeInt(int index) {
+        checkIndex(index, size());
+
+        int value = removeAt(root, index);
+
+        if (root.size == 0) {
+            root = head = tail = null;
+        } else if (root instanceof Inner && ((Inner) root).count == 1) {
+            root = ((Inner) root).children[0];
+        }
+
+        modCount++;
+        return value;
+    }
+
+    /**
+     * Remove the first occurrence of the value
+     *
+     * @param value value to be removed
+     * @return true if removed
+     */
+    public boolean removeValue(int value) {
+        int index = indexOf(value);
+
+        if (index >= 0) {
+            removeInt(index);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Get the index of the first occurrence of the value
+     *
+     * @param value searching value
+     * @return index of the value, -1 if not found
+     */
+    public int indexOf(int value) {
+        if (root == null) {
+            return -1;
+        }
+
+        int index = 0;
+        Node node = root;
+
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = inner.childBefore(value);
+
+            index += inner.sizeBefore(i);
+            node = inner.children[i];
+        }
+
+        Leaf leaf = (Leaf) node;
+        int position = leaf.lowerBound(value);
+
+        if (position == leaf.count) {
+            leaf = leaf.next;
+            position = 0;
+        }
+
+        return (leaf != null && compare(leaf.get(position), value) == 0)? index + (leaf == node? position : ((Leaf) node).count) : -1;
+    }
+
+    /**
+     * Get the index of the last occurrence of the value
+     *
+     * @param value searching value
+     * @return index of the value, -1 if not found
+     */
+    public int lastIndexOf(int value) {
+        int index = upperBound(value) - 1;
+
+        return (index >= 0 && compare(getInt(index), value) == 0)? index : -1;
+    }
+
+    public int greaterIndexOf(int value) {
+        int index = upperBound(value);
+
+        return (index < size())? index : -1;
+    }
+
+    public int greaterOrEqualsIndexOf(int value) {
+        int index = lowerBound(value);
+
+        return (index < size())? index : -1;
+    }
+
+    public int smallerIndexOf(int value) {
+        return lowerBound(value) - 1;
+    }
+
+    public int smallerOrEqualsIndexOf(int value) {
+        return upperBound(value) - 1;
+    }
+
+    /**
+     * Index of the first value not less than the searching value
+     *
+     * @param value searching value
+     * @return index of the first value not less than the searching value, size of the list if none
+     */
+    public int lowerBound(int value) {
+        if (root == null) {
+            return 0;
+        }
+
+        int index = 0;
+        Node node = root;
+
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = inner.childBefore(value);
+
+            index += inner.sizeBefore(i);
+            node = inner.children[i];
+        }
+
+        return index + ((Leaf) node).lowerBound(value);
+    }
+
+    /**
+     * Index of the first value greater than the searching value
+     *
+     * @param value searching value
+     * @return index of the first value greater than the searching value, size of the list if none
+     */
+    public int upperBound(int value) {
+        if (root == null) {
+            return 0;
+        }
+
+        int index = 0;
+        Node node = root;
+
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = inner.childAfter(value);
+
+            index += inner.sizeBefore(i);
+            node = inner.children[i];
+        }
+
+        return index + ((Leaf) node).upperBound(value);
+    }
+
+    public int getMinInt() {
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        return head.get(0);
+    }
+
+    public int getMaxInt() {
+        if (tail == null) {
+            throw new NoSuchElementException();
+        }
+        return tail.get(tail.count - 1);
+    }
+
+    public int[] toIntArray() {
+        int[] values = new int[size()];
+        int offset = 0;
+
+        for (Leaf leaf = head; leaf != null; leaf = leaf.next) {
+            leaf.copyTo(values, offset);
+            offset += leaf.count;
+        }
+
+        return values;
+    }
+
+    /**
+     * Iterator of values without boxing, supports removal
+     *
+     * @return primitive iterator
+     */
+    public PrimitiveIterator.OfInt intIterator() {
+        return new ValueIterator(0);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public boolean add(Integer element) {
+        return add(element.intValue());
+    }
+
+    @Override
+    public void add(int index, Integer element) {
+        // Index is ignored as this is a sorted list
+        add(element.intValue());
+    }
+
+    @Override
+    public boolean add(Integer element, boolean allowDuplicate) {
+        return add(element.intValue(), allowDuplicate);
+    }
+
+    @Override
+    public void add(int index, Integer element, boolean allowDuplicate) {
+        add(element.intValue(), allowDuplicate);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Integer> elements) {
+        return addAll(elements, true);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Integer> elements) {
+        return addAll(elements, true);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Integer> elements, boolean allowDuplicate) {
+        int[] values = new int[elements.size()];
+        int i = 0;
+
+        for (Integer element : elements) {
+            values[i++] = element;
+        }
+
+        return addAll(values, allowDuplicate);
+    }
+
+    @Override
+    public Integer set(int index, Integer element) {
+        int old = removeInt(index);
+        add(element.intValue());
+        return old;
+    }
+
+    @Override
+    public Integer remove(int index) {
+        return removeInt(index);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return (o instanceof Integer) && removeValue((Integer) o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return (o instanceof Integer) && contains(((Integer) o).intValue());
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return (o instanceof Integer)? indexOf(((Integer) o).intValue()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return (o instanceof Integer)? lastIndexOf(((Integer) o).intValue()) : -1;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new ValueIterator(0);
+    }
+
+    @Override
+    public ListIterator<Integer> listIterator(int index) {
+        checkIndex(index, size() + 1);
+        return new ValueIterator(index);
+    }
+
+    @Override
+    public Integer getMin() {
+        return (head == null)? null : head.get(0);
+    }
+
+    @Override
+    public Integer getMax() {
+        return (tail == null)? null : tail.get(tail.count - 1);
+    }
+
+    @Override
+    public int greaterIndexOf(Integer value) {
+        return greaterIndexOf(value.intValue());
+    }
+
+    @Override
+    public int greaterOrEqualsIndexOf(Integer value) {
+        return greaterOrEqualsIndexOf(value.intValue());
+    }
+
+    @Override
+    public int smallerIndexOf(Integer value) {
+        return smallerIndexOf(value.intValue());
+    }
+
+    @Override
+    public int smallerOrEqualsIndexOf(Integer value) {
+        return smallerOrEqualsIndexOf(value.intValue());
+    }
+
+    @Override
+    public void resort() {
+        // Always sorted
+    }
+
+    @Override
+    public IntSortedList getSubList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex);
+        }
+
+        IntSortedList list = new IntSortedList(leafCapacity, offHeap);
+
+        if (fromIndex < toIndex) {
+            list.build(toIntArray(), fromIndex, toIndex);
+        }
+
+        return list;
+    }
+
+    @Override
+    public IntSortedList clone() {
+        return getSubList(0, size());
+    }
+
+    private static int compare(int v1, int v2) {
+        return Integer.compare(v1, v2);
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Replace the tree by one holding the sorted values, leaves and inner nodes are filled evenly
+     */
+    private void build(int[] values, int from, int to) {
+        int n = to - from, leaves = (n + leafCapacity - 1) / leafCapacity;
+        List<Node> level = new ArrayList<>(leaves);
+
+        head = tail = null;
+
+        for (int i = 0, offset = from; i < leaves; i++) {
+            int count = n / leaves + ((i < n % leaves)? 1 : 0);
+            Leaf leaf = new Leaf(this);
+
+            leaf.copyFrom(values, offset, count);
+            offset += count;
+
+            if (tail == null) {
+                head = leaf;
+            } else {
+                tail.next = leaf;
+                leaf.prev = tail;
+            }
+
+            tail = leaf;
+            level.add(leaf);
+        }
+
+        while (level.size() > 1) {
+            int nodes = (level.size() + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            List<Node> parents = new ArrayList<>(nodes);
+
+            for (int i = 0, offset = 0; i < nodes; i++) {
+                int count = level.size() / nodes + ((i < level.size() % nodes)? 1 : 0);
+                Inner inner = new Inner();
+
+                for (int c = 0; c < count; c++) {
+                    Node child = level.get(offset + c);
+
+                    inner.add(c, child);
+                    inner.size += child.size;
+                }
+
+                offset += count;
+                parents.add(inner);
+            }
+
+            level = parents;
+        }
+
+        root = level.isEmpty()? null : level.get(0);
+    }
+
+    /**
+     * Insert value into subtree
+     *
+     * @return new right sibling if the node is split, null otherwise
+     */
+    private Node insert(Node node, int value) {
+        node.size++;
+
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int position = leaf.upperBound(value);
+
+            if (leaf.count < leafCapacity) {
+                leaf.insert(position, value);
+                return null;
+            }
+
+            Leaf right = new Leaf(this);
+
+            right.prev = leaf;
+            right.next = leaf.next;
+
+            if (leaf.next != null) {
+                leaf.next.prev = right;
+            } else {
+                tail = right;
+            }
+
+            leaf.next = right;
+
+            if (position == leaf.count && right.next == null) {
+                // Appending to the last leaf, keep it full for ascending insertion
+                right.insert(0, value);
+            } else {
+                leaf.moveTo(right, leafCapacity / 2);
+
+                if (position <= leaf.count) {
+                    leaf.insert(position, value);
+                } else {
+                    right.insert(position - leaf.count, value);
+                }
+            }
+
+            leaf.size = leaf.count;
+            right.size = right.count;
+
+            return right;
+        }
+
+        Inner inner = (Inner) node;
+        int i = inner.childAfter(value);
+        Node split = insert(inner.children[i], value);
+
+        if (split == null) {
+            return null;
+        }
+
+        inner.add(i + 1, split);
+
+        return (inner.count > NODE_CAPACITY)? inner.split() : null;
+    }
+
+    /**
+     * Remove value at index of subtree, empty children are dropped and small ones merged with a sibling
+     */
+    private int removeAt(Node node, int index) {
+        node.size--;
+
+        if (node instanceof Leaf) {
+            return ((Leaf) node).remove(index);
+        }
+
+        Inner inner = (Inner) node;
+        int i = 0;
+
+        while (index >= inner.children[i].size) {
+            index -= inner.children[i++].size;
+        }
+
+        Node child = inner.children[i];
+        int value = removeAt(child, index);
+
+        if (child.size == 0) {
+            if (child instanceof Leaf) {
+                unlink((Leaf) child);
+            }
+            inner.remove(i);
+        } else if (inner.count > 1 && child.isSmall(leafCapacity)) {
+            int left = (i > 0)? i - 1 : i;
+
+            if (inner.children[left].fits(inner.children[left + 1], leafCapacity)) {
+                merge(inner, left);
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Merge child at index + 1 of inner node into child at index
+     */
+    private void merge(Inner inner, int index) {
+        Node left = inner.children[index], right = inner.children[index + 1];
+
+        if (left instanceof Leaf) {
+            ((Leaf) right).moveTo((Leaf) left, 0);
+            unlink((Leaf) right);
+        } else {
+            Inner l = (Inner) left, r = (Inner) right;
+
+            // Separator of right node's first child comes from the parent
+            r.separators[0] = inner.separators[index + 1];
+
+            for (int c = 0; c < r.count; c++) {
+                l.children[l.count] = r.children[c];
+                l.separators[l.count++] = r.separators[c];
+            }
+        }
+
+        left.size += right.size;
+        inner.remove(index + 1);
+    }
+
+    private void unlink(Leaf leaf) {
+        if (leaf.prev != null) {
+            leaf.prev.next = leaf.next;
+        } else {
+            head = leaf.next;
+        }
+
+        if (leaf.next != null) {
+            leaf.next.prev = leaf.prev;
+        } else {
+            tail = leaf.prev;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+
+        for (Leaf leaf = head; leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.count; i++) {
+                out.writeInt(leaf.get(i));
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        int[] values = new int[in.readInt()];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+
+        build(values, 0, values.length);
+    }
+
+    private static abstract class Node {
+        // Number of values in subtree
+        int size;
+
+        abstract int first();
+
+        abstract boolean isSmall(int leafCapacity);
+
+        abstract boolean fits(Node sibling, int leafCapacity);
+    }
+
+    private static final class Leaf extends Node {
+        private final int[] array;
+        private final IntBuffer buffer;
+
+        // Number of values in this leaf, same as size
+        int count;
+
+        Leaf prev, next;
+
+        Leaf(IntSortedList list) {
+            if (list.offHeap) {
+                array = null;
+                buffer = ByteBuffer.allocateDirect(list.leafCapacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+            } else {
+                array = new int[list.leafCapacity];
+                buffer = null;
+            }
+        }
+
+        int get(int i) {
+            return (array != null)? array[i] : buffer.get(i);
+        }
+
+        void set(int i, int value) {
+            if (array != null) {
+                array[i] = value;
+            } else {
+                buffer.put(i, value);
+            }
+        }
+
+        @Override
+        int first() {
+            return get(0);
+        }
+
+        @Override
+        boolean isSmall(int leafCapacity) {
+            return count < leafCapacity / 4;
+        }
+
+        @Override
+        boolean fits(Node sibling, int leafCapacity) {
+            return count + ((Leaf) sibling).count <= leafCapacity / 2;
+        }
+
+        int lowerBound(int value) {
+            int low = 0, high = count;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (compare(get(mid), value) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        int upperBound(int value) {
+            int low = 0, high = count;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (compare(get(mid), value) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        void insert(int position, int value) {
+            if (array != null) {
+                System.arraycopy(array, position, array, position + 1, count - position);
+            } else {
+                for (int i = count; i > position; i--) {
+                    buffer.put(i, buffer.get(i - 1));
+                }
+            }
+
+            set(position, value);
+            count++;
+        }
+
+        int remove(int position) {
+            int value = get(position);
+
+            if (array != null) {
+                System.arraycopy(array, position + 1, array, position, count - position - 1);
+            } else {
+                for (int i = position + 1; i < count; i++) {
+                    buffer.put(i - 1, buffer.get(i));
+                }
+            }
+
+            count--;
+            return value;
+        }
+
+        /**
+         * Move values from position to the end of target leaf
+         */
+        void moveTo(Leaf target, int from) {
+            for (int i = from; i < count; i++) {
+                target.set(target.count++, get(i));
+            }
+
+            count = from;
+        }
+
+        void copyTo(int[] values, int offset) {
+            if (array != null) {
+                System.arraycopy(array, 0, values, offset, count);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    values[offset + i] = buffer.get(i);
+                }
+            }
+        }
+
+        void copyFrom(int[] values, int offset, int length) {
+            if (array != null) {
+                System.arraycopy(values, offset, array, 0, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    buffer.put(i, values[offset + i]);
+                }
+            }
+
+            count = size = length;
+        }
+    }
+
+    private static final class Inner extends Node {
+        // One extra slot to insert before splitting
+        final Node[] children = new Node[NODE_CAPACITY + 1];
+
+        // Values in children before i are not greater than separators[i], values in children from i are not less
+        final int[] separators = new int[NODE_CAPACITY + 1];
+
+        int count;
+
+        @Override
+        int first() {
+            return children[0].first();
+        }
+
+        @Override
+        boolean isSmall(int leafCapacity) {
+            return count < NODE_CAPACITY / 4;
+        }
+
+        @Override
+        boolean fits(Node sibling, int leafCapacity) {
+            return count + ((Inner) sibling).count <= NODE_CAPACITY / 2;
+        }
+
+        /**
+         * Last child whose separator is less than value, the child holding the first value not less than it
+         */
+        int childBefore(int value) {
+            int low = 1, high = count;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (compare(separators[mid], value) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low - 1;
+        }
+
+        /**
+         * Last child whose separator is not greater than value, the child holding the first value greater than it
+         */
+        int childAfter(int value) {
+            int low = 1, high = count;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (compare(separators[mid], value) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low - 1;
+        }
+
+        int sizeBefore(int child) {
+            int size = 0;
+
+            for (int i = 0; i < child; i++) {
+                size += children[i].size;
+            }
+
+            return size;
+        }
+
+        void add(int i, Node child) {
+            System.arraycopy(children, i, children, i + 1, count - i);
+            System.arraycopy(separators, i, separators, i + 1, count - i);
+
+            children[i] = child;
+            separators[i] = (i > 0)? child.first() : 0;
+            count++;
+
+            if (i == 0 && count > 1) {
+                separators[1] = children[1].first();
+            }
+        }
+
+        void remove(int i) {
+            System.arraycopy(children, i + 1, children, i, count - i - 1);
+            System.arraycopy(separators, i + 1, separators, i, count - i - 1);
+
+            children[--count] = null;
+        }
+
+        Inner split() {
+            Inner right = new Inner();
+            int half = count / 2;
+
+            for (int c = half; c < count; c++) {
+                right.children[c - half] = children[c];
+                right.separators[c - half] = separators[c];
+                right.size += children[c].size;
+                children[c] = null;
+            }
+
+            right.count = count - half;
+            count = half;
+            size -= right.size;
+
+            return right;
+        }
+    }
+
+    private class ValueIterator implements ListIterator<Integer>, PrimitiveIterator.OfInt {
+        private int index, lastIndex = -1;
+        private int expectedModCount = modCount;
+
+        // Leaf & position of index, relocated after modification
+        private Leaf leaf;
+        private int position;
+
+        ValueIterator(int index) {
+            this.index = index;
+            locate();
+        }
+
+        /**
+         * Descend from the root to the leaf of index, the end of the last leaf for size
+         */
+        private void locate() {
+            Node node = root;
+            position = index;
+
+            while (node instanceof Inner) {
+                Inner inner = (Inner) node;
+                int i = 0;
+
+                while (i < inner.count - 1 && position >= inner.children[i].size) {
+                    position -= inner.children[i++].size;
+                }
+
+                node = inner.children[i];
+            }
+
+            leaf = (Leaf) node;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size();
+        }
+
+        @Override
+        public int nextInt() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (position >= leaf.count) {
+                leaf = leaf.next;
+                position = 0;
+            }
+
+            lastIndex = index++;
+            return leaf.get(position++);
+        }
+
+        @Override
+        public Integer next() {
+            return nextInt();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return index > 0;
+        }
+
+        @Override
+        public Integer previous() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+
+            while (position == 0) {
+                leaf = leaf.prev;
+                position = leaf.count;
+            }
+
+            lastIndex = --index;
+            return leaf.get(--position);
+        }
+
+        @Override
+        public int nextIndex() {
+            return index;
+        }
+
+        @Override
+        public int previousIndex() {
+            return index - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            removeInt(lastIndex);
+
+            index = lastIndex;
+            lastIndex = -1;
+            expectedModCount = modCount;
+            locate();
+        }
+
+        @Override
+        public void set(Integer element) {
+            throw new UnsupportedOperationException("Values of sorted list cannot be replaced in place");
+        }
+
+        @Override
+        public void add(Integer element) {
+            throw new UnsupportedOperationException("Values of sorted list cannot be inserted at position");
+        }
+    }
+}
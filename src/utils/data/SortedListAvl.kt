@@ -1,5 +1,6 @@
 package utils.data
 
+import utils.data.sort.TimSort
 import java.util.*
 
 /**
@@ -28,6 +29,13 @@ import java.util.*
  * @param <E> Generic data type
  */
 class SortedListAvl<E>: SortedList<E> {
+    companion object {
+        /**
+         * Collections added in bulk when their size multiplied by this ratio is not less than the list size
+         */
+        private const val BULK_ADD_RATIO = 8
+    }
+
     /**
      * Root node
      */
@@ -509,25 +517,99 @@ class SortedListAvl<E>: SortedList<E> {
     }
 
     /**
-     * Add the provided data collection
+     * Add the provided data collection<br>
+     * Collection large enough compared to this list is sorted and merged with the existing elements,
+     * then a balanced tree is built in O(n + m), instead of adding elements one by one with rotations
      *
      * @param c data collection
      *
      * @return true as successful, false as unsuccessful
      */
     override fun addAll(elements: Collection<E>): Boolean {
-        var modified = false
-        elements.forEach {
-            if (privateAdd(it)) {
-                modified = true
+        if (elements.isEmpty()) {
+            return false
+        }
+
+        if (elements.size.toLong() * BULK_ADD_RATIO >= size) {
+            bulkAdd(elements)
+        } else {
+            elements.forEach {
+                privateAdd(it)
             }
         }
 
-        if (modified) {
-            modCount++
+        modCount++
+        return true
+    }
+
+    /**
+     * Merge the sorted data collection with existing elements and rebuild a balanced tree
+     *
+     * @param elements data collection
+     */
+    private fun bulkAdd(elements: Collection<E>) {
+        val added = elements.toTypedArray<Any?>()
+        val merged = arrayOfNulls<Any?>(size + added.size)
+
+        // Later added element goes before equal ones as in privateAdd, so reverse before the stable sort,
+        // a sorted collection, e.g. another sorted list, becomes a single descending run
+        for (i in 0 .. added.size / 2 - 1) {
+            val tmp = added[i]
+            added[i] = added[added.size - i - 1]
+            added[added.size - i - 1] = tmp
         }
 
-        return modified
+        TimSort.sort(added, comparator as Comparator<Any?>)
+
+        var node = if (root != null) findMinNode(root!!) else null
+        var a = 0
+        var m = 0
+
+        while (node != null) {
+            // Added element goes before existing equal elements, same as privateAdd
+            while (a < added.size && comparator.compare(added[a] as E, node.element) <= 0) {
+                merged[m++] = added[a++]
+            }
+
+            merged[m++] = node.element
+            node = node.getNextNode()
+        }
+
+        while (a < added.size) {
+            merged[m++] = added[a++]
+        }
+
+        root = buildTree(merged, 0, merged.size, null)
+        size = merged.size
+    }
+
+    /**
+     * Build a perfectly balanced tree of the sorted elements
+     *
+     * @param sorted sorted elements
+     * @param fromIndex starting index of the elements, inclusive
+     * @param toIndex ending index of the elements, exclusive
+     * @param parent parent of the built tree
+     *
+     * @return root of the built tree, null if no element
+     */
+    private fun buildTree(sorted: Array<Any?>, fromIndex: Int, toIndex: Int, parent: BinaryTreeNode<E>?): BinaryTreeNode<E>? {
+        if (fromIndex >= toIndex) {
+            return null
+        }
+
+        val mid = (fromIndex + toIndex) ushr 1
+        val node = BinaryTreeNode<E>(sorted[mid] as E, parent, null, null)
+
+        node.left = buildTree(sorted, fromIndex, mid, node)
+        node.right = buildTree(sorted, mid + 1, toIndex, node)
+
+        node.leftNodeCount = mid - fromIndex
+        node.rightNodeCount = toIndex - mid - 1
+        node.leftDepth = if (node.left != null) node.left!!.getDepth() + 1 else 0
+        node.rightDepth = if (node.right != null) node.right!!.getDepth() + 1 else 0
+
+        return node
     }
 
     /**
@@ -863,6 +945,134 @@ class SortedListAvl<E>: SortedList<E> {
         }
     }
 
+    /**
+     * Find the last element index which value is smaller (or equals) to the searching value (in other type), with reference node
+     *
+     * @param o searching value
+     * @param node reference node
+     * @param index reference node's index
+     * @param crossComparator cross comparator of searching value type to list element type
+     * @param includeEquals include equals results
+     * @param possibleIndex possible result index, default -1
+     *
+     * @return last element index with smaller value of the searching value
+     */
+    private fun <O> smallerOrEqualsIndexOf(o: O, node: BinaryTreeNode<E>, index: Int, crossComparator: CrossComparator<O, E>, includeEquals: Boolean, possibleIndex: Int = -1): Int {
+        val compareResult = crossComparator.compare(o, node.element)
+
+        val comp = if (includeEquals) compareResult >= 0 else compareResult > 0
+
+        if (comp) {
+            if (node.hasRight()) {
+                return smallerOrEqualsIndexOf(o, node.right!!, index + node.right!!.leftNodeCount + 1, crossComparator, includeEquals, index)
+            } else {
+                return index
+            }
+        } else {
+            if (node.hasLeft()) {
+                return smallerOrEqualsIndexOf(o, node.left!!, index - node.left!!.rightNodeCount - 1, crossComparator, includeEquals, possibleIndex)
+            } else {
+                return possibleIndex
+            }
+        }
+    }
+
+    /**
+     * Find the last element index which value is smaller than the searching value (in other type)
+     *
+     * @param o searching value
+     * @param crossComparator cross comparator of searching value type to list element type
+     *
+     * @return last element index with smaller value of the searching value
+     */
+    fun <O> smallerIndexOf(o: O, crossComparator: CrossComparator<O, E>): Int {
+        if (root == null) {
+            return -1
+        } else {
+            return smallerOrEqualsIndexOf(o, root!!, root!!.leftNodeCount, crossComparator, false)
+        }
+    }
+
+    /**
+     * Find the last element index which value is smaller or equals to the searching value (in other type)
+     *
+     * @param o searching value
+     * @param crossComparator cross comparator of searching value type to list element type
+     *
+     * @return last element index with smaller or equals value of the searching value
+     */
+    fun <O> smallerOrEqualsIndexOf(o: O, crossComparator: CrossComparator<O, E>): Int {
+        if (root == null) {
+            return -1
+        } else {
+            return smallerOrEqualsIndexOf(o, root!!, root!!.leftNodeCount, crossComparator, true)
+        }
+    }
+
+    /**
+     * Find the first element index which value is greater (or equals) to the searching value (in other type), with reference node
+     *
+     * @param o searching value
+     * @param node reference node
+     * @param index reference node's index
+     * @param crossComparator cross comparator of searching value type to list element type
+     * @param includeEquals include equals results
+     * @param possibleIndex possible result index, default -1
+     *
+     * @return first element index with greater value of the searching value
+     */
+    private fun <O> greaterOrEqualsIndexOf(o: O, node: BinaryTreeNode<E>, index: Int, crossComparator: CrossComparator<O, E>, includeEquals: Boolean, possibleIndex: Int = -1): Int {
+        val compareResult = crossComparator.compare(o, node.element)
+
+        val comp = if (includeEquals) compareResult <= 0 else compareResult < 0
+
+        if (comp) {
+            if (node.hasLeft()) {
+                return greaterOrEqualsIndexOf(o, node.left!!, index - node.left!!.rightNodeCount - 1, crossComparator, includeEquals, index)
+            } else {
+                return index
+            }
+        } else {
+            if (node.hasRight()) {
+                return greaterOrEqualsIndexOf(o, node.right!!, index + node.right!!.leftNodeCount + 1, crossComparator, includeEquals, possibleIndex)
+            } else {
+                return possibleIndex
+            }
+        }
+    }
+
+    /**
+     * Find the first element index which value is greater than the searching value (in other type)
+     *
+     * @param o searching value
+     * @param crossComparator cross comparator of searching value type to list element type
+     *
+     * @return first element index with greater value of the searching value
+     */
+    fun <O> greaterIndexOf(o: O, crossComparator: CrossComparator<O, E>): Int {
+        if (root == null) {
+            return -1
+        } else {
+            return greaterOrEqualsIndexOf(o, root!!, root!!.leftNodeCount, crossComparator, false)
+        }
+    }
+
+    /**
+     * Find the first element index which value is greater or equals to the searching value (in other type)
+     *
+     * @param o searching value
+     * @param crossComparator cross comparator of searching value type to list element type
+     *
+     * @return first element index with greater or equals value of the searching value
+     */
+    fun <O> greaterOrEqualsIndexOf(o: O, crossComparator: CrossComparator<O, E>): Int {
+        if (root == null) {
+            return -1
+        } else {
+            return greaterOrEqualsIndexOf(o, root!!, root!!.leftNodeCount, crossComparator, true)
+        }
+    }
+
     /**
      * Search for first found index from binary search, no guarantee of first or last index
      *
@@ -0,0 +1,1305 @@
+package utils.data
+
+import utils.data.sort.TimSort
+import java.io.IOException
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.util.*
+
+/**
+ * Sorted list implemented as B+-tree, elements are stored in array leaves linked to each other, inner nodes keep the
+ * size of every subtree for index access.
+ *
+ * Compare to SortedListAvl, searching compares elements within a small contiguous array per level instead of following
+ * a node per comparison, and iteration walks through leaf arrays. Insertion & removal only shift elements within a leaf,
+ * so it does not degrade with data size like SortedListArray.
+ *
+ * Relative performance depends on data size & distribution, measure it with the JMH SortedListBenchmark under benchmark/,
+ * e.g. gradle jmh -PjmhInclude=SortedListBenchmark
+ *
+ * @param <E> Data generic type
+ */
+class SortedListBTree<E>: SortedList<E> {
+    companion object {
+        /**
+         * Default maximum number of elements per leaf & children per inner node
+         */
+        const val DEFAULT_NODE_CAPACITY = 64
+
+        private const val serialVersionUID = 1L
+    }
+
+    /**
+     * Comparator used for sorting
+     */
+    private var comparator: Comparator<E>
+
+    /**
+     * Maximum number of elements per leaf & children per inner node
+     */
+    private val nodeCapacity: Int
+
+    @Transient
+    private var root: Node? = null
+
+    /**
+     * First & last leaf for iteration
+     */
+    @Transient
+    private var head: Leaf? = null
+    @Transient
+    private var tail: Leaf? = null
+
+    /**
+     * Modification count for concurrent modification check
+     */
+    @Transient
+    private var modCount: Int = 0
+
+    /**
+     * List size
+     */
+    override val size: Int
+        get() = root?.size ?: 0
+
+    /**
+     * Construct an Sorted B+-tree list, default: ascending order, null as smaller value
+     */
+    constructor(): this(true)
+
+    /**
+     * Construct an Sorted B+-tree list, providing sort order, default null as smaller value
+     *
+     * @param asc in ascending order (true) or descending order (false)
+     */
+    constructor(asc: Boolean): this(asc, true)
+
+    /**
+     * Construct an Sorted B+-tree list, provided sort order and null order
+     *
+     * @param asc in ascending order (true) or descending order (false)
+     * @param nullAsSmaller null as smaller to any non null value, true for smaller, false for greater
+     */
+    constructor(asc: Boolean, nullAsSmaller: Boolean): this(asc, nullAsSmaller, DEFAULT_NODE_CAPACITY)
+
+    /**
+     * Construct an Sorted B+-tree list, provided sort order, null order and node capacity
+     *
+     * @param asc in ascending order (true) or descending order (false)
+     * @param nullAsSmaller null as smaller to any non null value, true for smaller, false for greater
+     * @param nodeCapacity maximum number of elements per leaf & children per inner node
+     */
+    constructor(asc: Boolean, nullAsSmaller: Boolean, nodeCapacity: Int) {
+        checkNodeCapacity(nodeCapacity)
+        comparator = DataComparator.buildComparator(asc, nullAsSmaller)
+        this.nodeCapacity = nodeCapacity
+    }
+
+    /**
+     * Construct an Sorted B+-tree list, providing comparator used for sorting, default: null as smaller value
+     *
+     * @param comparator comparator used for sorting
+     */
+    constructor(comparator: Comparator<E>): this(comparator, true)
+
+    /**
+     * Construct an Sorted B+-tree list, providing comparator used for sorting and null order
+     *
+     * @param comparator comparator used for sorting
+     * @param nullAsSmaller null as smaller to any non null value, true for smaller, false for greater
+     */
+    constructor(comparator: Comparator<E>, nullAsSmaller: Boolean): this(comparator, nullAsSmaller, DEFAULT_NODE_CAPACITY)
+
+    /**
+     * Construct an Sorted B+-tree list, providing comparator used for sorting, null order and node capacity
+     *
+     * @param comparator comparator used for sorting
+     * @param nullAsSmaller null as smaller to any non null value, true for smaller, false for greater
+     * @param nodeCapacity maximum number of elements per leaf & children per inner node
+     */
+    constructor(comparator: Comparator<E>, nullAsSmaller: Boolean, nodeCapacity: Int) {
+        checkNodeCapacity(nodeCapacity)
+        this.comparator = DataComparator.buildComparator(comparator, nullAsSmaller)
+        this.nodeCapacity = nodeCapacity
+    }
+
+    /**
+     * Construct an Sorted B+-tree list with existing data collection, default ascending order, null as smaller value<br>
+     * Data will be sorted after construction
+     *
+     * @param c existing data collection
+     */
+    constructor(c: Collection<E>): this() {
+        addAll(c)
+    }
+
+    /**
+     * Construct an Sorted B+-tree list with existing data collection, proving sort order, default: null as smaller value<br>
+     * Data will be sorted after construction
+     *
+     * @param c existing data collection
+     * @param asc in ascending order (true) or descending order (false)
+     */
+    constructor(c: Collection<E>, asc: Boolean): this(asc) {
+        addAll(c)
+    }
+
+    /**
+     * Construct an Sorted B+-tree list with existing data collection, proving sort order & null order<br>
+     * Data will be sorted after construction
+     *
+     * @param c existing data collection
+     * @param asc in ascending order (true) or descending order (false)
+     * @param nullAsSmaller null as smaller to any non null value, true for smaller, false for greater
+     */
+    constructor(c: Collection<E>, asc: Boolean, nullAsSmaller: Boolean): this(asc, nullAsSmaller) {
+        addAll(c)
+    }
+
+    /**
+     * Construct an Sorted B+-tree list with existing data collection, proving comparator used for sorted<br>
+     * Default: null as smaller value<br>
+     * Data will be sorted after construction
+     *
+     * @param c existing data collection
+     * @param comparator comparator used for sorting
+     */
+    constructor(c: Collection<E>, comparator: Comparator<E>): this(c, comparator, true)
+
+    /**
+     * Construct an Sorted B+-tree list with existing data collection, proving comparator used for sorted & null order<br>
+     * Data will be sorted after construction
+     *
+     * @param c existing data collection
+     * @param comparator comparator used for sorting
+     * @param nullAsSmaller null as smaller to any non null value, true for smaller, false for greater
+     */
+    constructor(c: Collection<E>, comparator: Comparator<E>, nullAsSmaller: Boolean): this(comparator, nullAsSmaller) {
+        addAll(c)
+    }
+
+    /**
+     * Construct with sorted elements, comparator is used as is
+     *
+     * @param comparator comparator used for sorting
+     * @param nodeCapacity maximum number of elements per leaf & children per inner node
+     * @param sorted sorted elements
+     * @param fromIndex starting index of the elements, inclusive
+     * @param toIndex ending index of the elements, exclusive
+     */
+    private constructor(comparator: Comparator<E>, nodeCapacity: Int, sorted: Array<Any?>, fromIndex: Int, toIndex: Int) {
+        this.comparator = comparator
+        this.nodeCapacity = nodeCapacity
+        build(sorted, fromIndex, toIndex)
+    }
+
+    private fun checkNodeCapacity(nodeCapacity: Int) {
+        if (nodeCapacity < 4) {
+            throw IllegalArgumentException("Node capacity must be at least 4: $nodeCapacity")
+        }
+    }
+
+    private fun compare(e1: Any?, e2: Any?): Int {
+        return comparator.compare(e1 as E, e2 as E)
+    }
+
+    override fun add(element: E): Boolean {
+        if (root == null) {
+            val leaf = Leaf(nodeCapacity)
+            root = leaf
+            head = leaf
+            tail = leaf
+        }
+
+        val split = insert(root!!, element)
+
+        if (split != null) {
+            val inner = Inner(nodeCapacity)
+
+            inner.children[0] = root
+            inner.children[1] = split
+            inner.separators[1] = split.first()
+            inner.count = 2
+            inner.size = root!!.size + split.size
+            root = inner
+        }
+
+        modCount++
+        return true
+    }
+
+    override fun add(index: Int, element: E) {
+        add(element)
+    }
+
+    override fun add(element: E, allowDuplicate: Boolean): Boolean {
+        return if (allowDuplicate || !contains(element)) {
+            add(element)
+        } else {
+            false
+        }
+    }
+
+    override fun add(index: Int, element: E, allowDuplicate: Boolean) {
+        add(element, allowDuplicate)
+    }
+
+    /**
+     * Add all elements, small collections are added one by one,
+     * large ones are sorted and merged with existing elements, then the tree is rebuilt
+     *
+     * @param elements elements to be added
+     *
+     * @return true if any element is added
+     */
+    override fun addAll(elements: Collection<E>): Boolean {
+        if (elements.isEmpty()) {
+            return false
+        } else if (elements.size * 16L < size) {
+            for (e in elements) {
+                add(e)
+            }
+            return true
+        }
+
+        val added = elements.toTypedArray<Any?>()
+        TimSort.sort(added, comparator as Comparator<Any?>)
+
+        // Merge with existing elements, existing elements first among equal ones
+        val current = toElementArray()
+        val merged = arrayOfNulls<Any?>(current.size + added.size)
+        var i = 0
+        var j = 0
+
+        for (k in merged.indices) {
+            merged[k] = if (j >= added.size || (i < current.size && compare(current[i], added[j]) <= 0)) {
+                current[i++]
+            } else {
+                added[j++]
+            }
+        }
+
+        build(merged, 0, merged.size)
+        modCount++
+
+        return true
+    }
+
+    override fun addAll(elements: Collection<E>, allowDuplicate: Boolean): Boolean {
+        if (allowDuplicate) {
+            return addAll(elements)
+        }
+
+        var modified = false
+        for (e in elements) {
+            if (add(e, false)) {
+                modified = true
+            }
+        }
+        return modified
+    }
+
+    override fun addAll(index: Int, elements: Collection<E>): Boolean {
+        return addAll(elements)
+    }
+
+    override fun clear() {
+        root = null
+        head = null
+        tail = null
+        modCount++
+    }
+
+    override fun contains(element: E): Boolean {
+        try {
+            return indexOf(element) != -1
+        } catch (cce: ClassCastException) {
+            return false
+        }
+    }
+
+    override fun containsAll(elements: Collection<E>): Boolean {
+        for (e in elements) {
+            if (!contains(e)) {
+                return false
+            }
+        }
+        return true
+    }
+
+    override fun get(index: Int): E {
+        checkIndex(index)
+
+        var node = root!!
+        var i = index
+
+        while (node is Inner) {
+            var c = 0
+
+            while (i >= node.children[c]!!.size) {
+                i -= node.children[c++]!!.size
+            }
+
+            node = node.children[c]!!
+        }
+
+        return (node as Leaf).elements[i] as E
+    }
+
+    override fun indexOf(element: E): Int {
+        var node = root ?: return -1
+        var index = 0
+
+        while (node is Inner) {
+            val c = node.childBefore(element, comparator as Comparator<Any?>)
+
+            index += node.sizeBefore(c)
+            node = node.children[c]!!
+        }
+
+        // First element not smaller than the searching one, may be the first of next leaf
+        var leaf = node as Leaf
+        var position = leaf.lowerBound(element, comparator as Comparator<Any?>)
+
+        index += position
+
+        if (position == leaf.size) {
+            leaf = leaf.next ?: return -1
+            position = 0
+        }
+
+        return if (compare(leaf.elements[position], element) == 0) {
+            index
+        } else {
+            -1
+        }
+    }
+
+    override fun lastIndexOf(element: E): Int {
+        val index = upperBound(element) - 1
+
+        return if (index >= 0 && compare(get(index), element) == 0) {
+            index
+        } else {
+            -1
+        }
+    }
+
+    override fun greaterIndexOf(value: E): Int {
+        val index = upperBound(value)
+        return if (index < size) index else -1
+    }
+
+    override fun greaterOrEqualsIndexOf(value: E): Int {
+        val index = lowerBound(value)
+        return if (index < size) index else -1
+    }
+
+    override fun smallerIndexOf(value: E): Int {
+        return lowerBound(value) - 1
+    }
+
+    override fun smallerOrEqualsIndexOf(value: E): Int {
+        return upperBound(value) - 1
+    }
+
+    /**
+     * Find the index of the first element not smaller than the searching value
+     *
+     * @param value searching value
+     *
+     * @return index of the first element not smaller than the searching value, size of the list if none
+     */
+    fun lowerBound(value: E): Int {
+        var node = root ?: return 0
+        var index = 0
+
+        while (node is Inner) {
+            val c = node.childBefore(value, comparator as Comparator<Any?>)
+
+            index += node.sizeBefore(c)
+            node = node.children[c]!!
+        }
+
+        return index + (node as Leaf).lowerBound(value, comparator as Comparator<Any?>)
+    }
+
+    /**
+     * Find the index of the first element greater than the searching value
+     *
+     * @param value searching value
+     *
+     * @return index of the first element greater than the searching value, size of the list if none
+     */
+    fun upperBound(value: E): Int {
+        var node = root ?: return 0
+        var index = 0
+
+        while (node is Inner) {
+            val c = node.childAfter(value, comparator as Comparator<Any?>)
+
+            index += node.sizeBefore(c)
+            node = node.children[c]!!
+        }
+
+        return index + (node as Leaf).upperBound(value, comparator as Comparator<Any?>)
+    }
+
+    override fun isEmpty(): Boolean {
+        return root == null
+    }
+
+    override fun iterator(): MutableIterator<E> {
+        return SortedListIterator(0, 0, -1)
+    }
+
+    override fun listIterator(): MutableListIterator<E> {
+        return SortedListIterator(0, 0, -1)
+    }
+
+    override fun listIterator(index: Int): MutableListIterator<E> {
+        if (index < 0 || index > size) {
+            throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        }
+        return SortedListIterator(index, 0, -1)
+    }
+
+    override fun remove(element: E): Boolean {
+        val index = try {
+            indexOf(element)
+        } catch (cce: ClassCastException) {
+            -1
+        }
+
+        if (index == -1) {
+            return false
+        } else {
+            removeAt(index)
+            return true
+        }
+    }
+
+    override fun removeAt(index: Int): E {
+        checkIndex(index)
+
+        val element = removeAt(root!!, index)
+
+        if (root!!.size == 0) {
+            clear()
+        } else {
+            val r = root
+
+            if (r is Inner && r.count == 1) {
+                root = r.children[0]
+            }
+        }
+
+        modCount++
+        return element
+    }
+
+    override fun removeAll(elements: Collection<E>): Boolean {
+        var modified = false
+
+        for (e in elements) {
+            if (remove(e)) {
+                modified = true
+            }
+        }
+        return modified
+    }
+
+    /**
+     * Retain only the elements equal to any element of the provided data collection, all duplicates are retained
+     *
+     * @param elements target data collection
+     *
+     * @return true if any element is removed
+     */
+    override fun retainAll(elements: Collection<E>): Boolean {
+        val retaining = SortedListBTree<E>(comparator, nodeCapacity, arrayOfNulls(0), 0, 0)
+        retaining.addAll(elements)
+
+        val retained = arrayOfNulls<Any?>(size)
+        var count = 0
+
+        for (e in this) {
+            if (retaining.indexOf(e) != -1) {
+                retained[count++] = e
+            }
+        }
+
+        if (count < size) {
+            build(retained, 0, count)
+            modCount++
+            return true
+        } else {
+            return false
+        }
+    }
+
+    /**
+     * This method is not the same as normal list set!<br>
+     *
+     * Element of the provided index is removed, then adding the new element into the list
+     *
+     * @param index element on this index will be removed then re-add, new element index may change!
+     * @param element new data element to be added
+     *
+     * @return removed data element
+     */
+    override fun set(index: Int, element: E): E {
+        val e = removeAt(index)
+        add(element)
+        return e
+    }
+
+    /**
+     * Read only view of the elements between the provided indices, iteration walks through the leaves directly.<br>
+     * The view is invalid once the list is modified, use {@link #getSubList} for an independent copy
+     *
+     * @param fromIndex starting index of the sublist, inclusive
+     * @param toIndex ending index of the sublist, exclusive
+     *
+     * @return read only view of the list
+     */
+    override fun subList(fromIndex: Int, toIndex: Int): MutableList<E> {
+        checkRange(fromIndex, toIndex)
+        return SubListView(fromIndex, toIndex)
+    }
+
+    /**
+     * Return a newly created list of the provided from & to index, built directly from the sorted elements<br>
+     * Add/remove/set to the resulted list will not affect the original list
+     *
+     * @param fromIndex starting index of the sublist, inclusive
+     * @param toIndex ending index of the sublist, exclusive
+     *
+     * @return new list consisting elements provided by from & to index
+     */
+    override fun getSubList(fromIndex: Int, toIndex: Int): SortedListBTree<E> {
+        checkRange(fromIndex, toIndex)
+
+        val elements = arrayOfNulls<Any?>(toIndex - fromIndex)
+        val iterator = SortedListIterator(fromIndex, fromIndex, toIndex)
+
+        for (i in elements.indices) {
+            elements[i] = iterator.next()
+        }
+
+        return SortedListBTree(comparator, nodeCapacity, elements, 0, elements.size)
+    }
+
+    override fun getMin(): E? {
+        return head?.elements?.get(0) as E?
+    }
+
+    override fun getMax(): E? {
+        val leaf = tail ?: return null
+        return leaf.elements[leaf.size - 1] as E?
+    }
+
+    /**
+     * Resort the list after element values are changed, tree is rebuilt from the sorted elements
+     */
+    override fun resort() {
+        val elements = toElementArray()
+
+        TimSort.sort(elements, comparator as Comparator<Any?>)
+        build(elements, 0, elements.size)
+        modCount++
+    }
+
+    override fun clone(): SortedListBTree<E> {
+        val elements = toElementArray()
+        return SortedListBTree(comparator, nodeCapacity, elements, 0, elements.size)
+    }
+
+    /**
+     * Copy elements in order to an array
+     *
+     * @return element array
+     */
+    private fun toElementArray(): Array<Any?> {
+        val elements = arrayOfNulls<Any?>(size)
+        var leaf = head
+        var offset = 0
+
+        while (leaf != null) {
+            System.arraycopy(leaf.elements, 0, elements, offset, leaf.size)
+            offset += leaf.size
+            leaf = leaf.next
+        }
+
+        return elements
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= size) {
+            throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        }
+    }
+
+    private fun checkRange(fromIndex: Int, toIndex: Int) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw IndexOutOfBoundsException("fromIndex: $fromIndex, toIndex: $toIndex, Size: $size")
+        }
+    }
+
+    /**
+     * Replace the tree by one holding the sorted elements, leaves and inner nodes are filled evenly
+     *
+     * @param sorted sorted elements
+     * @param fromIndex starting index of the elements, inclusive
+     * @param toIndex ending index of the elements, exclusive
+     */
+    private fun build(sorted: Array<Any?>, fromIndex: Int, toIndex: Int) {
+        val n = toIndex - fromIndex
+        val leaves = (n + nodeCapacity - 1) / nodeCapacity
+        var level = ArrayList<Node>(leaves)
+        var offset = fromIndex
+
+        head = null
+        tail = null
+
+        for (i in 0 .. leaves - 1) {
+            val count = n / leaves + (if (i < n % leaves) 1 else 0)
+            val leaf = Leaf(nodeCapacity)
+
+            System.arraycopy(sorted, offset, leaf.elements, 0, count)
+            leaf.size = count
+            offset += count
+
+            if (tail == null) {
+                head = leaf
+            } else {
+                tail!!.next = leaf
+                leaf.prev = tail
+            }
+
+            tail = leaf
+            level.add(leaf)
+        }
+
+        while (level.size > 1) {
+            val nodes = (level.size + nodeCapacity - 1) / nodeCapacity
+            val parents = ArrayList<Node>(nodes)
+            offset = 0
+
+            for (i in 0 .. nodes - 1) {
+                val count = level.size / nodes + (if (i < level.size % nodes) 1 else 0)
+                val inner = Inner(nodeCapacity)
+
+                for (c in 0 .. count - 1) {
+                    val child = level[offset + c]
+
+                    inner.children[c] = child
+                    inner.separators[c] = child.first()
+                    inner.size += child.size
+                }
+
+                inner.count = count
+                offset += count
+                parents.add(inner)
+            }
+
+            level = parents
+        }
+
+        root = if (level.isEmpty()) null else level[0]
+    }
+
+    /**
+     * Insert element into subtree, after all equal elements
+     *
+     * @param node subtree root
+     * @param element element to be added
+     *
+     * @return new right sibling if the node is split, null otherwise
+     */
+    private fun insert(node: Node, element: E): Node? {
+        if (node is Leaf) {
+            val position = node.upperBound(element, comparator as Comparator<Any?>)
+
+            if (node.size < nodeCapacity) {
+                node.insert(position, element)
+                return null
+            }
+
+            val right = Leaf(nodeCapacity)
+
+            right.prev = node
+            right.next = node.next
+
+            if (node.next != null) {
+                node.next!!.prev = right
+            } else {
+                tail = right
+            }
+
+            node.next = right
+
+            if (position == node.size && right.next == null) {
+                // Appending to the last leaf, keep it full for ascending insertion
+                right.insert(0, element)
+            } else {
+                node.moveTo(right, nodeCapacity / 2)
+
+                if (position <= node.size) {
+                    node.insert(position, element)
+                } else {
+                    right.insert(position - node.size, element)
+                }
+            }
+
+            return right
+        }
+
+        val inner = node as Inner
+        val c = inner.childAfter(element, comparator as Comparator<Any?>)
+
+        inner.size++
+
+        val split = insert(inner.children[c]!!, element) ?: return null
+
+        inner.add(c + 1, split)
+
+        return if (inner.count > nodeCapacity) inner.split() else null
+    }
+
+    /**
+     * Remove element at index of subtree, empty children are dropped and small ones merged with a sibling
+     *
+     * @param node subtree root
+     * @param index index of element within the subtree
+     *
+     * @return removed element
+     */
+    private fun removeAt(node: Node, index: Int): E {
+        if (node is Leaf) {
+            return node.remove(index) as E
+        }
+
+        val inner = node as Inner
+        var c = 0
+        var i = index
+
+        while (i >= inner.children[c]!!.size) {
+            i -= inner.children[c++]!!.size
+        }
+
+        val child = inner.children[c]!!
+        val element = removeAt(child, i)
+
+        inner.size--
+
+        if (child.size == 0) {
+            if (child is Leaf) {
+                unlink(child)
+            }
+            inner.remove(c)
+        } else if (inner.count > 1 && child.isSmall(nodeCapacity)) {
+            val left = if (c > 0) c - 1 else c
+
+            if (inner.children[left]!!.fits(inner.children[left + 1]!!, nodeCapacity)) {
+                merge(inner, left)
+            }
+        }
+
+        return element
+    }
+
+    /**
+     * Merge child at index + 1 of inner node into child at index
+     */
+    private fun merge(inner: Inner, index: Int) {
+        val left = inner.children[index]!!
+        val right = inner.children[index + 1]!!
+
+        if (left is Leaf) {
+            (right as Leaf).moveTo(left, 0)
+            unlink(right)
+        } else {
+            val l = left as Inner
+            val r = right as Inner
+
+            // Separator of right node's first child comes from the parent
+            r.separators[0] = inner.separators[index + 1]
+
+            for (c in 0 .. r.count - 1) {
+                l.children[l.count] = r.children[c]
+                l.separators[l.count++] = r.separators[c]
+            }
+
+            l.size += r.size
+        }
+
+        inner.remove(index + 1)
+    }
+
+    private fun unlink(leaf: Leaf) {
+        if (leaf.prev != null) {
+            leaf.prev!!.next = leaf.next
+        } else {
+            head = leaf.next
+        }
+
+        if (leaf.next != null) {
+            leaf.next!!.prev = leaf.prev
+        } else {
+            tail = leaf.prev
+        }
+    }
+
+    /**
+     * Locate the leaf & position of the index, position is the leaf size only at the end of the list
+     *
+     * @param index element index, can be the list size
+     * @param cursor cursor to be updated
+     */
+    private fun seek(index: Int, cursor: Cursor) {
+        var node = root
+
+        if (node == null) {
+            cursor.leaf = null
+            cursor.position = 0
+            return
+        }
+
+        var i = index
+
+        while (node is Inner) {
+            var c = 0
+
+            while (c < node.count - 1 && i >= node.children[c]!!.size) {
+                i -= node.children[c++]!!.size
+            }
+
+            node = node.children[c]!!
+        }
+
+        cursor.leaf = node as Leaf
+        cursor.position = i
+        cursor.normalize()
+    }
+
+    @Throws(IOException::class)
+    private fun writeObject(output: ObjectOutputStream) {
+        output.defaultWriteObject()
+        output.writeInt(size)
+
+        for (e in this) {
+            output.writeObject(e)
+        }
+    }
+
+    @Throws(IOException::class, ClassNotFoundException::class)
+    private fun readObject(input: ObjectInputStream) {
+        input.defaultReadObject()
+
+        val elements = arrayOfNulls<Any?>(input.readInt())
+
+        for (i in elements.indices) {
+            elements[i] = input.readObject()
+        }
+
+        build(elements, 0, elements.size)
+    }
+
+    private abstract class Node {
+        /**
+         * Number of elements in subtree
+         */
+        var size: Int = 0
+
+        abstract fun first(): Any?
+
+        abstract fun isSmall(nodeCapacity: Int): Boolean
+
+        abstract fun fits(sibling: Node, nodeCapacity: Int): Boolean
+    }
+
+    private class Leaf(nodeCapacity: Int): Node() {
+        val elements = arrayOfNulls<Any?>(nodeCapacity)
+
+        var prev: Leaf? = null
+        var next: Leaf? = null
+
+        override fun first(): Any? {
+            return elements[0]
+        }
+
+        override fun isSmall(nodeCapacity: Int): Boolean {
+            return size < nodeCapacity / 4
+        }
+
+        override fun fits(sibling: Node, nodeCapacity: Int): Boolean {
+            return size + sibling.size <= nodeCapacity / 2
+        }
+
+        fun lowerBound(value: Any?, comparator: Comparator<Any?>): Int {
+            var low = 0
+            var high = size
+
+            while (low < high) {
+                val mid = (low + high) ushr 1
+
+                if (comparator.compare(elements[mid], value) < 0) {
+                    low = mid + 1
+                } else {
+                    high = mid
+                }
+            }
+
+            return low
+        }
+
+        fun upperBound(value: Any?, comparator: Comparator<Any?>): Int {
+            var low = 0
+            var high = size
+
+            while (low < high) {
+                val mid = (low + high) ushr 1
+
+                if (comparator.compare(elements[mid], value) <= 0) {
+                    low = mid + 1
+                } else {
+                    high = mid
+                }
+            }
+
+            return low
+        }
+
+        fun insert(position: Int, element: Any?) {
+            System.arraycopy(elements, position, elements, position + 1, size - position)
+            elements[position] = element
+            size++
+        }
+
+        fun remove(position: Int): Any? {
+            val element = elements[position]
+
+            System.arraycopy(elements, position + 1, elements, position, size - position - 1)
+            elements[--size] = null
+
+            return element
+        }
+
+        /**
+         * Move elements from position to the end of target leaf
+         */
+        fun moveTo(target: Leaf, from: Int) {
+            System.arraycopy(elements, from, target.elements, target.size, size - from)
+            Arrays.fill(elements, from, size, null)
+
+            target.size += size - from
+            size = from
+        }
+    }
+
+    private class Inner(nodeCapacity: Int): Node() {
+        /**
+         * Children with one extra slot to insert before splitting
+         */
+        val children = arrayOfNulls<Node>(nodeCapacity + 1)
+
+        /**
+         * Elements in children before i are not greater than separators[i], elements in children from i are not smaller
+         */
+        val separators = arrayOfNulls<Any?>(nodeCapacity + 1)
+
+        var count: Int = 0
+
+        override fun first(): Any? {
+            return children[0]!!.first()
+        }
+
+        override fun isSmall(nodeCapacity: Int): Boolean {
+            return count < nodeCapacity / 4
+        }
+
+        override fun fits(sibling: Node, nodeCapacity: Int): Boolean {
+            return count + (sibling as Inner).count <= nodeCapacity / 2
+        }
+
+        /**
+         * Last child whose separator is smaller than value, the child holding the first element not smaller than it
+         */
+        fun childBefore(value: Any?, comparator: Comparator<Any?>): Int {
+            var low = 1
+            var high = count
+
+            while (low < high) {
+                val mid = (low + high) ushr 1
+
+                if (comparator.compare(separators[mid], value) < 0) {
+                    low = mid + 1
+                } else {
+                    high = mid
+                }
+            }
+
+            return low - 1
+        }
+
+        /**
+         * Last child whose separator is not greater than value, the child holding the first element greater than it
+         */
+        fun childAfter(value: Any?, comparator: Comparator<Any?>): Int {
+            var low = 1
+            var high = count
+
+            while (low < high) {
+                val mid = (low + high) ushr 1
+
+                if (comparator.compare(separators[mid], value) <= 0) {
+                    low = mid + 1
+                } else {
+                    high = mid
+                }
+            }
+
+            return low - 1
+        }
+
+        fun sizeBefore(child: Int): Int {
+            var size = 0
+
+            for (c in 0 .. child - 1) {
+                size += children[c]!!.size
+            }
+
+            return size
+        }
+
+        fun add(index: Int, child: Node) {
+            System.arraycopy(children, index, children, index + 1, count - index)
+            System.arraycopy(separators, index, separators, index + 1, count - index)
+
+            children[index] = child
+            separators[index] = child.first()
+            count++
+        }
+
+        fun remove(index: Int) {
+            System.arraycopy(children, index + 1, children, index, count - index - 1)
+            System.arraycopy(separators, index + 1, separators, index, count - index - 1)
+
+            count--
+            children[count] = null
+            separators[count] = null
+        }
+
+        fun split(): Inner {
+            val right = Inner(children.size - 1)
+            val half = count / 2
+
+            for (c in half .. count - 1) {
+                right.children[c - half] = children[c]
+                right.separators[c - half] = separators[c]
+                right.size += children[c]!!.size
+                children[c] = null
+                separators[c] = null
+            }
+
+            right.count = count - half
+            count = half
+            size -= right.size
+
+            return right
+        }
+    }
+
+    /**
+     * Leaf & position of an element
+     */
+    private class Cursor {
+        var leaf: Leaf? = null
+        var position: Int = 0
+
+        /**
+         * Move to the start of next leaf when passing the end of a leaf, except the last leaf
+         */
+        fun normalize() {
+            val l = leaf!!
+
+            if (position >= l.size && l.next != null) {
+                leaf = l.next
+                position = 0
+            }
+        }
+    }
+
+    /**
+     * Read only view of part of the list
+     */
+    private inner class SubListView(private val fromIndex: Int, private val toIndex: Int): java.util.AbstractList<E>() {
+        private val expectedModCount = this@SortedListBTree.modCount
+
+        override val size: Int
+            get() {
+                checkForComodification()
+                return toIndex - fromIndex
+            }
+
+        override fun get(index: Int): E {
+            checkForComodification()
+
+            if (index < 0 || index >= toIndex - fromIndex) {
+                throw IndexOutOfBoundsException("Index: $index, Size: ${toIndex - fromIndex}")
+            }
+
+            return this@SortedListBTree.get(fromIndex + index)
+        }
+
+        override fun iterator(): MutableIterator<E> {
+            return listIterator(0)
+        }
+
+        override fun listIterator(index: Int): MutableListIterator<E> {
+            checkForComodification()
+
+            if (index < 0 || index > toIndex - fromIndex) {
+                throw IndexOutOfBoundsException("Index: $index, Size: ${toIndex - fromIndex}")
+            }
+
+            return SortedListIterator(fromIndex + index, fromIndex, toIndex)
+        }
+
+        private fun checkForComodification() {
+            if (expectedModCount != this@SortedListBTree.modCount) {
+                throw ConcurrentModificationException()
+            }
+        }
+    }
+
+    /**
+     * List Iterator walking through the leaves, read only when bounded by sub list indices
+     *
+     * @param index starting index
+     * @param fromIndex lower bound of iteration, inclusive
+     * @param toIndex upper bound of iteration, exclusive, -1 for the whole list with modification supported
+     */
+    private inner class SortedListIterator(
+        private var nextIndex: Int, private val fromIndex: Int, private val toIndex: Int
+    ): MutableListIterator<E> {
+        /**
+         * Leaf & position of next element
+         */
+        private val cursor = Cursor()
+
+        /**
+         * Index of element returned by last call to next or previous, -1 if removed or added since then
+         */
+        private var lastIndex: Int = -1
+
+        /**
+         * Counter used to detect concurrent modification
+         */
+        private var expectedModCount: Int = modCount
+
+        init {
+            seek(nextIndex, cursor)
+        }
+
+        private fun checkForComodification() {
+            if (expectedModCount != modCount) {
+                throw ConcurrentModificationException()
+            }
+        }
+
+        private fun checkModifiable() {
+            if (toIndex != -1) {
+                throw UnsupportedOperationException("Sub list view is read only!")
+            }
+        }
+
+        override fun hasNext(): Boolean {
+            return nextIndex < (if (toIndex == -1) size else toIndex)
+        }
+
+        override fun hasPrevious(): Boolean {
+            return nextIndex > fromIndex
+        }
+
+        override fun next(): E {
+            checkForComodification()
+
+            if (!hasNext()) {
+                throw NoSuchElementException("No next element")
+            }
+
+            val element = cursor.leaf!!.elements[cursor.position++] as E
+
+            cursor.normalize()
+            lastIndex = nextIndex++
+
+            return element
+        }
+
+        override fun previous(): E {
+            checkForComodification()
+
+            if (!hasPrevious()) {
+                throw NoSuchElementException("No previous element (previousIndex: ${nextIndex - 1})")
+            }
+
+            if (cursor.position == 0) {
+                cursor.leaf = cursor.leaf!!.prev
+                cursor.position = cursor.leaf!!.size
+            }
+
+            lastIndex = --nextIndex
+
+            return cursor.leaf!!.elements[--cursor.position] as E
+        }
+
+        override fun nextIndex(): Int {
+            return nextIndex - fromIndex
+        }
+
+        override fun previousIndex(): Int {
+            return nextIndex - fromIndex - 1
+        }
+
+        /**
+         * Add an element into the list in its sort order, iterator is moved right after the added element
+         */
+        override fun add(element: E) {
+            checkModifiable()
+            checkForComodification()
+
+            nextIndex = upperBound(element)
+            this@SortedListBTree.add(element)
+            nextIndex++
+
+            seek(nextIndex, cursor)
+            lastIndex = -1
+            expectedModCount = modCount
+        }
+
+        override fun remove() {
+            checkModifiable()
+
+            if (lastIndex < 0) {
+                throw IllegalStateException("Nothing to remove (lastIndex: $lastIndex)")
+            }
+
+            checkForComodification()
+            removeAt(lastIndex)
+
+            nextIndex = lastIndex
+            seek(nextIndex, cursor)
+            lastIndex = -1
+            expectedModCount = modCount
+        }
+
+        /**
+         * Set is not supported, as it contradict with normal expectation of this method.
+         */
+        override fun set(element: E) {
+            throw UnsupportedOperationException("Set operation is not supported (this is a sorted list)!")
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package utils.data.query;
+
+import utils.data.Mappable;
+import utils.regex.WildcardToRegularExpression;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * A MappableQueryMatcherGroup bound to a sample, with the matcher of every sample key resolved once.
+ * Keys are ordered by estimated selectivity so that AND stops at the first mismatch and OR at the first match
+ * as early as possible.
+ */
+public class CompiledMappableQuery<K, V> {
+    // Rows checked per key when estimating selectivity from data
+    private static final int ESTIMATE_SAMPLE_SIZE = 64;
+
+    // Steps in evaluation order
+    private List<Step> steps;
+
+    private QueryJoinCondition joinCondition;
+
+    // Result of a query not depending on any row, null if rows have to be matched
+    private Boolean constantResult;
+
+    CompiledMappableQuery(
+        Map<K, ? extends MappableQueryMatcher<Mappable<K, V>, K, V>> matcherMap, QueryJoinCondition joinCondition,
+        Map<K, V> sample, List<? extends Mappable<K, V>> rows
+    ) {
+        this.joinCondition = joinCondition;
+
+        List<Step> steps = new ArrayList<Step>();
+        if (joinCondition == null) {
+            // Null join condition will always be false
+            this.constantResult = false;
+        } else {
+            for (K key : sample.keySet()) {
+                MappableQueryMatcher<Mappable<K, V>, K, V> matcher = matcherMap.get(key);
+
+                if (matcher != null) {
+                    steps.add(new Step(key, sample.get(key), resolve(matcher, sample.get(key))));
+                } else if (joinCondition == QueryJoinCondition.AND) {
+                    this.constantResult = false;
+                    break;
+                }
+            }
+
+            if (this.constantResult == null && steps.isEmpty()) {
+                this.constantResult = (joinCondition == QueryJoinCondition.AND);
+            }
+        }
+
+        if (this.constantResult != null) {
+            steps.clear();
+        }
+
+        for (Step step : steps) {
+            step.selectivity = estimate(step, matcherMap.get(step.key), rows);
+        }
+
+        final boolean mostSelectiveFirst = (joinCondition == QueryJoinCondition.AND);
+        Collections.sort(steps, new Comparator<Step>() {
+            @Override
+            public int compare(Step s1, Step s2) {
+                return mostSelectiveFirst?
+                    Double.compare(s1.selectivity, s2.selectivity) : Double.compare(s2.selectivity, s1.selectivity);
+            }
+        });
+
+        this.steps = steps;
+    }
+
+    public boolean match(Mappable<K, V> mappable) {
+        if (this.constantResult != null) {
+            return this.constantResult;
+        } else if (this.joinCondition == QueryJoinCondition.AND) {
+            for (int i = 0; i < this.steps.size(); i++) {
+                Step step = this.steps.get(i);
+
+                if (!step.matcher.match(mappable, step.key, step.value)) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            for (int i = 0; i < this.steps.size(); i++) {
+                Step step = this.steps.get(i);
+
+                if (step.matcher.match(mappable, step.key, step.value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Get the keys in evaluation order
+     *
+     * @return evaluated keys
+     */
+    public List<K> getKeyOrder() {
+        List<K> keys = new ArrayList<K>(this.steps.size());
+        for (Step step : this.steps) {
+            keys.add(step.key);
+        }
+
+        return Collections.unmodifiableList(keys);
+    }
+
+    private MappableQueryMatcher<Mappable<K, V>, K, V> resolve(MappableQueryMatcher<Mappable<K, V>, K, V> matcher, V value) {
+        // Subclasses may match differently, only the plain LIKE matcher is replaced
+        if (matcher.getClass() == MappableLikeMatcher.class) {
+            // Compile the wildcard pattern once instead of on every row
+            final Pattern pattern = Pattern.compile(WildcardToRegularExpression.wildcardToRegex(value.toString()));
+
+            return new MappableQueryMatcher<Mappable<K, V>, K, V>() {
+                @Override
+                public boolean match(Mappable<K, V> mappable, K key, V value) {
+                    return pattern.matcher(mappable.getAsMapValue(key).toString()).matches();
+                }
+            };
+        } else {
+            return matcher;
+        }
+    }
+
+    /**
+     * Estimate the fraction of rows matched by a step, from evenly spaced rows when available,
+     * otherwise from the matcher type
+     */
+    private double estimate(
+        Step step, MappableQueryMatcher<Mappable<K, V>, K, V> matcher, List<? extends Mappable<K, V>> rows
+    ) {
+        if (rows != null && rows instanceof RandomAccess && rows.size() >= ESTIMATE_SAMPLE_SIZE * 4) {
+            int stride = rows.size() / ESTIMATE_SAMPLE_SIZE, matched = 0;
+
+            for (int i = 0; i < ESTIMATE_SAMPLE_SIZE; i++) {
+                try {
+                    if (step.matcher.match(rows.get(i * stride), step.key, step.value)) {
+                        matched++;
+                    }
+                } catch (RuntimeException e) {
+                    // Keep failing matchers behind the others
+                    return (this.joinCondition == QueryJoinCondition.AND)? 2 : -1;
+                }
+            }
+
+            return (double) matched / ESTIMATE_SAMPLE_SIZE;
+        } else if (matcher instanceof MappableEqualMatcher) {
+            return 0.1;
+        } else if (matcher instanceof MappableLikeMatcher) {
+            return 0.3;
+        } else {
+            return 0.5;
+        }
+    }
+
+    private class Step {
+        private K key;
+        private V value;
+        private MappableQueryMatcher<Mappable<K, V>, K, V> matcher;
+        private double selectivity;
+
+        private Step(K key, V value, MappableQueryMatcher<Mappable<K, V>, K, V> matcher) {
+            this.key = key;
+            this.value = value;
+            this.matcher = matcher;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package utils.data.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join filtering shared by the parallelQuery methods of queryers.
+ *
+ * The rows are split into chunks which are filtered sequentially, each into its own result list, and the chunk
+ * results are concatenated in chunk order, so results keep the input order. Lists without random access are copied
+ * to an array first. Filters are called from several threads at once and must not keep state between rows.
+ */
+final class ForkJoinQuery {
+    // Default minimum number of rows filtered sequentially
+    static final int DEFAULT_THRESHOLD = 1 << 13;
+
+    private ForkJoinQuery() {}
+
+    interface Filter<E> {
+        boolean match(E e);
+    }
+
+    /**
+     * Chunk size for row count, at least threshold and about four chunks per worker thread
+     */
+    private static int granularity(int length, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+
+        return (parallelism <= 1)? Math.max(length, 1) : Math.max(threshold, length / (parallelism << 2));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static <E> List<E> filter(List<? extends E> rows, Filter<? super E> filter, int threshold) {
+        int n = rows.size(), granularity = granularity(n, threshold);
+
+        if (n <= granularity) {
+            List<E> results = new ArrayList<E>();
+            for (E e : rows) {
+                if (filter.match(e)) {
+                    results.add(e);
+                }
+            }
+            return results;
+        }
+
+        List<E> source = (rows instanceof RandomAccess)? (List<E>) rows : new ArrayList<E>(rows);
+        List<E>[] parts = new List[(n + granularity - 1) / granularity];
+
+        new ChunkFilter<E>(source, (Filter<E>) filter, parts, 0, parts.length, granularity).invoke();
+
+        int size = 0;
+        for (List<E> part : parts) {
+            size += part.size();
+        }
+
+        List<E> results = new ArrayList<E>(size);
+        for (List<E> part : parts) {
+            results.addAll(part);
+        }
+
+        return results;
+    }
+
+    /**
+     * Filter chunks [lo, hi) of the rows into parts
+     */
+    private static class ChunkFilter<E> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<E> rows;
+        private final Filter<E> filter;
+        private final List<E>[] parts;
+        private final int lo, hi, granularity;
+
+        ChunkFilter(List<E> rows, Filter<E> filter, List<E>[] parts, int lo, int hi, int granularity) {
+            this.rows = rows;
+            this.filter = filter;
+            this.parts = parts;
+            this.lo = lo;
+            this.hi = hi;
+            this.granularity = granularity;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                int start = lo * granularity, end = Math.min(start + granularity, rows.size());
+                List<E> part = new ArrayList<E>();
+
+                for (int i = start; i < end; i++) {
+                    E e = rows.get(i);
+
+                    if (filter.match(e)) {
+                        part.add(e);
+                    }
+                }
+
+                parts[lo] = part;
+            } else {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(
+                        new ChunkFilter<E>(rows, filter, parts, lo, mid, granularity),
+                        new ChunkFilter<E>(rows, filter, parts, mid, hi, granularity)
+                );
+            }
+        }
+    }
+}
@@ -443,8 +443,216 @@ public class MapQueryer {
         return results;
     }
 
+    /**
+     * Lazily query by equality of a key value
+     *
+     * @param maps source maps
+     * @param key query key
+     * @param value query value
+     *
+     * @return cursor over matching maps
+     */
+    public static <K, V> QueryCursor<Map<K, V>> queryCursor(
+        Collection<? extends Map<K, V>> maps, final K key, final V value
+    ) {
+        return new QueryCursor<Map<K, V>>(maps.iterator()) {
+            @Override
+            protected boolean match(Map<K, V> map) {
+                return value.equals(map.get(key));
+            }
+        };
+    }
+
+    public static <K, V> QueryCursor<Map<K, V>> queryCursor(
+        Collection<? extends Map<K, V>> maps, final K key, final V value, final MapQueryMatcher<K, V> queryMatcher
+    ) {
+        return new QueryCursor<Map<K, V>>(maps.iterator()) {
+            @Override
+            protected boolean match(Map<K, V> map) {
+                return queryMatcher.match(map, key, value);
+            }
+        };
+    }
+
+    /**
+     * Lazily query by equality of all sample values
+     *
+     * @param maps source maps
+     * @param sample query sample
+     *
+     * @return cursor over matching maps
+     */
+    public static <K, V> QueryCursor<Map<K, V>> queryCursor(
+        Collection<? extends Map<K, V>> maps, final Map<K, V> sample
+    ) {
+        return new QueryCursor<Map<K, V>>(maps.iterator()) {
+            @Override
+            protected boolean match(Map<K, V> map) {
+                for (K key : sample.keySet()) {
+                    if (!sample.get(key).equals(map.get(key))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    // Must be sorted
+    public static <K, V> QueryCursor<Map<K, V>> queryCursor(
+        List<? extends Map<K, V>> maps, Map<K, V> sample, MapIndexComparator<K, V> indexComparator
+    ) {
+        if (indexComparator.usableForKeys(sample.keySet())) {
+            IntegerRange range = binarySearchRange(maps, sample, indexComparator);
+
+            if (range == null) {
+                return new QueryCursor<Map<K, V>>(Collections.<Map<K, V>>emptyIterator()) {
+                    @Override
+                    protected boolean match(Map<K, V> map) {
+                        return true;
+                    }
+                };
+            }
+
+            // Walk the range with a list iterator, sorted lists like SortedListAvl do not support subList
+            QueryCursor<Map<K, V>> cursor = new QueryCursor<Map<K, V>>(maps.listIterator(range.getMin())) {
+                @Override
+                protected boolean match(Map<K, V> map) {
+                    return true;
+                }
+            };
+
+            return cursor.limit(range.getRangeSize());
+        } else {
+            return queryCursor(maps, sample);
+        }
+    }
+
+    public static <K, V> QueryCursor<Map<K, V>> queryCursor(
+        Collection<? extends Map<K, V>> maps, final Map<K, V> sample,
+        final MapSampleQueryMatcher<K, V> sampleQueryMatcher
+    ) {
+        return new QueryCursor<Map<K, V>>(maps.iterator()) {
+            @Override
+            protected boolean match(Map<K, V> map) {
+                return sampleQueryMatcher.match(map, sample);
+            }
+        };
+    }
+
+    public static <K, V> List<Map<K, V>> parallelQuery(
+        List<? extends Map<K, V>> maps, K key, V value
+    ) {
+        return parallelQuery(maps, key, value, ForkJoinQuery.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Query by equality of a key value, with partitions of the maps matched in parallel
+     *
+     * @param maps source maps
+     * @param key query key
+     * @param value query value
+     * @param threshold minimum number of maps matched sequentially
+     *
+     * @return matching maps, in source order
+     */
+    public static <K, V> List<Map<K, V>> parallelQuery(
+        List<? extends Map<K, V>> maps, final K key, final V value, int threshold
+    ) {
+        return ForkJoinQuery.filter(maps, new ForkJoinQuery.Filter<Map<K, V>>() {
+            @Override
+            public boolean match(Map<K, V> map) {
+                return value.equals(map.get(key));
+            }
+        }, threshold);
+    }
+
+    public static <K, V> List<Map<K, V>> parallelQuery(
+        List<? extends Map<K, V>> maps, Map<K, V> sample
+    ) {
+        return parallelQuery(maps, sample, ForkJoinQuery.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Query by equality of all sample values, with partitions of the maps matched in parallel
+     *
+     * @param maps source maps
+     * @param sample query sample
+     * @param threshold minimum number of maps matched sequentially
+     *
+     * @return matching maps, in source order
+     */
+    public static <K, V> List<Map<K, V>> parallelQuery(
+        List<? extends Map<K, V>> maps, final Map<K, V> sample, int threshold
+    ) {
+        return ForkJoinQuery.filter(maps, new ForkJoinQuery.Filter<Map<K, V>>() {
+            @Override
+            public boolean match(Map<K, V> map) {
+                for (K key : sample.keySet()) {
+                    if (!sample.get(key).equals(map.get(key))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }, threshold);
+    }
+
+    public static <K, V> List<Map<K, V>> parallelQuery(
+        List<? extends Map<K, V>> maps, Map<K, V> sample, MapSampleQueryMatcher<K, V> sampleQueryMatcher
+    ) {
+        return parallelQuery(maps, sample, sampleQueryMatcher, ForkJoinQuery.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Query by a sample matcher, with partitions of the maps matched in parallel.
+     * The matcher is called from several threads at once.
+     *
+     * @param maps source maps
+     * @param sample query sample
+     * @param sampleQueryMatcher thread safe sample matcher
+     * @param threshold minimum number of maps matched sequentially
+     *
+     * @return matching maps, in source order
+     */
+    public static <K, V> List<Map<K, V>> parallelQuery(
+        List<? extends Map<K, V>> maps, final Map<K, V> sample,
+        final MapSampleQueryMatcher<K, V> sampleQueryMatcher, int threshold
+    ) {
+        return ForkJoinQuery.filter(maps, new ForkJoinQuery.Filter<Map<K, V>>() {
+            @Override
+            public boolean match(Map<K, V> map) {
+                return sampleQueryMatcher.match(map, sample);
+            }
+        }, threshold);
+    }
+
+    public static <K, V> List<Map<K, V>> queryMax(
+        Collection<? extends Map<K, V>> maps, K key
+    ) {
+        return queryMax((Iterable<? extends Map<K, V>>)maps, key);
+    }
+
     public static <K, V> List<Map<K, V>> queryMax(
+        Collection<? extends Map<K, V>> maps, K key, Comparator<V> comparator
+    ) {
+        return queryMax((Iterable<? extends Map<K, V>>)maps, key, comparator);
+    }
+
+    public static <K, V> List<Map<K, V>> queryMin(
         Collection<? extends Map<K, V>> maps, K key
+    ) {
+        return queryMin((Iterable<? extends Map<K, V>>)maps, key);
+    }
+
+    public static <K, V> List<Map<K, V>> queryMin(
+        Collection<? extends Map<K, V>> maps, K key, Comparator<V> comparator
+    ) {
+        return queryMin((Iterable<? extends Map<K, V>>)maps, key, comparator);
+    }
+
+    public static <K, V> List<Map<K, V>> queryMax(
+        Iterable<? extends Map<K, V>> maps, K key
     ) {
         List<Map<K, V>> results = new ArrayList<Map<K, V>>();
         V currentMax = null;
@@ -472,7 +680,7 @@ public class MapQueryer {
     }
 
     public static <K, V> List<Map<K, V>> queryMin(
-        Collection<? extends Map<K, V>> maps, K key
+        Iterable<? extends Map<K, V>> maps, K key
     ) {
         List<Map<K, V>> results = new ArrayList<Map<K, V>>();
         V currentMin = null;
@@ -500,7 +708,7 @@ public class MapQueryer {
     }
 
     public static <K, V> List<Map<K, V>> queryMax(
-        Collection<? extends Map<K, V>> maps, K key, Comparator<V> comparator
+        Iterable<? extends Map<K, V>> maps, K key, Comparator<V> comparator
     ) {
         List<Map<K, V>> results = new ArrayList<Map<K, V>>();
         V currentMax = null;
@@ -528,7 +736,7 @@ public class MapQueryer {
     }
 
     public static <K, V> List<Map<K, V>> queryMin(
-        Collection<? extends Map<K, V>> maps, K key, Comparator<V> comparator
+        Iterable<? extends Map<K, V>> maps, K key, Comparator<V> comparator
     ) {
         List<Map<K, V>> results = new ArrayList<Map<K, V>>();
         V currentMin = null;
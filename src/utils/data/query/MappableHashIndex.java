@@ -0,0 +1,146 @@
+package utils.data.query;
+
+import utils.data.Mappable;
+
+import java.util.*;
+
+/**
+ * Hash index over one or more keys, usable for equality samples containing every indexed key
+ */
+public class MappableHashIndex<T extends Mappable<K, V>, K, V> implements MappableIndex<T, K, V> {
+    private String name;
+    private List<K> indexedKeys;
+
+    // Values of a single key are used directly, multiple keys as a list of values
+    private Map<Object, List<T>> buckets;
+    private int size;
+
+    @SafeVarargs
+    public MappableHashIndex(String name, K ... indexedKeys) {
+        // Keys are copied one by one, the varargs array is not passed on
+        List<K> keys = new ArrayList<>(indexedKeys.length);
+        for (K indexedKey : indexedKeys) {
+            keys.add(indexedKey);
+        }
+
+        init(name, keys);
+    }
+
+    public MappableHashIndex(String name, List<K> indexedKeys) {
+        init(name, indexedKeys);
+    }
+
+    private void init(String name, List<K> indexedKeys) {
+        if (indexedKeys.isEmpty()) {
+            throw new IllegalArgumentException("Hash index ["+name+"] requires at least one key!");
+        }
+
+        this.name = name;
+        this.indexedKeys = new ArrayList<>(indexedKeys);
+        this.buckets = new HashMap<>();
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public List<K> getIndexedKeys() {
+        return this.indexedKeys;
+    }
+
+    @Override
+    public int usableKeyCount(Collection<K> keys) {
+        return keys.containsAll(this.indexedKeys)? this.indexedKeys.size() : 0;
+    }
+
+    @Override
+    public int estimate(Map<K, V> sample) {
+        List<T> bucket = this.buckets.get(bucketKey(sample));
+
+        return (bucket != null)? bucket.size() : 0;
+    }
+
+    @Override
+    public List<T> query(Map<K, V> sample) {
+        List<T> bucket = this.buckets.get(bucketKey(sample));
+
+        return (bucket != null)? new ArrayList<>(bucket) : new ArrayList<T>();
+    }
+
+    @Override
+    public void add(T mappable) {
+        Object key = bucketKey(mappable);
+        List<T> bucket = this.buckets.get(key);
+
+        if (bucket == null) {
+            bucket = new ArrayList<>(1);
+            this.buckets.put(key, bucket);
+        }
+
+        bucket.add(mappable);
+        this.size++;
+    }
+
+    @Override
+    public void addAll(Collection<T> mappables) {
+        for (T mappable : mappables) {
+            add(mappable);
+        }
+    }
+
+    @Override
+    public boolean remove(T mappable) {
+        Object key = bucketKey(mappable);
+        List<T> bucket = this.buckets.get(key);
+
+        if (bucket != null && bucket.remove(mappable)) {
+            if (bucket.isEmpty()) {
+                this.buckets.remove(key);
+            }
+            this.size--;
+
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.buckets.clear();
+        this.size = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    private Object bucketKey(Map<K, V> sample) {
+        if (this.indexedKeys.size() == 1) {
+            return sample.get(this.indexedKeys.get(0));
+        } else {
+            List<V> values = new ArrayList<>(this.indexedKeys.size());
+            for (K key : this.indexedKeys) {
+                values.add(sample.get(key));
+            }
+
+            return values;
+        }
+    }
+
+    private Object bucketKey(T mappable) {
+        if (this.indexedKeys.size() == 1) {
+            return mappable.getAsMapValue(this.indexedKeys.get(0));
+        } else {
+            List<V> values = new ArrayList<>(this.indexedKeys.size());
+            for (K key : this.indexedKeys) {
+                values.add(mappable.getAsMapValue(key));
+            }
+
+            return values;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package utils.data.query;
+
+import utils.data.Mappable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named secondary index of a MappableStore, kept in sync with the store on add and remove
+ */
+public interface MappableIndex<T extends Mappable<K, V>, K, V> {
+    public String getName();
+    public List<K> getIndexedKeys();
+
+    /**
+     * Count the keys of a sample this index can resolve
+     *
+     * @param keys sample keys
+     *
+     * @return number of keys resolved by the index, 0 if the index is not usable
+     */
+    public int usableKeyCount(Collection<K> keys);
+
+    /**
+     * Estimate the number of candidates returned by query, used for choosing between indexes
+     *
+     * @param sample query sample
+     *
+     * @return estimated candidate count
+     */
+    public int estimate(Map<K, V> sample);
+
+    /**
+     * Query candidates matching the indexed keys of the sample, other keys are not checked
+     *
+     * @param sample query sample
+     *
+     * @return candidates
+     */
+    public List<T> query(Map<K, V> sample);
+
+    public void add(T mappable);
+    public void addAll(Collection<T> mappables);
+    public boolean remove(T mappable);
+    public void clear();
+    public int size();
+}
@@ -3,6 +3,7 @@ package utils.data.query;
 import utils.data.Mappable;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -37,6 +38,34 @@ public class MappableQueryMatcherGroup<K, M extends MappableQueryMatcher> implem
         return joinCondition;
     }
 
+    /**
+     * Compile the group for a sample, with keys ordered by matcher type
+     *
+     * @param sample query sample
+     *
+     * @return compiled query
+     */
+    public <V> CompiledMappableQuery<K, V> compile(Map<K, V> sample) {
+        return compile(sample, null);
+    }
+
+    /**
+     * Compile the group for a sample, with keys ordered by how many of some evenly spaced rows they match
+     *
+     * @param sample query sample
+     * @param rows rows to be queried, used for estimating selectivity if random access
+     *
+     * @return compiled query
+     */
+    @SuppressWarnings("unchecked")
+    public <V> CompiledMappableQuery<K, V> compile(Map<K, V> sample, List<? extends Mappable<K, V>> rows) {
+        // Matchers of a group are raw, they are called with the keys and values of the sample
+        Map<K, MappableQueryMatcher<Mappable<K, V>, K, V>> matchers =
+            (Map<K, MappableQueryMatcher<Mappable<K, V>, K, V>>) (Map<K, ?>) matcherMap;
+
+        return new CompiledMappableQuery<K, V>(matchers, joinCondition, sample, rows);
+    }
+
     @Override
     public boolean match(Mappable mappable, Map sample) {
         if (joinCondition == QueryJoinCondition.AND) {
@@ -424,6 +424,11 @@ public class MappableQueryer {
         Collection<? extends Mappable<K, V>> mappables, Map<K, V> sample,
         MappableSampleQueryMatcher<K, V> sampleQueryMatcher
     ) {
+        // Subclasses may match differently, only the plain matcher group is compiled
+        if (sampleQueryMatcher.getClass() == MappableQueryMatcherGroup.class) {
+            return query(mappables, compile((MappableQueryMatcherGroup<K, ?>)sampleQueryMatcher, sample, mappables));
+        }
+
         List<T> results = new ArrayList<T>();
         for (Mappable<K, V> mappable : mappables) {
             if (sampleQueryMatcher.match(mappable, sample)) {
@@ -433,6 +438,24 @@ public class MappableQueryer {
         return results;
     }
 
+    public static <T extends Mappable<K, V>, K, V> List<T> query(
+        Collection<? extends Mappable<K, V>> mappables, CompiledMappableQuery<K, V> compiledQuery
+    ) {
+        List<T> results = new ArrayList<T>();
+        for (Mappable<K, V> mappable : mappables) {
+            if (compiledQuery.match(mappable)) {
+                results.add((T)mappable);
+            }
+        }
+        return results;
+    }
+
+    private static <K, V> CompiledMappableQuery<K, V> compile(
+        MappableQueryMatcherGroup<K, ?> matcherGroup, Map<K, V> sample, Collection<? extends Mappable<K, V>> mappables
+    ) {
+        return matcherGroup.compile(sample, (mappables instanceof List)? (List<? extends Mappable<K, V>>)mappables : null);
+    }
+
     public static <T extends Mappable<K, V>, K, V> List<T> query(
         Collection<? extends Mappable<K, V>> mappables, Map<K, V> sample,
         MappableSampleQueryMatcher<K, V> sampleQueryMatcher, Comparator<T> comparator
@@ -444,8 +467,256 @@ public class MappableQueryer {
         return results;
     }
 
+    /**
+     * Lazily query by equality of a key value
+     *
+     * @param mappables source mappables
+     * @param key query key
+     * @param value query value
+     *
+     * @return cursor over matching mappables
+     */
+    public static <T extends Mappable<K, V>, K, V> QueryCursor<T> queryCursor(
+        Collection<? extends T> mappables, final K key, final V value
+    ) {
+        return new QueryCursor<T>(mappables.iterator()) {
+            @Override
+            protected boolean match(T mappable) {
+                return value.equals(mappable.getAsMapValue(key));
+            }
+        };
+    }
+
+    public static <T extends Mappable<K, V>, K, V> QueryCursor<T> queryCursor(
+        Collection<T> mappables, final K key, final V value, final MappableQueryMatcher<T, K, V> queryMatcher
+    ) {
+        return new QueryCursor<T>(mappables.iterator()) {
+            @Override
+            protected boolean match(T mappable) {
+                return queryMatcher.match(mappable, key, value);
+            }
+        };
+    }
+
+    /**
+     * Lazily query by equality of all sample values
+     *
+     * @param mappables source mappables
+     * @param sample query sample
+     *
+     * @return cursor over matching mappables
+     */
+    public static <T extends Mappable<K, V>, K, V> QueryCursor<T> queryCursor(
+        Collection<? extends T> mappables, final Map<K, V> sample
+    ) {
+        return new QueryCursor<T>(mappables.iterator()) {
+            @Override
+            protected boolean match(T mappable) {
+                for (K key : sample.keySet()) {
+                    if (!sample.get(key).equals(mappable.getAsMapValue(key))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    // Must be sorted
+    public static <T extends Mappable<K, V>, K, V> QueryCursor<T> queryCursor(
+        List<? extends T> mappables, Map<K, V> sample, MappableIndexComparator<K, V> indexComparator
+    ) {
+        if (indexComparator.usableForKeys(sample.keySet())) {
+            IntegerRange range = binarySearchRange(mappables, sample, indexComparator);
+
+            if (range == null) {
+                return new QueryCursor<T>(Collections.<T>emptyIterator()) {
+                    @Override
+                    protected boolean match(T mappable) {
+                        return true;
+                    }
+                };
+            }
+
+            // Walk the range with a list iterator, sorted lists like SortedListAvl do not support subList
+            QueryCursor<T> cursor = new QueryCursor<T>(mappables.listIterator(range.getMin())) {
+                @Override
+                protected boolean match(T mappable) {
+                    return true;
+                }
+            };
+
+            return cursor.limit(range.getRangeSize());
+        } else {
+            return queryCursor(mappables, sample);
+        }
+    }
+
+    public static <T extends Mappable<K, V>, K, V> QueryCursor<T> queryCursor(
+        Collection<? extends T> mappables, final CompiledMappableQuery<K, V> compiledQuery
+    ) {
+        return new QueryCursor<T>(mappables.iterator()) {
+            @Override
+            protected boolean match(T mappable) {
+                return compiledQuery.match(mappable);
+            }
+        };
+    }
+
+    public static <T extends Mappable<K, V>, K, V> QueryCursor<T> queryCursor(
+        Collection<? extends T> mappables, final Map<K, V> sample,
+        final MappableSampleQueryMatcher<K, V> sampleQueryMatcher
+    ) {
+        // Subclasses may match differently, only the plain matcher group is compiled
+        if (sampleQueryMatcher.getClass() == MappableQueryMatcherGroup.class) {
+            return queryCursor(mappables, compile((MappableQueryMatcherGroup<K, ?>)sampleQueryMatcher, sample, mappables));
+        }
+
+        return new QueryCursor<T>(mappables.iterator()) {
+            @Override
+            protected boolean match(T mappable) {
+                return sampleQueryMatcher.match(mappable, sample);
+            }
+        };
+    }
+
+    public static <T extends Mappable<K, V>, K, V> List<T> parallelQuery(
+        List<? extends Mappable<K, V>> mappables, K key, V value
+    ) {
+        return parallelQuery(mappables, key, value, ForkJoinQuery.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Query by equality of a key value, with partitions of the mappables matched in parallel
+     *
+     * @param mappables source mappables
+     * @param key query key
+     * @param value query value
+     * @param threshold minimum number of mappables matched sequentially
+     *
+     * @return matching mappables, in source order
+     */
+    public static <T extends Mappable<K, V>, K, V> List<T> parallelQuery(
+        List<? extends Mappable<K, V>> mappables, final K key, final V value, int threshold
+    ) {
+        return ForkJoinQuery.filter((List<T>)mappables, new ForkJoinQuery.Filter<T>() {
+            @Override
+            public boolean match(T mappable) {
+                return value.equals(mappable.getAsMapValue(key));
+            }
+        }, threshold);
+    }
+
+    public static <T extends Mappable<K, V>, K, V> List<T> parallelQuery(
+        List<? extends Mappable<K, V>> mappables, Map<K, V> sample
+    ) {
+        return parallelQuery(mappables, sample, ForkJoinQuery.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Query by equality of all sample values, with partitions of the mappables matched in parallel
+     *
+     * @param mappables source mappables
+     * @param sample query sample
+     * @param threshold minimum number of mappables matched sequentially
+     *
+     * @return matching mappables, in source order
+     */
+    public static <T extends Mappable<K, V>, K, V> List<T> parallelQuery(
+        List<? extends Mappable<K, V>> mappables, final Map<K, V> sample, int threshold
+    ) {
+        return ForkJoinQuery.filter((List<T>)mappables, new ForkJoinQuery.Filter<T>() {
+            @Override
+            public boolean match(T mappable) {
+                for (K key : sample.keySet()) {
+                    if (!sample.get(key).equals(mappable.getAsMapValue(key))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }, threshold);
+    }
+
+    public static <T extends Mappable<K, V>, K, V> List<T> parallelQuery(
+        List<? extends Mappable<K, V>> mappables, Map<K, V> sample, MappableSampleQueryMatcher<K, V> sampleQueryMatcher
+    ) {
+        return parallelQuery(mappables, sample, sampleQueryMatcher, ForkJoinQuery.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Query by a sample matcher, with partitions of the mappables matched in parallel.
+     * The matcher is called from several threads at once.
+     *
+     * @param mappables source mappables
+     * @param sample query sample
+     * @param sampleQueryMatcher thread safe sample matcher
+     * @param threshold minimum number of mappables matched sequentially
+     *
+     * @return matching mappables, in source order
+     */
+    public static <T extends Mappable<K, V>, K, V> List<T> parallelQuery(
+        List<? extends Mappable<K, V>> mappables, final Map<K, V> sample,
+        final MappableSampleQueryMatcher<K, V> sampleQueryMatcher, int threshold
+    ) {
+        // Subclasses may match differently, only the plain matcher group is compiled
+        if (sampleQueryMatcher.getClass() == MappableQueryMatcherGroup.class) {
+            return parallelQuery(
+                mappables, compile((MappableQueryMatcherGroup<K, ?>)sampleQueryMatcher, sample, mappables), threshold
+            );
+        }
+
+        return ForkJoinQuery.filter((List<T>)mappables, new ForkJoinQuery.Filter<T>() {
+            @Override
+            public boolean match(T mappable) {
+                return sampleQueryMatcher.match(mappable, sample);
+            }
+        }, threshold);
+    }
+
+    public static <T extends Mappable<K, V>, K, V> List<T> parallelQuery(
+        List<? extends Mappable<K, V>> mappables, CompiledMappableQuery<K, V> compiledQuery
+    ) {
+        return parallelQuery(mappables, compiledQuery, ForkJoinQuery.DEFAULT_THRESHOLD);
+    }
+
+    public static <T extends Mappable<K, V>, K, V> List<T> parallelQuery(
+        List<? extends Mappable<K, V>> mappables, final CompiledMappableQuery<K, V> compiledQuery, int threshold
+    ) {
+        return ForkJoinQuery.filter((List<T>)mappables, new ForkJoinQuery.Filter<T>() {
+            @Override
+            public boolean match(T mappable) {
+                return compiledQuery.match(mappable);
+            }
+        }, threshold);
+    }
+
     public static <T extends Mappable<K, V>, K, V> List<T> queryMax(
         Collection<? extends Mappable<K, V>> mappables, K key
+    ) {
+        return queryMax((Iterable<? extends Mappable<K, V>>)mappables, key);
+    }
+
+    public static <T extends Mappable<K, V>, K, V> List<T> queryMax(
+        Collection<? extends Mappable<K, V>> mappables, K key, Comparator<V> comparator
+    ) {
+        return queryMax((Iterable<? extends Mappable<K, V>>)mappables, key, comparator);
+    }
+
+    public static <T extends Mappable<K, V>, K, V> List<T> queryMin(
+        Collection<? extends Mappable<K, V>> mappables, K key
+    ) {
+        return queryMin((Iterable<? extends Mappable<K, V>>)mappables, key);
+    }
+
+    public static <T extends Mappable<K, V>, K, V> List<T> queryMin(
+        Collection<? extends Mappable<K, V>> mappables, K key, Comparator<V> comparator
+    ) {
+        return queryMin((Iterable<? extends Mappable<K, V>>)mappables, key, comparator);
+    }
+
+    public static <T extends Mappable<K, V>, K, V> List<T> queryMax(
+        Iterable<? extends Mappable<K, V>> mappables, K key
     ) {
         List<T> results = new ArrayList<T>();
         V currentMax = null;
@@ -473,7 +744,7 @@ public class MappableQueryer {
     }
 
     public static <T extends Mappable<K, V>, K, V> List<T> queryMin(
-        Collection<? extends Mappable<K, V>> mappables, K key
+        Iterable<? extends Mappable<K, V>> mappables, K key
     ) {
         List<T> results = new ArrayList<T>();
         V currentMin = null;
@@ -501,7 +772,7 @@ public class MappableQueryer {
     }
 
     public static <T extends Mappable<K, V>, K, V> List<T> queryMax(
-        Collection<? extends Mappable<K, V>> mappables, K key, Comparator<V> comparator
+        Iterable<? extends Mappable<K, V>> mappables, K key, Comparator<V> comparator
     ) {
         List<T> results = new ArrayList<T>();
         V currentMax = null;
@@ -529,7 +800,7 @@ public class MappableQueryer {
     }
 
     public static <T extends Mappable<K, V>, K, V> List<T> queryMin(
-        Collection<? extends Mappable<K, V>> mappables, K key, Comparator<V> comparator
+        Iterable<? extends Mappable<K, V>> mappables, K key, Comparator<V> comparator
     ) {
         List<T> results = new ArrayList<T>();
         V currentMin = null;
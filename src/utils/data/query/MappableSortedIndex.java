@@ -0,0 +1,295 @@
+package utils.data.query;
+
+import utils.data.CrossComparator;
+import utils.data.DataManipulator;
+import utils.data.Mappable;
+import utils.data.SortedListAvl;
+import utils.math.IntegerRange;
+
+import java.util.*;
+
+/**
+ * Sorted index ordered by a MappableIndexComparator, usable for samples containing the leading indexed keys
+ */
+public class MappableSortedIndex<T extends Mappable<K, V>, K, V> implements MappableIndex<T, K, V> {
+    private String name;
+    private MappableIndexComparator<K, V> indexComparator;
+    private SortedListAvl<T> mappables;
+
+    @SafeVarargs
+    public MappableSortedIndex(String name, K ... indexedKeys) {
+        List<K> keys = new ArrayList<>(indexedKeys.length);
+        for (K indexedKey : indexedKeys) {
+            keys.add(indexedKey);
+        }
+
+        init(name, new DefaultMappableIndexComparator<K, V>(keys));
+    }
+
+    public MappableSortedIndex(String name, MappableIndexComparator<K, V> indexComparator) {
+        init(name, indexComparator);
+    }
+
+    private void init(String name, MappableIndexComparator<K, V> indexComparator) {
+        this.name = name;
+        this.indexComparator = indexComparator;
+        this.mappables = new SortedListAvl<T>((Comparator<T>)indexComparator);
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public List<K> getIndexedKeys() {
+        return this.indexComparator.getIndexedKeys();
+    }
+
+    public MappableIndexComparator<K, V> getIndexComparator() {
+        return this.indexComparator;
+    }
+
+    public List<T> getMappables() {
+        return this.mappables;
+    }
+
+    @Override
+    public int usableKeyCount(Collection<K> keys) {
+        int count = 0;
+        for (K key : getIndexedKeys()) {
+            if (!keys.contains(key)) {
+                break;
+            }
+            count++;
+        }
+
+        return count;
+    }
+
+    @Override
+    public int estimate(Map<K, V> sample) {
+        IntegerRange range = binarySearchRange(sample);
+
+        return (range != null)? range.getRangeSize() : 0;
+    }
+
+    @Override
+    public List<T> query(Map<K, V> sample) {
+        return get(binarySearchRange(sample));
+    }
+
+    /**
+     * Locate the index range of elements equal to the sample on the leading indexed keys
+     *
+     * @param sample query sample, keys after the leading indexed keys are ignored
+     *
+     * @return index range, null if nothing matches
+     */
+    public IntegerRange binarySearchRange(Map<K, V> sample) {
+        final Map<K, V> prefix = new HashMap<>();
+        for (K key : getIndexedKeys()) {
+            if (!sample.containsKey(key)) {
+                break;
+            }
+            prefix.put(key, sample.get(key));
+        }
+
+        if (prefix.isEmpty()) {
+            throw new UnsupportedOperationException("Sorted index ["+this.name+"] not usable for keys: "+sample.keySet());
+        }
+
+        CrossComparator<Map<K, V>, T> cc = new CrossComparator<Map<K, V>, T>() {
+            @Override
+            public int compare(Map<K, V> sample, T t) {
+                return -indexComparator.compare(t, sample);
+            }
+        };
+
+        int startIndex = this.mappables.indexOf(prefix, cc);
+
+        if (startIndex != -1) {
+            return new IntegerRange(startIndex, this.mappables.lastIndexOf(prefix, cc));
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Query mappables with the leading indexed key in a range
+     *
+     * @param key leading indexed key
+     * @param from lower bound, null for no lower bound
+     * @param fromInclusive include values equal to the lower bound
+     * @param to upper bound, null for no upper bound
+     * @param toInclusive include values equal to the upper bound
+     *
+     * @return mappables in the range, in index order
+     */
+    public List<T> queryRange(K key, V from, boolean fromInclusive, V to, boolean toInclusive) {
+        return get(searchRange(this.mappables, this.indexComparator, key, from, fromInclusive, to, toInclusive));
+    }
+
+    /**
+     * Locate the index range of a sorted list with the leading indexed key in a range
+     *
+     * @param mappables list sorted by the index comparator
+     * @param indexComparator index comparator usable for the key
+     * @param key leading indexed key
+     * @param from lower bound, null for no lower bound
+     * @param fromInclusive include values equal to the lower bound
+     * @param to upper bound, null for no upper bound
+     * @param toInclusive include values equal to the upper bound
+     *
+     * @return index range, null if nothing is in the range
+     */
+    static <T extends Mappable<K, V>, K, V> IntegerRange searchRange(
+        SortedListAvl<T> mappables, final MappableIndexComparator<K, V> indexComparator,
+        K key, V from, boolean fromInclusive, V to, boolean toInclusive
+    ) {
+        if (!indexComparator.usableForKey(key)) {
+            throw new UnsupportedOperationException("This index comparator not usable for key: ["+key+"]");
+        }
+
+        CrossComparator<Map<K, V>, T> cc = new CrossComparator<Map<K, V>, T>() {
+            @Override
+            public int compare(Map<K, V> sample, T t) {
+                return -indexComparator.compare(t, sample);
+            }
+        };
+
+        int startIndex, endIndex;
+        if (from != null) {
+            Map<K, V> sample = DataManipulator.createSimpleMap(key, from);
+
+            startIndex = fromInclusive? mappables.greaterOrEqualsIndexOf(sample, cc) : mappables.greaterIndexOf(sample, cc);
+        } else {
+            startIndex = mappables.isEmpty()? -1 : 0;
+        }
+
+        if (to != null) {
+            Map<K, V> sample = DataManipulator.createSimpleMap(key, to);
+
+            endIndex = toInclusive? mappables.smallerOrEqualsIndexOf(sample, cc) : mappables.smallerIndexOf(sample, cc);
+        } else {
+            endIndex = mappables.size() - 1;
+        }
+
+        if (startIndex != -1 && endIndex != -1 && startIndex <= endIndex) {
+            return new IntegerRange(startIndex, endIndex);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Check that the values of the leading indexed key are strings, so that a LIKE prefix can be searched as a range.
+     * Values ordered by an index are mutually comparable, so only the smallest and largest values are checked,
+     * nulls are ordered first.
+     *
+     * @param mappables list sorted by an index comparator leading with the key
+     * @param key leading indexed key
+     *
+     * @return true if every non-null value is a string and there is at least one
+     */
+    static <T extends Mappable<K, V>, K, V> boolean hasStringValues(List<T> mappables, K key) {
+        if (mappables.isEmpty()) {
+            return false;
+        }
+
+        V first = mappables.get(0).getAsMapValue(key), last = mappables.get(mappables.size() - 1).getAsMapValue(key);
+
+        return (first == null || first instanceof String) && last instanceof String;
+    }
+
+    /**
+     * Extract the literal prefix of a LIKE pattern, i.e. everything before the first wildcard
+     *
+     * @param pattern LIKE pattern with * and ? as wildcards
+     *
+     * @return literal prefix, empty if the pattern starts with a wildcard
+     */
+    static String likePrefix(String pattern) {
+        int i = 0;
+        while (i < pattern.length() && pattern.charAt(i) != '*' && pattern.charAt(i) != '?') {
+            i++;
+        }
+
+        return pattern.substring(0, i);
+    }
+
+    /**
+     * Exclusive upper bound of all strings starting with a prefix
+     *
+     * @param prefix non-empty prefix
+     *
+     * @return smallest string greater than all strings with the prefix, null if there is none
+     */
+    static String likePrefixUpperBound(String prefix) {
+        int i = prefix.length() - 1;
+        while (i >= 0 && prefix.charAt(i) == Character.MAX_VALUE) {
+            i--;
+        }
+
+        if (i >= 0) {
+            return prefix.substring(0, i) + (char)(prefix.charAt(i) + 1);
+        } else {
+            return null;
+        }
+    }
+
+    public List<T> get(IntegerRange range) {
+        List<T> results = new ArrayList<T>();
+        if (range != null) {
+            ListIterator<T> iter = this.mappables.listIterator(range.getMin());
+
+            for (int i = range.getMin(); i <= range.getMax(); i++) {
+                results.add(iter.next());
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public void add(T mappable) {
+        this.mappables.add(mappable);
+    }
+
+    @Override
+    public void addAll(Collection<T> mappables) {
+        this.mappables.addAll(mappables);
+    }
+
+    @Override
+    public boolean remove(T mappable) {
+        // Elements equal by index keys are not necessarily the same mappable, look for it in the equal range
+        int index = this.mappables.indexOf(mappable);
+
+        if (index != -1) {
+            int lastIndex = this.mappables.lastIndexOf(mappable);
+            ListIterator<T> iter = this.mappables.listIterator(index);
+
+            while (index <= lastIndex) {
+                if (mappable.equals(iter.next())) {
+                    this.mappables.removeAt(index);
+
+                    return true;
+                }
+                index++;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        this.mappables.clear();
+    }
+
+    @Override
+    public int size() {
+        return this.mappables.size();
+    }
+}
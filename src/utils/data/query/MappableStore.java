@@ -1,12 +1,15 @@
 package utils.data.query;
 
 import utils.data.CrossComparator;
+import utils.data.DataComparator;
 import utils.data.DataManipulator;
 import utils.data.Mappable;
 import utils.data.SortedListAvl;
 import utils.math.IntegerRange;
+import utils.regex.WildcardToRegularExpression;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Created with IntelliJ IDEA.
@@ -19,6 +22,9 @@ public class MappableStore<T extends Mappable<K, V>, K, V> {
 
     private MappableIndexComparator<K, V> indexComparator;
 
+    // Named secondary indexes, in the order added
+    private Map<String, MappableIndex<T, K, V>> indexes = new LinkedHashMap<>();
+
     public MappableStore() {
         this.mappables = new SortedListAvl<T>();
     }
@@ -39,10 +45,31 @@ public class MappableStore<T extends Mappable<K, V>, K, V> {
 
     public void add(T mappable) {
         this.mappables.add(mappable);
+
+        for (MappableIndex<T, K, V> index : this.indexes.values()) {
+            index.add(mappable);
+        }
     }
 
     public boolean remove(T mappable) {
-        return this.mappables.remove(mappable);
+        // Elements equal by store order are not necessarily the same mappable, look for it in the equal range
+        int index = this.mappables.indexOf(mappable);
+
+        if (index != -1) {
+            int lastIndex = this.mappables.lastIndexOf(mappable);
+            ListIterator<T> iter = this.mappables.listIterator(index);
+
+            while (index <= lastIndex) {
+                if (mappable.equals(iter.next())) {
+                    removeAt(index);
+
+                    return true;
+                }
+                index++;
+            }
+        }
+
+        return false;
     }
 
     public T remove(int index) {
@@ -50,7 +77,109 @@ public class MappableStore<T extends Mappable<K, V>, K, V> {
     }
 
     public T removeAt(int index) {
-        return this.mappables.removeAt(index);
+        T mappable = this.mappables.removeAt(index);
+
+        for (MappableIndex<T, K, V> secondaryIndex : this.indexes.values()) {
+            secondaryIndex.remove(mappable);
+        }
+
+        return mappable;
+    }
+
+    /**
+     * Add a hash index for equality queries on all of the given keys
+     *
+     * @param name index name
+     * @param keys indexed keys
+     *
+     * @return the index
+     */
+    @SafeVarargs
+    public final MappableHashIndex<T, K, V> addHashIndex(String name, K ... keys) {
+        List<K> indexedKeys = new ArrayList<>(keys.length);
+        for (K key : keys) {
+            indexedKeys.add(key);
+        }
+
+        MappableHashIndex<T, K, V> index = new MappableHashIndex<>(name, indexedKeys);
+        addIndex(index);
+
+        return index;
+    }
+
+    /**
+     * Add a sorted index for queries on the leading keys of the index comparator
+     *
+     * @param name index name
+     * @param indexComparator index order
+     *
+     * @return the index
+     */
+    public MappableSortedIndex<T, K, V> addSortedIndex(String name, MappableIndexComparator<K, V> indexComparator) {
+        MappableSortedIndex<T, K, V> index = new MappableSortedIndex<>(name, indexComparator);
+        addIndex(index);
+
+        return index;
+    }
+
+    /**
+     * Add a secondary index, filled with the current mappables of the store
+     *
+     * @param index secondary index, replacing any index of the same name
+     */
+    public void addIndex(MappableIndex<T, K, V> index) {
+        index.clear();
+        index.addAll(this.mappables);
+
+        this.indexes.put(index.getName(), index);
+    }
+
+    public MappableIndex<T, K, V> removeIndex(String name) {
+        return this.indexes.remove(name);
+    }
+
+    public MappableIndex<T, K, V> getIndex(String name) {
+        return this.indexes.get(name);
+    }
+
+    public Set<String> getIndexNames() {
+        return Collections.unmodifiableSet(this.indexes.keySet());
+    }
+
+    /**
+     * Pick the secondary index with the fewest candidates for a sample
+     *
+     * @param sample query sample
+     *
+     * @return most selective secondary index, null if the store order or a full scan is no worse
+     */
+    public MappableIndex<T, K, V> selectIndex(Map<K, V> sample) {
+        int bestEstimate;
+        if (this.indexComparator != null && this.indexComparator.usableForKeys(sample.keySet())) {
+            IntegerRange range = binarySearchRange(sample);
+
+            bestEstimate = (range != null)? range.getRangeSize() : 0;
+        } else {
+            bestEstimate = this.mappables.size();
+        }
+
+        MappableIndex<T, K, V> best = null;
+        for (MappableIndex<T, K, V> index : this.indexes.values()) {
+            if (bestEstimate == 0) {
+                break;
+            }
+
+            if (index.usableKeyCount(sample.keySet()) > 0) {
+                int estimate = index.estimate(sample);
+
+                if (estimate < bestEstimate) {
+                    best = index;
+                    bestEstimate = estimate;
+                }
+            }
+        }
+
+        return best;
     }
 
     public List<T> getMappables() {
@@ -70,7 +199,9 @@ public class MappableStore<T extends Mappable<K, V>, K, V> {
     }
 
     public List<T> query(K key, V value) {
-        if (this.indexComparator != null && this.indexComparator.usableForKey(key)) {
+        if (!this.indexes.isEmpty()) {
+            return query(DataManipulator.createSimpleMap(key, value));
+        } else if (this.indexComparator != null && this.indexComparator.usableForKey(key)) {
             IntegerRange range = binarySearchRange(key, value);
 
             return get(range);
@@ -79,8 +210,26 @@ public class MappableStore<T extends Mappable<K, V>, K, V> {
         }
     }
 
+    /**
+     * Query by equality of all sample values. The most selective secondary index is used when there is one,
+     * in which case results follow the order of that index.
+     *
+     * @param sample query sample
+     *
+     * @return matching mappables
+     */
     public List<T> query(Map<K, V> sample) {
-        if (this.indexComparator != null && this.indexComparator.usableForKeys(sample.keySet())) {
+        MappableIndex<T, K, V> index = selectIndex(sample);
+
+        if (index != null) {
+            List<T> candidates = index.query(sample);
+
+            if (index.usableKeyCount(sample.keySet()) < sample.size()) {
+                return MappableQueryer.query(candidates, sample);
+            } else {
+                return candidates;
+            }
+        } else if (this.indexComparator != null && this.indexComparator.usableForKeys(sample.keySet())) {
             IntegerRange range = binarySearchRange(sample);
 
             return get(range);
@@ -89,6 +238,140 @@ public class MappableStore<T extends Mappable<K, V>, K, V> {
         }
     }
 
+    public List<T> queryGreater(K key, V value) {
+        return queryRange(key, value, false, null, false);
+    }
+
+    public List<T> queryGreaterOrEqual(K key, V value) {
+        return queryRange(key, value, true, null, false);
+    }
+
+    public List<T> querySmaller(K key, V value) {
+        return queryRange(key, null, false, value, false);
+    }
+
+    public List<T> querySmallerOrEqual(K key, V value) {
+        return queryRange(key, null, false, value, true);
+    }
+
+    /**
+     * Query by a value range of a key. When the store order or a sorted index leads with the key,
+     * only the matching slice is read and results follow that order, otherwise every mappable is compared.
+     * Null values are smaller than any bound.
+     *
+     * @param key query key
+     * @param from lower bound, null for no lower bound
+     * @param fromInclusive include values equal to the lower bound
+     * @param to upper bound, null for no upper bound
+     * @param toInclusive include values equal to the upper bound
+     *
+     * @return matching mappables
+     */
+    public List<T> queryRange(K key, V from, boolean fromInclusive, V to, boolean toInclusive) {
+        if (this.indexComparator != null && this.indexComparator.usableForKey(key)) {
+            return get(MappableSortedIndex.searchRange(
+                this.mappables, this.indexComparator, key, from, fromInclusive, to, toInclusive
+            ));
+        }
+
+        MappableSortedIndex<T, K, V> index = findSortedIndex(key);
+        if (index != null) {
+            return index.queryRange(key, from, fromInclusive, to, toInclusive);
+        }
+
+        List<T> results = new ArrayList<T>();
+        for (T mappable : this.mappables) {
+            V v = mappable.getAsMapValue(key);
+
+            if (from != null) {
+                int cmp = DataComparator.compare(v, from, true, true);
+                if (cmp < 0 || (cmp == 0 && !fromInclusive)) {
+                    continue;
+                }
+            }
+            if (to != null) {
+                int cmp = DataComparator.compare(v, to, true, true);
+                if (cmp > 0 || (cmp == 0 && !toInclusive)) {
+                    continue;
+                }
+            }
+
+            results.add(mappable);
+        }
+
+        return results;
+    }
+
+    /**
+     * Query string values by a LIKE pattern, with * and ? as wildcards. With a sorted order on a key holding strings,
+     * the literal prefix of the pattern is read as a range and only that range is matched against the pattern.
+     * Other values are all matched on their toString.
+     *
+     * @param key query key
+     * @param pattern LIKE pattern
+     *
+     * @return matching mappables
+     */
+    public List<T> queryLike(K key, String pattern) {
+        String prefix = MappableSortedIndex.likePrefix(pattern);
+
+        List<T> sorted = null;
+        if (this.indexComparator != null && this.indexComparator.usableForKey(key)) {
+            sorted = this.mappables;
+        } else {
+            MappableSortedIndex<T, K, V> index = findSortedIndex(key);
+            if (index != null) {
+                sorted = index.getMappables();
+            }
+        }
+
+        // Other values match on toString, which does not follow their order
+        List<T> candidates;
+        if (!prefix.isEmpty() && sorted != null && MappableSortedIndex.hasStringValues(sorted, key)) {
+            candidates = queryRange(
+                key, MappableStore.<V>stringValue(prefix), true,
+                MappableStore.<V>stringValue(MappableSortedIndex.likePrefixUpperBound(prefix)), false
+            );
+
+            if (pattern.length() == prefix.length() + 1 && pattern.charAt(prefix.length()) == '*') {
+                return candidates;
+            }
+        } else {
+            candidates = this.mappables;
+        }
+
+        // Matched as MappableLikeMatcher does, with the pattern compiled once
+        Pattern regex = Pattern.compile(WildcardToRegularExpression.wildcardToRegex(pattern));
+        List<T> results = new ArrayList<T>();
+
+        for (T mappable : candidates) {
+            if (regex.matcher(mappable.getAsMapValue(key).toString()).matches()) {
+                results.add(mappable);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * String bounds of a LIKE range, compared against values holding strings only
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> V stringValue(String s) {
+        return (V) s;
+    }
+
+    private MappableSortedIndex<T, K, V> findSortedIndex(K key) {
+        for (MappableIndex<T, K, V> index : this.indexes.values()) {
+            if (index instanceof MappableSortedIndex &&
+                ((MappableSortedIndex<T, K, V>)index).getIndexComparator().usableForKey(key)) {
+                return (MappableSortedIndex<T, K, V>)index;
+            }
+        }
+
+        return null;
+    }
+
     public void setIndexComparator(MappableIndexComparator<K, V> indexComparator) {
         if (this.indexComparator != indexComparator) {
             this.indexComparator = indexComparator;
@@ -0,0 +1,158 @@
+package utils.data.query;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily evaluated query result. Source elements are matched one at a time as the cursor advances,
+ * so nothing past the last requested element is evaluated and no result list is built.
+ * A cursor can be iterated once.
+ */
+public abstract class QueryCursor<E> implements Iterator<E>, Iterable<E> {
+    private Iterator<? extends E> source;
+
+    private long skip;
+    private long limit = Long.MAX_VALUE;
+    private long returned;
+
+    // Prefetched match for hasNext
+    private E next;
+    private boolean nextReady;
+    private boolean started;
+
+    public QueryCursor(Iterator<? extends E> source) {
+        this.source = source;
+    }
+
+    /**
+     * Match a source element
+     *
+     * @param e source element
+     *
+     * @return true to include the element in the results
+     */
+    protected abstract boolean match(E e);
+
+    /**
+     * Skip the first matches
+     *
+     * @param n number of matches to skip
+     *
+     * @return this cursor
+     */
+    public QueryCursor<E> skip(long n) {
+        checkNotStarted();
+        if (n < 0) {
+            throw new IllegalArgumentException("Skip must not be negative: "+n);
+        }
+
+        this.skip += n;
+
+        return this;
+    }
+
+    /**
+     * Stop after a number of matches, counted after skipped matches
+     *
+     * @param n maximum number of matches
+     *
+     * @return this cursor
+     */
+    public QueryCursor<E> limit(long n) {
+        checkNotStarted();
+        if (n < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: "+n);
+        }
+
+        this.limit = Math.min(this.limit, n);
+
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        this.started = true;
+
+        if (this.nextReady) {
+            return true;
+        } else if (this.returned >= this.limit) {
+            return false;
+        }
+
+        while (this.source.hasNext()) {
+            E e = this.source.next();
+
+            if (match(e)) {
+                if (this.skip > 0) {
+                    this.skip--;
+                } else {
+                    this.next = e;
+                    this.nextReady = true;
+
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        E e = this.next;
+        this.next = null;
+        this.nextReady = false;
+        this.returned++;
+
+        return e;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return this;
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Collect the remaining matches
+     *
+     * @return remaining matches
+     */
+    public List<E> toList() {
+        List<E> results = new ArrayList<E>();
+        while (hasNext()) {
+            results.add(next());
+        }
+
+        return results;
+    }
+
+    /**
+     * Count the remaining matches
+     *
+     * @return number of remaining matches
+     */
+    public long count() {
+        long count = 0;
+        while (hasNext()) {
+            next();
+            count++;
+        }
+
+        return count;
+    }
+
+    private void checkNotStarted() {
+        if (this.started) {
+            throw new IllegalStateException("Cursor has already started!");
+        }
+    }
+}
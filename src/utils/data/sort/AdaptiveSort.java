@@ -0,0 +1,956 @@
+package utils.data.sort;
+
+import utils.data.DataComparator;
+import utils.data.DataManipulator;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sort facade choosing the algorithm from a profile of the input.
+ *
+ * Input is classified by size, by the number of ascending / descending runs (counted by a scan which stops
+ * once the run limit is exceeded) and by the ratio of duplicates among evenly spaced samples. The algorithm
+ * of each input class is looked up in a Selection table, separately for primitive and object arrays.
+ * Large inputs use the parallel sort of the chosen algorithm when the common fork-join pool has more than
+ * one thread.
+ *
+ * Default selection may be replaced as a whole by setDefaultSelection or per call, SorterBenchmark
+ * (see benchmark/jmh) measures the algorithms on the target machine. Object arrays are not sorted stably
+ * unless every object algorithm of the selection is TIM_SORT.
+ */
+public class AdaptiveSort implements Sorter {
+    public enum InputClass {
+        // Shorter than small size
+        SMALL,
+        // At most run limit ascending / descending runs, or object runs of object run length on average
+        PRESORTED,
+        // Shorter than medium size
+        MEDIUM,
+        // Duplicate ratio of samples reaching duplicate ratio
+        DUPLICATES,
+        RANDOM
+    }
+
+    public enum Algorithm {
+        INSERTION_SORT,
+        // Shell sort & comb sort are available for int arrays only
+        SHELL_SORT,
+        COMB_SORT,
+        HEAP_SORT,
+        INTRO_SORT,
+        MERGE_SORT,
+        // Timsort is available for object arrays only
+        TIM_SORT,
+        MULTI_SORT,
+        SINGLE_PIVOT_QUICK_SORT,
+        DUAL_PIVOT_QUICK_SORT,
+        // Radix sort is available for primitive arrays only
+        RADIX_SORT
+    }
+
+    /**
+     * Thresholds and algorithm of each input class. Algorithms not available for the sorted type fall back to
+     * DUAL_PIVOT_QUICK_SORT for primitive arrays and TIM_SORT for object arrays. Float & double arrays are sorted
+     * by RADIX_SORT or DUAL_PIVOT_QUICK_SORT only, other algorithms do not order NaN and -0.0.
+     */
+    public static class Selection {
+        private int smallSize = 48;
+        private int mediumSize = 1024;
+        private int parallelSize = 1 << 17;
+        private int runLimit = 64;
+        private int objectRunLength = 128;
+        private int sampleSize = 256;
+        private double duplicateRatio = 0.25;
+
+        private final Algorithm[] primitiveAlgorithms = new Algorithm[InputClass.values().length];
+        private final Algorithm[] objectAlgorithms = new Algorithm[InputClass.values().length];
+
+        public Selection() {
+            setPrimitiveAlgorithm(InputClass.SMALL, Algorithm.INSERTION_SORT);
+            setPrimitiveAlgorithm(InputClass.PRESORTED, Algorithm.DUAL_PIVOT_QUICK_SORT);
+            setPrimitiveAlgorithm(InputClass.MEDIUM, Algorithm.DUAL_PIVOT_QUICK_SORT);
+            setPrimitiveAlgorithm(InputClass.DUPLICATES, Algorithm.RADIX_SORT);
+            setPrimitiveAlgorithm(InputClass.RANDOM, Algorithm.RADIX_SORT);
+
+            setObjectAlgorithm(InputClass.SMALL, Algorithm.TIM_SORT);
+            setObjectAlgorithm(InputClass.PRESORTED, Algorithm.TIM_SORT);
+            setObjectAlgorithm(InputClass.MEDIUM, Algorithm.INTRO_SORT);
+            setObjectAlgorithm(InputClass.DUPLICATES, Algorithm.MULTI_SORT);
+            setObjectAlgorithm(InputClass.RANDOM, Algorithm.INTRO_SORT);
+        }
+
+        public Selection(Selection selection) {
+            smallSize = selection.smallSize;
+            mediumSize = selection.mediumSize;
+            parallelSize = selection.parallelSize;
+            runLimit = selection.runLimit;
+            objectRunLength = selection.objectRunLength;
+            sampleSize = selection.sampleSize;
+            duplicateRatio = selection.duplicateRatio;
+
+            System.arraycopy(selection.primitiveAlgorithms, 0, primitiveAlgorithms, 0, primitiveAlgorithms.length);
+            System.arraycopy(selection.objectAlgorithms, 0, objectAlgorithms, 0, objectAlgorithms.length);
+        }
+
+        public int getSmallSize() {
+            return smallSize;
+        }
+
+        public Selection setSmallSize(int smallSize) {
+            this.smallSize = smallSize;
+            return this;
+        }
+
+        public int getMediumSize() {
+            return mediumSize;
+        }
+
+        public Selection setMediumSize(int mediumSize) {
+            this.mediumSize = mediumSize;
+            return this;
+        }
+
+        public int getParallelSize() {
+            return parallelSize;
+        }
+
+        public Selection setParallelSize(int parallelSize) {
+            this.parallelSize = parallelSize;
+            return this;
+        }
+
+        public int getRunLimit() {
+            return runLimit;
+        }
+
+        public Selection setRunLimit(int runLimit) {
+            this.runLimit = runLimit;
+            return this;
+        }
+
+        public int getObjectRunLength() {
+            return objectRunLength;
+        }
+
+        public Selection setObjectRunLength(int objectRunLength) {
+            if (objectRunLength < 1) {
+                throw new IllegalArgumentException("Object run length must be positive");
+            }
+            this.objectRunLength = objectRunLength;
+            return this;
+        }
+
+        public int getSampleSize() {
+            return sampleSize;
+        }
+
+        public Selection setSampleSize(int sampleSize) {
+            if (sampleSize < 2) {
+                throw new IllegalArgumentException("Sample size must be at least 2");
+            }
+            this.sampleSize = sampleSize;
+            return this;
+        }
+
+        public double getDuplicateRatio() {
+            return duplicateRatio;
+        }
+
+        public Selection setDuplicateRatio(double duplicateRatio) {
+            this.duplicateRatio = duplicateRatio;
+            return this;
+        }
+
+        public Algorithm getPrimitiveAlgorithm(InputClass inputClass) {
+            return primitiveAlgorithms[inputClass.ordinal()];
+        }
+
+        public Selection setPrimitiveAlgorithm(InputClass inputClass, Algorithm algorithm) {
+            primitiveAlgorithms[inputClass.ordinal()] = algorithm;
+            return this;
+        }
+
+        public Algorithm getObjectAlgorithm(InputClass inputClass) {
+            return objectAlgorithms[inputClass.ordinal()];
+        }
+
+        public Selection setObjectAlgorithm(InputClass inputClass, Algorithm algorithm) {
+            objectAlgorithms[inputClass.ordinal()] = algorithm;
+            return this;
+        }
+    }
+
+    private static volatile Selection defaultSelection = new Selection();
+
+    private AdaptiveSort() {}
+
+    /**
+     * Get a copy of the selection used when none is supplied
+     *
+     * @return copy of default selection
+     */
+    public static Selection getDefaultSelection() {
+        return new Selection(defaultSelection);
+    }
+
+    /**
+     * Replace the selection used when none is supplied, the selection is copied
+     *
+     * @param selection new default selection
+     */
+    public static void setDefaultSelection(Selection selection) {
+        defaultSelection = new Selection(selection);
+    }
+
+    /**
+     * Sort the list using the algorithm chosen for its content
+     *
+     * @param <E> Generic type E
+     * @param list The list to be sorted
+     */
+    public static <E> void sort(List<E> list) {
+        Comparator<E> c = DataComparator.buildComparator();
+        sort(list, c);
+    }
+
+    /**
+     * Sort the list using the algorithm chosen for its content with supplied comparator
+     *
+     * @param list The list to be sorted
+     * @param comparator Comparator for comparing purpose
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static void sort(List list, Comparator comparator) {
+        if (list.size() > 1) {
+            Object[] array = list.toArray();
+            sort(array, comparator);
+            DataManipulator.copyArrayToList(list, array);
+        }
+    }
+
+    /**
+     * Sort the array using the algorithm chosen for its content
+     *
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     */
+    public static <E> void sort(E[] array) {
+        Comparator<E> c = DataComparator.buildComparator();
+        sort(array, c);
+    }
+
+    /**
+     * Sort the array using the algorithm chosen for its content with supplied comparator
+     *
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     * @param comparator Comparator for comparing purpose
+     */
+    public static <E> void sort(E[] array, Comparator<E> comparator) {
+        sort(array, comparator, defaultSelection);
+    }
+
+    /**
+     * Sort the array using the algorithm chosen for its content by supplied selection
+     *
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     * @param comparator Comparator for comparing purpose
+     * @param selection Thresholds and algorithms of input classes
+     */
+    public static <E> void sort(E[] array, Comparator<E> comparator, Selection selection) {
+        boolean parallel = isParallel(array.length, selection);
+
+        switch (selection.getObjectAlgorithm(classify(array, comparator, selection))) {
+            case INSERTION_SORT:
+                InsertionSort.sort(array, comparator);
+                break;
+            case HEAP_SORT:
+                HeapSort.sort(array, comparator);
+                break;
+            case INTRO_SORT:
+                if (parallel) {
+                    IntroSort.parallelSort(array, comparator);
+                } else {
+                    IntroSort.sort(array, comparator);
+                }
+                break;
+            case MERGE_SORT:
+                if (parallel) {
+                    MergeSort.parallelSort(array, comparator);
+                } else {
+                    MergeSort.sort(array, comparator);
+                }
+                break;
+            case MULTI_SORT:
+                if (parallel) {
+                    MultiSort.parallelSort(array, comparator);
+                } else {
+                    MultiSort.sort(array, comparator);
+                }
+                break;
+            case SINGLE_PIVOT_QUICK_SORT:
+                SinglePivotQuickSort.sort(array, comparator);
+                break;
+            case DUAL_PIVOT_QUICK_SORT:
+                if (parallel) {
+                    DualPivotQuickSort.parallelSort(array, comparator);
+                } else {
+                    DualPivotQuickSort.sort(array, comparator);
+                }
+                break;
+            default:
+                if (parallel) {
+                    TimSort.parallelSort(array, comparator);
+                } else {
+                    TimSort.sort(array, comparator);
+                }
+        }
+    }
+
+    /**
+     * Classify the array by its size, runs and duplicates
+     *
+     * @param <E> Generic type E
+     * @param array The array to be classified
+     * @param comparator Comparator for comparing purpose
+     * @param selection Thresholds of input classes
+     * @return input class of the array
+     */
+    public static <E> InputClass classify(E[] array, Comparator<E> comparator, Selection selection) {
+        int n = array.length;
+
+        if (n < selection.smallSize) {
+            return InputClass.SMALL;
+        }
+
+        // Merging runs saves comparisons as long as runs are long on average
+        int runs = 0, limit = Math.max(selection.runLimit, n / selection.objectRunLength);
+
+        for (int k = 0; k < n - 1 && runs <= limit; k++, runs++) {
+            if (comparator.compare(array[k], array[k + 1]) <= 0) {
+                while (++k < n - 1 && comparator.compare(array[k], array[k + 1]) <= 0);
+            } else {
+                while (++k < n - 1 && comparator.compare(array[k], array[k + 1]) >= 0);
+            }
+        }
+
+        if (runs <= limit) {
+            return InputClass.PRESORTED;
+        } else if (n < selection.mediumSize) {
+            return InputClass.MEDIUM;
+        }
+
+        int samples = Math.min(selection.sampleSize, n), step = n / samples, duplicates = 0;
+        Object[] sample = new Object[samples];
+
+        for (int i = 0; i < samples; i++) {
+            sample[i] = array[i * step];
+        }
+
+        @SuppressWarnings("unchecked")
+        E[] sorted = (E[]) sample;
+        TimSort.sort(sorted, comparator);
+
+        for (int i = 1; i < samples; i++) {
+            if (comparator.compare(sorted[i - 1], sorted[i]) == 0) {
+                duplicates++;
+            }
+        }
+
+        return isDuplicate(duplicates, samples, selection)? InputClass.DUPLICATES : InputClass.RANDOM;
+    }
+
+    public static void sort(byte[] array) {
+        sort(array, defaultSelection);
+    }
+
+    public static void sort(byte[] array, Selection selection) {
+        boolean parallel = isParallel(array.length, selection);
+
+        switch (selection.getPrimitiveAlgorithm(classify(array, selection))) {
+            case INSERTION_SORT:
+                InsertionSort.sort(array);
+                break;
+            case HEAP_SORT:
+                HeapSort.sort(array);
+                break;
+            case INTRO_SORT:
+                if (parallel) {
+                    IntroSort.parallelSort(array);
+                } else {
+                    IntroSort.sort(array);
+                }
+                break;
+            case MERGE_SORT:
+                if (parallel) {
+                    MergeSort.parallelSort(array);
+                } else {
+                    MergeSort.sort(array);
+                }
+                break;
+            case MULTI_SORT:
+                if (parallel) {
+                    MultiSort.parallelSort(array);
+                } else {
+                    MultiSort.sort(array);
+                }
+                break;
+            case SINGLE_PIVOT_QUICK_SORT:
+                SinglePivotQuickSort.sort(array);
+                break;
+            case RADIX_SORT:
+                RadixSort.sort(array);
+                break;
+            default:
+                if (parallel) {
+                    DualPivotQuickSort.parallelSort(array);
+                } else {
+                    DualPivotQuickSort.sort(array);
+                }
+        }
+    }
+
+    public static void sort(char[] array) {
+        sort(array, defaultSelection);
+    }
+
+    public static void sort(char[] array, Selection selection) {
+        boolean parallel = isParallel(array.length, selection);
+
+        switch (selection.getPrimitiveAlgorithm(classify(array, selection))) {
+            case INSERTION_SORT:
+                InsertionSort.sort(array);
+                break;
+            case HEAP_SORT:
+                HeapSort.sort(array);
+                break;
+            case INTRO_SORT:
+                if (parallel) {
+                    IntroSort.parallelSort(array);
+                } else {
+                    IntroSort.sort(array);
+                }
+                break;
+            case MERGE_SORT:
+                if (parallel) {
+                    MergeSort.parallelSort(array);
+                } else {
+                    MergeSort.sort(array);
+                }
+                break;
+            case MULTI_SORT:
+                if (parallel) {
+                    MultiSort.parallelSort(array);
+                } else {
+                    MultiSort.sort(array);
+                }
+                break;
+            case SINGLE_PIVOT_QUICK_SORT:
+                SinglePivotQuickSort.sort(array);
+                break;
+            case RADIX_SORT:
+                RadixSort.sort(array);
+                break;
+            default:
+                if (parallel) {
+                    DualPivotQuickSort.parallelSort(array);
+                } else {
+                    DualPivotQuickSort.sort(array);
+                }
+        }
+    }
+
+    public static void sort(short[] array) {
+        sort(array, defaultSelection);
+    }
+
+    public static void sort(short[] array, Selection selection) {
+        boolean parallel = isParallel(array.length, selection);
+
+        switch (selection.getPrimitiveAlgorithm(classify(array, selection))) {
+            case INSERTION_SORT:
+                InsertionSort.sort(array);
+                break;
+            case HEAP_SORT:
+                HeapSort.sort(array);
+                break;
+            case INTRO_SORT:
+                if (parallel) {
+                    IntroSort.parallelSort(array);
+                } else {
+                    IntroSort.sort(array);
+                }
+                break;
+            case MERGE_SORT:
+                if (parallel) {
+                    MergeSort.parallelSort(array);
+                } else {
+                    MergeSort.sort(array);
+                }
+                break;
+            case MULTI_SORT:
+                if (parallel) {
+                    MultiSort.parallelSort(array);
+                } else {
+                    MultiSort.sort(array);
+                }
+                break;
+            case SINGLE_PIVOT_QUICK_SORT:
+                SinglePivotQuickSort.sort(array);
+                break;
+            case RADIX_SORT:
+                RadixSort.sort(array);
+                break;
+            default:
+                if (parallel) {
+                    DualPivotQuickSort.parallelSort(array);
+                } else {
+                    DualPivotQuickSort.sort(array);
+                }
+        }
+    }
+
+    public static void sort(int[] array) {
+        sort(array, defaultSelection);
+    }
+
+    public static void sort(int[] array, Selection selection) {
+        boolean parallel = isParallel(array.length, selection);
+
+        switch (selection.getPrimitiveAlgorithm(classify(array, selection))) {
+            case INSERTION_SORT:
+                InsertionSort.sort(array);
+                break;
+            case SHELL_SORT:
+                ShellSort.sort(array);
+                break;
+            case COMB_SORT:
+                CombSort.sort(array);
+                break;
+            case HEAP_SORT:
+                HeapSort.sort(array);
+                break;
+            case INTRO_SORT:
+                if (parallel) {
+                    IntroSort.parallelSort(array);
+                } else {
+                    IntroSort.sort(array);
+                }
+                break;
+            case MERGE_SORT:
+                if (parallel) {
+                    MergeSort.parallelSort(array);
+                } else {
+                    MergeSort.sort(array);
+                }
+                break;
+            case MULTI_SORT:
+                if (parallel) {
+                    MultiSort.parallelSort(array);
+                } else {
+                    MultiSort.sort(array);
+                }
+                break;
+            case SINGLE_PIVOT_QUICK_SORT:
+                SinglePivotQuickSort.sort(array);
+                break;
+            case RADIX_SORT:
+                RadixSort.sort(array);
+                break;
+            default:
+                if (parallel) {
+                    DualPivotQuickSort.parallelSort(array);
+                } else {
+                    DualPivotQuickSort.sort(array);
+                }
+        }
+    }
+
+    public static void sort(long[] array) {
+        sort(array, defaultSelection);
+    }
+
+    public static void sort(long[] array, Selection selection) {
+        boolean parallel = isParallel(array.length, selection);
+
+        switch (selection.getPrimitiveAlgorithm(classify(array, selection))) {
+            case INSERTION_SORT:
+                InsertionSort.sort(array);
+                break;
+            case HEAP_SORT:
+                HeapSort.sort(array);
+                break;
+            case INTRO_SORT:
+                if (parallel) {
+                    IntroSort.parallelSort(array);
+                } else {
+                    IntroSort.sort(array);
+                }
+                break;
+            case MERGE_SORT:
+                if (parallel) {
+                    MergeSort.parallelSort(array);
+                } else {
+                    MergeSort.sort(array);
+                }
+                break;
+            case MULTI_SORT:
+                if (parallel) {
+                    MultiSort.parallelSort(array);
+                } else {
+                    MultiSort.sort(array);
+                }
+                break;
+            case SINGLE_PIVOT_QUICK_SORT:
+                SinglePivotQuickSort.sort(array);
+                break;
+            case RADIX_SORT:
+                RadixSort.sort(array);
+                break;
+            default:
+                if (parallel) {
+                    DualPivotQuickSort.parallelSort(array);
+                } else {
+                    DualPivotQuickSort.sort(array);
+                }
+        }
+    }
+
+    public static void sort(float[] array) {
+        sort(array, defaultSelection);
+    }
+
+    public static void sort(float[] array, Selection selection) {
+        boolean parallel = isParallel(array.length, selection);
+
+        switch (selection.getPrimitiveAlgorithm(classify(array, selection))) {
+            case RADIX_SORT:
+                RadixSort.sort(array);
+                break;
+            default:
+                if (parallel) {
+                    DualPivotQuickSort.parallelSort(array);
+                } else {
+                    DualPivotQuickSort.sort(array);
+                }
+        }
+    }
+
+    public static void sort(double[] array) {
+        sort(array, defaultSelection);
+    }
+
+    public static void sort(double[] array, Selection selection) {
+        boolean parallel = isParallel(array.length, selection);
+
+        switch (selection.getPrimitiveAlgorithm(classify(array, selection))) {
+            case RADIX_SORT:
+                RadixSort.sort(array);
+                break;
+            default:
+                if (parallel) {
+                    DualPivotQuickSort.parallelSort(array);
+                } else {
+                    DualPivotQuickSort.sort(array);
+                }
+        }
+    }
+
+    public static InputClass classify(byte[] array, Selection selection) {
+        int n = array.length;
+
+        if (n < selection.smallSize) {
+            return InputClass.SMALL;
+        }
+
+        int runs = 0, limit = selection.runLimit;
+
+        for (int k = 0; k < n - 1 && runs <= limit; k++, runs++) {
+            if (array[k] <= array[k + 1]) {
+                while (++k < n - 1 && array[k] <= array[k + 1]);
+            } else {
+                while (++k < n - 1 && array[k] >= array[k + 1]);
+            }
+        }
+
+        if (runs <= limit) {
+            return InputClass.PRESORTED;
+        } else if (n < selection.mediumSize) {
+            return InputClass.MEDIUM;
+        }
+
+        int samples = Math.min(selection.sampleSize, n), step = n / samples, duplicates = 0;
+        byte[] sample = new byte[samples];
+
+        for (int i = 0; i < samples; i++) {
+            sample[i] = array[i * step];
+        }
+
+        DualPivotQuickSort.sort(sample);
+
+        for (int i = 1; i < samples; i++) {
+            if (sample[i - 1] == sample[i]) {
+                duplicates++;
+            }
+        }
+
+        return isDuplicate(duplicates, samples, selection)? InputClass.DUPLICATES : InputClass.RANDOM;
+    }
+
+    public static InputClass classify(char[] array, Selection selection) {
+        int n = array.length;
+
+        if (n < selection.smallSize) {
+            return InputClass.SMALL;
+        }
+
+        int runs = 0, limit = selection.runLimit;
+
+        for (int k = 0; k < n - 1 && runs <= limit; k++, runs++) {
+            if (array[k] <= array[k + 1]) {
+                while (++k < n - 1 && array[k] <= array[k + 1]);
+            } else {
+                while (++k < n - 1 && array[k] >= array[k + 1]);
+            }
+        }
+
+        if (runs <= limit) {
+            return InputClass.PRESORTED;
+        } else if (n < selection.mediumSize) {
+            return InputClass.MEDIUM;
+        }
+
+        int samples = Math.min(selection.sampleSize, n), step = n / samples, duplicates = 0;
+        char[] sample = new char[samples];
+
+        for (int i = 0; i < samples; i++) {
+            sample[i] = array[i * step];
+        }
+
+        DualPivotQuickSort.sort(sample);
+
+        for (int i = 1; i < samples; i++) {
+            if (sample[i - 1] == sample[i]) {
+                duplicates++;
+            }
+        }
+
+        return isDuplicate(duplicates, samples, selection)? InputClass.DUPLICATES : InputClass.RANDOM;
+    }
+
+    public static InputClass classify(short[] array, Selection selection) {
+        int n = array.length;
+
+        if (n < selection.smallSize) {
+            return InputClass.SMALL;
+        }
+
+        int runs = 0, limit = selection.runLimit;
+
+        for (int k = 0; k < n - 1 && runs <= limit; k++, runs++) {
+            if (array[k] <= array[k + 1]) {
+                while (++k < n - 1 && array[k] <= array[k + 1]);
+            } else {
+                while (++k < n - 1 && array[k] >= array[k + 1]);
+            }
+        }
+
+        if (runs <= limit) {
+            return InputClass.PRESORTED;
+        } else if (n < selection.mediumSize) {
+            return InputClass.MEDIUM;
+        }
+
+        int samples = Math.min(selection.sampleSize, n), step = n / samples, duplicates = 0;
+        short[] sample = new short[samples];
+
+        for (int i = 0; i < samples; i++) {
+            sample[i] = array[i * step];
+        }
+
+        DualPivotQuickSort.sort(sample);
+
+        for (int i = 1; i < samples; i++) {
+            if (sample[i - 1] == sample[i]) {
+                duplicates++;
+            }
+        }
+
+        return isDuplicate(duplicates, samples, selection)? InputClass.DUPLICATES : InputClass.RANDOM;
+    }
+
+    public static InputClass classify(int[] array, Selection selection) {
+        int n = array.length;
+
+        if (n < selection.smallSize) {
+            return InputClass.SMALL;
+        }
+
+        int runs = 0, limit = selection.runLimit;
+
+        for (int k = 0; k < n - 1 && runs <= limit; k++, runs++) {
+            if (array[k] <= array[k + 1]) {
+                while (++k < n - 1 && array[k] <= array[k + 1]);
+            } else {
+                while (++k < n - 1 && array[k] >= array[k + 1]);
+            }
+        }
+
+        if (runs <= limit) {
+            return InputClass.PRESORTED;
+        } else if (n < selection.mediumSize) {
+            return InputClass.MEDIUM;
+        }
+
+        int samples = Math.min(selection.sampleSize, n), step = n / samples, duplicates = 0;
+        int[] sample = new int[samples];
+
+        for (int i = 0; i < samples; i++) {
+            sample[i] = array[i * step];
+        }
+
+        DualPivotQuickSort.sort(sample);
+
+        for (int i = 1; i < samples; i++) {
+            if (sample[i - 1] == sample[i]) {
+                duplicates++;
+            }
+        }
+
+        return isDuplicate(duplicates, samples, selection)? InputClass.DUPLICATES : InputClass.RANDOM;
+    }
+
+    public static InputClass classify(long[] array, Selection selection) {
+        int n = array.length;
+
+        if (n < selection.smallSize) {
+            return InputClass.SMALL;
+        }
+
+        int runs = 0, limit = selection.runLimit;
+
+        for (int k = 0; k < n - 1 && runs <= limit; k++, runs++) {
+            if (array[k] <= array[k + 1]) {
+                while (++k < n - 1 && array[k] <= array[k + 1]);
+            } else {
+                while (++k < n - 1 && array[k] >= array[k + 1]);
+            }
+        }
+
+        if (runs <= limit) {
+            return InputClass.PRESORTED;
+        } else if (n < selection.mediumSize) {
+            return InputClass.MEDIUM;
+        }
+
+        int samples = Math.min(selection.sampleSize, n), step = n / samples, duplicates = 0;
+        long[] sample = new long[samples];
+
+        for (int i = 0; i < samples; i++) {
+            sample[i] = array[i * step];
+        }
+
+        DualPivotQuickSort.sort(sample);
+
+        for (int i = 1; i < samples; i++) {
+            if (sample[i - 1] == sample[i]) {
+                duplicates++;
+            }
+        }
+
+        return isDuplicate(duplicates, samples, selection)? InputClass.DUPLICATES : InputClass.RANDOM;
+    }
+
+    public static InputClass classify(float[] array, Selection selection) {
+        int n = array.length;
+
+        if (n < selection.smallSize) {
+            return InputClass.SMALL;
+        }
+
+        int runs = 0, limit = selection.runLimit;
+
+        for (int k = 0; k < n - 1 && runs <= limit; k++, runs++) {
+            if (array[k] <= array[k + 1]) {
+                while (++k < n - 1 && array[k] <= array[k + 1]);
+            } else {
+                while (++k < n - 1 && array[k] >= array[k + 1]);
+            }
+        }
+
+        if (runs <= limit) {
+            return InputClass.PRESORTED;
+        } else if (n < selection.mediumSize) {
+            return InputClass.MEDIUM;
+        }
+
+        int samples = Math.min(selection.sampleSize, n), step = n / samples, duplicates = 0;
+        float[] sample = new float[samples];
+
+        for (int i = 0; i < samples; i++) {
+            sample[i] = array[i * step];
+        }
+
+        DualPivotQuickSort.sort(sample);
+
+        for (int i = 1; i < samples; i++) {
+            if (sample[i - 1] == sample[i]) {
+                duplicates++;
+            }
+        }
+
+        return isDuplicate(duplicates, samples, selection)? InputClass.DUPLICATES : InputClass.RANDOM;
+    }
+
+    public static InputClass classify(double[] array, Selection selection) {
+        int n = array.length;
+
+        if (n < selection.smallSize) {
+            return InputClass.SMALL;
+        }
+
+        int runs = 0, limit = selection.runLimit;
+
+        for (int k = 0; k < n - 1 && runs <= limit; k++, runs++) {
+            if (array[k] <= array[k + 1]) {
+                while (++k < n - 1 && array[k] <= array[k + 1]);
+            } else {
+                while (++k < n - 1 && array[k] >= array[k + 1]);
+            }
+        }
+
+        if (runs <= limit) {
+            return InputClass.PRESORTED;
+        } else if (n < selection.mediumSize) {
+            return InputClass.MEDIUM;
+        }
+
+        int samples = Math.min(selection.sampleSize, n), step = n / samples, duplicates = 0;
+        double[] sample = new double[samples];
+
+        for (int i = 0; i < samples; i++) {
+            sample[i] = array[i * step];
+        }
+
+        DualPivotQuickSort.sort(sample);
+
+        for (int i = 1; i < samples; i++) {
+            if (sample[i - 1] == sample[i]) {
+                duplicates++;
+            }
+        }
+
+        return isDuplicate(duplicates, samples, selection)? InputClass.DUPLICATES : InputClass.RANDOM;
+    }
+
+    private static boolean isDuplicate(int duplicates, int samples, Selection selection) {
+        return duplicates >= selection.duplicateRatio * (samples - 1);
+    }
+
+    private static boolean isParallel(int length, Selection selection) {
+        return length >= selection.parallelSize && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+}
@@ -0,0 +1,177 @@
+package utils.data.sort;
+
+import utils.data.DataComparator;
+
+import java.util.Comparator;
+
+/**
+ * Indirect sort, returning the permutation which sorts an array instead of sorting it.
+ *
+ * The i-th element of the sorted array is array[argsort(array)[i]], source array is never modified.
+ * Equal elements keep their original order. Primitive arrays are ordered by radix sort over order preserving keys
+ * (see RadixSort), floating point values are ordered -0.0 before 0.0 and NaN last. Object arrays are ordered by
+ * merge sort of the indices.
+ */
+public class ArgSort implements Sorter {
+    // Index ranges shorter than this are sorted by insertion sort in merge sort
+    public static final int INSERTION_SORT_THRESHOLD = 7;
+
+    private ArgSort() {}
+
+    /**
+     * Permutation sorting the array in natural order
+     *
+     * @param <E> Generic type E
+     * @param array Source array, not modified
+     * @return index permutation
+     */
+    public static <E> int[] argsort(E[] array) {
+        Comparator<E> c = DataComparator.buildComparator();
+        return argsort(array, c);
+    }
+
+    /**
+     * Permutation sorting the array in order of supplied comparator
+     *
+     * @param <E> Generic type E
+     * @param array Source array, not modified
+     * @param comparator Comparator for comparing purpose
+     * @return index permutation
+     */
+    public static <E> int[] argsort(E[] array, Comparator<? super E> comparator) {
+        int[] indices = identity(array.length);
+
+        sort(array, comparator, indices.clone(), indices, 0, indices.length);
+
+        return indices;
+    }
+
+    public static int[] argsort(byte[] array) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = array[i] + 128;
+        }
+
+        return order(keys);
+    }
+
+    public static int[] argsort(char[] array) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = array[i];
+        }
+
+        return order(keys);
+    }
+
+    public static int[] argsort(short[] array) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = array[i] + 32768;
+        }
+
+        return order(keys);
+    }
+
+    public static int[] argsort(int[] array) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (array[i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        }
+
+        return order(keys);
+    }
+
+    public static int[] argsort(long[] array) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = array[i] ^ Long.MIN_VALUE;
+        }
+
+        return order(keys);
+    }
+
+    public static int[] argsort(float[] array) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = RadixSort.floatKey(array[i]) & 0xFFFFFFFFL;
+        }
+
+        return order(keys);
+    }
+
+    public static int[] argsort(double[] array) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = RadixSort.doubleKey(array[i]);
+        }
+
+        return order(keys);
+    }
+
+    private static int[] order(long[] keys) {
+        int[] indices = identity(keys.length);
+
+        RadixSort.sort(keys, indices);
+
+        return indices;
+    }
+
+    private static int[] identity(int length) {
+        int[] indices = new int[length];
+
+        for (int i = 0; i < length; i++) {
+            indices[i] = i;
+        }
+
+        return indices;
+    }
+
+    /**
+     * Stable merge sort of indices [low, high) in dest by the elements they refer to,
+     * src holds the same indices and is used as workspace
+     */
+    private static <E> void sort(
+            E[] array, Comparator<? super E> comparator, int[] src, int[] dest, int low, int high
+    ) {
+        if (high - low < INSERTION_SORT_THRESHOLD) {
+            for (int i = low + 1; i < high; i++) {
+                int index = dest[i];
+                int j = i - 1;
+
+                while (j >= low && comparator.compare(array[dest[j]], array[index]) > 0) {
+                    dest[j + 1] = dest[j];
+                    j--;
+                }
+                dest[j + 1] = index;
+            }
+            return;
+        }
+
+        int mid = (low + high) >>> 1;
+
+        sort(array, comparator, dest, src, low, mid);
+        sort(array, comparator, dest, src, mid, high);
+
+        // Halves already in order
+        if (comparator.compare(array[src[mid - 1]], array[src[mid]]) <= 0) {
+            System.arraycopy(src, low, dest, low, high - low);
+            return;
+        }
+
+        for (int i = low, p = low, q = mid; i < high; i++) {
+            if (q >= high || (p < mid && comparator.compare(array[src[p]], array[src[q]]) <= 0)) {
+                dest[i] = src[p++];
+            } else {
+                dest[i] = src[q++];
+            }
+        }
+    }
+}
@@ -3436,4 +3436,83 @@ public final class DualPivotQuickSort implements Sorter {
             sort(a, great + 1, right, false);
         }
     }
+
+    /**
+     * Sort the array in parallel, chunks are sorted using dual pivot quicksort algorithm and merged in parallel
+     *
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     * @param comparator Comparator for comparing purpose
+     */
+    public static <E> void parallelSort(E[] array, Comparator<E> comparator) {
+        parallelSort(array, comparator, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Sort the array in parallel, chunks are sorted using dual pivot quicksort algorithm and merged in parallel
+     *
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     * @param comparator Comparator for comparing purpose
+     * @param threshold Minimum number of elements sorted sequentially
+     */
+    public static <E> void parallelSort(E[] array, Comparator<E> comparator, int threshold) {
+        ForkJoinSort.sort(array, comparator, threshold, ForkJoinSort.DUAL_PIVOT_QUICK_SORT);
+    }
+
+    public static void parallelSort(byte[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+
+    public static void parallelSort(char[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+
+    public static void parallelSort(short[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+
+    public static void parallelSort(int[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+
+    public static void parallelSort(long[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+
+    public static void parallelSort(float[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+
+    public static void parallelSort(double[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+
+    public static void parallelSort(byte[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.DUAL_PIVOT_QUICK_SORT);
+    }
+
+    public static void parallelSort(char[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.DUAL_PIVOT_QUICK_SORT);
+    }
+
+    public static void parallelSort(short[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.DUAL_PIVOT_QUICK_SORT);
+    }
+
+    public static void parallelSort(int[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.DUAL_PIVOT_QUICK_SORT);
+    }
+
+    public static void parallelSort(long[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.DUAL_PIVOT_QUICK_SORT);
+    }
+
+    public static void parallelSort(float[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.DUAL_PIVOT_QUICK_SORT);
+    }
+
+    public static void parallelSort(double[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.DUAL_PIVOT_QUICK_SORT);
+    }
 }
@@ -0,0 +1,496 @@
+package utils.data.sort;
+
+import utils.data.DataComparator;
+import utils.stream.SerializeUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * External merge sort for data sets which do not fit in memory.
+ *
+ * Input is read into runs of at most run size records, each run is sorted by Timsort and spilled to a temporary
+ * file through a record codec. Runs are merged by a loser tree, at most fan-in runs at a time: when there are
+ * more runs, groups of them are merged into longer runs first. The last merge is streamed by the returned
+ * iterator, which deletes the temporary files once exhausted or closed. Input fitting in one run is never spilled.
+ *
+ * The sort is stable, records comparing equal are returned in input order.
+ *
+ * @param <E> Record type
+ */
+public class ExternalSort<E> implements Sorter {
+    public static final int DEFAULT_RUN_SIZE = 1 << 20;
+    public static final int DEFAULT_FAN_IN = 64;
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    /**
+     * Serializer of records into run files
+     *
+     * @param <E> Record type
+     */
+    public interface RecordCodec<E> {
+        void write(OutputStream out, E record) throws IOException;
+
+        E read(InputStream in) throws IOException;
+    }
+
+    public static final RecordCodec<Integer> INT_CODEC = new RecordCodec<Integer>() {
+        @Override
+        public void write(OutputStream out, Integer record) throws IOException {
+            out.write(SerializeUtils.intToByteArrayStrict(record));
+        }
+
+        @Override
+        public Integer read(InputStream in) throws IOException {
+            return SerializeUtils.byteArrayToInt(readFully(in, 4));
+        }
+    };
+
+    public static final RecordCodec<Long> LONG_CODEC = new RecordCodec<Long>() {
+        @Override
+        public void write(OutputStream out, Long record) throws IOException {
+            out.write(SerializeUtils.longToByteArrayStrict(record));
+        }
+
+        @Override
+        public Long read(InputStream in) throws IOException {
+            return SerializeUtils.byteArrayToLong(readFully(in, 8));
+        }
+    };
+
+    public static final RecordCodec<Double> DOUBLE_CODEC = new RecordCodec<Double>() {
+        @Override
+        public void write(OutputStream out, Double record) throws IOException {
+            out.write(SerializeUtils.doubleToByteArray(record));
+        }
+
+        @Override
+        public Double read(InputStream in) throws IOException {
+            return SerializeUtils.byteArrayToDouble(readFully(in, 8));
+        }
+    };
+
+    // Length prefixed UTF-8 bytes
+    public static final RecordCodec<String> STRING_CODEC = new RecordCodec<String>() {
+        @Override
+        public void write(OutputStream out, String record) throws IOException {
+            byte[] bytes = record.getBytes(SerializeUtils.DEFAULT_CHARSET);
+
+            out.write(SerializeUtils.intToByteArrayStrict(bytes.length));
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(InputStream in) throws IOException {
+            int length = SerializeUtils.byteArrayToInt(readFully(in, 4));
+
+            return new String(readFully(in, length), SerializeUtils.DEFAULT_CHARSET);
+        }
+    };
+
+    private final RecordCodec<E> codec;
+    private final Comparator<? super E> comparator;
+    private final int runSize;
+    private final int fanIn;
+    private final File tempDir;
+
+    public ExternalSort(RecordCodec<E> codec) {
+        this(codec, DataComparator.<E>buildComparator());
+    }
+
+    public ExternalSort(RecordCodec<E> codec, Comparator<? super E> comparator) {
+        this(codec, comparator, DEFAULT_RUN_SIZE, DEFAULT_FAN_IN, null);
+    }
+
+    /**
+     * Create external sort
+     *
+     * @param codec Serializer of records
+     * @param comparator Comparator for comparing purpose
+     * @param runSize Maximum number of records held in memory
+     * @param fanIn Maximum number of runs merged at a time
+     * @param tempDir Directory of run files, null for the default temporary directory
+     */
+    public ExternalSort(RecordCodec<E> codec, Comparator<? super E> comparator, int runSize, int fanIn, File tempDir) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("Run size must be positive");
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Fan-in must be at least 2");
+        }
+
+        this.codec = codec;
+        this.comparator = comparator;
+        this.runSize = runSize;
+        this.fanIn = fanIn;
+        this.tempDir = tempDir;
+    }
+
+    public SortedIterator<E> sort(Iterable<? extends E> input) throws IOException {
+        return sort(input.iterator());
+    }
+
+    /**
+     * Sort all records of the input
+     *
+     * @param input Records to be sorted, consumed by this call
+     * @return iterator of sorted records, close it to delete run files when it is abandoned before exhausted
+     * @throws IOException failed to spill runs
+     */
+    @SuppressWarnings("unchecked")
+    public SortedIterator<E> sort(Iterator<? extends E> input) throws IOException {
+        List<Run> runs = new ArrayList<>();
+        Object[] buffer = new Object[Math.min(runSize, 1024)];
+
+        try {
+            while (true) {
+                int count = 0;
+
+                while (count < runSize && input.hasNext()) {
+                    if (count == buffer.length) {
+                        Object[] expanded = new Object[(int) Math.min(runSize, buffer.length * 2L)];
+
+                        System.arraycopy(buffer, 0, expanded, 0, count);
+                        buffer = expanded;
+                    }
+                    buffer[count++] = input.next();
+                }
+
+                TimSort.sort(buffer, 0, count, (Comparator<Object>) comparator);
+
+                if (runs.isEmpty() && !input.hasNext()) {
+                    // Everything fits in memory
+                    return new SortedIterator<>((E[]) buffer, count);
+                }
+
+                runs.add(spill(buffer, count));
+
+                if (!input.hasNext()) {
+                    break;
+                }
+            }
+
+            while (runs.size() > fanIn) {
+                List<Run> merged = new ArrayList<>();
+
+                try {
+                    for (int i = 0; i < runs.size(); i += fanIn) {
+                        List<Run> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+
+                        merged.add((group.size() == 1)? group.get(0) : merge(group));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Runs merged so far are deleted along with the remaining ones
+                    runs.addAll(merged);
+                    throw e;
+                }
+
+                runs = merged;
+            }
+
+            return new SortedIterator<>(open(runs), runs);
+        } catch (IOException | RuntimeException e) {
+            for (Run run : runs) {
+                run.file.delete();
+            }
+
+            throw e;
+        }
+    }
+
+    private Run spill(Object[] records, int count) throws IOException {
+        File file = File.createTempFile("sort", ".run", tempDir);
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), DEFAULT_BUFFER_SIZE)) {
+            for (int i = 0; i < count; i++) {
+                @SuppressWarnings("unchecked")
+                E record = (E) records[i];
+
+                codec.write(out, record);
+            }
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+
+        // Release records of spilled run
+        for (int i = 0; i < count; i++) {
+            records[i] = null;
+        }
+
+        return new Run(file, count);
+    }
+
+    /**
+     * Merge runs into a single run file, merged run files are deleted
+     */
+    private Run merge(List<Run> runs) throws IOException {
+        File file = File.createTempFile("sort", ".run", tempDir);
+        long count = 0;
+
+        try (
+                LoserTree<E> tree = open(runs);
+                OutputStream out = new BufferedOutputStream(new FileOutputStream(file), DEFAULT_BUFFER_SIZE)
+        ) {
+            while (tree.hasNext()) {
+                codec.write(out, tree.next());
+                count++;
+            }
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+
+        for (Run run : runs) {
+            run.file.delete();
+        }
+
+        return new Run(file, count);
+    }
+
+    private LoserTree<E> open(List<Run> runs) throws IOException {
+        List<RunReader<E>> readers = new ArrayList<>(runs.size());
+
+        try {
+            for (Run run : runs) {
+                readers.add(new RunReader<>(run, codec));
+            }
+
+            return new LoserTree<>(readers, comparator);
+        } catch (IOException | RuntimeException e) {
+            for (RunReader<E> reader : readers) {
+                reader.close();
+            }
+
+            throw e;
+        }
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+
+        if (SerializeUtils.readStream(in, bytes) < length) {
+            throw new EOFException();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Iterator of sorted records, implements Closeable to delete run files when abandoned early
+     *
+     * @param <E> Record type
+     */
+    public static class SortedIterator<E> implements Iterator<E>, Closeable {
+        // In memory records when nothing was spilled
+        private E[] records;
+        private final int count;
+        private int index = 0;
+
+        private LoserTree<E> tree;
+        private List<Run> runs;
+
+        private SortedIterator(E[] records, int count) {
+            this.records = records;
+            this.count = count;
+        }
+
+        private SortedIterator(LoserTree<E> tree, List<Run> runs) {
+            this.tree = tree;
+            this.runs = runs;
+            this.count = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (tree == null) {
+                return records != null && index < count;
+            }
+
+            try {
+                if (tree.hasNext()) {
+                    return true;
+                }
+
+                close();
+                return false;
+            } catch (IOException ioe) {
+                throw new RuntimeException("Failed to delete sort run files", ioe);
+            }
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (tree == null) {
+                E record = records[index];
+
+                records[index++] = null;
+                return record;
+            }
+
+            try {
+                return tree.next();
+            } catch (IOException ioe) {
+                throw new RuntimeException("Failed to read sort run file", ioe);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            records = null;
+
+            if (tree != null) {
+                tree.close();
+
+                for (Run run : runs) {
+                    run.file.delete();
+                }
+            }
+        }
+    }
+
+    private static class Run {
+        private final File file;
+        private final long count;
+
+        private Run(File file, long count) {
+            this.file = file;
+            this.count = count;
+        }
+    }
+
+    private static class RunReader<E> implements Closeable {
+        private final InputStream in;
+        private final RecordCodec<E> codec;
+        private long remaining;
+
+        private RunReader(Run run, RecordCodec<E> codec) throws IOException {
+            this.in = new BufferedInputStream(new FileInputStream(run.file), DEFAULT_BUFFER_SIZE);
+            this.codec = codec;
+            this.remaining = run.count;
+        }
+
+        private boolean hasNext() {
+            return remaining > 0;
+        }
+
+        private E next() throws IOException {
+            remaining--;
+            return codec.read(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Tournament tree of k runs keeping the loser of each match at internal nodes, replacing the winner
+     * replays only the matches along its path to the root, i.e. log2(k) comparisons per record.
+     * Exhausted runs lose every match, ties are won by the run with lower index to keep the merge stable.
+     */
+    private static class LoserTree<E> implements Closeable {
+        private final List<RunReader<E>> readers;
+        private final Comparator<? super E> comparator;
+        private final Object[] heads;
+        private final boolean[] exhausted;
+
+        // tree[0] is the winner, tree[1 .. k-1] are losers, run i is the leaf at node k+i
+        private final int[] tree;
+        private final int k;
+
+        private LoserTree(List<RunReader<E>> readers, Comparator<? super E> comparator) throws IOException {
+            this.readers = readers;
+            this.comparator = comparator;
+            this.k = readers.size();
+            this.heads = new Object[k];
+            this.exhausted = new boolean[k];
+            this.tree = new int[Math.max(k, 1)];
+
+            for (int i = 0; i < k; i++) {
+                advance(i);
+            }
+
+            tree[0] = (k > 1)? build(1) : 0;
+        }
+
+        private int build(int node) {
+            if (node >= k) {
+                return node - k;
+            }
+
+            int a = build(node * 2), b = build(node * 2 + 1);
+
+            if (beats(a, b)) {
+                tree[node] = b;
+                return a;
+            } else {
+                tree[node] = a;
+                return b;
+            }
+        }
+
+        private boolean hasNext() {
+            return k > 0 && !exhausted[tree[0]];
+        }
+
+        @SuppressWarnings("unchecked")
+        private E next() throws IOException {
+            int winner = tree[0];
+            E record = (E) heads[winner];
+
+            advance(winner);
+
+            for (int node = (winner + k) / 2; node >= 1; node /= 2) {
+                if (beats(tree[node], winner)) {
+                    int loser = winner;
+
+                    winner = tree[node];
+                    tree[node] = loser;
+                }
+            }
+
+            tree[0] = winner;
+
+            return record;
+        }
+
+        private void advance(int run) throws IOException {
+            RunReader<E> reader = readers.get(run);
+
+            if (reader.hasNext()) {
+                heads[run] = reader.next();
+            } else {
+                heads[run] = null;
+                exhausted[run] = true;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean beats(int a, int b) {
+            if (exhausted[a] || exhausted[b]) {
+                return !exhausted[a];
+            }
+
+            int c = comparator.compare((E) heads[a], (E) heads[b]);
+
+            return c < 0 || (c == 0 && a < b);
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RunReader<E> reader : readers) {
+                reader.close();
+            }
+        }
+    }
+}
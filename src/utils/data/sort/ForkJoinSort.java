@@ -0,0 +1,1489 @@
+package utils.data.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join sorting shared by the parallelSort methods of sorters.
+ *
+ * The array is split into chunks which are sorted sequentially by the selected algorithm, sorted chunks are then
+ * merged pairwise, each merge being split further by binary search so merging also runs in parallel.
+ * Merging is stable, so sorting objects is stable with TIM_SORT chunks. Other algorithms, MERGE_SORT included,
+ * may reorder equal elements within a chunk. Sorting alternates between the array and a workspace of the same
+ * length, so each merge level moves elements once.
+ * Floats and doubles are ordered as Arrays.sort orders them, -0.0 before 0.0 and NaN last.
+ */
+final class ForkJoinSort {
+    static final int MERGE_SORT = 0, TIM_SORT = 1, INTRO_SORT = 2, MULTI_SORT = 3, DUAL_PIVOT_QUICK_SORT = 4;
+
+    // Default minimum number of elements sorted sequentially
+    static final int DEFAULT_THRESHOLD = 1 << 13;
+
+    // Merges smaller than this are not split further
+    private static final int MERGE_THRESHOLD = 1 << 12;
+
+    private ForkJoinSort() {}
+
+    /**
+     * Chunk size for array length, at least threshold and about four chunks per worker thread
+     */
+    private static int granularity(int length, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+
+        return (parallelism <= 1)? length : Math.max(threshold, length / (parallelism << 2));
+    }
+
+    @SuppressWarnings("unchecked")
+    static void sort(Object[] a, Comparator<?> comparator, int threshold, int algorithm) {
+        Comparator<Object> c = (Comparator<Object>) comparator;
+        int n = a.length, granularity = granularity(n, threshold);
+
+        if (n <= granularity) {
+            sortChunk(a, 0, n, c, algorithm);
+        } else {
+            new ObjectSorter(a, new Object[n], 0, n, false, granularity, c, algorithm).invoke();
+        }
+    }
+
+    private static void sortChunk(Object[] a, int lo, int hi, Comparator<Object> c, int algorithm) {
+        switch (algorithm) {
+            case TIM_SORT:
+                TimSort.sort(a, lo, hi, c);
+                break;
+            case INTRO_SORT:
+                IntroSort.sort(a, c, lo, hi - 1);
+                break;
+            default:
+                // Other algorithms allocate temporary storage by length of the whole array
+                Object[] chunk = Arrays.copyOfRange(a, lo, hi);
+
+                if (algorithm == MERGE_SORT) {
+                    MergeSort.sort(chunk, c);
+                } else if (algorithm == MULTI_SORT) {
+                    MultiSort.sort(chunk, c);
+                } else {
+                    DualPivotQuickSort.sort(chunk, c);
+                }
+
+                System.arraycopy(chunk, 0, a, lo, chunk.length);
+        }
+    }
+
+    /**
+     * Sort a[lo, hi), leaving the result in workspace if toWorkspace, otherwise in a
+     */
+    private static class ObjectSorter extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] a, w;
+        private final int lo, hi, granularity, algorithm;
+        private final boolean toWorkspace;
+        private final Comparator<Object> c;
+
+        ObjectSorter(Object[] a, Object[] w, int lo, int hi, boolean toWorkspace, int granularity, Comparator<Object> c, int algorithm) {
+            this.a = a;
+            this.w = w;
+            this.lo = lo;
+            this.hi = hi;
+            this.toWorkspace = toWorkspace;
+            this.granularity = granularity;
+            this.c = c;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= granularity) {
+                sortChunk(a, lo, hi, c, algorithm);
+
+                if (toWorkspace) {
+                    System.arraycopy(a, lo, w, lo, hi - lo);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(
+                        new ObjectSorter(a, w, lo, mid, !toWorkspace, granularity, c, algorithm),
+                        new ObjectSorter(a, w, mid, hi, !toWorkspace, granularity, c, algorithm)
+                );
+
+                if (toWorkspace) {
+                    new ObjectMerger(a, w, lo, mid, mid, hi, lo, c).compute();
+                } else {
+                    new ObjectMerger(w, a, lo, mid, mid, hi, lo, c).compute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stable merge of src[lo1, hi1) and src[lo2, hi2) into dest starting from out
+     */
+    private static class ObjectMerger extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] src, dest;
+        private final int lo1, hi1, lo2, hi2, out;
+        private final Comparator<Object> c;
+
+        ObjectMerger(Object[] src, Object[] dest, int lo1, int hi1, int lo2, int hi2, int out, Comparator<Object> c) {
+            this.src = src;
+            this.dest = dest;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+            this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+
+            if (len1 + len2 <= MERGE_THRESHOLD || len1 == 0 || len2 == 0) {
+                merge();
+            } else {
+                int split1, split2;
+
+                // Split the longer run at its middle, elements of run 1 stay before equal elements of run 2
+                if (len1 >= len2) {
+                    split1 = (lo1 + hi1) >>> 1;
+                    split2 = lowerBound(src[split1]);
+                } else {
+                    split2 = (lo2 + hi2) >>> 1;
+                    split1 = upperBound(src[split2]);
+                }
+
+                invokeAll(
+                        new ObjectMerger(src, dest, lo1, split1, lo2, split2, out, c),
+                        new ObjectMerger(src, dest, split1, hi1, split2, hi2, out + (split1 - lo1) + (split2 - lo2), c)
+                );
+            }
+        }
+
+        private void merge() {
+            int i = lo1, j = lo2, k = out;
+
+            while (i < hi1 && j < hi2) {
+                if (c.compare(src[j], src[i]) < 0) {
+                    dest[k++] = src[j++];
+                } else {
+                    dest[k++] = src[i++];
+                }
+            }
+
+            System.arraycopy(src, i, dest, k, hi1 - i);
+            System.arraycopy(src, j, dest, k + hi1 - i, hi2 - j);
+        }
+
+        /**
+         * First index of run 2 with element not less than x
+         */
+        private int lowerBound(Object x) {
+            int low = lo2, high = hi2;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (c.compare(src[mid], x) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * First index of run 1 with element greater than x
+         */
+        private int upperBound(Object x) {
+            int low = lo1, high = hi1;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (c.compare(x, src[mid]) < 0) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    static void sort(byte[] a, int threshold, int algorithm) {
+        int n = a.length, granularity = granularity(n, threshold);
+
+        if (n <= granularity) {
+            sortChunk(a, 0, n, algorithm);
+        } else {
+            new ByteSorter(a, new byte[n], 0, n, false, granularity, algorithm).invoke();
+        }
+    }
+
+    private static void sortChunk(byte[] a, int lo, int hi, int algorithm) {
+        if (algorithm == INTRO_SORT) {
+            IntroSort.sort(a, lo, hi - 1);
+        } else {
+            byte[] chunk = Arrays.copyOfRange(a, lo, hi);
+
+            if (algorithm == MERGE_SORT) {
+                MergeSort.sort(chunk);
+            } else if (algorithm == MULTI_SORT) {
+                MultiSort.sort(chunk);
+            } else {
+                DualPivotQuickSort.sort(chunk);
+            }
+
+            System.arraycopy(chunk, 0, a, lo, chunk.length);
+        }
+    }
+
+    /**
+     * Sort a[lo, hi), leaving the result in workspace if toWorkspace, otherwise in a
+     */
+    private static class ByteSorter extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] a, w;
+        private final int lo, hi, granularity, algorithm;
+        private final boolean toWorkspace;
+
+        ByteSorter(byte[] a, byte[] w, int lo, int hi, boolean toWorkspace, int granularity, int algorithm) {
+            this.a = a;
+            this.w = w;
+            this.lo = lo;
+            this.hi = hi;
+            this.toWorkspace = toWorkspace;
+            this.granularity = granularity;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= granularity) {
+                sortChunk(a, lo, hi, algorithm);
+
+                if (toWorkspace) {
+                    System.arraycopy(a, lo, w, lo, hi - lo);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(
+                        new ByteSorter(a, w, lo, mid, !toWorkspace, granularity, algorithm),
+                        new ByteSorter(a, w, mid, hi, !toWorkspace, granularity, algorithm)
+                );
+
+                if (toWorkspace) {
+                    new ByteMerger(a, w, lo, mid, mid, hi, lo).compute();
+                } else {
+                    new ByteMerger(w, a, lo, mid, mid, hi, lo).compute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stable merge of src[lo1, hi1) and src[lo2, hi2) into dest starting from out
+     */
+    private static class ByteMerger extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] src, dest;
+        private final int lo1, hi1, lo2, hi2, out;
+
+        ByteMerger(byte[] src, byte[] dest, int lo1, int hi1, int lo2, int hi2, int out) {
+            this.src = src;
+            this.dest = dest;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+
+            if (len1 + len2 <= MERGE_THRESHOLD || len1 == 0 || len2 == 0) {
+                merge();
+            } else {
+                int split1, split2;
+
+                // Split the longer run at its middle, elements of run 1 stay before equal elements of run 2
+                if (len1 >= len2) {
+                    split1 = (lo1 + hi1) >>> 1;
+                    split2 = lowerBound(src[split1]);
+                } else {
+                    split2 = (lo2 + hi2) >>> 1;
+                    split1 = upperBound(src[split2]);
+                }
+
+                invokeAll(
+                        new ByteMerger(src, dest, lo1, split1, lo2, split2, out),
+                        new ByteMerger(src, dest, split1, hi1, split2, hi2, out + (split1 - lo1) + (split2 - lo2))
+                );
+            }
+        }
+
+        private void merge() {
+            int i = lo1, j = lo2, k = out;
+
+            while (i < hi1 && j < hi2) {
+                if (src[j] < src[i]) {
+                    dest[k++] = src[j++];
+                } else {
+                    dest[k++] = src[i++];
+                }
+            }
+
+            System.arraycopy(src, i, dest, k, hi1 - i);
+            System.arraycopy(src, j, dest, k + hi1 - i, hi2 - j);
+        }
+
+        /**
+         * First index of run 2 with element not less than x
+         */
+        private int lowerBound(byte x) {
+            int low = lo2, high = hi2;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (src[mid] < x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * First index of run 1 with element greater than x
+         */
+        private int upperBound(byte x) {
+            int low = lo1, high = hi1;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (x < src[mid]) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    static void sort(char[] a, int threshold, int algorithm) {
+        int n = a.length, granularity = granularity(n, threshold);
+
+        if (n <= granularity) {
+            sortChunk(a, 0, n, algorithm);
+        } else {
+            new CharSorter(a, new char[n], 0, n, false, granularity, algorithm).invoke();
+        }
+    }
+
+    private static void sortChunk(char[] a, int lo, int hi, int algorithm) {
+        if (algorithm == INTRO_SORT) {
+            IntroSort.sort(a, lo, hi - 1);
+        } else {
+            char[] chunk = Arrays.copyOfRange(a, lo, hi);
+
+            if (algorithm == MERGE_SORT) {
+                MergeSort.sort(chunk);
+            } else if (algorithm == MULTI_SORT) {
+                MultiSort.sort(chunk);
+            } else {
+                DualPivotQuickSort.sort(chunk);
+            }
+
+            System.arraycopy(chunk, 0, a, lo, chunk.length);
+        }
+    }
+
+    /**
+     * Sort a[lo, hi), leaving the result in workspace if toWorkspace, otherwise in a
+     */
+    private static class CharSorter extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final char[] a, w;
+        private final int lo, hi, granularity, algorithm;
+        private final boolean toWorkspace;
+
+        CharSorter(char[] a, char[] w, int lo, int hi, boolean toWorkspace, int granularity, int algorithm) {
+            this.a = a;
+            this.w = w;
+            this.lo = lo;
+            this.hi = hi;
+            this.toWorkspace = toWorkspace;
+            this.granularity = granularity;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= granularity) {
+                sortChunk(a, lo, hi, algorithm);
+
+                if (toWorkspace) {
+                    System.arraycopy(a, lo, w, lo, hi - lo);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(
+                        new CharSorter(a, w, lo, mid, !toWorkspace, granularity, algorithm),
+                        new CharSorter(a, w, mid, hi, !toWorkspace, granularity, algorithm)
+                );
+
+                if (toWorkspace) {
+                    new CharMerger(a, w, lo, mid, mid, hi, lo).compute();
+                } else {
+                    new CharMerger(w, a, lo, mid, mid, hi, lo).compute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stable merge of src[lo1, hi1) and src[lo2, hi2) into dest starting from out
+     */
+    private static class CharMerger extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final char[] src, dest;
+        private final int lo1, hi1, lo2, hi2, out;
+
+        CharMerger(char[] src, char[] dest, int lo1, int hi1, int lo2, int hi2, int out) {
+            this.src = src;
+            this.dest = dest;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+
+            if (len1 + len2 <= MERGE_THRESHOLD || len1 == 0 || len2 == 0) {
+                merge();
+            } else {
+                int split1, split2;
+
+                // Split the longer run at its middle, elements of run 1 stay before equal elements of run 2
+                if (len1 >= len2) {
+                    split1 = (lo1 + hi1) >>> 1;
+                    split2 = lowerBound(src[split1]);
+                } else {
+                    split2 = (lo2 + hi2) >>> 1;
+                    split1 = upperBound(src[split2]);
+                }
+
+                invokeAll(
+                        new CharMerger(src, dest, lo1, split1, lo2, split2, out),
+                        new CharMerger(src, dest, split1, hi1, split2, hi2, out + (split1 - lo1) + (split2 - lo2))
+                );
+            }
+        }
+
+        private void merge() {
+            int i = lo1, j = lo2, k = out;
+
+            while (i < hi1 && j < hi2) {
+                if (src[j] < src[i]) {
+                    dest[k++] = src[j++];
+                } else {
+                    dest[k++] = src[i++];
+                }
+            }
+
+            System.arraycopy(src, i, dest, k, hi1 - i);
+            System.arraycopy(src, j, dest, k + hi1 - i, hi2 - j);
+        }
+
+        /**
+         * First index of run 2 with element not less than x
+         */
+        private int lowerBound(char x) {
+            int low = lo2, high = hi2;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (src[mid] < x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * First index of run 1 with element greater than x
+         */
+        private int upperBound(char x) {
+            int low = lo1, high = hi1;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (x < src[mid]) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    static void sort(short[] a, int threshold, int algorithm) {
+        int n = a.length, granularity = granularity(n, threshold);
+
+        if (n <= granularity) {
+            sortChunk(a, 0, n, algorithm);
+        } else {
+            new ShortSorter(a, new short[n], 0, n, false, granularity, algorithm).invoke();
+        }
+    }
+
+    private static void sortChunk(short[] a, int lo, int hi, int algorithm) {
+        if (algorithm == INTRO_SORT) {
+            IntroSort.sort(a, lo, hi - 1);
+        } else {
+            short[] chunk = Arrays.copyOfRange(a, lo, hi);
+
+            if (algorithm == MERGE_SORT) {
+                MergeSort.sort(chunk);
+            } else if (algorithm == MULTI_SORT) {
+                MultiSort.sort(chunk);
+            } else {
+                DualPivotQuickSort.sort(chunk);
+            }
+
+            System.arraycopy(chunk, 0, a, lo, chunk.length);
+        }
+    }
+
+    /**
+     * Sort a[lo, hi), leaving the result in workspace if toWorkspace, otherwise in a
+     */
+    private static class ShortSorter extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final short[] a, w;
+        private final int lo, hi, granularity, algorithm;
+        private final boolean toWorkspace;
+
+        ShortSorter(short[] a, short[] w, int lo, int hi, boolean toWorkspace, int granularity, int algorithm) {
+            this.a = a;
+            this.w = w;
+            this.lo = lo;
+            this.hi = hi;
+            this.toWorkspace = toWorkspace;
+            this.granularity = granularity;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= granularity) {
+                sortChunk(a, lo, hi, algorithm);
+
+                if (toWorkspace) {
+                    System.arraycopy(a, lo, w, lo, hi - lo);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(
+                        new ShortSorter(a, w, lo, mid, !toWorkspace, granularity, algorithm),
+                        new ShortSorter(a, w, mid, hi, !toWorkspace, granularity, algorithm)
+                );
+
+                if (toWorkspace) {
+                    new ShortMerger(a, w, lo, mid, mid, hi, lo).compute();
+                } else {
+                    new ShortMerger(w, a, lo, mid, mid, hi, lo).compute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stable merge of src[lo1, hi1) and src[lo2, hi2) into dest starting from out
+     */
+    private static class ShortMerger extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final short[] src, dest;
+        private final int lo1, hi1, lo2, hi2, out;
+
+        ShortMerger(short[] src, short[] dest, int lo1, int hi1, int lo2, int hi2, int out) {
+            this.src = src;
+            this.dest = dest;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+
+            if (len1 + len2 <= MERGE_THRESHOLD || len1 == 0 || len2 == 0) {
+                merge();
+            } else {
+                int split1, split2;
+
+                // Split the longer run at its middle, elements of run 1 stay before equal elements of run 2
+                if (len1 >= len2) {
+                    split1 = (lo1 + hi1) >>> 1;
+                    split2 = lowerBound(src[split1]);
+                } else {
+                    split2 = (lo2 + hi2) >>> 1;
+                    split1 = upperBound(src[split2]);
+                }
+
+                invokeAll(
+                        new ShortMerger(src, dest, lo1, split1, lo2, split2, out),
+                        new ShortMerger(src, dest, split1, hi1, split2, hi2, out + (split1 - lo1) + (split2 - lo2))
+                );
+            }
+        }
+
+        private void merge() {
+            int i = lo1, j = lo2, k = out;
+
+            while (i < hi1 && j < hi2) {
+                if (src[j] < src[i]) {
+                    dest[k++] = src[j++];
+                } else {
+                    dest[k++] = src[i++];
+                }
+            }
+
+            System.arraycopy(src, i, dest, k, hi1 - i);
+            System.arraycopy(src, j, dest, k + hi1 - i, hi2 - j);
+        }
+
+        /**
+         * First index of run 2 with element not less than x
+         */
+        private int lowerBound(short x) {
+            int low = lo2, high = hi2;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (src[mid] < x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * First index of run 1 with element greater than x
+         */
+        private int upperBound(short x) {
+            int low = lo1, high = hi1;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (x < src[mid]) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    static void sort(int[] a, int threshold, int algorithm) {
+        int n = a.length, granularity = granularity(n, threshold);
+
+        if (n <= granularity) {
+            sortChunk(a, 0, n, algorithm);
+        } else {
+            new IntSorter(a, new int[n], 0, n, false, granularity, algorithm).invoke();
+        }
+    }
+
+    private static void sortChunk(int[] a, int lo, int hi, int algorithm) {
+        if (algorithm == INTRO_SORT) {
+            IntroSort.sort(a, lo, hi - 1);
+        } else {
+            int[] chunk = Arrays.copyOfRange(a, lo, hi);
+
+            if (algorithm == MERGE_SORT) {
+                MergeSort.sort(chunk);
+            } else if (algorithm == MULTI_SORT) {
+                MultiSort.sort(chunk);
+            } else {
+                DualPivotQuickSort.sort(chunk);
+            }
+
+            System.arraycopy(chunk, 0, a, lo, chunk.length);
+        }
+    }
+
+    /**
+     * Sort a[lo, hi), leaving the result in workspace if toWorkspace, otherwise in a
+     */
+    private static class IntSorter extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a, w;
+        private final int lo, hi, granularity, algorithm;
+        private final boolean toWorkspace;
+
+        IntSorter(int[] a, int[] w, int lo, int hi, boolean toWorkspace, int granularity, int algorithm) {
+            this.a = a;
+            this.w = w;
+            this.lo = lo;
+            this.hi = hi;
+            this.toWorkspace = toWorkspace;
+            this.granularity = granularity;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= granularity) {
+                sortChunk(a, lo, hi, algorithm);
+
+                if (toWorkspace) {
+                    System.arraycopy(a, lo, w, lo, hi - lo);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(
+                        new IntSorter(a, w, lo, mid, !toWorkspace, granularity, algorithm),
+                        new IntSorter(a, w, mid, hi, !toWorkspace, granularity, algorithm)
+                );
+
+                if (toWorkspace) {
+                    new IntMerger(a, w, lo, mid, mid, hi, lo).compute();
+                } else {
+                    new IntMerger(w, a, lo, mid, mid, hi, lo).compute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stable merge of src[lo1, hi1) and src[lo2, hi2) into dest starting from out
+     */
+    private static class IntMerger extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src, dest;
+        private final int lo1, hi1, lo2, hi2, out;
+
+        IntMerger(int[] src, int[] dest, int lo1, int hi1, int lo2, int hi2, int out) {
+            this.src = src;
+            this.dest = dest;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+
+            if (len1 + len2 <= MERGE_THRESHOLD || len1 == 0 || len2 == 0) {
+                merge();
+            } else {
+                int split1, split2;
+
+                // Split the longer run at its middle, elements of run 1 stay before equal elements of run 2
+                if (len1 >= len2) {
+                    split1 = (lo1 + hi1) >>> 1;
+                    split2 = lowerBound(src[split1]);
+                } else {
+                    split2 = (lo2 + hi2) >>> 1;
+                    split1 = upperBound(src[split2]);
+                }
+
+                invokeAll(
+                        new IntMerger(src, dest, lo1, split1, lo2, split2, out),
+                        new IntMerger(src, dest, split1, hi1, split2, hi2, out + (split1 - lo1) + (split2 - lo2))
+                );
+            }
+        }
+
+        private void merge() {
+            int i = lo1, j = lo2, k = out;
+
+            while (i < hi1 && j < hi2) {
+                if (src[j] < src[i]) {
+                    dest[k++] = src[j++];
+                } else {
+                    dest[k++] = src[i++];
+                }
+            }
+
+            System.arraycopy(src, i, dest, k, hi1 - i);
+            System.arraycopy(src, j, dest, k + hi1 - i, hi2 - j);
+        }
+
+        /**
+         * First index of run 2 with element not less than x
+         */
+        private int lowerBound(int x) {
+            int low = lo2, high = hi2;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (src[mid] < x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * First index of run 1 with element greater than x
+         */
+        private int upperBound(int x) {
+            int low = lo1, high = hi1;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (x < src[mid]) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    static void sort(long[] a, int threshold, int algorithm) {
+        int n = a.length, granularity = granularity(n, threshold);
+
+        if (n <= granularity) {
+            sortChunk(a, 0, n, algorithm);
+        } else {
+            new LongSorter(a, new long[n], 0, n, false, granularity, algorithm).invoke();
+        }
+    }
+
+    private static void sortChunk(long[] a, int lo, int hi, int algorithm) {
+        if (algorithm == INTRO_SORT) {
+            IntroSort.sort(a, lo, hi - 1);
+        } else {
+            long[] chunk = Arrays.copyOfRange(a, lo, hi);
+
+            if (algorithm == MERGE_SORT) {
+                MergeSort.sort(chunk);
+            } else if (algorithm == MULTI_SORT) {
+                MultiSort.sort(chunk);
+            } else {
+                DualPivotQuickSort.sort(chunk);
+            }
+
+            System.arraycopy(chunk, 0, a, lo, chunk.length);
+        }
+    }
+
+    /**
+     * Sort a[lo, hi), leaving the result in workspace if toWorkspace, otherwise in a
+     */
+    private static class LongSorter extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] a, w;
+        private final int lo, hi, granularity, algorithm;
+        private final boolean toWorkspace;
+
+        LongSorter(long[] a, long[] w, int lo, int hi, boolean toWorkspace, int granularity, int algorithm) {
+            this.a = a;
+            this.w = w;
+            this.lo = lo;
+            this.hi = hi;
+            this.toWorkspace = toWorkspace;
+            this.granularity = granularity;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= granularity) {
+                sortChunk(a, lo, hi, algorithm);
+
+                if (toWorkspace) {
+                    System.arraycopy(a, lo, w, lo, hi - lo);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(
+                        new LongSorter(a, w, lo, mid, !toWorkspace, granularity, algorithm),
+                        new LongSorter(a, w, mid, hi, !toWorkspace, granularity, algorithm)
+                );
+
+                if (toWorkspace) {
+                    new LongMerger(a, w, lo, mid, mid, hi, lo).compute();
+                } else {
+                    new LongMerger(w, a, lo, mid, mid, hi, lo).compute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stable merge of src[lo1, hi1) and src[lo2, hi2) into dest starting from out
+     */
+    private static class LongMerger extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] src, dest;
+        private final int lo1, hi1, lo2, hi2, out;
+
+        LongMerger(long[] src, long[] dest, int lo1, int hi1, int lo2, int hi2, int out) {
+            this.src = src;
+            this.dest = dest;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+
+            if (len1 + len2 <= MERGE_THRESHOLD || len1 == 0 || len2 == 0) {
+                merge();
+            } else {
+                int split1, split2;
+
+                // Split the longer run at its middle, elements of run 1 stay before equal elements of run 2
+                if (len1 >= len2) {
+                    split1 = (lo1 + hi1) >>> 1;
+                    split2 = lowerBound(src[split1]);
+                } else {
+                    split2 = (lo2 + hi2) >>> 1;
+                    split1 = upperBound(src[split2]);
+                }
+
+                invokeAll(
+                        new LongMerger(src, dest, lo1, split1, lo2, split2, out),
+                        new LongMerger(src, dest, split1, hi1, split2, hi2, out + (split1 - lo1) + (split2 - lo2))
+                );
+            }
+        }
+
+        private void merge() {
+            int i = lo1, j = lo2, k = out;
+
+            while (i < hi1 && j < hi2) {
+                if (src[j] < src[i]) {
+                    dest[k++] = src[j++];
+                } else {
+                    dest[k++] = src[i++];
+                }
+            }
+
+            System.arraycopy(src, i, dest, k, hi1 - i);
+            System.arraycopy(src, j, dest, k + hi1 - i, hi2 - j);
+        }
+
+        /**
+         * First index of run 2 with element not less than x
+         */
+        private int lowerBound(long x) {
+            int low = lo2, high = hi2;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (src[mid] < x) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * First index of run 1 with element greater than x
+         */
+        private int upperBound(long x) {
+            int low = lo1, high = hi1;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (x < src[mid]) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    static void sort(float[] a, int threshold, int algorithm) {
+        // Chunk algorithms may compare by operators, so NaN are moved to the end and -0.0 are sorted as 0.0
+        int n = a.length, negativeZeros = 0;
+
+        for (int i = n - 1; i >= 0; i--) {
+            float v = a[i];
+
+            if (v != v) {
+                a[i] = a[--n];
+                a[n] = v;
+            } else if (v == 0.0f && Float.floatToRawIntBits(v) != 0) {
+                a[i] = 0.0f;
+                negativeZeros++;
+            }
+        }
+
+        int granularity = granularity(n, threshold);
+
+        if (n <= granularity) {
+            sortChunk(a, 0, n, algorithm);
+        } else {
+            new FloatSorter(a, new float[n], 0, n, false, granularity, algorithm).invoke();
+        }
+
+        if (negativeZeros > 0) {
+            int lo = 0, hi = n;
+
+            // First zero
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+
+                if (a[mid] < 0.0f) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            for (int i = lo; i < lo + negativeZeros; i++) {
+                a[i] = -0.0f;
+            }
+        }
+    }
+
+    private static void sortChunk(float[] a, int lo, int hi, int algorithm) {
+        if (algorithm == INTRO_SORT) {
+            IntroSort.sort(a, lo, hi - 1);
+        } else {
+            float[] chunk = Arrays.copyOfRange(a, lo, hi);
+
+            if (algorithm == MERGE_SORT) {
+                MergeSort.sort(chunk);
+            } else if (algorithm == MULTI_SORT) {
+                MultiSort.sort(chunk);
+            } else {
+                DualPivotQuickSort.sort(chunk);
+            }
+
+            System.arraycopy(chunk, 0, a, lo, chunk.length);
+        }
+    }
+
+    /**
+     * Sort a[lo, hi), leaving the result in workspace if toWorkspace, otherwise in a
+     */
+    private static class FloatSorter extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] a, w;
+        private final int lo, hi, granularity, algorithm;
+        private final boolean toWorkspace;
+
+        FloatSorter(float[] a, float[] w, int lo, int hi, boolean toWorkspace, int granularity, int algorithm) {
+            this.a = a;
+            this.w = w;
+            this.lo = lo;
+            this.hi = hi;
+            this.toWorkspace = toWorkspace;
+            this.granularity = granularity;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= granularity) {
+                sortChunk(a, lo, hi, algorithm);
+
+                if (toWorkspace) {
+                    System.arraycopy(a, lo, w, lo, hi - lo);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(
+                        new FloatSorter(a, w, lo, mid, !toWorkspace, granularity, algorithm),
+                        new FloatSorter(a, w, mid, hi, !toWorkspace, granularity, algorithm)
+                );
+
+                if (toWorkspace) {
+                    new FloatMerger(a, w, lo, mid, mid, hi, lo).compute();
+                } else {
+                    new FloatMerger(w, a, lo, mid, mid, hi, lo).compute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stable merge of src[lo1, hi1) and src[lo2, hi2) into dest starting from out
+     */
+    private static class FloatMerger extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] src, dest;
+        private final int lo1, hi1, lo2, hi2, out;
+
+        FloatMerger(float[] src, float[] dest, int lo1, int hi1, int lo2, int hi2, int out) {
+            this.src = src;
+            this.dest = dest;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+
+            if (len1 + len2 <= MERGE_THRESHOLD || len1 == 0 || len2 == 0) {
+                merge();
+            } else {
+                int split1, split2;
+
+                // Split the longer run at its middle, elements of run 1 stay before equal elements of run 2
+                if (len1 >= len2) {
+                    split1 = (lo1 + hi1) >>> 1;
+                    split2 = lowerBound(src[split1]);
+                } else {
+                    split2 = (lo2 + hi2) >>> 1;
+                    split1 = upperBound(src[split2]);
+                }
+
+                invokeAll(
+                        new FloatMerger(src, dest, lo1, split1, lo2, split2, out),
+                        new FloatMerger(src, dest, split1, hi1, split2, hi2, out + (split1 - lo1) + (split2 - lo2))
+                );
+            }
+        }
+
+        private void merge() {
+            int i = lo1, j = lo2, k = out;
+
+            while (i < hi1 && j < hi2) {
+                if (Float.compare(src[j], src[i]) < 0) {
+                    dest[k++] = src[j++];
+                } else {
+                    dest[k++] = src[i++];
+                }
+            }
+
+            System.arraycopy(src, i, dest, k, hi1 - i);
+            System.arraycopy(src, j, dest, k + hi1 - i, hi2 - j);
+        }
+
+        /**
+         * First index of run 2 with element not less than x
+         */
+        private int lowerBound(float x) {
+            int low = lo2, high = hi2;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (Float.compare(src[mid], x) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * First index of run 1 with element greater than x
+         */
+        private int upperBound(float x) {
+            int low = lo1, high = hi1;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (Float.compare(x, src[mid]) < 0) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    static void sort(double[] a, int threshold, int algorithm) {
+        // Chunk algorithms may compare by operators, so NaN are moved to the end and -0.0 are sorted as 0.0
+        int n = a.length, negativeZeros = 0;
+
+        for (int i = n - 1; i >= 0; i--) {
+            double v = a[i];
+
+            if (v != v) {
+                a[i] = a[--n];
+                a[n] = v;
+            } else if (v == 0.0 && Double.doubleToRawLongBits(v) != 0) {
+                a[i] = 0.0;
+                negativeZeros++;
+            }
+        }
+
+        int granularity = granularity(n, threshold);
+
+        if (n <= granularity) {
+            sortChunk(a, 0, n, algorithm);
+        } else {
+            new DoubleSorter(a, new double[n], 0, n, false, granularity, algorithm).invoke();
+        }
+
+        if (negativeZeros > 0) {
+            int lo = 0, hi = n;
+
+            // First zero
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+
+                if (a[mid] < 0.0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            for (int i = lo; i < lo + negativeZeros; i++) {
+                a[i] = -0.0;
+            }
+        }
+    }
+
+    private static void sortChunk(double[] a, int lo, int hi, int algorithm) {
+        if (algorithm == INTRO_SORT) {
+            IntroSort.sort(a, lo, hi - 1);
+        } else {
+            double[] chunk = Arrays.copyOfRange(a, lo, hi);
+
+            if (algorithm == MERGE_SORT) {
+                MergeSort.sort(chunk);
+            } else if (algorithm == MULTI_SORT) {
+                MultiSort.sort(chunk);
+            } else {
+                DualPivotQuickSort.sort(chunk);
+            }
+
+            System.arraycopy(chunk, 0, a, lo, chunk.length);
+        }
+    }
+
+    /**
+     * Sort a[lo, hi), leaving the result in workspace if toWorkspace, otherwise in a
+     */
+    private static class DoubleSorter extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] a, w;
+        private final int lo, hi, granularity, algorithm;
+        private final boolean toWorkspace;
+
+        DoubleSorter(double[] a, double[] w, int lo, int hi, boolean toWorkspace, int granularity, int algorithm) {
+            this.a = a;
+            this.w = w;
+            this.lo = lo;
+            this.hi = hi;
+            this.toWorkspace = toWorkspace;
+            this.granularity = granularity;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= granularity) {
+                sortChunk(a, lo, hi, algorithm);
+
+                if (toWorkspace) {
+                    System.arraycopy(a, lo, w, lo, hi - lo);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(
+                        new DoubleSorter(a, w, lo, mid, !toWorkspace, granularity, algorithm),
+                        new DoubleSorter(a, w, mid, hi, !toWorkspace, granularity, algorithm)
+                );
+
+                if (toWorkspace) {
+                    new DoubleMerger(a, w, lo, mid, mid, hi, lo).compute();
+                } else {
+                    new DoubleMerger(w, a, lo, mid, mid, hi, lo).compute();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stable merge of src[lo1, hi1) and src[lo2, hi2) into dest starting from out
+     */
+    private static class DoubleMerger extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] src, dest;
+        private final int lo1, hi1, lo2, hi2, out;
+
+        DoubleMerger(double[] src, double[] dest, int lo1, int hi1, int lo2, int hi2, int out) {
+            this.src = src;
+            this.dest = dest;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+
+            if (len1 + len2 <= MERGE_THRESHOLD || len1 == 0 || len2 == 0) {
+                merge();
+            } else {
+                int split1, split2;
+
+                // Split the longer run at its middle, elements of run 1 stay before equal elements of run 2
+                if (len1 >= len2) {
+                    split1 = (lo1 + hi1) >>> 1;
+                    split2 = lowerBound(src[split1]);
+                } else {
+                    split2 = (lo2 + hi2) >>> 1;
+                    split1 = upperBound(src[split2]);
+                }
+
+                invokeAll(
+                        new DoubleMerger(src, dest, lo1, split1, lo2, split2, out),
+                        new DoubleMerger(src, dest, split1, hi1, split2, hi2, out + (split1 - lo1) + (split2 - lo2))
+                );
+            }
+        }
+
+        private void merge() {
+            int i = lo1, j = lo2, k = out;
+
+            while (i < hi1 && j < hi2) {
+                if (Double.compare(src[j], src[i]) < 0) {
+                    dest[k++] = src[j++];
+                } else {
+                    dest[k++] = src[i++];
+                }
+            }
+
+            System.arraycopy(src, i, dest, k, hi1 - i);
+            System.arraycopy(src, j, dest, k + hi1 - i, hi2 - j);
+        }
+
+        /**
+         * First index of run 2 with element not less than x
+         */
+        private int lowerBound(double x) {
+            int low = lo2, high = hi2;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (Double.compare(src[mid], x) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * First index of run 1 with element greater than x
+         */
+        private int upperBound(double x) {
+            int low = lo1, high = hi1;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (Double.compare(x, src[mid]) < 0) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            return low;
+        }
+    }
+}
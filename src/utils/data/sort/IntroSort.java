@@ -413,4 +413,650 @@ public class IntroSort implements Sorter {
             sort(array, i+1, right, r+1, max);
         }
     }
+    
+    /**
+     * Rearrange the array so that the element at index n is the one which would be there if the array were sorted,
+     * elements before it are not greater and elements after it are not less (introselect)
+     *
+     * @param <E> Generic type E
+     * @param array The array to be rearranged
+     * @param n Index of the element to select
+     * @return The n-th smallest element
+     */
+    public static <E> E nthElement(E[] array, int n) {
+        Comparator<E> c = DataComparator.buildComparator();
+        return nthElement(array, c, n);
+    }
+
+    /**
+     * Rearrange the array so that the element at index n is the one which would be there if the array were sorted,
+     * elements before it are not greater and elements after it are not less (introselect)
+     *
+     * @param <E> Generic type E
+     * @param array The array to be rearranged
+     * @param comparator Comparator for comparing purpose
+     * @param n Index of the element to select
+     * @return The n-th smallest element
+     */
+    public static <E> E nthElement(E[] array, Comparator<E> comparator, int n) {
+        checkIndex(n, array.length);
+        select(array, comparator, 0, array.length-1, n);
+        return array[n];
+    }
+
+    /**
+     * Sort the k smallest elements into the first k positions, remaining elements are left in unspecified order
+     *
+     * @param <E> Generic type E
+     * @param array The array to be partially sorted
+     * @param k Number of smallest elements to sort
+     */
+    public static <E> void partialSort(E[] array, int k) {
+        Comparator<E> c = DataComparator.buildComparator();
+        partialSort(array, c, k);
+    }
+
+    /**
+     * Sort the k smallest elements into the first k positions, remaining elements are left in unspecified order
+     *
+     * @param <E> Generic type E
+     * @param array The array to be partially sorted
+     * @param comparator Comparator for comparing purpose
+     * @param k Number of smallest elements to sort
+     */
+    public static <E> void partialSort(E[] array, Comparator<E> comparator, int k) {
+        k = Math.min(k, array.length);
+
+        if (k > 0) {
+            select(array, comparator, 0, array.length-1, k-1);
+        }
+        if (k > 1) {
+            sort(array, comparator, 0, k-2);
+        }
+    }
+
+    /**
+     * Partition portion of the array around the n-th element until it is in place, falling back to heapsort
+     * once partitioning goes too deep
+     */
+    private static <E> void select(E[] array, Comparator<E> comparator, int left, int right, int n) {
+        int max = 2 * (int)(Math.ceil(MathUtil.log(right-left+1, 2)));
+
+        for (int r = 0; right - left + 1 >= INSERTION_SORT_THRESHOLD; r++) {
+            if (r > max) {
+                HeapSort.sort(array, comparator, left, right);
+                return;
+            }
+
+            int i = (left+right) / 2;
+            if (comparator.compare(array[left], array[i]) > 0) {
+                DataManipulator.swapData(array, left, i);
+            }
+            if (comparator.compare(array[left], array[right]) > 0) {
+                DataManipulator.swapData(array, left, right);
+            }
+            if (comparator.compare(array[i], array[right]) > 0) {
+                DataManipulator.swapData(array, i, right);
+            }
+
+            int j = right - 1;
+            DataManipulator.swapData(array, i, j);
+            i=left;
+            E pivotValue = array[j];
+
+            while (true) {
+                while (comparator.compare(array[++i], pivotValue) < 0);
+                while (comparator.compare(array[--j], pivotValue) > 0);
+                if (j < i) break;
+                DataManipulator.swapData(array,i,j);
+            }
+            DataManipulator.swapData(array,i,right-1);
+
+            if (n < i) {
+                right = j;
+            } else if (n > i) {
+                left = i+1;
+            } else {
+                return;
+            }
+        }
+
+        InsertionSort.sort(array, comparator, left, right);
+    }
+
+    public static byte nthElement(byte[] array, int n) {
+        checkIndex(n, array.length);
+        select(array, 0, array.length-1, n);
+        return array[n];
+    }
+
+    public static char nthElement(char[] array, int n) {
+        checkIndex(n, array.length);
+        select(array, 0, array.length-1, n);
+        return array[n];
+    }
+
+    public static short nthElement(short[] array, int n) {
+        checkIndex(n, array.length);
+        select(array, 0, array.length-1, n);
+        return array[n];
+    }
+
+    public static float nthElement(float[] array, int n) {
+        checkIndex(n, array.length);
+        select(array, 0, array.length-1, n);
+        return array[n];
+    }
+
+    public static int nthElement(int[] array, int n) {
+        checkIndex(n, array.length);
+        select(array, 0, array.length-1, n);
+        return array[n];
+    }
+
+    public static long nthElement(long[] array, int n) {
+        checkIndex(n, array.length);
+        select(array, 0, array.length-1, n);
+        return array[n];
+    }
+
+    public static double nthElement(double[] array, int n) {
+        checkIndex(n, array.length);
+        select(array, 0, array.length-1, n);
+        return array[n];
+    }
+
+    public static void partialSort(byte[] array, int k) {
+        k = Math.min(k, array.length);
+
+        if (k > 0) {
+            select(array, 0, array.length-1, k-1);
+        }
+        if (k > 1) {
+            sort(array, 0, k-2);
+        }
+    }
+
+    public static void partialSort(char[] array, int k) {
+        k = Math.min(k, array.length);
+
+        if (k > 0) {
+            select(array, 0, array.length-1, k-1);
+        }
+        if (k > 1) {
+            sort(array, 0, k-2);
+        }
+    }
+
+    public static void partialSort(short[] array, int k) {
+        k = Math.min(k, array.length);
+
+        if (k > 0) {
+            select(array, 0, array.length-1, k-1);
+        }
+        if (k > 1) {
+            sort(array, 0, k-2);
+        }
+    }
+
+    public static void partialSort(float[] array, int k) {
+        k = Math.min(k, array.length);
+
+        if (k > 0) {
+            select(array, 0, array.length-1, k-1);
+        }
+        if (k > 1) {
+            DualPivotQuickSort.sort(array, 0, k-2);
+        }
+    }
+
+    public static void partialSort(int[] array, int k) {
+        k = Math.min(k, array.length);
+
+        if (k > 0) {
+            select(array, 0, array.length-1, k-1);
+        }
+        if (k > 1) {
+            sort(array, 0, k-2);
+        }
+    }
+
+    public static void partialSort(long[] array, int k) {
+        k = Math.min(k, array.length);
+
+        if (k > 0) {
+            select(array, 0, array.length-1, k-1);
+        }
+        if (k > 1) {
+            sort(array, 0, k-2);
+        }
+    }
+
+    public static void partialSort(double[] array, int k) {
+        k = Math.min(k, array.length);
+
+        if (k > 0) {
+            select(array, 0, array.length-1, k-1);
+        }
+        if (k > 1) {
+            DualPivotQuickSort.sort(array, 0, k-2);
+        }
+    }
+
+    private static void select(byte[] array, int left, int right, int n) {
+        int max = 2 * (int)(Math.ceil(MathUtil.log(right-left+1, 2)));
+
+        for (int r = 0; right - left + 1 >= INSERTION_SORT_THRESHOLD; r++) {
+            if (r > max) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            int i = (left+right) / 2;
+            if (array[left] > array[i]) {
+                DataManipulator.swapData(array, left, i);
+            }
+            if (array[left] > array[right]) {
+                DataManipulator.swapData(array, left, right);
+            }
+            if (array[i] > array[right]) {
+                DataManipulator.swapData(array, i, right);
+            }
+
+            int j = right - 1;
+            DataManipulator.swapData(array, i, j);
+            i=left;
+            byte pivotValue = array[j];
+
+            while (true) {
+                while (array[++i] < pivotValue);
+                while (array[--j] > pivotValue);
+                if (j < i) break;
+                DataManipulator.swapData(array,i,j);
+            }
+            DataManipulator.swapData(array,i,right-1);
+
+            if (n < i) {
+                right = j;
+            } else if (n > i) {
+                left = i+1;
+            } else {
+                return;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    private static void select(char[] array, int left, int right, int n) {
+        int max = 2 * (int)(Math.ceil(MathUtil.log(right-left+1, 2)));
+
+        for (int r = 0; right - left + 1 >= INSERTION_SORT_THRESHOLD; r++) {
+            if (r > max) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            int i = (left+right) / 2;
+            if (array[left] > array[i]) {
+                DataManipulator.swapData(array, left, i);
+            }
+            if (array[left] > array[right]) {
+                DataManipulator.swapData(array, left, right);
+            }
+            if (array[i] > array[right]) {
+                DataManipulator.swapData(array, i, right);
+            }
+
+            int j = right - 1;
+            DataManipulator.swapData(array, i, j);
+            i=left;
+            char pivotValue = array[j];
+
+            while (true) {
+                while (array[++i] < pivotValue);
+                while (array[--j] > pivotValue);
+                if (j < i) break;
+                DataManipulator.swapData(array,i,j);
+            }
+            DataManipulator.swapData(array,i,right-1);
+
+            if (n < i) {
+                right = j;
+            } else if (n > i) {
+                left = i+1;
+            } else {
+                return;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    private static void select(short[] array, int left, int right, int n) {
+        int max = 2 * (int)(Math.ceil(MathUtil.log(right-left+1, 2)));
+
+        for (int r = 0; right - left + 1 >= INSERTION_SORT_THRESHOLD; r++) {
+            if (r > max) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            int i = (left+right) / 2;
+            if (array[left] > array[i]) {
+                DataManipulator.swapData(array, left, i);
+            }
+            if (array[left] > array[right]) {
+                DataManipulator.swapData(array, left, right);
+            }
+            if (array[i] > array[right]) {
+                DataManipulator.swapData(array, i, right);
+            }
+
+            int j = right - 1;
+            DataManipulator.swapData(array, i, j);
+            i=left;
+            short pivotValue = array[j];
+
+            while (true) {
+                while (array[++i] < pivotValue);
+                while (array[--j] > pivotValue);
+                if (j < i) break;
+                DataManipulator.swapData(array,i,j);
+            }
+            DataManipulator.swapData(array,i,right-1);
+
+            if (n < i) {
+                right = j;
+            } else if (n > i) {
+                left = i+1;
+            } else {
+                return;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    /**
+     * Introselect in Float.compare order, -0.0 before 0.0 and NaN last like ArgSort and RadixSort
+     */
+    private static void select(float[] array, int left, int right, int n) {
+        int max = 2 * (int)(Math.ceil(MathUtil.log(right-left+1, 2)));
+
+        for (int r = 0; right - left + 1 >= INSERTION_SORT_THRESHOLD; r++) {
+            if (r > max) {
+                DualPivotQuickSort.sort(array, left, right);
+                return;
+            }
+
+            int i = (left+right) / 2;
+            if (Float.compare(array[left], array[i]) > 0) {
+                DataManipulator.swapData(array, left, i);
+            }
+            if (Float.compare(array[left], array[right]) > 0) {
+                DataManipulator.swapData(array, left, right);
+            }
+            if (Float.compare(array[i], array[right]) > 0) {
+                DataManipulator.swapData(array, i, right);
+            }
+
+            int j = right - 1;
+            DataManipulator.swapData(array, i, j);
+            i=left;
+            float pivotValue = array[j];
+
+            while (true) {
+                while (Float.compare(array[++i], pivotValue) < 0);
+                while (Float.compare(array[--j], pivotValue) > 0);
+                if (j < i) break;
+                DataManipulator.swapData(array,i,j);
+            }
+            DataManipulator.swapData(array,i,right-1);
+
+            if (n < i) {
+                right = j;
+            } else if (n > i) {
+                left = i+1;
+            } else {
+                return;
+            }
+        }
+
+        DualPivotQuickSort.sort(array, left, right);
+    }
+
+    private static void select(int[] array, int left, int right, int n) {
+        int max = 2 * (int)(Math.ceil(MathUtil.log(right-left+1, 2)));
+
+        for (int r = 0; right - left + 1 >= INSERTION_SORT_THRESHOLD; r++) {
+            if (r > max) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            int i = (left+right) / 2;
+            if (array[left] > array[i]) {
+                DataManipulator.swapData(array, left, i);
+            }
+            if (array[left] > array[right]) {
+                DataManipulator.swapData(array, left, right);
+            }
+            if (array[i] > array[right]) {
+                DataManipulator.swapData(array, i, right);
+            }
+
+            int j = right - 1;
+            DataManipulator.swapData(array, i, j);
+            i=left;
+            int pivotValue = array[j];
+
+            while (true) {
+                while (array[++i] < pivotValue);
+                while (array[--j] > pivotValue);
+                if (j < i) break;
+                DataManipulator.swapData(array,i,j);
+            }
+            DataManipulator.swapData(array,i,right-1);
+
+            if (n < i) {
+                right = j;
+            } else if (n > i) {
+                left = i+1;
+            } else {
+                return;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    private static void select(long[] array, int left, int right, int n) {
+        int max = 2 * (int)(Math.ceil(MathUtil.log(right-left+1, 2)));
+
+        for (int r = 0; right - left + 1 >= INSERTION_SORT_THRESHOLD; r++) {
+            if (r > max) {
+                HeapSort.sort(array, left, right);
+                return;
+            }
+
+            int i = (left+right) / 2;
+            if (array[left] > array[i]) {
+                DataManipulator.swapData(array, left, i);
+            }
+            if (array[left] > array[right]) {
+                DataManipulator.swapData(array, left, right);
+            }
+            if (array[i] > array[right]) {
+                DataManipulator.swapData(array, i, right);
+            }
+
+            int j = right - 1;
+            DataManipulator.swapData(array, i, j);
+            i=left;
+            long pivotValue = array[j];
+
+            while (true) {
+                while (array[++i] < pivotValue);
+                while (array[--j] > pivotValue);
+                if (j < i) break;
+                DataManipulator.swapData(array,i,j);
+            }
+            DataManipulator.swapData(array,i,right-1);
+
+            if (n < i) {
+                right = j;
+            } else if (n > i) {
+                left = i+1;
+            } else {
+                return;
+            }
+        }
+
+        InsertionSort.sort(array, left, right);
+    }
+
+    /**
+     * Introselect in Double.compare order, -0.0 before 0.0 and NaN last like ArgSort and RadixSort
+     */
+    private static void select(double[] array, int left, int right, int n) {
+        int max = 2 * (int)(Math.ceil(MathUtil.log(right-left+1, 2)));
+
+        for (int r = 0; right - left + 1 >= INSERTION_SORT_THRESHOLD; r++) {
+            if (r > max) {
+                DualPivotQuickSort.sort(array, left, right);
+                return;
+            }
+
+            int i = (left+right) / 2;
+            if (Double.compare(array[left], array[i]) > 0) {
+                DataManipulator.swapData(array, left, i);
+            }
+            if (Double.compare(array[left], array[right]) > 0) {
+                DataManipulator.swapData(array, left, right);
+            }
+            if (Double.compare(array[i], array[right]) > 0) {
+                DataManipulator.swapData(array, i, right);
+            }
+
+            int j = right - 1;
+            DataManipulator.swapData(array, i, j);
+            i=left;
+            double pivotValue = array[j];
+
+            while (true) {
+                while (Double.compare(array[++i], pivotValue) < 0);
+                while (Double.compare(array[--j], pivotValue) > 0);
+                if (j < i) break;
+                DataManipulator.swapData(array,i,j);
+            }
+            DataManipulator.swapData(array,i,right-1);
+
+            if (n < i) {
+                right = j;
+            } else if (n > i) {
+                left = i+1;
+            } else {
+                return;
+            }
+        }
+
+        DualPivotQuickSort.sort(array, left, right);
+    }
+
+    private static void checkIndex(int n, int length) {
+        if (n < 0 || n >= length) {
+            throw new ArrayIndexOutOfBoundsException(n);
+        }
+    }
+
+    /**
+     * Sort the array in parallel, chunks are sorted using introsort algorithm and merged in parallel
+     * 
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     */
+    public static <E> void parallelSort(E[] array) {
+        Comparator<E> c = DataComparator.buildComparator();
+        parallelSort(array, c);
+    }
+    
+    /**
+     * Sort the array in parallel, chunks are sorted using introsort algorithm and merged in parallel
+     * 
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     * @param comparator Comparator for comparing purpose
+     */
+    public static <E> void parallelSort(E[] array, Comparator<E> comparator) {
+        parallelSort(array, comparator, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+    
+    /**
+     * Sort the array in parallel, chunks are sorted using introsort algorithm and merged in parallel
+     * 
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     * @param comparator Comparator for comparing purpose
+     * @param threshold Minimum number of elements sorted sequentially
+     */
+    public static <E> void parallelSort(E[] array, Comparator<E> comparator, int threshold) {
+        ForkJoinSort.sort(array, comparator, threshold, ForkJoinSort.INTRO_SORT);
+    }
+    
+    public static void parallelSort(byte[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+    
+    public static void parallelSort(char[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+    
+    public static void parallelSort(short[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+    
+    public static void parallelSort(int[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+    
+    public static void parallelSort(long[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+    
+    public static void parallelSort(float[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+    
+    public static void parallelSort(double[] array) {
+        parallelSort(array, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+    
+    public static void parallelSort(byte[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.INTRO_SORT);
+    }
+    
+    public static void parallelSort(char[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.INTRO_SORT);
+    }
+    
+    public static void parallelSort(short[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.INTRO_SORT);
+    }
+    
+    public static void parallelSort(int[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.INTRO_SORT);
+    }
+    
+    public static void parallelSort(long[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.INTRO_SORT);
+    }
+    
+    public static void parallelSort(float[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.INTRO_SORT);
+    }
+    
+    public static void parallelSort(double[] array, int threshold) {
+        ForkJoinSort.sort(array, threshold, ForkJoinSort.INTRO_SORT);
+    }
 }
@@ -0,0 +1,162 @@
+package utils.data.sort;
+
+import utils.data.DataManipulator;
+
+import java.util.List;
+
+/**
+ * Key extracting sort (Schwartzian transform) for object arrays.
+ *
+ * Key of each element is extracted once into a primitive array, indices are sorted by radix sort over the keys
+ * and elements are permuted at the end, so no comparator is called and no key is boxed.
+ * The sort is stable. Double keys are ordered like DualPivotQuickSort orders doubles, -0.0 before 0.0 and NaN last.
+ */
+public class KeySort implements Sorter {
+    private KeySort() {}
+
+    public interface IntKeyExtractor<T> {
+        public int extractKey(T o);
+    }
+
+    public interface LongKeyExtractor<T> {
+        public long extractKey(T o);
+    }
+
+    public interface DoubleKeyExtractor<T> {
+        public double extractKey(T o);
+    }
+
+    /**
+     * Sort the array by int key of elements
+     *
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     * @param extractor Key extractor, called once per element
+     */
+    public static <E> void sortByIntKey(E[] array, IntKeyExtractor<? super E> extractor) {
+        permute(array, orderByIntKey(array, extractor));
+    }
+
+    /**
+     * Sort the array by long key of elements
+     *
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     * @param extractor Key extractor, called once per element
+     */
+    public static <E> void sortByLongKey(E[] array, LongKeyExtractor<? super E> extractor) {
+        permute(array, orderByLongKey(array, extractor));
+    }
+
+    /**
+     * Sort the array by double key of elements
+     *
+     * @param <E> Generic type E
+     * @param array The array to be sorted
+     * @param extractor Key extractor, called once per element
+     */
+    public static <E> void sortByDoubleKey(E[] array, DoubleKeyExtractor<? super E> extractor) {
+        permute(array, orderByDoubleKey(array, extractor));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static <E> void sortByIntKey(List<E> list, IntKeyExtractor<? super E> extractor) {
+        if (list.size() > 1) {
+            Object[] array = list.toArray();
+            sortByIntKey(array, (IntKeyExtractor) extractor);
+            DataManipulator.copyArrayToList((List) list, array);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static <E> void sortByLongKey(List<E> list, LongKeyExtractor<? super E> extractor) {
+        if (list.size() > 1) {
+            Object[] array = list.toArray();
+            sortByLongKey(array, (LongKeyExtractor) extractor);
+            DataManipulator.copyArrayToList((List) list, array);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static <E> void sortByDoubleKey(List<E> list, DoubleKeyExtractor<? super E> extractor) {
+        if (list.size() > 1) {
+            Object[] array = list.toArray();
+            sortByDoubleKey(array, (DoubleKeyExtractor) extractor);
+            DataManipulator.copyArrayToList((List) list, array);
+        }
+    }
+
+    /**
+     * Indices of elements in ascending order of their int keys, equal keys keep their original order
+     *
+     * @param <E> Generic type E
+     * @param array Source array, not modified
+     * @param extractor Key extractor, called once per element
+     * @return index permutation, i-th element of the sorted array is array[order[i]]
+     */
+    public static <E> int[] orderByIntKey(E[] array, IntKeyExtractor<? super E> extractor) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (extractor.extractKey(array[i]) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        }
+
+        return order(keys);
+    }
+
+    /**
+     * Indices of elements in ascending order of their long keys, equal keys keep their original order
+     *
+     * @param <E> Generic type E
+     * @param array Source array, not modified
+     * @param extractor Key extractor, called once per element
+     * @return index permutation, i-th element of the sorted array is array[order[i]]
+     */
+    public static <E> int[] orderByLongKey(E[] array, LongKeyExtractor<? super E> extractor) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = extractor.extractKey(array[i]) ^ Long.MIN_VALUE;
+        }
+
+        return order(keys);
+    }
+
+    /**
+     * Indices of elements in ascending order of their double keys, equal keys keep their original order
+     *
+     * @param <E> Generic type E
+     * @param array Source array, not modified
+     * @param extractor Key extractor, called once per element
+     * @return index permutation, i-th element of the sorted array is array[order[i]]
+     */
+    public static <E> int[] orderByDoubleKey(E[] array, DoubleKeyExtractor<? super E> extractor) {
+        long[] keys = new long[array.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = RadixSort.doubleKey(extractor.extractKey(array[i]));
+        }
+
+        return order(keys);
+    }
+
+    private static int[] order(long[] keys) {
+        int[] indices = new int[keys.length];
+
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        RadixSort.sort(keys, indices);
+
+        return indices;
+    }
+
+    private static <E> void permute(E[] array, int[] order) {
+        E[] source = array.clone();
+
+        for (int i = 0; i < order.length; i++) {
+            array[i] = source[order[i]];
+        }
+    }
+}
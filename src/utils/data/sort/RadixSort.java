@@ -0,0 +1,794 @@
+package utils.data.sort;
+
+import java.util.Arrays;
+
+/**
+ * Radix sort for primitive arrays, strings and char arrays.
+ *
+ * Fixed width primitives are sorted by LSD radix sort over 8-bit digits of an order preserving unsigned key,
+ * signed values have their sign bit flipped and floating point values are mapped by their IEEE-754 bits,
+ * which orders -0.0 before 0.0 and NaN last like DualPivotQuickSort does. Digits shared by all elements
+ * are skipped. Strings and char arrays are sorted by MSD radix sort over the high / low bytes of each char.
+ *
+ * Sorting requires a scratch array as long as the sorted range, a scratch array supplied by caller is reused
+ * instead of allocating one per call. Small ranges are sorted by comparison sorts.
+ */
+public class RadixSort implements Sorter {
+    // Ranges shorter than this are sorted by DualPivotQuickSort
+    public static final int LSD_THRESHOLD = 128;
+
+    // Partitions shorter than this are sorted by insertion sort in MSD radix sort
+    public static final int MSD_THRESHOLD = 16;
+
+    private static final int RADIX = 256;
+
+    private RadixSort() {}
+
+    public static void sort(byte[] array) {
+        sort(array, 0, array.length-1);
+    }
+
+    /**
+     * Sort portion of the array using counting sort
+     *
+     * @param array The array to be sorted
+     * @param left Start index
+     * @param right End index
+     */
+    public static void sort(byte[] array, int left, int right) {
+        int[] count = new int[RADIX];
+
+        for (int i = left; i <= right; i++) {
+            count[array[i] + 128]++;
+        }
+
+        for (int b = 0, k = left; b < RADIX; b++) {
+            for (int c = count[b]; c > 0; c--) {
+                array[k++] = (byte) (b - 128);
+            }
+        }
+    }
+
+    public static void sort(int[] array) {
+        sort(array, 0, array.length-1, null);
+    }
+
+    public static void sort(int[] array, int[] scratch) {
+        sort(array, 0, array.length-1, scratch);
+    }
+
+    public static void sort(int[] array, int left, int right) {
+        sort(array, left, right, null);
+    }
+
+    public static void sort(long[] array) {
+        sort(array, 0, array.length-1, null);
+    }
+
+    public static void sort(long[] array, long[] scratch) {
+        sort(array, 0, array.length-1, scratch);
+    }
+
+    public static void sort(long[] array, int left, int right) {
+        sort(array, left, right, null);
+    }
+
+    public static void sort(short[] array) {
+        sort(array, 0, array.length-1, null);
+    }
+
+    public static void sort(short[] array, short[] scratch) {
+        sort(array, 0, array.length-1, scratch);
+    }
+
+    public static void sort(short[] array, int left, int right) {
+        sort(array, left, right, null);
+    }
+
+    public static void sort(char[] array) {
+        sort(array, 0, array.length-1, null);
+    }
+
+    public static void sort(char[] array, char[] scratch) {
+        sort(array, 0, array.length-1, scratch);
+    }
+
+    public static void sort(char[] array, int left, int right) {
+        sort(array, left, right, null);
+    }
+
+    public static void sort(float[] array) {
+        sort(array, 0, array.length-1, null);
+    }
+
+    public static void sort(float[] array, float[] scratch) {
+        sort(array, 0, array.length-1, scratch);
+    }
+
+    public static void sort(float[] array, int left, int right) {
+        sort(array, left, right, null);
+    }
+
+    public static void sort(double[] array) {
+        sort(array, 0, array.length-1, null);
+    }
+
+    public static void sort(double[] array, double[] scratch) {
+        sort(array, 0, array.length-1, scratch);
+    }
+
+    public static void sort(double[] array, int left, int right) {
+        sort(array, left, right, null);
+    }
+
+    /**
+     * Sort portion of the array using LSD radix sort
+     *
+     * @param array The array to be sorted
+     * @param left Start index
+     * @param right End index
+     * @param scratch Scratch array at least as long as the range, null to allocate one
+     */
+    public static void sort(int[] array, int left, int right, int[] scratch) {
+        int n = right - left + 1;
+
+        if (n < LSD_THRESHOLD) {
+            DualPivotQuickSort.sort(array, left, right);
+            return;
+        }
+
+        if (scratch == null) {
+            scratch = new int[n];
+        } else if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch array shorter than range: " + scratch.length + " < " + n);
+        }
+
+        int[] counts = new int[4 * RADIX];
+
+        for (int i = left; i <= right; i++) {
+            int value = array[i];
+            int key = value ^ Integer.MIN_VALUE;
+
+            counts[(key & 0xFF)]++;
+            counts[1 * RADIX + ((key >>> 8) & 0xFF)]++;
+            counts[2 * RADIX + ((key >>> 16) & 0xFF)]++;
+            counts[3 * RADIX + ((key >>> 24) & 0xFF)]++;
+        }
+
+        int[] src = array, dest = scratch;
+        int srcOffset = left, destOffset = 0;
+
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass * 8, base = pass * RADIX;
+
+            if (!distribute(counts, base, n)) {
+                continue;
+            }
+
+            for (int i = srcOffset, end = srcOffset + n; i < end; i++) {
+                int value = src[i];
+                int key = value ^ Integer.MIN_VALUE;
+
+                dest[destOffset + counts[base + ((key >>> shift) & 0xFF)]++] = value;
+            }
+
+            int[] t = src; src = dest; dest = t;
+            int o = srcOffset; srcOffset = destOffset; destOffset = o;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, srcOffset, array, left, n);
+        }
+    }
+
+    public static void sort(long[] array, int left, int right, long[] scratch) {
+        int n = right - left + 1;
+
+        if (n < LSD_THRESHOLD) {
+            DualPivotQuickSort.sort(array, left, right);
+            return;
+        }
+
+        if (scratch == null) {
+            scratch = new long[n];
+        } else if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch array shorter than range: " + scratch.length + " < " + n);
+        }
+
+        int[] counts = new int[8 * RADIX];
+
+        for (int i = left; i <= right; i++) {
+            long value = array[i];
+            long key = value ^ Long.MIN_VALUE;
+
+            counts[(int) (key & 0xFF)]++;
+            counts[1 * RADIX + (int) ((key >>> 8) & 0xFF)]++;
+            counts[2 * RADIX + (int) ((key >>> 16) & 0xFF)]++;
+            counts[3 * RADIX + (int) ((key >>> 24) & 0xFF)]++;
+            counts[4 * RADIX + (int) ((key >>> 32) & 0xFF)]++;
+            counts[5 * RADIX + (int) ((key >>> 40) & 0xFF)]++;
+            counts[6 * RADIX + (int) ((key >>> 48) & 0xFF)]++;
+            counts[7 * RADIX + (int) ((key >>> 56) & 0xFF)]++;
+        }
+
+        long[] src = array, dest = scratch;
+        int srcOffset = left, destOffset = 0;
+
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * 8, base = pass * RADIX;
+
+            if (!distribute(counts, base, n)) {
+                continue;
+            }
+
+            for (int i = srcOffset, end = srcOffset + n; i < end; i++) {
+                long value = src[i];
+                long key = value ^ Long.MIN_VALUE;
+
+                dest[destOffset + counts[base + ((int) ((key >>> shift) & 0xFF))]++] = value;
+            }
+
+            long[] t = src; src = dest; dest = t;
+            int o = srcOffset; srcOffset = destOffset; destOffset = o;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, srcOffset, array, left, n);
+        }
+    }
+
+    public static void sort(short[] array, int left, int right, short[] scratch) {
+        int n = right - left + 1;
+
+        if (n < LSD_THRESHOLD) {
+            DualPivotQuickSort.sort(array, left, right);
+            return;
+        }
+
+        if (scratch == null) {
+            scratch = new short[n];
+        } else if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch array shorter than range: " + scratch.length + " < " + n);
+        }
+
+        int[] counts = new int[2 * RADIX];
+
+        for (int i = left; i <= right; i++) {
+            short value = array[i];
+            int key = (value ^ 0x8000) & 0xFFFF;
+
+            counts[(key & 0xFF)]++;
+            counts[1 * RADIX + ((key >>> 8) & 0xFF)]++;
+        }
+
+        short[] src = array, dest = scratch;
+        int srcOffset = left, destOffset = 0;
+
+        for (int pass = 0; pass < 2; pass++) {
+            int shift = pass * 8, base = pass * RADIX;
+
+            if (!distribute(counts, base, n)) {
+                continue;
+            }
+
+            for (int i = srcOffset, end = srcOffset + n; i < end; i++) {
+                short value = src[i];
+                int key = (value ^ 0x8000) & 0xFFFF;
+
+                dest[destOffset + counts[base + ((key >>> shift) & 0xFF)]++] = value;
+            }
+
+            short[] t = src; src = dest; dest = t;
+            int o = srcOffset; srcOffset = destOffset; destOffset = o;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, srcOffset, array, left, n);
+        }
+    }
+
+    public static void sort(char[] array, int left, int right, char[] scratch) {
+        int n = right - left + 1;
+
+        if (n < LSD_THRESHOLD) {
+            DualPivotQuickSort.sort(array, left, right);
+            return;
+        }
+
+        if (scratch == null) {
+            scratch = new char[n];
+        } else if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch array shorter than range: " + scratch.length + " < " + n);
+        }
+
+        int[] counts = new int[2 * RADIX];
+
+        for (int i = left; i <= right; i++) {
+            char value = array[i];
+            int key = value;
+
+            counts[(key & 0xFF)]++;
+            counts[1 * RADIX + ((key >>> 8) & 0xFF)]++;
+        }
+
+        char[] src = array, dest = scratch;
+        int srcOffset = left, destOffset = 0;
+
+        for (int pass = 0; pass < 2; pass++) {
+            int shift = pass * 8, base = pass * RADIX;
+
+            if (!distribute(counts, base, n)) {
+                continue;
+            }
+
+            for (int i = srcOffset, end = srcOffset + n; i < end; i++) {
+                char value = src[i];
+                int key = value;
+
+                dest[destOffset + counts[base + ((key >>> shift) & 0xFF)]++] = value;
+            }
+
+            char[] t = src; src = dest; dest = t;
+            int o = srcOffset; srcOffset = destOffset; destOffset = o;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, srcOffset, array, left, n);
+        }
+    }
+
+    public static void sort(float[] array, int left, int right, float[] scratch) {
+        int n = right - left + 1;
+
+        if (n < LSD_THRESHOLD) {
+            DualPivotQuickSort.sort(array, left, right);
+            return;
+        }
+
+        if (scratch == null) {
+            scratch = new float[n];
+        } else if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch array shorter than range: " + scratch.length + " < " + n);
+        }
+
+        int[] counts = new int[4 * RADIX];
+
+        for (int i = left; i <= right; i++) {
+            float value = array[i];
+            int key = floatKey(value);
+
+            counts[(key & 0xFF)]++;
+            counts[1 * RADIX + ((key >>> 8) & 0xFF)]++;
+            counts[2 * RADIX + ((key >>> 16) & 0xFF)]++;
+            counts[3 * RADIX + ((key >>> 24) & 0xFF)]++;
+        }
+
+        float[] src = array, dest = scratch;
+        int srcOffset = left, destOffset = 0;
+
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass * 8, base = pass * RADIX;
+
+            if (!distribute(counts, base, n)) {
+                continue;
+            }
+
+            for (int i = srcOffset, end = srcOffset + n; i < end; i++) {
+                float value = src[i];
+                int key = floatKey(value);
+
+                dest[destOffset + counts[base + ((key >>> shift) & 0xFF)]++] = value;
+            }
+
+            float[] t = src; src = dest; dest = t;
+            int o = srcOffset; srcOffset = destOffset; destOffset = o;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, srcOffset, array, left, n);
+        }
+    }
+
+    public static void sort(double[] array, int left, int right, double[] scratch) {
+        int n = right - left + 1;
+
+        if (n < LSD_THRESHOLD) {
+            DualPivotQuickSort.sort(array, left, right);
+            return;
+        }
+
+        if (scratch == null) {
+            scratch = new double[n];
+        } else if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch array shorter than range: " + scratch.length + " < " + n);
+        }
+
+        int[] counts = new int[8 * RADIX];
+
+        for (int i = left; i <= right; i++) {
+            double value = array[i];
+            long key = doubleKey(value);
+
+            counts[(int) (key & 0xFF)]++;
+            counts[1 * RADIX + (int) ((key >>> 8) & 0xFF)]++;
+            counts[2 * RADIX + (int) ((key >>> 16) & 0xFF)]++;
+            counts[3 * RADIX + (int) ((key >>> 24) & 0xFF)]++;
+            counts[4 * RADIX + (int) ((key >>> 32) & 0xFF)]++;
+            counts[5 * RADIX + (int) ((key >>> 40) & 0xFF)]++;
+            counts[6 * RADIX + (int) ((key >>> 48) & 0xFF)]++;
+            counts[7 * RADIX + (int) ((key >>> 56) & 0xFF)]++;
+        }
+
+        double[] src = array, dest = scratch;
+        int srcOffset = left, destOffset = 0;
+
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * 8, base = pass * RADIX;
+
+            if (!distribute(counts, base, n)) {
+                continue;
+            }
+
+            for (int i = srcOffset, end = srcOffset + n; i < end; i++) {
+                double value = src[i];
+                long key = doubleKey(value);
+
+                dest[destOffset + counts[base + ((int) ((key >>> shift) & 0xFF))]++] = value;
+            }
+
+            double[] t = src; src = dest; dest = t;
+            int o = srcOffset; srcOffset = destOffset; destOffset = o;
+        }
+
+        if (src != array) {
+            System.arraycopy(src, srcOffset, array, left, n);
+        }
+    }
+
+    /**
+     * Turn digit counts of a pass into bucket offsets
+     *
+     * @return false if all elements share the same digit, i.e. the pass can be skipped
+     */
+    private static boolean distribute(int[] counts, int base, int n) {
+        for (int b = base, sum = 0, end = base + RADIX; b < end; b++) {
+            int count = counts[b];
+
+            if (count == n) {
+                return false;
+            }
+
+            counts[b] = sum;
+            sum += count;
+        }
+
+        return true;
+    }
+
+    /**
+     * Stable LSD radix sort of unsigned keys carrying int values, used to sort indices by extracted keys
+     *
+     * @param keys unsigned keys
+     * @param values values moved along with keys
+     */
+    static void sort(long[] keys, int[] values) {
+        int n = keys.length;
+        int[] counts = new int[8 * RADIX];
+
+        for (int i = 0; i < n; i++) {
+            long key = keys[i];
+
+            for (int pass = 0; pass < 8; pass++) {
+                counts[pass * RADIX + (int) ((key >>> (pass * 8)) & 0xFF)]++;
+            }
+        }
+
+        long[] keySrc = keys, keyDest = new long[n];
+        int[] valueSrc = values, valueDest = new int[n];
+
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * 8, base = pass * RADIX;
+
+            if (n == 0 || !distribute(counts, base, n)) {
+                continue;
+            }
+
+            for (int i = 0; i < n; i++) {
+                long key = keySrc[i];
+                int k = counts[base + (int) ((key >>> shift) & 0xFF)]++;
+
+                keyDest[k] = key;
+                valueDest[k] = valueSrc[i];
+            }
+
+            long[] kt = keySrc; keySrc = keyDest; keyDest = kt;
+            int[] vt = valueSrc; valueSrc = valueDest; valueDest = vt;
+        }
+
+        if (keySrc != keys) {
+            System.arraycopy(keySrc, 0, keys, 0, n);
+            System.arraycopy(valueSrc, 0, values, 0, n);
+        }
+    }
+
+    static int floatKey(float value) {
+        int bits = Float.floatToRawIntBits(value);
+
+        // All NaN are placed last regardless of sign & payload
+        return (value != value)? -1 : bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+    }
+
+    static long doubleKey(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+
+        return (value != value)? -1L : bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    public static void sort(String[] array) {
+        sort(array, 0, array.length-1, null);
+    }
+
+    public static void sort(String[] array, String[] scratch) {
+        sort(array, 0, array.length-1, scratch);
+    }
+
+    public static void sort(String[] array, int left, int right) {
+        sort(array, left, right, null);
+    }
+
+    public static void sort(char[][] array) {
+        sort(array, 0, array.length-1, null);
+    }
+
+    public static void sort(char[][] array, char[][] scratch) {
+        sort(array, 0, array.length-1, scratch);
+    }
+
+    public static void sort(char[][] array, int left, int right) {
+        sort(array, left, right, null);
+    }
+
+    /**
+     * Sort portion of the array using MSD radix sort, in the order of String.compareTo
+     *
+     * @param array The array to be sorted
+     * @param left Start index
+     * @param right End index
+     * @param scratch Scratch array at least as long as the range, null to allocate one
+     */
+    public static void sort(String[] array, int left, int right, String[] scratch) {
+        int n = right - left + 1;
+
+        if (n < 2) {
+            return;
+        }
+
+        if (scratch == null) {
+            scratch = new String[n];
+        } else if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch array shorter than range: " + scratch.length + " < " + n);
+        }
+
+        // Pending partitions as (left, right, digit) triples, digit 2k / 2k+1 is high / low byte of char k
+        int[] stack = new int[3 * 64];
+        int top = 0;
+        int[] count = new int[RADIX + 2];
+
+        stack[top++] = left;
+        stack[top++] = right;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int d = stack[--top], hi = stack[--top], lo = stack[--top];
+
+            if (hi - lo < MSD_THRESHOLD) {
+                insertionSort(array, lo, hi, d >> 1);
+                continue;
+            }
+
+            Arrays.fill(count, 0);
+
+            for (int i = lo; i <= hi; i++) {
+                count[digit(array[i], d) + 2]++;
+            }
+
+            int first = digit(array[lo], d);
+
+            if (count[first + 2] == hi - lo + 1) {
+                // Same digit for all, nothing to distribute
+                if (first >= 0) {
+                    stack = push(stack, top, lo, hi, d + 1);
+                    top += 3;
+                }
+                continue;
+            }
+
+            for (int r = 0; r <= RADIX; r++) {
+                count[r + 1] += count[r];
+            }
+
+            for (int i = lo; i <= hi; i++) {
+                scratch[count[digit(array[i], d) + 1]++] = array[i];
+            }
+
+            System.arraycopy(scratch, 0, array, lo, hi - lo + 1);
+
+            // Partition of ended elements is done, count[r] is now the start of partition of digit r
+            for (int r = 0; r < RADIX; r++) {
+                if (count[r + 1] - count[r] > 1) {
+                    stack = push(stack, top, lo + count[r], lo + count[r + 1] - 1, d + 1);
+                    top += 3;
+                }
+            }
+        }
+    }
+
+    /**
+     * Digit d of value, -1 if value ends before it
+     */
+    private static int digit(String value, int d) {
+        int index = d >> 1;
+
+        if (index >= value.length()) {
+            return -1;
+        }
+
+        char c = value.charAt(index);
+
+        return ((d & 1) == 0)? c >>> 8 : c & 0xFF;
+    }
+
+    /**
+     * Insertion sort of elements sharing the first offset chars
+     */
+    private static void insertionSort(String[] array, int left, int right, int offset) {
+        for (int i = left + 1; i <= right; i++) {
+            String value = array[i];
+            int j = i - 1;
+
+            for (; j >= left && compare(array[j], value, offset) > 0; j--) {
+                array[j + 1] = array[j];
+            }
+
+            array[j + 1] = value;
+        }
+    }
+
+    private static int compare(String a, String b, int offset) {
+        int lengthA = a.length(), lengthB = b.length(), length = Math.min(lengthA, lengthB);
+
+        for (int i = offset; i < length; i++) {
+            char c1 = a.charAt(i), c2 = b.charAt(i);
+
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+
+        return lengthA - lengthB;
+    }
+
+    public static void sort(char[][] array, int left, int right, char[][] scratch) {
+        int n = right - left + 1;
+
+        if (n < 2) {
+            return;
+        }
+
+        if (scratch == null) {
+            scratch = new char[n][];
+        } else if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch array shorter than range: " + scratch.length + " < " + n);
+        }
+
+        // Pending partitions as (left, right, digit) triples, digit 2k / 2k+1 is high / low byte of char k
+        int[] stack = new int[3 * 64];
+        int top = 0;
+        int[] count = new int[RADIX + 2];
+
+        stack[top++] = left;
+        stack[top++] = right;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int d = stack[--top], hi = stack[--top], lo = stack[--top];
+
+            if (hi - lo < MSD_THRESHOLD) {
+                insertionSort(array, lo, hi, d >> 1);
+                continue;
+            }
+
+            Arrays.fill(count, 0);
+
+            for (int i = lo; i <= hi; i++) {
+                count[digit(array[i], d) + 2]++;
+            }
+
+            int first = digit(array[lo], d);
+
+            if (count[first + 2] == hi - lo + 1) {
+                // Same digit for all, nothing to distribute
+                if (first >= 0) {
+                    stack = push(stack, top, lo, hi, d + 1);
+                    top += 3;
+                }
+                continue;
+            }
+
+            for (int r = 0; r <= RADIX; r++) {
+                count[r + 1] += count[r];
+            }
+
+            for (int i = lo; i <= hi; i++) {
+                scratch[count[digit(array[i], d) + 1]++] = array[i];
+            }
+
+            System.arraycopy(scratch, 0, array, lo, hi - lo + 1);
+
+            // Partition of ended elements is done, count[r] is now the start of partition of digit r
+            for (int r = 0; r < RADIX; r++) {
+                if (count[r + 1] - count[r] > 1) {
+                    stack = push(stack, top, lo + count[r], lo + count[r + 1] - 1, d + 1);
+                    top += 3;
+                }
+            }
+        }
+    }
+
+    /**
+     * Digit d of value, -1 if value ends before it
+     */
+    private static int digit(char[] value, int d) {
+        int index = d >> 1;
+
+        if (index >= value.length) {
+            return -1;
+        }
+
+        char c = value[index];
+
+        return ((d & 1) == 0)? c >>> 8 : c & 0xFF;
+    }
+
+    /**
+     * Insertion sort of elements sharing the first offset chars
+     */
+    private static void insertionSort(char[][] array, int left, int right, int offset) {
+        for (int i = left + 1; i <= right; i++) {
+            char[] value = array[i];
+            int j = i - 1;
+
+            for (; j >= left && compare(array[j], value, offset) > 0; j--) {
+                array[j + 1] = array[j];
+            }
+
+            array[j + 1] = value;
+        }
+    }
+
+    private static int compare(char[] a, char[] b, int offset) {
+        int lengthA = a.length, lengthB = b.length, length = Math.min(lengthA, lengthB);
+
+        for (int i = offset; i < length; i++) {
+            char c1 = a[i], c2 = b[i];
+
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+
+        return lengthA - lengthB;
+    }
+
+    private static int[] push(int[] stack, int top, int left, int right, int digit) {
+        if (top + 3 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+
+        stack[top] = left;
+        stack[top + 1] = right;
+        stack[top + 2] = digit;
+
+        return stack;
+    }
+}
@@ -966,4 +966,27 @@ public class TimSort<T> implements Sorter {
         if (toIndex > arrayLen)
             throw new ArrayIndexOutOfBoundsException(toIndex);
     }
+
+    /**
+     * Sort the array in parallel, chunks are sorted using Timsort algorithm and merged in parallel
+     *
+     * @param <T> Generic type T
+     * @param array The array to be sorted
+     * @param comparator Comparator for comparing purpose
+     */
+    public static <T> void parallelSort(T[] array, Comparator<? super T> comparator) {
+        parallelSort(array, comparator, ForkJoinSort.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Sort the array in parallel, chunks are sorted using Timsort algorithm and merged in parallel
+     *
+     * @param <T> Generic type T
+     * @param array The array to be sorted
+     * @param comparator Comparator for comparing purpose
+     * @param threshold Minimum number of elements sorted sequentially
+     */
+    public static <T> void parallelSort(T[] array, Comparator<? super T> comparator, int threshold) {
+        ForkJoinSort.sort(array, comparator, threshold, ForkJoinSort.TIM_SORT);
+    }
 }
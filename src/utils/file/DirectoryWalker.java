@@ -0,0 +1,299 @@
+package utils.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Directory tree walker built on DirectoryStream.
+ *
+ * Provides a lazy depth first iterator / stream of non-directory paths, which only holds the directory streams
+ * along the current branch, and a fork-join walk which visits sub directories concurrently.
+ * Unreadable directories and entries are skipped.
+ *
+ * Attributes are not batched, every entry takes its own readAttributes call after being listed, as DirectoryStream
+ * offers no portable way to get attributes along with the names.
+ */
+public class DirectoryWalker {
+    private static final LinkOption[] FOLLOW_LINKS = new LinkOption[0];
+    private static final LinkOption[] NO_FOLLOW_LINKS = new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+
+    private DirectoryWalker() {}
+
+    /**
+     * Visitor of fork-join walk, will be called from multiple threads concurrently
+     */
+    public interface Visitor {
+        /**
+         * Called before walking into a directory below root
+         *
+         * @param dir directory
+         * @param attrs directory attributes
+         * @return true to walk into the directory, false to skip it
+         */
+        boolean preVisitDirectory(Path dir, BasicFileAttributes attrs);
+
+        /**
+         * Called for each non-directory entry
+         *
+         * @param file file path
+         * @param attrs file attributes
+         */
+        void visitFile(Path file, BasicFileAttributes attrs);
+    }
+
+    public static Iterator<Path> iterator(Path root) {
+        return iterator(root, false);
+    }
+
+    /**
+     * Lazy depth first iterator of all non-directory paths under root, root itself if it is not a directory
+     *
+     * @param root root path
+     * @param followLinks follow symbolic links or not
+     * @return iterator of paths, implements Closeable to release directory streams when abandoned early
+     */
+    public static Iterator<Path> iterator(Path root, boolean followLinks) {
+        return new WalkIterator(root, followLinks);
+    }
+
+    public static Stream<Path> stream(Path root) {
+        return stream(root, false);
+    }
+
+    /**
+     * Lazy stream of all non-directory paths under root, close the stream if not fully consumed
+     *
+     * @param root root path
+     * @param followLinks follow symbolic links or not
+     * @return stream of paths
+     */
+    public static Stream<Path> stream(Path root, boolean followLinks) {
+        final WalkIterator iterator = new WalkIterator(root, followLinks);
+
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false
+        ).onClose(new Runnable() {
+            @Override
+            public void run() {
+                iterator.close();
+            }
+        });
+    }
+
+    public static void walkParallel(Path root, ForkJoinPool pool, Visitor visitor) {
+        walkParallel(root, pool, visitor, false);
+    }
+
+    /**
+     * Walk directory tree with each sub directory listed by its own fork-join task
+     *
+     * @param root root directory
+     * @param pool fork-join pool
+     * @param visitor thread safe visitor
+     * @param followLinks follow symbolic links or not
+     */
+    public static void walkParallel(Path root, ForkJoinPool pool, Visitor visitor, boolean followLinks) {
+        pool.invoke(new DirectoryTask(root, visitor, followLinks? FOLLOW_LINKS : NO_FOLLOW_LINKS));
+    }
+
+    /**
+     * List all non-directory paths under root with fork-join walk, order of result is not specified
+     *
+     * @param root root directory
+     * @param pool fork-join pool
+     * @return list of paths
+     */
+    public static List<Path> listFilesParallel(Path root, ForkJoinPool pool) {
+        final ConcurrentLinkedQueue<Path> queue = new ConcurrentLinkedQueue<>();
+
+        walkParallel(root, pool, new Visitor() {
+            @Override
+            public boolean preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return true;
+            }
+
+            @Override
+            public void visitFile(Path file, BasicFileAttributes attrs) {
+                queue.add(file);
+            }
+        });
+
+        return new ArrayList<>(queue);
+    }
+
+    private static BasicFileAttributes readAttributes(Path path, LinkOption[] linkOptions) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, linkOptions);
+        } catch (IOException ioe) {
+            return null;
+        }
+    }
+
+    private static class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+        private final Visitor visitor;
+        private final LinkOption[] linkOptions;
+
+        DirectoryTask(Path dir, Visitor visitor, LinkOption[] linkOptions) {
+            this.dir = dir;
+            this.visitor = visitor;
+            this.linkOptions = linkOptions;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subTasks = new ArrayList<>();
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    BasicFileAttributes attrs = readAttributes(entry, linkOptions);
+
+                    if (attrs == null) {
+                        continue;
+                    }
+
+                    if (attrs.isDirectory()) {
+                        if (visitor.preVisitDirectory(entry, attrs)) {
+                            subTasks.add(new DirectoryTask(entry, visitor, linkOptions));
+                        }
+                    } else {
+                        visitor.visitFile(entry, attrs);
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                // Unreadable directory, skip it
+            }
+
+            invokeAll(subTasks);
+        }
+    }
+
+    private static class WalkIterator implements Iterator<Path>, Closeable {
+        private final LinkOption[] linkOptions;
+        private final Deque<DirectoryStream<Path>> streams = new ArrayDeque<>();
+        private final Deque<Iterator<Path>> iterators = new ArrayDeque<>();
+
+        private Path next = null;
+
+        WalkIterator(Path root, boolean followLinks) {
+            this.linkOptions = followLinks? FOLLOW_LINKS : NO_FOLLOW_LINKS;
+
+            BasicFileAttributes attrs = readAttributes(root, linkOptions);
+
+            if (attrs != null) {
+                if (attrs.isDirectory()) {
+                    open(root);
+                } else {
+                    next = root;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                advance();
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Path result = next;
+
+            next = null;
+
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            while (!streams.isEmpty()) {
+                closeCurrent();
+            }
+        }
+
+        private void advance() {
+            while (!iterators.isEmpty()) {
+                Iterator<Path> current = iterators.peek();
+                Path entry;
+
+                try {
+                    entry = current.hasNext()? current.next() : null;
+                } catch (DirectoryIteratorException die) {
+                    entry = null;
+                }
+
+                if (entry == null) {
+                    closeCurrent();
+                    continue;
+                }
+
+                BasicFileAttributes attrs = readAttributes(entry, linkOptions);
+
+                if (attrs == null) {
+                    continue;
+                }
+
+                if (attrs.isDirectory()) {
+                    open(entry);
+                } else {
+                    next = entry;
+                    return;
+                }
+            }
+        }
+
+        private void open(Path dir) {
+            try {
+                DirectoryStream<Path> stream = Files.newDirectoryStream(dir);
+
+                streams.push(stream);
+                iterators.push(stream.iterator());
+            } catch (IOException ioe) {
+                // Unreadable directory, skip it
+            }
+        }
+
+        private void closeCurrent() {
+            iterators.pop();
+
+            try {
+                streams.pop().close();
+            } catch (IOException ioe) {
+                // Nothing more to read from it anyway
+            }
+        }
+    }
+}
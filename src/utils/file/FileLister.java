@@ -3,9 +3,16 @@ package utils.file;
 import utils.regex.WildcardToRegularExpression;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.regex.Pattern;
 
 public class FileLister {
@@ -17,25 +24,27 @@ public class FileLister {
     }
     
     public List<File> listFiles() {
-        List<File> files = new ArrayList<File>();
+        return listFiles(null);
+    }
+    
+    /**
+     * List files of include patterns excluding those of exclude patterns
+     * 
+     * @param pool fork-join pool to walk directories in parallel, null to walk sequentially
+     * @return listed files
+     */
+    public List<File> listFiles(ForkJoinPool pool) {
+        Set<File> files = new LinkedHashSet<File>();
         
         for (FilePattern include : includes) {
-            List<File> includedFiles = include.listFiles();
-            
-            for (File includedFile : includedFiles) {
-                if (!files.contains(includedFile)) {
-                    files.add(includedFile);
-                }
-            }
+            files.addAll((pool != null)? include.listFiles(pool) : include.listFiles());
         }
         
         for (FilePattern exclude : excludes) {
-            List<File> excludedFiles = exclude.listFiles();
-            
-            files.removeAll(excludedFiles);
+            files.removeAll(new HashSet<File>((pool != null)? exclude.listFiles(pool) : exclude.listFiles()));
         }
         
-        return files;
+        return new ArrayList<File>(files);
     }
     
     public void addInclude(File dir, String pattern) {
@@ -143,25 +152,21 @@ public class FileLister {
             this(new File(targetDirectory), sections);
         }
         
-        private List<File> listAll(File file) {
-            List<File> results = new ArrayList<File>();
-            
+        private void listAll(File file, List<File> results) {
             if (file.isDirectory()) {
-                for (File f : file.listFiles()) {
-                    results.addAll(listAll(f));
+                Iterator<Path> paths = DirectoryWalker.iterator(file.toPath(), true);
+                
+                while (paths.hasNext()) {
+                    results.add(paths.next().toFile());
                 }
             } else {
                 results.add(file);
             }
-            
-            return results;
         }
         
-        private List<File> process(File file, int currentIndex) {
-            List<File> results = new ArrayList<File>();
-            
+        private void process(File file, int currentIndex, List<File> results) {
             if (currentIndex >= sections.size()) {
-                return results;
+                return;
             }
             
             FilePatternSection current = sections.get(currentIndex),
@@ -169,56 +174,148 @@ public class FileLister {
             
             if (current instanceof IncludeAllSubDirectoriesPatternSection) {
                 if (next == null) {
-                    results.addAll(listAll(file));
-                } else if (next != null) {
-                    if (next.accept(file)) {
-                        if (file.isDirectory()) {
-                            for (File f : file.listFiles()) {
-                                List<File> fs = process(f, currentIndex+2);
-                                
-                                if (fs.size() > 0) {
-                                    results.addAll(fs);
-                                } else {
-                                    results.addAll(process(f, currentIndex));
-                                }
+                    listAll(file, results);
+                } else if (next.accept(file)) {
+                    if (file.isDirectory()) {
+                        for (File f : listChildren(file)) {
+                            int size = results.size();
+                            
+                            process(f, currentIndex+2, results);
+                            
+                            if (results.size() == size) {
+                                process(f, currentIndex, results);
                             }
-                        } else {
-                            results.add(file);
                         }
                     } else {
-                        if (file.isDirectory()) {
-                            for (File f : file.listFiles()) {
-                                results.addAll(process(f, currentIndex));
-                            }
+                        results.add(file);
+                    }
+                } else {
+                    if (file.isDirectory()) {
+                        for (File f : listChildren(file)) {
+                            process(f, currentIndex, results);
                         }
                     }
                 }
             } else {
                 if (current.accept(file)) {
                     if (file.isDirectory()) {
-                        for (File f : file.listFiles()) {
-                            results.addAll(process(f, currentIndex+1));
+                        for (File f : listChildren(file)) {
+                            process(f, currentIndex+1, results);
                         }
                     } else {
                         results.add(file);
                     }
                 }
             }
-            
-            return results;
         }
         
         public List<File> listFiles() {
             List<File> results = new ArrayList<File>();
             
             if (targetDirectory.isDirectory()) {
-                for (File file : targetDirectory.listFiles()) {
-                    results.addAll(process(file, 0));
+                for (File file : listChildren(targetDirectory)) {
+                    process(file, 0, results);
                 }
             }
             
             return results;
         }
+        
+        /**
+         * List files with sub directories processed by fork-join tasks, results are in the same order as listFiles()
+         * 
+         * @param pool fork-join pool
+         * @return matched files
+         */
+        public List<File> listFiles(ForkJoinPool pool) {
+            if (targetDirectory.isDirectory()) {
+                return pool.invoke(new ProcessTask(targetDirectory, -1, -1));
+            } else {
+                return new ArrayList<File>();
+            }
+        }
+        
+        /**
+         * Parallel counterpart of process(), each child directory is processed by its own task.
+         * Index -1 denotes the target directory itself, whose children are processed from the first section. 
+         */
+        private class ProcessTask extends RecursiveTask<List<File>> {
+            private static final long serialVersionUID = 1L;
+            
+            private final File file;
+            private final int currentIndex, fallbackIndex;
+            
+            ProcessTask(File file, int currentIndex, int fallbackIndex) {
+                this.file = file;
+                this.currentIndex = currentIndex;
+                this.fallbackIndex = fallbackIndex;
+            }
+            
+            @Override
+            protected List<File> compute() {
+                List<File> results = computeIndex(currentIndex);
+                
+                // Same as sequential "**" handling: retry with the "**" section if nothing matched after it
+                if (results.isEmpty() && fallbackIndex >= 0) {
+                    results = computeIndex(fallbackIndex);
+                }
+                
+                return results;
+            }
+            
+            private List<File> computeIndex(int index) {
+                List<File> results = new ArrayList<File>();
+                
+                if (index == -1) {
+                    processChildren(file, 0, -1, results);
+                } else if (!file.isDirectory() || index >= sections.size()) {
+                    process(file, index, results);
+                } else {
+                    FilePatternSection current = sections.get(index),
+                        next = (index + 1 < sections.size())? sections.get(index+1) : null;
+                    
+                    if (current instanceof IncludeAllSubDirectoriesPatternSection) {
+                        if (next == null) {
+                            processChildren(file, index, -1, results);
+                        } else if (next.accept(file)) {
+                            processChildren(file, index+2, index, results);
+                        } else {
+                            processChildren(file, index, -1, results);
+                        }
+                    } else if (current.accept(file)) {
+                        processChildren(file, index+1, -1, results);
+                    }
+                }
+                
+                return results;
+            }
+            
+            private void processChildren(File dir, int index, int fallback, List<File> results) {
+                File[] children = listChildren(dir);
+                List<ProcessTask> tasks = new ArrayList<ProcessTask>(children.length);
+                
+                for (File child : children) {
+                    ProcessTask task = new ProcessTask(child, index, fallback);
+                    
+                    if (child.isDirectory()) {
+                        task.fork();
+                    }
+                    tasks.add(task);
+                }
+                
+                for (int i = 0; i < children.length; i++) {
+                    ProcessTask task = tasks.get(i);
+                    
+                    results.addAll(children[i].isDirectory()? task.join() : task.compute());
+                }
+            }
+        }
+    }
+    
+    private static File[] listChildren(File dir) {
+        File[] children = dir.listFiles();
+        
+        return (children != null)? children : new File[0];
     }
     
     public static interface FilePatternSection {
@@ -0,0 +1,721 @@
+package utils.file.path;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Path pattern matcher group compiled into a single DFA.
+ *
+ * The regular expressions of all patterns are merged into one automaton, so a path is matched in one pass
+ * with a table lookup per character, no matter how many patterns the group has. The result is the same as
+ * PathPatternMatcherGroup.match: the last matching pattern decides, negate patterns result in false.
+ *
+ * DFA states are determinized lazily from the merged NFA on first use and cached, so a state is only built
+ * for character sequences actually seen in paths. Once warmed up, matching does not lock or allocate.
+ *
+ * Paths containing line terminators or surrogate characters, patterns using regular expression constructs
+ * beyond what glob conversion produces, and paths requiring new states after the state cache is full are
+ * matched by the original group instead.
+ *
+ * Instances are safe to share across threads.
+ */
+public class CompiledPathPatternMatcherGroup {
+    // Maximum number of cached DFA states
+    private static final int MAX_STATE_COUNT = 10000;
+
+    private final PathPatternMatcherGroup fallbackGroup;
+    private final Automaton automaton;
+
+    CompiledPathPatternMatcherGroup(List<PathPatternMatcher> pathPatternMatchers) {
+        this.fallbackGroup = new PathPatternMatcherGroup(pathPatternMatchers);
+        this.automaton = Automaton.build(pathPatternMatchers);
+    }
+
+    /**
+     * Match path against all patterns in one pass
+     *
+     * @param path path to match
+     * @return true if the last matching pattern is not a negate pattern
+     */
+    public boolean match(String path) {
+        Automaton a = automaton;
+
+        if (a == null) {
+            return fallbackGroup.match(path);
+        }
+
+        State state = a.start;
+
+        for (int i = 0, length = path.length(); i < length; i++) {
+            if (state.terminal) {
+                // No pattern can match further, only the already matched prefix patterns count
+                return state.prefixAccept;
+            }
+
+            char c = path.charAt(i);
+            int k = (c < 128)? a.asciiClasses[c] : a.classOf(c);
+            State next = state.next[k];
+
+            if (next == null) {
+                next = a.transit(state, k);
+
+                if (next == null) {
+                    return fallbackGroup.match(path);
+                }
+            }
+
+            state = next;
+        }
+
+        return state.endAccept;
+    }
+
+    /**
+     * @return true if patterns are compiled into DFA, false if matching is delegated to the original group
+     */
+    public boolean isAutomaton() {
+        return automaton != null;
+    }
+
+    /**
+     * Lazily determinized automaton of all patterns.
+     * Each state tracks the highest index of pattern already matched by a path prefix, patterns of lower index
+     * are dropped from the state since they can no longer decide the result.
+     */
+    private static class Automaton {
+        private final Nfa nfa;
+        private final boolean[] negates;
+
+        // Lower bounds of character classes, characters within the same class always transit together
+        private final int[] bounds;
+        private final boolean[] fallbackClasses;
+        final int[] asciiClasses = new int[128];
+
+        final State start;
+
+        // Guarded by this
+        private final Map<StateKey, State> states = new HashMap<>();
+        private int[] visitStamps;
+        private int stamp = 0;
+
+        private Automaton(Nfa nfa, boolean[] negates, int[] starts) {
+            this.nfa = nfa;
+            this.negates = negates;
+            this.visitStamps = new int[nfa.nodes.size()];
+
+            TreeSet<Integer> boundSet = new TreeSet<>();
+
+            boundSet.add(0);
+            for (Node node : nfa.nodes) {
+                if (node.type == Node.CHAR) {
+                    for (int[] range : node.charSet.ranges) {
+                        boundSet.add(range[0]);
+                        if (range[1] < Character.MAX_VALUE) {
+                            boundSet.add(range[1] + 1);
+                        }
+                    }
+                }
+            }
+            for (char c : CharSet.LINE_TERMINATORS) {
+                boundSet.add((int) c);
+                boundSet.add(c + 1);
+            }
+            boundSet.add((int) Character.MIN_SURROGATE);
+            boundSet.add(Character.MAX_SURROGATE + 1);
+
+            bounds = new int[boundSet.size()];
+            fallbackClasses = new boolean[bounds.length];
+
+            int i = 0;
+            for (int bound : boundSet) {
+                char c = (char) bound;
+
+                bounds[i] = bound;
+                fallbackClasses[i] = CharSet.isLineTerminator(c) || Character.isSurrogate(c);
+                i++;
+            }
+
+            for (char c = 0; c < 128; c++) {
+                asciiClasses[c] = classOf(c);
+            }
+
+            synchronized (this) {
+                start = stateOf(starts, -1);
+            }
+        }
+
+        int classOf(char c) {
+            int index = Arrays.binarySearch(bounds, c);
+
+            return (index >= 0)? index : -index - 2;
+        }
+
+        static Automaton build(List<PathPatternMatcher> pathPatternMatchers) {
+            Nfa nfa = new Nfa();
+            boolean[] negates = new boolean[pathPatternMatchers.size()];
+            int[] starts = new int[pathPatternMatchers.size()];
+
+            try {
+                for (int i = 0; i < pathPatternMatchers.size(); i++) {
+                    PathPatternMatcher matcher = pathPatternMatchers.get(i);
+
+                    negates[i] = matcher.isNegate();
+                    starts[i] = new RegexParser(nfa, PathPatternMatcher.convertGlobToRegex(matcher.getPattern()), i).parse();
+                }
+            } catch (UnsupportedPatternException upe) {
+                return null;
+            }
+
+            return new Automaton(nfa, negates, starts);
+        }
+
+        /**
+         * Build and cache the transition of state on character class k
+         *
+         * @return next state, null if the class must be matched by the original group or state cache is full
+         */
+        synchronized State transit(State state, int k) {
+            if (fallbackClasses[k]) {
+                return null;
+            }
+
+            State next = state.next[k];
+
+            if (next != null) {
+                return next;
+            }
+
+            char c = (char) bounds[k];
+            int[] seeds = new int[state.nodes.length];
+            int count = 0;
+
+            for (int n : state.nodes) {
+                Node node = nfa.nodes.get(n);
+
+                if (node.type == Node.CHAR && node.charSet.contains(c)) {
+                    seeds[count++] = node.out1;
+                }
+            }
+
+            next = stateOf(Arrays.copyOf(seeds, count), state.prefixRule);
+
+            if (next != null) {
+                // Published without lock, readers rely on final field semantics of State
+                state.next[k] = next;
+            }
+
+            return next;
+        }
+
+        private boolean result(int rule) {
+            return rule >= 0 && !negates[rule];
+        }
+
+        /**
+         * Get or create the state of epsilon closure of seeds, null if state cache is full
+         */
+        private State stateOf(int[] seeds, int prefixRule) {
+            Deque<Integer> stack = new ArrayDeque<>();
+            List<Integer> closure = new ArrayList<>();
+
+            stamp++;
+
+            for (int seed : seeds) {
+                if (visitStamps[seed] != stamp) {
+                    visitStamps[seed] = stamp;
+                    stack.push(seed);
+                }
+            }
+
+            while (!stack.isEmpty()) {
+                int n = stack.pop();
+                Node node = nfa.nodes.get(n);
+
+                closure.add(n);
+
+                if (node.type == Node.EPSILON || node.type == Node.SPLIT) {
+                    if (node.out1 >= 0 && visitStamps[node.out1] != stamp) {
+                        visitStamps[node.out1] = stamp;
+                        stack.push(node.out1);
+                    }
+                    if (node.out2 >= 0 && visitStamps[node.out2] != stamp) {
+                        visitStamps[node.out2] = stamp;
+                        stack.push(node.out2);
+                    }
+                } else if (node.type == Node.MATCH && !node.endAnchored) {
+                    prefixRule = Math.max(prefixRule, node.rule);
+                }
+            }
+
+            TreeSet<Integer> kept = new TreeSet<>();
+            int endRule = -1;
+            boolean terminal = true;
+
+            for (int n : closure) {
+                Node node = nfa.nodes.get(n);
+
+                if (node.rule > prefixRule) {
+                    if (node.type == Node.CHAR) {
+                        kept.add(n);
+                        terminal = false;
+                    } else if (node.type == Node.MATCH && node.endAnchored) {
+                        kept.add(n);
+                        endRule = Math.max(endRule, node.rule);
+                    }
+                }
+            }
+
+            int[] nodes = new int[kept.size()];
+            int i = 0;
+
+            for (int n : kept) {
+                nodes[i++] = n;
+            }
+
+            StateKey key = new StateKey(nodes, prefixRule);
+            State state = states.get(key);
+
+            if (state == null) {
+                if (states.size() >= MAX_STATE_COUNT) {
+                    return null;
+                }
+
+                state = new State(
+                    nodes, prefixRule, terminal, result(prefixRule), result(Math.max(prefixRule, endRule)),
+                    bounds.length
+                );
+                states.put(key, state);
+            }
+
+            return state;
+        }
+    }
+
+    private static class State {
+        final int[] nodes;
+        final int prefixRule;
+        // No pattern can consume more characters
+        final boolean terminal;
+        // Result if more characters follow in a terminal state
+        final boolean prefixAccept;
+        // Result if path ends in the state
+        final boolean endAccept;
+        // Cached transitions by character class, null if not built yet
+        final State[] next;
+
+        State(int[] nodes, int prefixRule, boolean terminal, boolean prefixAccept, boolean endAccept, int classCount) {
+            this.nodes = nodes;
+            this.prefixRule = prefixRule;
+            this.terminal = terminal;
+            this.prefixAccept = prefixAccept;
+            this.endAccept = endAccept;
+            this.next = new State[classCount];
+        }
+    }
+
+    private static class StateKey {
+        final int[] nodes;
+        final int prefixRule;
+
+        StateKey(int[] nodes, int prefixRule) {
+            this.nodes = nodes;
+            this.prefixRule = prefixRule;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StateKey)) {
+                return false;
+            }
+
+            StateKey other = (StateKey) o;
+
+            return prefixRule == other.prefixRule && Arrays.equals(nodes, other.nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nodes) * 31 + prefixRule;
+        }
+    }
+
+    private static class Nfa {
+        final List<Node> nodes = new ArrayList<>();
+
+        int add(Node node) {
+            nodes.add(node);
+            return nodes.size() - 1;
+        }
+    }
+
+    private static class Node {
+        static final int CHAR = 0, EPSILON = 1, SPLIT = 2, MATCH = 3;
+
+        final int type, rule;
+        CharSet charSet;
+        int out1 = -1, out2 = -1;
+        boolean endAnchored;
+
+        Node(int type, int rule) {
+            this.type = type;
+            this.rule = rule;
+        }
+    }
+
+    /**
+     * NFA fragment with single entry and single exit (an epsilon node with unset out)
+     */
+    private static class Fragment {
+        final int start, end;
+
+        Fragment(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Thompson construction of the regular expression subset produced by PathPatternMatcher.convertGlobToRegex
+     */
+    private static class RegexParser {
+        private final Nfa nfa;
+        private final String regex;
+        private final int rule;
+        private int pos;
+
+        RegexParser(Nfa nfa, String regex, int rule) {
+            this.nfa = nfa;
+            this.regex = regex;
+            this.rule = rule;
+        }
+
+        int parse() throws UnsupportedPatternException {
+            if (!regex.startsWith("^")) {
+                throw new UnsupportedPatternException();
+            }
+
+            pos = 1;
+
+            Fragment fragment = parseAlternation();
+            Node match = new Node(Node.MATCH, rule);
+
+            if (pos == regex.length() - 1 && regex.charAt(pos) == '$') {
+                match.endAnchored = true;
+                pos++;
+            }
+
+            if (pos != regex.length()) {
+                throw new UnsupportedPatternException();
+            }
+
+            nfa.nodes.get(fragment.end).out1 = nfa.add(match);
+
+            return fragment.start;
+        }
+
+        private Fragment parseAlternation() throws UnsupportedPatternException {
+            Fragment fragment = parseSequence();
+
+            while (pos < regex.length() && regex.charAt(pos) == '|') {
+                pos++;
+
+                Fragment other = parseSequence();
+                int end = epsilon();
+                Node split = new Node(Node.SPLIT, rule);
+
+                split.out1 = fragment.start;
+                split.out2 = other.start;
+                nfa.nodes.get(fragment.end).out1 = end;
+                nfa.nodes.get(other.end).out1 = end;
+
+                fragment = new Fragment(nfa.add(split), end);
+            }
+
+            return fragment;
+        }
+
+        private Fragment parseSequence() throws UnsupportedPatternException {
+            int start = epsilon();
+            int end = start;
+
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+
+                if (c == '|' || c == ')' || (c == '$' && pos == regex.length() - 1)) {
+                    break;
+                }
+
+                Fragment atom = parseQuantifier(parseAtom());
+
+                nfa.nodes.get(end).out1 = atom.start;
+                end = atom.end;
+            }
+
+            return new Fragment(start, end);
+        }
+
+        private Fragment parseQuantifier(Fragment atom) throws UnsupportedPatternException {
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos);
+
+                if (c != '*' && c != '?' && c != '+') {
+                    break;
+                }
+
+                pos++;
+
+                if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                    // Lazy or possessive quantifier
+                    throw new UnsupportedPatternException();
+                }
+
+                int end = epsilon();
+                Node split = new Node(Node.SPLIT, rule);
+
+                split.out1 = atom.start;
+                split.out2 = end;
+
+                int splitIndex = nfa.add(split);
+
+                if (c == '*') {
+                    nfa.nodes.get(atom.end).out1 = splitIndex;
+                    atom = new Fragment(splitIndex, end);
+                } else if (c == '?') {
+                    nfa.nodes.get(atom.end).out1 = end;
+                    atom = new Fragment(splitIndex, end);
+                } else {
+                    nfa.nodes.get(atom.end).out1 = splitIndex;
+                    atom = new Fragment(atom.start, end);
+                }
+            }
+
+            return atom;
+        }
+
+        private Fragment parseAtom() throws UnsupportedPatternException {
+            char c = regex.charAt(pos++);
+
+            switch (c) {
+                case '(':
+                    if (pos < regex.length() && regex.charAt(pos) == '?') {
+                        throw new UnsupportedPatternException();
+                    }
+
+                    Fragment group = parseAlternation();
+
+                    if (pos >= regex.length() || regex.charAt(pos) != ')') {
+                        throw new UnsupportedPatternException();
+                    }
+                    pos++;
+
+                    return group;
+                case '[':
+                    return charFragment(parseClass());
+                case '.':
+                    return charFragment(CharSet.ANY_BUT_LINE_TERMINATOR);
+                case '\\':
+                    return charFragment(CharSet.of(parseEscape()));
+                case '^':
+                case '$':
+                case '*':
+                case '?':
+                case '+':
+                case '{':
+                case ')':
+                    throw new UnsupportedPatternException();
+                default:
+                    return charFragment(CharSet.of(c));
+            }
+        }
+
+        private char parseEscape() throws UnsupportedPatternException {
+            if (pos >= regex.length()) {
+                throw new UnsupportedPatternException();
+            }
+
+            char c = regex.charAt(pos++);
+
+            if (Character.isLetterOrDigit(c)) {
+                // Predefined classes, back references, quotations etc.
+                throw new UnsupportedPatternException();
+            }
+
+            return c;
+        }
+
+        private CharSet parseClass() throws UnsupportedPatternException {
+            boolean negate = false;
+            List<int[]> ranges = new ArrayList<>();
+
+            if (pos < regex.length() && regex.charAt(pos) == '^') {
+                negate = true;
+                pos++;
+            }
+
+            if (pos < regex.length() && regex.charAt(pos) == ']') {
+                throw new UnsupportedPatternException();
+            }
+
+            while (true) {
+                if (pos >= regex.length()) {
+                    throw new UnsupportedPatternException();
+                }
+
+                char c = regex.charAt(pos++);
+
+                if (c == ']') {
+                    break;
+                } else if (c == '[' || (c == '&' && pos < regex.length() && regex.charAt(pos) == '&')) {
+                    // Union & intersection
+                    throw new UnsupportedPatternException();
+                } else if (c == '\\') {
+                    c = parseEscape();
+                }
+
+                char hi = c;
+
+                if (pos + 1 < regex.length() && regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+                    pos++;
+                    hi = regex.charAt(pos++);
+
+                    if (hi == '\\') {
+                        hi = parseEscape();
+                    } else if (hi == '[') {
+                        throw new UnsupportedPatternException();
+                    }
+
+                    if (hi < c) {
+                        throw new UnsupportedPatternException();
+                    }
+                }
+
+                ranges.add(new int[] { c, hi });
+            }
+
+            return new CharSet(ranges, negate);
+        }
+
+        private Fragment charFragment(CharSet charSet) {
+            int end = epsilon();
+            Node node = new Node(Node.CHAR, rule);
+
+            node.charSet = charSet;
+            node.out1 = end;
+
+            return new Fragment(nfa.add(node), end);
+        }
+
+        private int epsilon() {
+            return nfa.add(new Node(Node.EPSILON, rule));
+        }
+    }
+
+    /**
+     * Set of characters as sorted, non-overlapping inclusive ranges
+     */
+    private static class CharSet {
+        static final char[] LINE_TERMINATORS = { '\n', '\r', '\u0085', '\u2028', '\u2029' };
+
+        static final CharSet ANY_BUT_LINE_TERMINATOR;
+
+        static {
+            List<int[]> ranges = new ArrayList<>();
+
+            for (char c : LINE_TERMINATORS) {
+                ranges.add(new int[] { c, c });
+            }
+
+            ANY_BUT_LINE_TERMINATOR = new CharSet(ranges, true);
+        }
+
+        final int[][] ranges;
+
+        CharSet(List<int[]> ranges, boolean negate) {
+            List<int[]> sorted = new ArrayList<>(ranges);
+            List<int[]> merged = new ArrayList<>();
+
+            Collections.sort(sorted, new Comparator<int[]>() {
+                @Override
+                public int compare(int[] a, int[] b) {
+                    return Integer.compare(a[0], b[0]);
+                }
+            });
+
+            for (int[] range : sorted) {
+                int[] last = merged.isEmpty()? null : merged.get(merged.size() - 1);
+
+                if (last != null && range[0] <= last[1] + 1) {
+                    last[1] = Math.max(last[1], range[1]);
+                } else {
+                    merged.add(new int[] { range[0], range[1] });
+                }
+            }
+
+            if (negate) {
+                List<int[]> complement = new ArrayList<>();
+                int next = 0;
+
+                for (int[] range : merged) {
+                    if (range[0] > next) {
+                        complement.add(new int[] { next, range[0] - 1 });
+                    }
+                    next = range[1] + 1;
+                }
+
+                if (next <= Character.MAX_VALUE) {
+                    complement.add(new int[] { next, Character.MAX_VALUE });
+                }
+
+                merged = complement;
+            }
+
+            this.ranges = merged.toArray(new int[merged.size()][]);
+        }
+
+        static CharSet of(char c) {
+            List<int[]> ranges = new ArrayList<>();
+
+            ranges.add(new int[] { c, c });
+
+            return new CharSet(ranges, false);
+        }
+
+        static boolean isLineTerminator(char c) {
+            for (char terminator : LINE_TERMINATORS) {
+                if (c == terminator) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        boolean contains(char c) {
+            for (int[] range : ranges) {
+                if (c < range[0]) {
+                    return false;
+                } else if (c <= range[1]) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private static class UnsupportedPatternException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedPatternException() {
+            super(null, null, false, false);
+        }
+    }
+}
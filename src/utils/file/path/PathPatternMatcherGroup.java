@@ -44,6 +44,15 @@ public class PathPatternMatcherGroup {
         }
     }
 
+    /**
+     * Compile all patterns of this group into a single automaton, later changes to this group are not reflected
+     *
+     * @return compiled matcher group
+     */
+    public CompiledPathPatternMatcherGroup compile() {
+        return new CompiledPathPatternMatcherGroup(pathPatternMatchers);
+    }
+
     public boolean match(String path) {
         if (hasNegateMatcher) {
             boolean result = false;
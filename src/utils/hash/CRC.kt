@@ -1,6 +1,16 @@
 package utils.hash
 
+import java.io.File
 import java.io.InputStream
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.Future
 
 /**
  * Created with IntelliJ IDEA.
@@ -23,10 +33,14 @@ class CRC(
     inputReflect: Boolean = false,
     resultReflect: Boolean = false
 ) {
-    // crc register
-    private val register: Register
-    // head of polynomial binaries
-    private val polynomialHead: Register.BitNode
+    // precomputed lookup tables, shared among all CRC with the same width, polynomial & input reflect
+    private val table: Table
+
+    // crc register, kept in the table's domain (reflected or left aligned)
+    private var register: Int
+
+    // Operation done flag, set after digest()
+    private var done = false
 
     // input reflect parameter
     private var inputReflect = false
@@ -35,24 +49,24 @@ class CRC(
 
     // HEX expression of CRC hash
     val crcHexExpression: String
-        get() = if (register.done) {
-            register.getCrcHexExpression(resultReflect)
+        get() = if (done) {
+            Integer.toHexString(crcValue()).uppercase().padStart(capacity / 4, '0')
         } else {
             throw RuntimeException("CRC computation not finished, call digest() first!")
         }
 
     // Binary expression of CRC hash
     val crcBinaryExpression: String
-        get() = if (register.done) {
-            register.getCrcBinaryExpression(resultReflect)
+        get() = if (done) {
+            Integer.toBinaryString(crcValue()).padStart(capacity, '0')
         } else {
             throw RuntimeException("CRC computation not finished, call digest() first!")
         }
 
     // CRC hash
     val crc: Int
-        get() = if (register.done) {
-            register.getCrc(resultReflect)
+        get() = if (done) {
+            crcValue()
         } else {
             throw RuntimeException("CRC computation not finished, call digest() first!")
         }
@@ -67,23 +81,9 @@ class CRC(
         }
         this.inputReflect = inputReflect
         this.resultReflect = resultReflect
-        polynomialHead = Register.BitNode(true)
-
-        var p = polynomialHead
-
-        for (i in capacity - 1 downTo 0) {
-            val n: Register.BitNode
-            if (i == 0) {
-                n = Register.BitNode(polynomial and 1 == 1)
-            } else {
-                n = Register.BitNode(polynomial shr i and 1 == 1)
-            }
-            p.next = n
 
-            p = n
-        }
-
-        register = Register(capacity, initialValue, polynomialHead)
+        table = Table.of(capacity, polynomial, inputReflect)
+        register = table.toRegister(initialValue)
     }
 
     /**
@@ -92,7 +92,7 @@ class CRC(
      * @param byt byte value
      */
     fun update(byt: Int) {
-        register.update(byt, inputReflect)
+        register = table.update(register, byt)
     }
 
     /**
@@ -103,7 +103,16 @@ class CRC(
      * @param length length of byte to read
      */
     fun update(bytes: ByteArray, offset: Int, length: Int) {
-        register.update(bytes, offset, length, inputReflect)
+        register = table.update(register, bytes, offset, length)
+    }
+
+    /**
+     * Update remaining bytes of buffer, buffer position will be moved to its limit
+     *
+     * @param buffer data buffer, heap or direct
+     */
+    fun update(buffer: ByteBuffer) {
+        register = table.update(register, buffer)
     }
 
     /**
@@ -112,25 +121,67 @@ class CRC(
      * @param inputStream data input stream
      */
     fun updateStream(inputStream: InputStream) {
-        val bytes = ByteArray(4096)
+        val bytes = ByteArray(BUFFER_SIZE)
         
         var len = inputStream.read(bytes)
         
         while (len != -1) {
-            register.update(bytes, 0, len, inputReflect)
+            register = table.update(register, bytes, 0, len)
             len = inputStream.read(bytes)
         }
     }
 
+    /**
+     * Update file content, the file is split into chunks which are checksummed concurrently 
+     * and combined back in order
+     *
+     * @param file data file
+     * @param executor executor running chunk checksums
+     * @param chunkSize size of each chunk, at most Integer.MAX_VALUE
+     */
+    @JvmOverloads
+    fun updateFileParallel(file: File, executor: ExecutorService = ForkJoinPool.commonPool(), chunkSize: Long = DEFAULT_CHUNK_SIZE) {
+        if (chunkSize <= 0 || chunkSize > Int.MAX_VALUE) {
+            throw IllegalArgumentException("Chunk size must be within 1 and ${Int.MAX_VALUE}")
+        }
+
+        FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+            val size = channel.size()
+            val chunks = ArrayList<Future<Int>>((size / chunkSize + 1).toInt())
+            var position = 0L
+
+            while (position < size) {
+                val chunkPosition = position
+                val chunkLength = Math.min(chunkSize, size - position)
+
+                // each chunk is checksummed from a zero register, so it can be shifted into place later
+                chunks.add(executor.submit(Callable {
+                    table.update(0, channel.map(FileChannel.MapMode.READ_ONLY, chunkPosition, chunkLength))
+                }))
+
+                position += chunkLength
+            }
+
+            position = 0L
+
+            for (chunk in chunks) {
+                val chunkLength = Math.min(chunkSize, size - position)
+
+                register = table.shift(register, chunkLength) xor chunk.get()
+                position += chunkLength
+            }
+        }
+    }
+
     /**
      * Do final digest, this operation cannot be reversed
      */
     fun digest() {
         if (finalXorValue != 0) {
-            register.doFinalXor(finalXorValue, resultReflect)
+            register = table.toRegister(table.fromRegister(register) xor finalXorInRegister())
         }
 
-        register.done()
+        done = true
     }
 
     /**
@@ -141,14 +192,14 @@ class CRC(
      * @return verify result
      */
     fun verify(inputStream: InputStream, crcDigest: Int): Boolean {
-        val verifyRegister = Register(register.capacity, initialValue, polynomialHead)
+        var verifyRegister = table.toRegister(initialValue)
         
-        val bytes =  ByteArray(5)
+        val bytes = ByteArray(BUFFER_SIZE)
         
         var len = inputStream.read(bytes)
         
         while (len != -1) {
-            verifyRegister.update(bytes, 0, len, inputReflect)
+            verifyRegister = table.update(verifyRegister, bytes, 0, len)
             len = inputStream.read(bytes)
         }
         
@@ -163,19 +214,13 @@ class CRC(
      * @return verify result
      */
     fun verify(bytes: ByteArray, crcDigest: Int): Boolean {
-        val verifyRegister = Register(register.capacity, initialValue, polynomialHead)
-        
-        for (byt in bytes) {
-            verifyRegister.update(byt.toInt(), inputReflect)
-        }
-        
-        return verify(verifyRegister, crcDigest)
+        return verify(table.update(table.toRegister(initialValue), bytes, 0, bytes.size), crcDigest)
     }
 
     /**
      * actual verify logic after data feeding, only for internal use 
      */
-    private fun verify(verifyRegister: Register, crcDigest: Int): Boolean {
+    private fun verify(verifyRegister: Int, crcDigest: Int): Boolean {
         val digest: Int
 
         if (finalXorValue != 0x0) {
@@ -185,541 +230,438 @@ class CRC(
             digest = crcDigest
         }
 
+        var r = verifyRegister
+
         if (capacity == 8) {
-            verifyRegister.update(digest.and(0x000000FF), resultReflect)
+            r = table.update(r, digest.and(0x000000FF), resultReflect)
         } else if (capacity == 16) {
             if (resultReflect) {
-                verifyRegister.update(digest.and(0x000000FF), resultReflect)
-                verifyRegister.update(digest.and(0x0000FF00).shr(8), resultReflect)
+                r = table.update(r, digest.and(0x000000FF), resultReflect)
+                r = table.update(r, digest.and(0x0000FF00).shr(8), resultReflect)
             } else {
-                verifyRegister.update(digest.and(0x0000FF00).shr(8))
-                verifyRegister.update(digest.and(0x000000FF))
+                r = table.update(r, digest.and(0x0000FF00).shr(8), false)
+                r = table.update(r, digest.and(0x000000FF), false)
             }
         } else {
             // CRC32
             if (resultReflect) {
-                verifyRegister.update(digest.and(0x00FF), resultReflect)
-                verifyRegister.update(digest.and(0x0000FF00).shr(8), resultReflect)
-                verifyRegister.update(digest.and(0x00FF0000).shr(16), resultReflect)
-                verifyRegister.update(digest.shr(24), resultReflect)
+                r = table.update(r, digest.and(0x00FF), resultReflect)
+                r = table.update(r, digest.and(0x0000FF00).shr(8), resultReflect)
+                r = table.update(r, digest.and(0x00FF0000).shr(16), resultReflect)
+                r = table.update(r, digest.ushr(24), resultReflect)
             } else {
-                verifyRegister.update(digest.shr(24))
-                verifyRegister.update(digest.and(0x00FF0000).shr(16))
-                verifyRegister.update(digest.and(0x0000FF00).shr(8))
-                verifyRegister.update(digest.and(0x00FF))
+                r = table.update(r, digest.ushr(24), false)
+                r = table.update(r, digest.and(0x00FF0000).shr(16), false)
+                r = table.update(r, digest.and(0x0000FF00).shr(8), false)
+                r = table.update(r, digest.and(0x00FF), false)
             }
         }
 
-        verifyRegister.done()
+        return r == 0
+    }
+
+    /**
+     * Combine CRC of two consecutive data blocks into the CRC of the concatenated data, 
+     * both CRC must be computed with the same parameters as this CRC
+     *
+     * @param crc1 CRC of the first block
+     * @param crc2 CRC of the second block
+     * @param length2 byte length of the second block
+     * @return CRC of the first block followed by the second block
+     */
+    fun combine(crc1: Int, crc2: Int, length2: Long): Int {
+        if (length2 < 0) {
+            throw IllegalArgumentException("Length must not be negative")
+        }
 
-        return verifyRegister.getCrc(false) == 0
+        val initialRegister = table.toRegister(initialValue)
+
+        // registers are linear in the data, only the initial value contribution needs to be taken out from block 1
+        val combined = table.shift(crcToRegister(crc1) xor initialRegister, length2) xor crcToRegister(crc2)
+
+        return registerToCrc(combined)
     }
 
     /**
-     * CRC register
+     * Revert final XOR & result reflect of a CRC value back to the table domain register
      */
-    internal class Register(val capacity: Int, polynomialHead: BitNode) {
-        private var head: BitNode? = null
-        private var tail: BitNode? = null
-        private var polynomialHead: BitNode? = null
-        
-        private val lookupTable: Array<HeadTailSequence>
+    private fun crcToRegister(crc: Int): Int {
+        val value = if (resultReflect) reflect(crc, capacity) else crc
+
+        return table.toRegister(value xor finalXorInRegister())
+    }
 
-        var size = 0
-            private set
+    /**
+     * Apply final XOR & result reflect to a table domain register
+     */
+    private fun registerToCrc(register: Int): Int {
+        val value = table.fromRegister(register) xor finalXorInRegister()
 
-        // Operation done flag, once set to true, all data will be rejected
-        var done = false
-            private set
+        return if (resultReflect) reflect(value, capacity) else value
+    }
 
-        val isEmpty: Boolean
-            get() = head == null
+    /**
+     * Final XOR value as applied on the plain register
+     */
+    private fun finalXorInRegister(): Int {
+        return if (resultReflect) {
+            reflect(finalXorValue, capacity)
+        } else {
+            finalXorValue and (-1).ushr(32 - capacity)
+        }
+    }
 
-        val crcBinaryExpression: String
-            get() = getCrcBinaryExpression(false)
+    /**
+     * Current CRC value with result reflect applied
+     */
+    private fun crcValue(): Int {
+        val value = table.fromRegister(register)
 
-        val crcHexExpression: String
-            get() = getCrcHexExpression(false)
+        return if (resultReflect) reflect(value, capacity) else value
+    }
 
-        val crc: Int
-            get() = getCrc(false)
+    /**
+     * Slicing-by-8 lookup tables of a CRC width & polynomial
+     *
+     * Reflected tables keep the register reflected and right aligned, others keep the register left aligned
+     * in 32 bits, so CRC8 / CRC16 / CRC32 share the same byte processing logic.
+     * slices[k][b] is the register contribution of byte b followed by k zero bytes.
+     */
+    internal class Table private constructor(val capacity: Int, polynomial: Int, val reflected: Boolean) {
+        val slices: Array<IntArray> = Array(8) { IntArray(256) }
 
         init {
-            this.polynomialHead = polynomialHead
-            
-            lookupTable = Array(256, 
-                {
-                    generateHeadTailSequence(it, false, capacity)
-                }
-            )
-            
-            // Populate lookup table
-            for (i in 0 .. 0xFF) {
-                val seq = lookupTable[i]
-
-                var pn: BitNode?
-
-                for (j in 0 until 8) {
-                    pn = polynomialHead.next!!
-                    
-                    if (seq.head.value) {
-                        seq.shift(false)
-                        
-                        var sn: BitNode? = seq.head
-                        
-                        while (sn != null) {
-                            sn.xor(pn!!.value)
-                            
-                            pn = pn.next
-                            sn = sn.next
-                        }
-                    } else {
-                        seq.shift(false)
-                    }
-                }
-            }
-        }
+            val t0 = slices[0]
+
+            if (reflected) {
+                val poly = reflect(polynomial, capacity)
+
+                for (i in 0 .. 0xFF) {
+                    var c = i
 
-        constructor(capacity: Int, initialValue: Int, polynomialHead: BitNode) : this(capacity, polynomialHead) {
-            if (capacity == 8 || capacity == 16 || capacity == 32) {
-                for (i in capacity - 1 downTo 0) {
-                    if (i == 0) {
-                        update(initialValue and 1 == 1)
-                    } else {
-                        update(initialValue shr i and 1 == 1)
+                    for (j in 0 until 8) {
+                        c = if (c and 1 != 0) c.ushr(1) xor poly else c.ushr(1)
                     }
+
+                    t0[i] = c
                 }
-            }
-        }
-        
-        fun done() {
-            this.done = true
-        }
 
-        fun getHead(): Boolean {
-            return if (head != null) {
-                head!!.value
-            } else {
-                throw NullPointerException("Head is null")
-            }
-        }
+                for (k in 1 until 8) {
+                    val prev = slices[k - 1]
+                    val t = slices[k]
 
-        fun getTail(): Boolean {
-            return if (tail != null) {
-                tail!!.value
+                    for (i in 0 .. 0xFF) {
+                        t[i] = prev[i].ushr(8) xor t0[prev[i] and 0xFF]
+                    }
+                }
             } else {
-                throw NullPointerException("Tail is null")
-            }
-        }
+                val poly = polynomial shl (32 - capacity)
 
-        fun pop(): Boolean {
-            // Empty check
-            if (head == null) {
-                throw RuntimeException("Register is empty!")
-            }
-            
-            val oldHead = head
+                for (i in 0 .. 0xFF) {
+                    var c = i shl 24
 
-            if (head === tail) {
-                tail = null
-                head = tail
-            } else {
-                head = head!!.next
-                head!!.previous = null
+                    for (j in 0 until 8) {
+                        c = if (c < 0) c.shl(1) xor poly else c.shl(1)
+                    }
 
-                oldHead!!.next = null
-            }
-            
-            size--
+                    t0[i] = c
+                }
 
-            return oldHead!!.value
-        }
+                for (k in 1 until 8) {
+                    val prev = slices[k - 1]
+                    val t = slices[k]
 
-        fun popLeadingZeros() {
-            while (head != null && !head!!.value) {
-                pop()
+                    for (i in 0 .. 0xFF) {
+                        t[i] = prev[i].shl(8) xor t0[prev[i].ushr(24)]
+                    }
+                }
             }
         }
 
         /**
-         * Update single boolean value
-         * Make private for internal use only
-         * 
-         * @param value boolean value
+         * Convert plain register value to table domain
          */
-        private fun update(value: Boolean) {
-            if (done) {
-                throw RuntimeException("Register closed input data rejected")
-            }
+        fun toRegister(value: Int): Int {
+            return if (reflected) reflect(value, capacity) else value shl (32 - capacity)
+        }
 
-            val newTail = BitNode(value)
+        /**
+         * Convert table domain register to plain register value
+         */
+        fun fromRegister(register: Int): Int {
+            return if (reflected) reflect(register, capacity) else register.ushr(32 - capacity)
+        }
 
-            if (tail == null) {
-                tail = newTail
-                head = tail
+        /**
+         * Update register with single byte
+         *
+         * @param register current register
+         * @param byt data byte
+         * @return updated register
+         */
+        fun update(register: Int, byt: Int): Int {
+            return if (reflected) {
+                register.ushr(8) xor slices[0][(register xor byt) and 0xFF]
             } else {
-                tail!!.next = newTail
-                tail = newTail
-            }
-
-            size++
-
-            // process during update
-            if (polynomialHead != null && size == capacity + 1) {
-                if (head!!.value) {
-                    doXor(polynomialHead!!)
-                } else {
-                    pop()
-                }
+                register.shl(8) xor slices[0][(register.ushr(24) xor byt) and 0xFF]
             }
         }
 
         /**
-         * Update single byte
-         * 
+         * Update register with single byte which bit order is given by reflect instead of the table
+         *
+         * @param register current register
          * @param byt data byte
-         * @param reflect input reflect parameter
+         * @param reflect byte reflect parameter
+         * @return updated register
          */
-        @JvmOverloads
-        fun update(byt: Int, reflect: Boolean = false) {
-            // Use lookup table
-            var v = 0x80
-            var pos = 0
-            
-            if (reflect) {
-                for (i in 0 .. 7) {
-                    val bv = pop()
-
-                    if (bv xor (byt shr i and 1 == 1)) {
-                        pos = pos or v
-                    }
-
-                    v = v shr 1
-                }
-            } else {
-                for (i in 7 downTo 0) {
-                    val bv = pop()
-
-                    if (bv xor (byt shr i and 1 == 1)) {
-                        pos = pos or v
-                    }
-
-                    v = v shr 1
-                }
-            }
-            
-            val seq = lookupTable[pos]
-            
-            var n = head
-            var sn: BitNode? = seq.head
-            
-            while (sn != null) {
-                if (n != null) {
-                    n.xor(sn.value)
-                    n = n.next
-                } else {
-                    val node = BitNode(sn.value)
-                    
-                    if (tail != null) {
-                        tail!!.next = node
-                        tail = node
-                    } else {
-                        head = node
-                        tail = node
-                    }
-                    size++
-                }
-                
-                sn = sn.next
-            }
+        fun update(register: Int, byt: Int, reflect: Boolean): Int {
+            return update(register, if (reflect == reflected) byt else reflect(byt and 0xFF, 8))
         }
 
         /**
-         * Update bytes
-         * 
-         * @param byteArr data byte array
+         * Update register with bytes, 8 bytes per step
+         *
+         * @param register current register
+         * @param bytes data byte array
          * @param offset start offset
          * @param length length of byte to read
-         * @param reflect input reflect parameter
+         * @return updated register
          */
-        @JvmOverloads
-        fun update(byteArr: ByteArray, offset: Int, length: Int, reflect: Boolean = false) {
-            for (i in offset until offset + length) {
-                update(byteArr[i].toInt(), reflect)
-            }
-        }
+        fun update(register: Int, bytes: ByteArray, offset: Int, length: Int): Int {
+            val t0 = slices[0]; val t1 = slices[1]; val t2 = slices[2]; val t3 = slices[3]
+            val t4 = slices[4]; val t5 = slices[5]; val t6 = slices[6]; val t7 = slices[7]
+
+            var crc = register
+            var i = offset
+            val end = offset + length
+
+            if (reflected) {
+                while (end - i >= 8) {
+                    val lo = crc xor ((bytes[i].toInt() and 0xFF) or
+                            (bytes[i + 1].toInt() and 0xFF shl 8) or
+                            (bytes[i + 2].toInt() and 0xFF shl 16) or
+                            (bytes[i + 3].toInt() shl 24))
+
+                    crc = t7[lo and 0xFF] xor t6[lo.ushr(8) and 0xFF] xor
+                            t5[lo.ushr(16) and 0xFF] xor t4[lo.ushr(24)] xor
+                            t3[bytes[i + 4].toInt() and 0xFF] xor t2[bytes[i + 5].toInt() and 0xFF] xor
+                            t1[bytes[i + 6].toInt() and 0xFF] xor t0[bytes[i + 7].toInt() and 0xFF]
+
+                    i += 8
+                }
 
-        fun getCrcBinaryExpression(reflect: Boolean): String {
-            if (head == null) {
-                return ""
+                while (i < end) {
+                    crc = crc.ushr(8) xor t0[(crc xor bytes[i].toInt()) and 0xFF]
+                    i++
+                }
             } else {
-                val builder = StringBuilder()
-                var n = head
-
-                while (n != null) {
-                    if (reflect) {
-                        builder.insert(0, if (n.value) '1' else '0')
-                    } else {
-                        builder.append(if (n.value) '1' else '0')
-                    }
-                    n = n.next
+                while (end - i >= 8) {
+                    val hi = crc xor ((bytes[i].toInt() shl 24) or
+                            (bytes[i + 1].toInt() and 0xFF shl 16) or
+                            (bytes[i + 2].toInt() and 0xFF shl 8) or
+                            (bytes[i + 3].toInt() and 0xFF))
+
+                    crc = t7[hi.ushr(24)] xor t6[hi.ushr(16) and 0xFF] xor
+                            t5[hi.ushr(8) and 0xFF] xor t4[hi and 0xFF] xor
+                            t3[bytes[i + 4].toInt() and 0xFF] xor t2[bytes[i + 5].toInt() and 0xFF] xor
+                            t1[bytes[i + 6].toInt() and 0xFF] xor t0[bytes[i + 7].toInt() and 0xFF]
+
+                    i += 8
+                }
+
+                while (i < end) {
+                    crc = crc.shl(8) xor t0[(crc.ushr(24) xor bytes[i].toInt()) and 0xFF]
+                    i++
                 }
-                return builder.toString()
             }
+
+            return crc
         }
 
-        fun getCrcHexExpression(reflect: Boolean): String {
-            if (head == null) {
-                return ""
-            } else {
-                val builder = StringBuilder()
-                var b = if (reflect) 8 else 1
-                var r = 0
-                var c = 0
-                var n = tail
-
-                while (n != null) {
-                    if (n.value) {
-                        r = r or b
-                    }
-                    if (reflect) {
-                        b = b shr 1
-                    } else {
-                        b = b shl 1
-                    }
-                    n = n.previous
-                    c++
-
-                    if (c == 4) {
-                        if (reflect) {
-                            builder.append(Character.toUpperCase(Character.forDigit(r, 16)))
-                        } else {
-                            builder.insert(0, Character.toUpperCase(Character.forDigit(r, 16)))
-                        }
-
-                        c = 0
-                        b = if (reflect) 8 else 1
-                        r = 0
-                    }
-                }
+        /**
+         * Update register with remaining bytes of buffer, 8 bytes per step
+         * Heap buffers are processed through their backing array, others through absolute long reads
+         *
+         * @param register current register
+         * @param buffer data buffer
+         * @return updated register
+         */
+        fun update(register: Int, buffer: ByteBuffer): Int {
+            if (buffer.hasArray()) {
+                val crc = update(register, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
 
-                if (c > 0) {
-                    if (reflect) {
-                        builder.append(Character.toUpperCase(Character.forDigit(r, 16)))
-                    } else {
-                        builder.insert(0, Character.toUpperCase(Character.forDigit(r, 16)))
-                    }
-                }
+                buffer.position(buffer.limit())
 
-                return builder.toString()
+                return crc
             }
-        }
 
-        fun getCrc(reflect: Boolean): Int {
-            var result = 0
-            var mask = if (reflect) 1 shl capacity - 1 else 1
+            val t0 = slices[0]; val t1 = slices[1]; val t2 = slices[2]; val t3 = slices[3]
+            val t4 = slices[4]; val t5 = slices[5]; val t6 = slices[6]; val t7 = slices[7]
+
+            // duplicate to read in table's byte order without touching the caller's buffer order
+            val buf = buffer.duplicate().order(if (reflected) ByteOrder.LITTLE_ENDIAN else ByteOrder.BIG_ENDIAN)
+
+            var crc = register
+            var i = buf.position()
+            val end = buf.limit()
 
-            var n = tail
+            if (reflected) {
+                while (end - i >= 8) {
+                    val v = buf.getLong(i)
+                    val lo = crc xor v.toInt()
+                    val hi = v.ushr(32).toInt()
 
-            while (n != null) {
-                if (n.value) {
-                    result = result or mask
+                    crc = t7[lo and 0xFF] xor t6[lo.ushr(8) and 0xFF] xor
+                            t5[lo.ushr(16) and 0xFF] xor t4[lo.ushr(24)] xor
+                            t3[hi and 0xFF] xor t2[hi.ushr(8) and 0xFF] xor
+                            t1[hi.ushr(16) and 0xFF] xor t0[hi.ushr(24)]
+
+                    i += 8
                 }
 
-                if (reflect) {
-                    mask = mask shr 1
-                    if (n === tail) {
-                        // Ensure sign bit is not one during right shifting
-                        mask = mask and 0x7FFFFFFF
-                    }
-                } else {
-                    mask = mask shl 1
+                while (i < end) {
+                    crc = crc.ushr(8) xor t0[(crc xor buf.get(i).toInt()) and 0xFF]
+                    i++
+                }
+            } else {
+                while (end - i >= 8) {
+                    val v = buf.getLong(i)
+                    val hi = crc xor v.ushr(32).toInt()
+                    val lo = v.toInt()
+
+                    crc = t7[hi.ushr(24)] xor t6[hi.ushr(16) and 0xFF] xor
+                            t5[hi.ushr(8) and 0xFF] xor t4[hi and 0xFF] xor
+                            t3[lo.ushr(24)] xor t2[lo.ushr(16) and 0xFF] xor
+                            t1[lo.ushr(8) and 0xFF] xor t0[lo and 0xFF]
+
+                    i += 8
+                }
+
+                while (i < end) {
+                    crc = crc.shl(8) xor t0[(crc.ushr(24) xor buf.get(i).toInt()) and 0xFF]
+                    i++
                 }
-                n = n.previous
             }
 
-            return result
+            buffer.position(end)
+
+            return crc
         }
 
         /**
-         * Perform the final XOR operation with final XOR value
+         * GF(2) matrices advancing a register by 2^k zero bytes, column i is the image of bit i
          */
-        @JvmOverloads
-        fun doFinalXor(finalXorValue: Int, reflect: Boolean = false) {
-            var n = tail
-            var v = finalXorValue
-
-            if (reflect) {
-                var shift = capacity - 1
-                while (n != null) {
-                    n.xor(v shr shift and 1 == 1)
-
-                    shift--
-                    n = n.previous
-                }
-            } else {
-                while (n != null && v != 0) {
-                    n.xor(v and 1 == 1)
+        private val zeroOperators: Array<IntArray> by lazy {
+            val operators = arrayOfNulls<IntArray>(63)
 
-                    v = v shr 1
-                    n = n.previous
-                }
+            operators[0] = IntArray(32) { update(1 shl it, 0) }
+
+            for (k in 1 until operators.size) {
+                val previous = operators[k - 1]!!
+
+                operators[k] = IntArray(32) { multiply(previous, previous[it]) }
             }
+
+            operators.requireNoNulls()
         }
 
         /**
-         * Perform XOR operation with polynomial
+         * Advance register as if length zero bytes were fed
+         *
+         * @param register current register
+         * @param length number of zero bytes
+         * @return shifted register
          */
-        internal fun doXor(polynomialHead: BitNode) {
-            if (size >= capacity + 1) {
-                // Skip MSB = 0 and xor operation for 1^1=0
-                if (head!!.value) {
-                    var rn = head!!.next
-                    var n = polynomialHead.next
-
-                    while (n != null) {
-                        rn!!.xor(n.value)
-
-                        rn = rn.next
-                        n = n.next
-                    }
+        fun shift(register: Int, length: Long): Int {
+            var r = register
+            var n = length
+            var k = 0
+
+            while (n != 0L && r != 0) {
+                if (n and 1L != 0L) {
+                    r = multiply(zeroOperators[k], r)
                 }
 
-                pop()
+                n = n.ushr(1)
+                k++
             }
-        }
 
-        private fun generateHeadTailSequence(byt: Int, reflect: Boolean, capacity: Int):HeadTailSequence {
-            val seq = if (reflect) {
-                HeadTailSequence(
-                    BitNode(byt and 1 == 1),
-                    BitNode(byt shr 1 and 1 == 1),
-                    BitNode(byt shr 2 and 1 == 1), 
-                    BitNode(byt shr 3 and 1 == 1),
-                    BitNode(byt shr 4 and 1 == 1),
-                    BitNode(byt shr 5 and 1 == 1),
-                    BitNode(byt shr 6 and 1 == 1),
-                    BitNode(byt shr 7 and 1 == 1)
-                )
-            } else {
-                HeadTailSequence(
-                    BitNode(byt shr 7 and 1 == 1),
-                    BitNode(byt shr 6 and 1 == 1),
-                    BitNode(byt shr 5 and 1 == 1),
-                    BitNode(byt shr 4 and 1 == 1),
-                    BitNode(byt shr 3 and 1 == 1),
-                    BitNode(byt shr 2 and 1 == 1),
-                    BitNode(byt shr 1 and 1 == 1),
-                    BitNode(byt and 1 == 1)
-                )
-            }
-            
-            for (i in 8 until capacity) {
-                seq.append(false)
-            }
-            
-            return seq
+            return r
         }
-        
-        internal class HeadTailSequence(head: BitNode, tail: BitNode, size: Int) {
-            var head: BitNode
-                private set
-            var tail: BitNode
-                private set
-            var size: Int
-                private set
-            
-            init {
-                this.head = head
-                this.tail = tail
-                this.size = size
-            }
-            
-            constructor(vararg nodes: BitNode): this(nodes[0], nodes[nodes.size-1], nodes.size) {
-                var n = head
-                for (i in 1 until nodes.size-1) {
-                    n.next = nodes[i]
-                    n = nodes[i]
-                }
-                n.next = tail
-            }
-            
-            fun append(value: Boolean) {
-                val node = BitNode(value)
-                
-                tail.next = node
-                tail = node
-                
-                size++
-            }
-            
-            fun shift(value: Boolean) {
-                val oldHead = head
-                head = head.next!!
-                
-                val n = BitNode(value)
-                tail.next = n
-                tail = n
-                
-                oldHead.next = null 
-            }
 
-            override fun toString(): String {
-                val builder = StringBuilder()
-                
-                var n: BitNode? = head
-                
-                while (n != null) {
-                    builder.append(if (n.value) '1' else '0')
-                    n = n.next
+        private fun multiply(matrix: IntArray, vector: Int): Int {
+            var v = vector
+            var sum = 0
+            var i = 0
+
+            while (v != 0) {
+                if (v and 1 != 0) {
+                    sum = sum xor matrix[i]
                 }
-                
-                return builder.toString()
+
+                v = v.ushr(1)
+                i++
             }
+
+            return sum
         }
-        
-        /**
-         * Linked node of boolean values
-         */
-        internal class BitNode(value: Boolean) {
-            var value: Boolean
-                private set
-            
-            var previous: BitNode? = null
-                set(node) {
-                    field = node
-                    
-                    if (node != null && node.next != this) {
-                        node.next = this
-                    }
-                }
-            var next: BitNode? = null
-                set(node) {
-                    field = node
-                    
-                    if (node != null && node.previous != this) {
-                        node.previous = this
-                    }
-                }
 
-            init {
-                this.value = value
-            }
-            
-            fun xor(value: Boolean) {
-                this.value = this.value != value
-            }
+        companion object {
+            private val cache = ConcurrentHashMap<Long, Table>()
 
-            fun or(value: Boolean) {
-                this.value = this.value or value
-            }
+            /**
+             * Get cached table for the given parameters, create one if absent
+             *
+             * @param capacity CRC width
+             * @param polynomial CRC polynomial
+             * @param reflected input reflect parameter
+             * @return lookup table
+             */
+            fun of(capacity: Int, polynomial: Int, reflected: Boolean): Table {
+                val mask = if (capacity == 32) -1 else (1 shl capacity) - 1
+                val poly = polynomial and mask
+                val key = (capacity.toLong() shl 40) or (if (reflected) 1L shl 32 else 0L) or (poly.toLong() and 0xFFFFFFFFL)
 
-            fun and(value: Boolean) {
-                this.value = this.value and value
+                return cache.computeIfAbsent(key) { Table(capacity, poly, reflected) }
             }
         }
     }
 
+    companion object {
+        // read buffer size of stream input
+        private const val BUFFER_SIZE = 64 * 1024
+
+        // default chunk size of parallel file update
+        const val DEFAULT_CHUNK_SIZE = 16L * 1024 * 1024
+
+        /**
+         * Combine CRC of two consecutive data blocks with predefined parameter
+         *
+         * @param parameter predefined parameter of both CRC
+         * @param crc1 CRC of the first block
+         * @param crc2 CRC of the second block
+         * @param length2 byte length of the second block
+         * @return CRC of the first block followed by the second block
+         */
+        @JvmStatic
+        fun combine(parameter: PredefinedParameter, crc1: Int, crc2: Int, length2: Long): Int {
+            return CRC(parameter).combine(crc1, crc2, length2)
+        }
+
+        /**
+         * Reflect the lowest width bits of value
+         *
+         * @param value value to reflect
+         * @param width number of bits
+         * @return reflected value
+         */
+        @JvmStatic
+        internal fun reflect(value: Int, width: Int): Int {
+            return Integer.reverse(value).ushr(32 - width)
+        }
+    }
+
     /**
      * Predefined CRC parameter
      */
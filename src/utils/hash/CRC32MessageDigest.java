@@ -1,5 +1,6 @@
 package utils.hash;
 
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.util.zip.CRC32;
 
@@ -27,6 +28,12 @@ public class CRC32MessageDigest extends MessageDigest {
         crc32.update(input, offset, len);
     }
 
+    @Override
+    protected void engineUpdate(ByteBuffer input) {
+        // CRC32 reads direct buffers without copying into a temporary array
+        crc32.update(input);
+    }
+
     @Override
     protected byte[] engineDigest() {
         long v = crc32.getValue();
@@ -0,0 +1,124 @@
+package utils.hash;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * Iterator of file hash results in completion order
+ * 
+ * Files are submitted lazily while the total length of files being hashed stays within the in-flight byte limit, 
+ * so the consumer's pace bounds the amount of outstanding work. A single file exceeding the limit is still 
+ * submitted once nothing else is in flight.
+ */
+class ConcurrentFileHasher implements Iterator<FileHashResult> {
+    private final Iterator<? extends File> pendingFiles;
+    private final HashAlgorithm algorithm;
+    private final long maxInFlightBytes;
+    private final ExecutorCompletionService<FileHashResult> completionService;
+
+    // File taken from pendingFiles but not yet submitted due to in-flight limit
+    private File deferredFile = null;
+    private long inFlightBytes = 0;
+
+    // Length of each submitted file by its future, until the result is taken
+    private final Map<Future<FileHashResult>, Long> inFlightLengths = new HashMap<>();
+
+    ConcurrentFileHasher(Iterable<? extends File> files, HashAlgorithm algorithm, Executor executor, long maxInFlightBytes) {
+        if (maxInFlightBytes <= 0) {
+            throw new IllegalArgumentException("Max in-flight bytes must be positive");
+        }
+        
+        this.pendingFiles = files.iterator();
+        this.algorithm = algorithm;
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.completionService = new ExecutorCompletionService<>(executor);
+    }
+
+    @Override
+    public boolean hasNext() {
+        submitPendingFiles();
+        
+        return !inFlightLengths.isEmpty();
+    }
+
+    @Override
+    public FileHashResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Future<FileHashResult> future;
+
+        try {
+            future = completionService.take();
+        } catch (InterruptedException ie) {
+            // Nothing taken, the file is still in flight and returned by a later call
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for file hash", ie);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for file hash", ie);
+        } catch (ExecutionException ee) {
+            throw new RuntimeException("File hashing failed", ee.getCause());
+        } finally {
+            // Taken future is no longer in flight, whether or not it failed
+            inFlightBytes -= inFlightLengths.remove(future);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private void submitPendingFiles() {
+        while (deferredFile != null || pendingFiles.hasNext()) {
+            File file = (deferredFile != null)? deferredFile : pendingFiles.next();
+            long length = file.length();
+            
+            if (!inFlightLengths.isEmpty() && inFlightBytes + length > maxInFlightBytes) {
+                deferredFile = file;
+                return;
+            }
+
+            deferredFile = null;
+            inFlightBytes += length;
+
+            inFlightLengths.put(completionService.submit(new HashTask(file, length, algorithm)), length);
+        }
+    }
+
+    private static class HashTask implements Callable<FileHashResult> {
+        private final File file;
+        private final long length;
+        private final HashAlgorithm algorithm;
+
+        HashTask(File file, long length, HashAlgorithm algorithm) {
+            this.file = file;
+            this.length = length;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public FileHashResult call() {
+            try {
+                return new FileHashResult(file, length, HashUtil.getFileHashDigest(file, algorithm), null);
+            } catch (IOException ioe) {
+                return new FileHashResult(file, length, new byte[0], ioe);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package utils.hash;
+
+import utils.string.StringUtil;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Hash result of a single file produced by concurrent file hashing
+ */
+public class FileHashResult {
+    private final File file;
+    private final long length;
+    private final byte[] digest;
+    private final IOException exception;
+
+    FileHashResult(File file, long length, byte[] digest, IOException exception) {
+        this.file = file;
+        this.length = length;
+        this.digest = digest;
+        this.exception = exception;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * File length sampled before hashing, used for in-flight byte accounting
+     *
+     * @return file length
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Hash digest of the file, empty if the file does not exist or hashing failed
+     *
+     * @return hash digest
+     */
+    public byte[] getDigest() {
+        return digest;
+    }
+
+    public String getHash() {
+        return StringUtil.getHexStringFromBytes(digest);
+    }
+
+    /**
+     * IO failure during hashing, null when hashing succeed
+     *
+     * @return io exception
+     */
+    public IOException getException() {
+        return exception;
+    }
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    @Override
+    public String toString() {
+        return file + ": " + (isSuccess() ? getHash() : exception.toString());
+    }
+}
@@ -5,14 +5,30 @@ import utils.string.StringUtil;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Security;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class HashUtil {
+    // Read buffer size of stream based file hashing
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Default size of each memory mapped window for mapped file hashing
+    public static final long DEFAULT_MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    // Default limit of total file length being hashed at the same time for concurrent hashing
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 256L * 1024 * 1024;
+
     private HashUtil() {}
 
     static {
@@ -29,7 +45,7 @@ public class HashUtil {
             return -1;
         } else {
             CRC32MessageDigest md = new CRC32MessageDigest();
-            byte[] bytes = new byte[4096];
+            byte[] bytes = new byte[BUFFER_SIZE];
 
             FileInputStream fileInputStream = new FileInputStream(file);
 
@@ -93,7 +109,7 @@ public class HashUtil {
         } else {
             try {
                 MessageDigest md = MessageDigest.getInstance(algorithm.desc);
-                byte[] bytes = new byte[4096];
+                byte[] bytes = new byte[BUFFER_SIZE];
                 
                 FileInputStream fileInputStream = new FileInputStream(file);
                 
@@ -114,6 +130,88 @@ public class HashUtil {
         }
     }
     
+    public static long getMappedFileCrc32HashValue(File file) throws IOException {
+        return getMappedFileCrc32HashValue(file, DEFAULT_MAP_WINDOW_SIZE);
+    }
+
+    /**
+     * Calculate crc32 value of file by memory mapping it window by window
+     *
+     * @param file target file
+     * @param windowSize size of each mapped window, at most Integer.MAX_VALUE
+     * @return crc32 value, -1 if file does not exist
+     * @throws IOException failed to map the file
+     */
+    public static long getMappedFileCrc32HashValue(File file, long windowSize) throws IOException {
+        if (file == null || !file.exists()) {
+            return -1;
+        } else {
+            CRC32MessageDigest md = new CRC32MessageDigest();
+
+            updateMappedFile(md, file, windowSize);
+
+            return md.getValue();
+        }
+    }
+
+    public static String getMappedFileHash(File file, HashAlgorithm algorithm) throws IOException {
+        return StringUtil.getHexStringFromBytes(getMappedFileHashDigest(file, algorithm));
+    }
+
+    public static String getMappedFileHash(File file, HashAlgorithm algorithm, long windowSize) throws IOException {
+        return StringUtil.getHexStringFromBytes(getMappedFileHashDigest(file, algorithm, windowSize));
+    }
+
+    public static byte[] getMappedFileHashDigest(File file, HashAlgorithm algorithm) throws IOException {
+        return getMappedFileHashDigest(file, algorithm, DEFAULT_MAP_WINDOW_SIZE);
+    }
+
+    /**
+     * Calculate hash digest of file by memory mapping it window by window, 
+     * suitable for large files as no data is copied through intermediate byte arrays
+     *
+     * @param file target file
+     * @param algorithm hash algorithm
+     * @param windowSize size of each mapped window, at most Integer.MAX_VALUE
+     * @return hash digest, empty if file does not exist or algorithm is not available
+     * @throws IOException failed to map the file
+     */
+    public static byte[] getMappedFileHashDigest(File file, HashAlgorithm algorithm, long windowSize) 
+            throws IOException {
+        if (file == null || !file.exists()) {
+            return new byte[0];
+        } else {
+            try {
+                MessageDigest md = MessageDigest.getInstance(algorithm.desc);
+
+                updateMappedFile(md, file, windowSize);
+
+                return md.digest();
+            } catch (NoSuchAlgorithmException nsae) {
+                return new byte[0];
+            }
+        }
+    }
+
+    private static void updateMappedFile(MessageDigest md, File file, long windowSize) throws IOException {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window size must be within 1 and " + Integer.MAX_VALUE);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size(), position = 0;
+
+            while (position < size) {
+                long length = Math.min(windowSize, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                md.update(buffer);
+
+                position += length;
+            }
+        }
+    }
+    
     private static String getFilesHash(Collection<? extends File> files, HashAlgorithm algorithm) throws IOException {
         return StringUtil.getHexStringFromBytes(getFilesHashDigest(files, algorithm));
     }
@@ -124,7 +222,7 @@ public class HashUtil {
         } else {
             try {
                 MessageDigest md = MessageDigest.getInstance(algorithm.desc);
-                byte[] bytes = new byte[4096];
+                byte[] bytes = new byte[BUFFER_SIZE];
                 
                 for (File file : files) {
                     FileInputStream fileInputStream = new FileInputStream(file);
@@ -227,6 +325,63 @@ public class HashUtil {
         return hashes;
     }
 
+    public static Iterator<FileHashResult> hashFilesConcurrently(
+            Iterable<? extends File> files, HashAlgorithm algorithm, Executor executor
+    ) {
+        return hashFilesConcurrently(files, algorithm, executor, DEFAULT_MAX_IN_FLIGHT_BYTES);
+    }
+
+    /**
+     * Hash files concurrently with the given executor, results are returned in completion order.
+     * Files are submitted lazily while iterating, at most maxInFlightBytes of file content is being hashed at a time.
+     * 
+     * Any executor works, e.g. a bounded thread pool sized to the disks' capability or a virtual thread executor.
+     *
+     * @param files files to hash
+     * @param algorithm hash algorithm
+     * @param executor executor running hash tasks
+     * @param maxInFlightBytes limit of total file length being hashed at the same time
+     * @return iterator of hash results in completion order
+     */
+    public static Iterator<FileHashResult> hashFilesConcurrently(
+            Iterable<? extends File> files, HashAlgorithm algorithm, Executor executor, long maxInFlightBytes
+    ) {
+        return new ConcurrentFileHasher(files, algorithm, executor, maxInFlightBytes);
+    }
+
+    /**
+     * Hash files concurrently and collect digests in the iteration order of files
+     *
+     * @param files files to hash
+     * @param algorithm hash algorithm
+     * @param executor executor running hash tasks
+     * @return map of file to hash digest
+     * @throws IOException the first IO failure among the files
+     */
+    public static Map<File, byte[]> getIndividualFilesHashDigest(
+            Collection<? extends File> files, HashAlgorithm algorithm, Executor executor
+    ) throws IOException {
+        Map<File, byte[]> digests = new LinkedHashMap<>(files.size() * 4 / 3 + 1);
+        
+        for (File file : files) {
+            digests.put(file, null);
+        }
+        
+        Iterator<FileHashResult> results = hashFilesConcurrently(files, algorithm, executor);
+        
+        while (results.hasNext()) {
+            FileHashResult result = results.next();
+            
+            if (!result.isSuccess()) {
+                throw result.getException();
+            }
+            
+            digests.put(result.getFile(), result.getDigest());
+        }
+        
+        return digests;
+    }
+
     /**
      * General hash code generation method
      *
@@ -1,7 +1,8 @@
 package utils.random
 
 import utils.data.ArrayUtil
-import utils.data.SortedListAvl
+import utils.data.DoubleSortedList
+import utils.data.IntSortedList
 import utils.math.MathUtil
 import java.math.BigDecimal
 import java.nio.CharBuffer
@@ -168,7 +169,7 @@ object RandomUtil {
             val tMin = Math.min(min, max)
             val tMax = Math.max(min, max)
             val possibleIntegers = max - min + 1
-            val list = SortedListAvl<Int>()
+            val list = IntSortedList()
             for (i in 0..size - 1) {
                 if (distinct && i >= possibleIntegers) {
                     break
@@ -179,10 +180,10 @@ object RandomUtil {
                 }
                 list.add(v)
             }
-            val arr = list.toTypedArray()
+            val arr = list.toIntArray()
             val result = IntArray(size)
             for (i in arr.indices) {
-                result[i] = arr[i] as Int
+                result[i] = arr[i]
             }
             return result
         }
@@ -207,7 +208,7 @@ object RandomUtil {
             val tMin = Math.min(min, max)
             val tMax = Math.max(min, max)
             val possibleIntegers = max - min + 1
-            val list = SortedListAvl<Int>()
+            val list = IntSortedList()
             for (i in 0..size - 1) {
                 if (distinct && i >= possibleIntegers) {
                     break
@@ -219,10 +220,10 @@ object RandomUtil {
                 }
                 list.add(v)
             }
-            val arr = list.toTypedArray()
+            val arr = list.toIntArray()
             val result = IntArray(size)
             for (i in arr.indices) {
-                result[i] = arr[i] as Int
+                result[i] = arr[i]
             }
             return result
         }
@@ -248,7 +249,7 @@ object RandomUtil {
         } else {
             val tMin = Math.min(min, max)
             val tMax = Math.max(min, max)
-            val list = SortedListAvl<Double>()
+            val list = DoubleSortedList()
             for (i in 0..size - 1) {
                 var v = randomNumber(tMin, tMax, precision)
                 while (i > 0 && distinct && list.contains(v)) {
@@ -256,10 +257,10 @@ object RandomUtil {
                 }
                 list.add(v)
             }
-            val arr = list.toTypedArray()
+            val arr = list.toDoubleArray()
             val result = DoubleArray(size)
             for (i in arr.indices) {
-                result[i] = arr[i] as Double
+                result[i] = arr[i]
             }
             return result
         }
@@ -286,7 +287,7 @@ object RandomUtil {
         } else {
             val tMin = Math.min(min, max)
             val tMax = Math.max(min, max)
-            val list = SortedListAvl<Double>()
+            val list = DoubleSortedList()
             for (i in 0..size - 1) {
                 var v = randomNumber(tMin, tMax, precision, randomGenerator)
                 while (i > 0 && distinct && list.contains(v)) {
@@ -294,10 +295,10 @@ object RandomUtil {
                 }
                 list.add(v)
             }
-            val arr = list.toTypedArray()
+            val arr = list.toDoubleArray()
             val result = DoubleArray(size)
             for (i in arr.indices) {
-                result[i] = arr[i] as Double
+                result[i] = arr[i]
             }
             return result
         }
@@ -0,0 +1,22 @@
+package utils.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Store object able to compare against its stored form directly from a content buffer, 
+ * used by MappedRandomAccessStore to avoid seeking and reading the content file.
+ * 
+ * Implementations used with ConcurrentRandomAccessStore also provide a static read(ByteBuffer, int) method,
+ * the buffer counterpart of the static read(RandomAccessStore, long) method.
+ */
+public interface BufferedStoreObject extends StoreObject {
+    /**
+     * Compare with the stored object at location of content buffer, must agree with storeCompare
+     * 
+     * @param content content buffer, only absolute reads are allowed, must not be kept once this method returns
+     *                as a mapped buffer may be unmapped afterwards
+     * @param location location of stored object within the buffer
+     * @return comparison result of this against the stored object
+     */
+    public abstract int storeCompare(ByteBuffer content, int location);
+}
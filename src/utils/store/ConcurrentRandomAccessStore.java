@@ -0,0 +1,459 @@
+package utils.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread safe random access store allowing concurrent readers and a single writer.
+ *
+ * Readers never touch the shared file pointers, index entries and records are read with positional
+ * FileChannel reads, so any number of lookups run in parallel. Readers use the count, content length and
+ * index published by the last completed modification, so appends and batch merges run alongside them:
+ * appended content lies beyond the published length, and readers switch to the merged index file while it
+ * is copied into the index file. Only modifications rewriting stored bytes in place (save, remove, compact)
+ * and the switches of the published index wait for running readers and hold new readers back.
+ * Modifications are serialized among themselves.
+ *
+ * Reads go through read only channels separate from the files written by the writer. A reader interrupted
+ * while reading closes the read channel as FileChannel does, it fails with ClosedByInterruptException while
+ * the other readers reopen the channel and carry on.
+ *
+ * Stored class must provide a static read(ByteBuffer, int) method, records are read ahead in chunks
+ * which grow until the record fits.
+ */
+public class ConcurrentRandomAccessStore <E extends BufferedStoreObject> extends RandomAccessStore<E> {
+    public static final int DEFAULT_READ_AHEAD_SIZE = 256;
+
+    // Readers hold the read lock, in place rewrites and index switches hold the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Serializes modifications
+    private final ReentrantLock modifyLock = new ReentrantLock();
+
+    private final Method bufferReadMethod;
+    private final ReadChannel indexChannel, contentChannel;
+
+    // Initial number of bytes read for a record
+    private volatile int readAheadSize = DEFAULT_READ_AHEAD_SIZE;
+
+    // State of the last completed modification, used by readers
+    private volatile Snapshot snapshot;
+
+    public ConcurrentRandomAccessStore(Class<E> clz, String indexPath, String contentPath) throws IOException {
+        this(clz, new File(indexPath), new File(contentPath), false, true);
+    }
+
+    public ConcurrentRandomAccessStore(
+            Class<E> clz, String indexPath, String contentPath, boolean lock, boolean exclusive
+    ) throws IOException {
+        this(clz, new File(indexPath), new File(contentPath), lock, exclusive);
+    }
+
+    public ConcurrentRandomAccessStore(Class<E> clz, File indexFile, File contentFile) throws IOException {
+        this(clz, indexFile, contentFile, false, true);
+    }
+
+    public ConcurrentRandomAccessStore(
+            Class<E> clz, File indexFile, File contentFile, boolean lock, boolean exclusive
+    ) throws IOException {
+        super(clz, indexFile, contentFile, lock, exclusive);
+
+        try {
+            bufferReadMethod = clz.getDeclaredMethod("read", ByteBuffer.class, int.class);
+        } catch (NoSuchMethodException nsme) {
+            throw new IllegalArgumentException(clz.getName() + " does not provide static read(ByteBuffer, int)");
+        }
+
+        indexChannel = new ReadChannel(indexFile);
+        contentChannel = new ReadChannel(contentFile);
+
+        publish();
+    }
+
+    public int getReadAheadSize() {
+        return readAheadSize;
+    }
+
+    public void setReadAheadSize(int readAheadSize) {
+        if (readAheadSize < 8) {
+            throw new IllegalArgumentException("Read ahead size must not be less than 8");
+        }
+        this.readAheadSize = readAheadSize;
+    }
+
+    @Override
+    public int indexOf(E obj, int offset) throws IOException {
+        lock.readLock().lock();
+
+        try {
+            Snapshot current = snapshot;
+            int s = offset, e = current.count - 1;
+
+            if (s < 0) {
+                return -1;
+            }
+
+            while (s <= e) {
+                int m = (s + e) >>> 1, cmp = compareAt(obj, current, m);
+
+                if (cmp == 0) {
+                    return m;
+                } else if (cmp < 0) {
+                    e = m - 1;
+                } else {
+                    s = m + 1;
+                }
+            }
+
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public E get(int index) {
+        lock.readLock().lock();
+
+        try {
+            Snapshot current = snapshot;
+            long location = getActualLocation(current, index);
+
+            return (location >= 0)? readObject(current, location) : null;
+        } catch (IOException ioe) {
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<E> toList() throws IOException {
+        lock.readLock().lock();
+
+        try {
+            Snapshot current = snapshot;
+            List<E> list = new ArrayList<>(current.count);
+
+            for (int i = 0; i < current.count; i++) {
+                list.add(readObject(current, getActualLocation(current, i)));
+            }
+
+            return list;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return snapshot.count;
+    }
+
+    @Override
+    public long getStorageSize() {
+        Snapshot current = snapshot;
+
+        return current.length + current.count * 8L;
+    }
+
+    @Override
+    public void save(E obj) throws IOException {
+        modifyLock.lock();
+        lock.writeLock().lock();
+
+        try {
+            super.save(obj);
+        } finally {
+            publish();
+            lock.writeLock().unlock();
+            modifyLock.unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<? extends E> objs) throws IOException {
+        // Appended and merged without holding readers back, see append & insertAll
+        modifyLock.lock();
+
+        try {
+            super.saveAll(objs);
+        } finally {
+            modifyLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(E obj) throws IOException {
+        modifyLock.lock();
+        lock.writeLock().lock();
+
+        try {
+            super.remove(obj);
+        } finally {
+            publish();
+            lock.writeLock().unlock();
+            modifyLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(int index) throws IOException {
+        modifyLock.lock();
+        lock.writeLock().lock();
+
+        try {
+            super.remove(index);
+        } finally {
+            publish();
+            lock.writeLock().unlock();
+            modifyLock.unlock();
+        }
+    }
+
+    @Override
+    public void compact() throws IOException {
+        modifyLock.lock();
+        lock.writeLock().lock();
+
+        try {
+            super.compact();
+        } finally {
+            publish();
+            lock.writeLock().unlock();
+            modifyLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        modifyLock.lock();
+        lock.writeLock().lock();
+
+        try {
+            indexChannel.close();
+            contentChannel.close();
+            super.close();
+        } finally {
+            lock.writeLock().unlock();
+            modifyLock.unlock();
+        }
+    }
+
+    @Override
+    protected long append(E obj) throws IOException {
+        // Readers never read beyond the published content length
+        modifyLock.lock();
+
+        try {
+            return super.append(obj);
+        } finally {
+            publish();
+            modifyLock.unlock();
+        }
+    }
+
+    @Override
+    protected void insertAll(List<? extends E> objs, long[] locations, boolean sync) throws IOException {
+        modifyLock.lock();
+
+        try {
+            // Merging only reads the index
+            File mergeFile = getMergeFile();
+            mergeIndex(objs, locations, mergeFile, sync);
+
+            ReadChannel mergeChannel = new ReadChannel(mergeFile);
+            boolean copied = false;
+
+            try {
+                // Readers switch to the merged index while it is copied into the index file
+                switchSnapshot(new Snapshot((int) (mergeFile.length() / 8), getContentLength(), mergeChannel));
+                copyMergedIndex(mergeFile, sync);
+                copied = true;
+            } finally {
+                switchSnapshot(new Snapshot(super.getCount(), getContentLength(), indexChannel));
+                mergeChannel.close();
+            }
+
+            if (copied) {
+                Files.delete(mergeFile.toPath());
+            }
+        } finally {
+            modifyLock.unlock();
+        }
+    }
+
+    @Override
+    protected long getActualLocation(int index) throws IOException {
+        return getActualLocation(snapshot, index);
+    }
+
+    @Override
+    protected int compareAt(E obj, int index) throws IOException {
+        return compareAt(obj, snapshot, index);
+    }
+
+    private long getActualLocation(Snapshot current, int index) throws IOException {
+        if (index >= 0 && index < current.count) {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+
+            current.index.readFully(buffer, index * 8L);
+
+            return buffer.getLong(0);
+        } else {
+            return -1;
+        }
+    }
+
+    private int compareAt(final E obj, Snapshot current, int index) throws IOException {
+        return readRecord(current, getActualLocation(current, index), new RecordReader<Integer>() {
+            @Override
+            public Integer read(ByteBuffer record) {
+                return obj.storeCompare(record, 0);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private E readObject(Snapshot current, long location) throws IOException {
+        return readRecord(current, location, new RecordReader<E>() {
+            @Override
+            public E read(ByteBuffer record) throws IOException {
+                try {
+                    return (E) bufferReadMethod.invoke(null, record, 0);
+                } catch (InvocationTargetException ite) {
+                    if (ite.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) ite.getCause();
+                    } else {
+                        throw new IOException(ite.getCause());
+                    }
+                } catch (IllegalAccessException iae) {
+                    throw new IOException(iae);
+                }
+            }
+        });
+    }
+
+    /**
+     * Read the record at location and pass it to reader, record is re-read with doubled size
+     * whenever the reader runs beyond the bytes read
+     */
+    private <T> T readRecord(Snapshot current, long location, RecordReader<T> reader) throws IOException {
+        long available = current.length - location;
+        int size = readAheadSize;
+
+        while (true) {
+            ByteBuffer record = ByteBuffer.allocate((int) Math.max(Math.min(size, available), 0));
+
+            contentChannel.readFully(record, location);
+
+            try {
+                return reader.read(record);
+            } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+                if (record.capacity() < size) {
+                    throw new IOException("Incomplete record at " + location, e);
+                }
+
+                size = (size > Integer.MAX_VALUE / 2)? Integer.MAX_VALUE : size * 2;
+            }
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(super.getCount(), getContentLength(), indexChannel);
+    }
+
+    /**
+     * Publish a snapshot reading another index file, once readers of the current snapshot are done
+     */
+    private void switchSnapshot(Snapshot next) {
+        lock.writeLock().lock();
+
+        try {
+            snapshot = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static class Snapshot {
+        final int count;
+        final long length;
+        final ReadChannel index;
+
+        Snapshot(int count, long length, ReadChannel index) {
+            this.count = count;
+            this.length = length;
+            this.index = index;
+        }
+    }
+
+    private interface RecordReader<T> {
+        T read(ByteBuffer record) throws IOException;
+    }
+
+    /**
+     * Read only channel of a store file, reopened when closed by an interrupted reader
+     */
+    private static class ReadChannel {
+        private final File file;
+        private volatile FileChannel channel;
+        private boolean closed;
+
+        ReadChannel(File file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+
+        void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (true) {
+                FileChannel current = channel;
+
+                try {
+                    ConcurrentRandomAccessStore.readFully(current, buffer, position);
+                    return;
+                } catch (ClosedByInterruptException cbie) {
+                    throw cbie;
+                } catch (ClosedChannelException cce) {
+                    // Closed by another reader being interrupted, bytes read so far are kept
+                    reopen(current);
+                }
+            }
+        }
+
+        private synchronized void reopen(FileChannel closedChannel) throws IOException {
+            if (closed) {
+                throw new ClosedChannelException();
+            } else if (channel == closedChannel) {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            }
+        }
+
+        synchronized void close() throws IOException {
+            closed = true;
+            channel.close();
+        }
+    }
+}
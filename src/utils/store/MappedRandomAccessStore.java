@@ -0,0 +1,194 @@
+package utils.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Random access store reading index and content through memory mapped buffers.
+ *
+ * Binary search probes read index entries from the mapped index file, and BufferedStoreObject implementations
+ * compare directly against the mapped content, so lookups need no seek or read system call.
+ * Files larger than Integer.MAX_VALUE bytes are accessed through the underlying files as RandomAccessStore does.
+ *
+ * Writes still go through the underlying files and mappings are kept while the files grow. A mapping covers
+ * its file as it was when mapped, as mapping beyond the end would extend the file. Entries and records appended
+ * since are read through the underlying files, until the file grew by an eighth of the mapped size (at least
+ * MIN_REMAP_GROWTH bytes) and is mapped again, so appending does not remap on every lookup.
+ *
+ * Some platforms (e.g. Windows) refuse to truncate a file which is still mapped, so the mapping of a file is
+ * released before the file shrinks (save of a shorter replacement, remove, compaction) and re-created by the
+ * next lookup.
+ *
+ * Mappings are released explicitly where the runtime allows it, otherwise they are released once the buffers
+ * are garbage collected. Mapped buffers never leave this store except for the duration of
+ * BufferedStoreObject.storeCompare, which must not keep them, so no released buffer is accessed.
+ */
+public class MappedRandomAccessStore <E extends StoreObject> extends RandomAccessStore<E> {
+    public static final long MIN_REMAP_GROWTH = 65536;
+
+    private MappedByteBuffer indexBuffer, contentBuffer;
+
+    public MappedRandomAccessStore(Class<E> clz, String indexPath, String contentPath) throws IOException {
+        super(clz, indexPath, contentPath);
+    }
+
+    public MappedRandomAccessStore(
+            Class<E> clz, String indexPath, String contentPath, boolean lock, boolean exclusive
+    ) throws IOException {
+        super(clz, indexPath, contentPath, lock, exclusive);
+    }
+
+    public MappedRandomAccessStore(Class<E> clz, File indexFile, File contentFile) throws IOException {
+        super(clz, indexFile, contentFile);
+    }
+
+    public MappedRandomAccessStore(
+            Class<E> clz, File indexFile, File contentFile, boolean lock, boolean exclusive
+    ) throws IOException {
+        super(clz, indexFile, contentFile, lock, exclusive);
+    }
+
+    @Override
+    protected long getActualLocation(int index) throws IOException {
+        if (index >= 0 && index < getCount()) {
+            ByteBuffer buffer = getIndexBuffer();
+
+            if (buffer != null && index < buffer.capacity() / 8) {
+                return buffer.getLong(index * 8);
+            } else {
+                return super.getActualLocation(index);
+            }
+        } else {
+            return -1;
+        }
+    }
+
+    @Override
+    protected int compareAt(E obj, int index) throws IOException {
+        if (obj instanceof BufferedStoreObject) {
+            long location = getActualLocation(index);
+            ByteBuffer buffer = getContentBuffer();
+
+            if (buffer != null && location >= 0 && location < buffer.capacity()) {
+                try {
+                    return ((BufferedStoreObject) obj).storeCompare(buffer, (int) location);
+                } catch (IndexOutOfBoundsException ioobe) {
+                    // Record runs beyond the mapping, content after it grew since mapped
+                }
+            }
+
+            return obj.storeCompare(this, location);
+        } else {
+            return super.compareAt(obj, index);
+        }
+    }
+
+    @Override
+    protected void truncate(RandomAccessFile file, long length) throws IOException {
+        if (file == getUnderlyingIndexFile()) {
+            unmap(indexBuffer);
+            indexBuffer = null;
+        } else {
+            unmap(contentBuffer);
+            contentBuffer = null;
+        }
+
+        super.truncate(file, length);
+    }
+
+    /**
+     * Mapped index buffer, mapped again once enough entries lie beyond it
+     *
+     * @return index buffer, null if index is too large to be mapped
+     * @throws IOException failed to map the index file
+     */
+    private ByteBuffer getIndexBuffer() throws IOException {
+        if (outgrown(indexBuffer, (long) getCount() * 8)) {
+            unmap(indexBuffer);
+            indexBuffer = map(getUnderlyingIndexFile());
+        }
+
+        return indexBuffer;
+    }
+
+    /**
+     * Mapped content buffer, mapped again once enough content lies beyond it
+     *
+     * @return content buffer, null if content is too large to be mapped
+     * @throws IOException failed to map the content file
+     */
+    private ByteBuffer getContentBuffer() throws IOException {
+        if (outgrown(contentBuffer, getContentLength())) {
+            unmap(contentBuffer);
+            contentBuffer = map(getUnderlyingContentFile());
+        }
+
+        return contentBuffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        unmap(indexBuffer);
+        unmap(contentBuffer);
+        indexBuffer = null;
+        contentBuffer = null;
+
+        super.close();
+    }
+
+    private static boolean outgrown(MappedByteBuffer buffer, long required) {
+        return buffer == null || required - buffer.capacity() > Math.max(buffer.capacity() / 8, MIN_REMAP_GROWTH);
+    }
+
+    private static MappedByteBuffer map(RandomAccessFile file) throws IOException {
+        long size = file.length();
+
+        if (size > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        return file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    /**
+     * Release mapping of buffer without waiting for garbage collection, the buffer must not be accessed afterwards
+     *
+     * @param buffer mapped buffer, null is ignored
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+
+            try {
+                // Java 9+
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (NoSuchMethodException nsme) {
+                // Java 8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not supported by the runtime, mapping is released once the buffer is garbage collected
+        }
+    }
+}
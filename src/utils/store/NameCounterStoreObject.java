@@ -2,9 +2,10 @@ package utils.store;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
-public class NameCounterStoreObject implements StoreObject {
+public class NameCounterStoreObject implements BufferedStoreObject {
     public static final Charset UTF8 = Charset.forName("UTF-8");
     
     private String name;
@@ -62,6 +63,11 @@ public class NameCounterStoreObject implements StoreObject {
         return name.compareTo(new String(bytes, UTF8));
     }
     
+    @Override
+    public int storeCompare(ByteBuffer content, int location) {
+        return StoreObjectUtil.compareUtf8(name, content, location+4, content.getInt(location));
+    }
+    
     @Override
     public void refreshRead(RandomAccessStore<? extends StoreObject> store, long location) throws IOException {
         RandomAccessFile contentFile = store.getUnderlyingContentFile();
@@ -110,4 +116,14 @@ public class NameCounterStoreObject implements StoreObject {
         contentFile.readFully(bytes);
         return new NameCounterStoreObject(new String(bytes, UTF8), contentFile.readInt());
     }
+    
+    public static NameCounterStoreObject read(ByteBuffer content, int location) {
+        byte[] bytes = new byte[content.getInt(location)];
+        
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = content.get(location + 4 + i);
+        }
+        
+        return new NameCounterStoreObject(new String(bytes, UTF8), content.getInt(location + 4 + bytes.length));
+    }
 }
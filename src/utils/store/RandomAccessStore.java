@@ -1,19 +1,31 @@
 package utils.store;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RandomAccessStore <E extends StoreObject> {
     public static final int BLOCK_SIZE = 4096;
     
     private final Class<E> clz;
+    private final File indexPath;
     
     private RandomAccessFile indexFile, contentFile;
     private FileLock indexLock, contentLock;
@@ -21,6 +33,9 @@ public class RandomAccessStore <E extends StoreObject> {
     private int size;
     private long length;
     
+    // Number of batch writers holding appended objects not yet indexed, content must not move meanwhile
+    private final AtomicInteger contentPins = new AtomicInteger();
+    
     public RandomAccessStore(Class<E> clz, String indexPath, String contentPath) throws IOException{
         this(clz, new File(indexPath), new File(contentPath), false, true);
     }
@@ -37,6 +52,7 @@ public class RandomAccessStore <E extends StoreObject> {
             Class<E> clz, File indexFile, File contentFile, boolean lock, boolean exclusive
     ) throws IOException {
         this.clz = clz;
+        this.indexPath = indexFile;
         
         this.indexFile = new RandomAccessFile(indexFile, "rw");
         this.contentFile = new RandomAccessFile(contentFile, "rw");
@@ -45,6 +61,14 @@ public class RandomAccessStore <E extends StoreObject> {
             lock(exclusive);
         }
         
+        File mergeFile = getMergeFile();
+        if (mergeFile.exists()) {
+            // Batch insertion interrupted while copying its merged index into the index file
+            copyMergedIndex(mergeFile, true);
+            Files.delete(mergeFile.toPath());
+        }
+        Files.deleteIfExists(getMergeTempFile().toPath());
+        
         length = this.contentFile.length();
         if (length == 0) {
             size = 0;
@@ -55,13 +79,11 @@ public class RandomAccessStore <E extends StoreObject> {
     
     public FileLock[] lock(boolean exclusive) throws IOException {
         if (indexLock == null && contentLock == null) {
-            return new FileLock[]{
-                    indexFile.getChannel().lock(0L, Long.MAX_VALUE, !exclusive),
-                    contentFile.getChannel().lock(0L, Long.MAX_VALUE, !exclusive)
-            };
-        } else {
-            return new FileLock[]{indexLock, contentLock};
+            indexLock = indexFile.getChannel().lock(0L, Long.MAX_VALUE, !exclusive);
+            contentLock = contentFile.getChannel().lock(0L, Long.MAX_VALUE, !exclusive);
         }
+        
+        return new FileLock[]{indexLock, contentLock};
     }
     
     public void release() throws IOException {
@@ -75,7 +97,7 @@ public class RandomAccessStore <E extends StoreObject> {
         }
     }
     
-    private long getActualLocation(int index) throws IOException {
+    protected long getActualLocation(int index) throws IOException {
         if (index >= 0 && index < size) {
             indexFile.seek(index*8);
             return indexFile.readLong();
@@ -107,7 +129,7 @@ public class RandomAccessStore <E extends StoreObject> {
         
         int m = (s + e) / 2;
         
-        int cmp = obj.storeCompare(this, getActualLocation(m));
+        int cmp = compareAt(obj, m);
         
         if (cmp == 0) {
             return new Index(m, m);
@@ -127,6 +149,40 @@ public class RandomAccessStore <E extends StoreObject> {
         
     }
     
+    /**
+     * Compare object with the stored object at index, used by binary search
+     * 
+     * @param obj object to compare
+     * @param index index of stored object
+     * @return comparison result of obj against the stored object
+     * @throws IOException failed to read the stored object
+     */
+    protected int compareAt(E obj, int index) throws IOException {
+        return obj.storeCompare(this, getActualLocation(index));
+    }
+    
+    /**
+     * @return byte length of stored content
+     */
+    protected long getContentLength() {
+        return length;
+    }
+    
+    protected Class<E> getStoredClass() {
+        return clz;
+    }
+    
+    /**
+     * Shrink index or content file, every truncation of the store files goes through this method
+     * 
+     * @param file underlying index or content file
+     * @param length new length of the file
+     * @throws IOException failed to truncate the file
+     */
+    protected void truncate(RandomAccessFile file, long length) throws IOException {
+        file.setLength(length);
+    }
+    
     protected RandomAccessFile getUnderlyingIndexFile() {
         return indexFile;
     }
@@ -212,6 +268,7 @@ public class RandomAccessStore <E extends StoreObject> {
         obj.write(this, length);
         
         if (index == size) {
+            indexFile.seek(8L*size);
             indexFile.writeLong(length);
         } else {
             long loc = 8*index;
@@ -241,56 +298,300 @@ public class RandomAccessStore <E extends StoreObject> {
                 insertToIndex(insertionIndex, obj);
             }
         } else {
-            long len = obj.getByteLength(), s1 = -1, s2 = -1, expectedLen = -1;
+            // Content is appended in insertion order, the stored object tells its own length
+            long len = obj.getByteLength(), s1 = getActualLocation(index.index), s2 = s1 + getStoredByteLength(s1);
+            long diff = len - (s2 - s1);
             
-            if (index.index == size-1) {
-                s1 = getActualLocation(index.index);
-                expectedLen = length - s1;
+            if (diff == 0) {
+                obj.updateWrite(this, s1);
+            } else if (contentPins.get() > 0) {
+                // Shifting content would invalidate locations held by batch writers, the replacement is 
+                // appended instead and the replaced bytes are left unused
+                indexFile.seek(8L*index.index);
+                indexFile.writeLong(append(obj));
             } else {
-                indexFile.seek(8*index.index);
+                if (diff > 0) {
+                    shiftBytes(contentFile, s2, length-s2, diff, BLOCK_SIZE);
+                    obj.updateWrite(this, s1);
+                } else {
+                    obj.updateWrite(this, s1);
+                    shiftBytes(contentFile, s2, length-s2, diff, BLOCK_SIZE);
+                }
                 
-                s1 = indexFile.readLong();
-                s2 = indexFile.readLong();
+                if (s2 < length) {
+                    relocate(s1, diff);
+                }
                 
-                expectedLen = s2 - s1;
+                length += diff;
+                if (diff < 0) {
+                    truncate(contentFile, length);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Save objects in one batch. Objects are appended to content and merged into the index with a single
+     * sequential rewrite, instead of shifting the index once per object. 
+     * Stored objects equal to any of the objects are replaced by the appended copies, the content of replaced 
+     * objects is left unused until the store is compacted.
+     * 
+     * @param objs objects to save, the last one wins among equal objects
+     * @throws IOException failed to write the store
+     */
+    public void saveAll(Collection<? extends E> objs) throws IOException {
+        List<E> list = new ArrayList<>(objs);
+        long[] locations = new long[list.size()];
+        
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = append(list.get(i));
+        }
+        
+        insertAll(list, locations, false);
+    }
+    
+    /**
+     * Reclaim content left unused by replaced objects. Stored objects are moved towards the start of content 
+     * in content order and their index entries updated. Like save, the files are rewritten in place, 
+     * the store must not be interrupted while compacting.
+     * 
+     * @throws IOException failed to rewrite the store
+     * @throws IllegalStateException a batch writer holds appended objects not yet indexed
+     */
+    public void compact() throws IOException {
+        if (contentPins.get() > 0) {
+            throw new IllegalStateException("Store content is pinned by a batch writer");
+        }
+        
+        byte[] bytes = new byte[size*8];
+        
+        indexFile.seek(0);
+        indexFile.readFully(bytes);
+        
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Integer[] order = new Integer[size];
+        
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return Long.compare(buffer.getLong(i1*8), buffer.getLong(i2*8));
             }
+        });
+        
+        long position = 0;
+        
+        for (int i : order) {
+            long location = buffer.getLong(i*8), len = getStoredByteLength(location);
             
-            if (len == expectedLen) {
-                obj.updateWrite(this, getActualLocation(index.index));
-            } else {
-                if (s2 == -1) {
-                    obj.updateWrite(this, s1);
-                    
-                    length += len - expectedLen;
-                } else {
-                    long diff = len - expectedLen;
-                    if (diff > 0) {
-                        shiftBytes(contentFile, s2, length-s2, len-expectedLen, BLOCK_SIZE);
-                        obj.updateWrite(this, s1);
-                    } else {
-                        obj.updateWrite(this, s1);
-                        shiftBytes(contentFile, s2, length-s2, len-expectedLen, BLOCK_SIZE);
-                    }
-                    
-                    if (index.index < size-1) {
-                        indexFile.seek(8*index.index+8);
-                        long[] newLocs = new long[size-index.index-1];
-                        for (int i = 0; i < newLocs.length; i++) {
-                            newLocs[i] = indexFile.readLong() + diff;
-                        }
-                        indexFile.seek(8*index.index+8);
-                        for (int i = 0; i < newLocs.length; i++) {
-                            indexFile.writeLong(newLocs[i]);
-                        }
-                    }
-                    
-                    length += diff;
-                    if (len < expectedLen) {
-                        contentFile.setLength(length);
-                    }
+            if (location != position) {
+                shiftBytes(contentFile, location, len, position - location, BLOCK_SIZE);
+                buffer.putLong(i*8, position);
+            }
+            
+            position += len;
+        }
+        
+        indexFile.seek(0);
+        indexFile.write(bytes);
+        
+        length = position;
+        truncate(contentFile, length);
+    }
+    
+    /**
+     * Append object to the end of content without indexing it
+     * 
+     * @param obj object to append
+     * @return location of appended object
+     * @throws IOException failed to write content
+     */
+    protected long append(E obj) throws IOException {
+        long location = length;
+        
+        obj.write(this, location);
+        length += obj.getByteLength();
+        
+        return location;
+    }
+    
+    /**
+     * Merge appended objects into the index. The merged index is written to a separate file and then copied
+     * into the index file, which stays open and locked. A merged index completely written is copied again
+     * when the store is opened, so the index stays intact if the merge or the copy is interrupted.
+     * 
+     * @param objs appended objects, the last one wins among equal objects
+     * @param locations locations of appended objects
+     * @param sync force content and merged index to the storage device before copying the merged index
+     * @throws IOException failed to merge the index
+     */
+    protected void insertAll(final List<? extends E> objs, long[] locations, boolean sync) throws IOException {
+        File mergeFile = getMergeFile();
+        
+        mergeIndex(objs, locations, mergeFile, sync);
+        copyMergedIndex(mergeFile, sync);
+        Files.delete(mergeFile.toPath());
+    }
+    
+    /**
+     * Write current index merged with appended objects to mergeFile, the file appears once completely written
+     */
+    protected void mergeIndex(final List<? extends E> objs, long[] locations, File mergeFile, boolean sync)
+            throws IOException {
+        Integer[] order = new Integer[objs.size()];
+        
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        
+        // Stable sort, equal objects stay in append order
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return objs.get(i1).compareTo(objs.get(i2));
+            }
+        });
+        
+        File tempFile = getMergeTempFile();
+        int from = 0;
+        
+        try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, BLOCK_SIZE * 16));
+            
+            for (int i = 0; i < order.length; i++) {
+                E obj = objs.get(order[i]);
+                
+                if (i + 1 < order.length && obj.compareTo(objs.get(order[i+1])) == 0) {
+                    // Superseded by a later copy
+                    continue;
                 }
+                
+                Index index = (from < size)? indexOf(obj, from, size-1) : new Index(-1, size);
+                int to = (index.index != -1)? index.index : index.insertionIndex;
+                
+                copyIndex(out, from, to);
+                out.writeLong(locations[order[i]]);
+                
+                from = (index.index != -1)? index.index + 1 : index.insertionIndex;
             }
+            
+            copyIndex(out, from, size);
+            out.flush();
+            
+            if (sync) {
+                contentFile.getChannel().force(false);
+                fos.getFD().sync();
+            }
+        }
+        
+        Files.move(
+                tempFile.toPath(), mergeFile.toPath(), 
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+    
+    /**
+     * Overwrite the index file with the merged index, the merged index never has fewer entries
+     */
+    protected void copyMergedIndex(File mergeFile, boolean sync) throws IOException {
+        byte[] block = new byte[BLOCK_SIZE * 16];
+        
+        try (FileInputStream in = new FileInputStream(mergeFile)) {
+            int len;
+            
+            indexFile.seek(0);
+            while ((len = in.read(block)) > 0) {
+                indexFile.write(block, 0, len);
+            }
+            
+            size = (int) (mergeFile.length() / 8);
         }
+        
+        if (sync) {
+            indexFile.getChannel().force(false);
+        }
+    }
+    
+    protected File getMergeFile() {
+        return new File(indexPath.getPath() + ".merge");
+    }
+    
+    private File getMergeTempFile() {
+        return new File(indexPath.getPath() + ".merge.tmp");
+    }
+    
+    private void copyIndex(DataOutputStream out, int from, int to) throws IOException {
+        byte[] block = new byte[BLOCK_SIZE];
+        long remaining = (to - from) * 8L;
+        
+        indexFile.seek(from * 8L);
+        
+        while (remaining > 0) {
+            int len = (int) Math.min(remaining, block.length);
+            
+            indexFile.readFully(block, 0, len);
+            out.write(block, 0, len);
+            remaining -= len;
+        }
+    }
+    
+    /**
+     * Keep stored content in place until unpinned, used while appended objects wait to be indexed
+     */
+    void pinContent() {
+        contentPins.incrementAndGet();
+    }
+    
+    void unpinContent() {
+        contentPins.decrementAndGet();
+    }
+    
+    /**
+     * Read stored object at location
+     * 
+     * @param location location of stored object
+     * @return stored object
+     * @throws IOException failed to read the stored object
+     */
+    @SuppressWarnings("unchecked")
+    protected E readAt(long location) throws IOException {
+        try {
+            return (E) clz.getDeclaredMethod("read", RandomAccessStore.class, long.class).invoke(null, this, location);
+        } catch (InvocationTargetException ite) {
+            throw new IOException(ite.getCause());
+        } catch (ReflectiveOperationException roe) {
+            throw new IOException(roe);
+        }
+    }
+    
+    private long getStoredByteLength(long location) throws IOException {
+        return readAt(location).getByteLength();
+    }
+    
+    /**
+     * Shift locations of objects stored after location
+     */
+    private void relocate(long location, long diff) throws IOException {
+        byte[] bytes = new byte[size*8];
+        
+        indexFile.seek(0);
+        indexFile.readFully(bytes);
+        
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        
+        for (int i = 0; i < size; i++) {
+            long loc = buffer.getLong(i*8);
+            
+            if (loc > location) {
+                buffer.putLong(i*8, loc + diff);
+            }
+        }
+        
+        indexFile.seek(0);
+        indexFile.write(bytes);
     }
     
     public static void main(String[] args) throws IOException {
@@ -364,7 +665,7 @@ public class RandomAccessStore <E extends StoreObject> {
                 shiftBytes(indexFile, loc+8, indexFile.length()-loc-8, -8, BLOCK_SIZE);
             }
             
-            indexFile.setLength((size-1)*8);
+            truncate(indexFile, (size-1)*8);
             size-=1;
         }
     }
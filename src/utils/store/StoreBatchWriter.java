@@ -0,0 +1,290 @@
+package utils.store;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch writer of random access store with optional write-ahead log and group commit.
+ *
+ * Added objects are appended to the store content right away but only indexed when the batch is committed,
+ * in one sorted merge (see RandomAccessStore.saveAll). With a log file, locations of added objects are logged
+ * and made durable by sync(), which forces content and log once for all objects added by any thread since
+ * the last sync. Logged objects not yet committed are recovered into the store when the writer is created.
+ *
+ * Stored content is pinned while objects are pending, so their locations stay valid: a save replacing a stored
+ * object with one of a different length appends the replacement instead of shifting the content after it.
+ *
+ * Log layout: magic int, version byte, followed by locations (long) of added objects and sync markers.
+ * A sync marker is the bitwise complement (negative) of the number of locations logged before the content
+ * was forced, only those locations are recovered. Locations logged after the last marker may point to
+ * content that never reached the storage device.
+ */
+public class StoreBatchWriter <E extends StoreObject> implements Closeable {
+    public static final int DEFAULT_BATCH_SIZE = 65536;
+
+    private static final int MAGIC = 0x5357414C; // "SWAL"
+    private static final byte VERSION = 2;
+    private static final int HEADER_LENGTH = 5;
+
+    private final RandomAccessStore<E> store;
+    private final File logFile;
+    private final int batchSize;
+
+    private final Object syncLock = new Object();
+
+    private List<E> pendingObjects = new ArrayList<>();
+    private long[] pendingLocations = new long[16];
+
+    private RandomAccessFile log = null;
+    private final byte[] logEntry = new byte[8];
+
+    // Number of objects added / made durable, guarded by this / syncLock
+    private long addedCount = 0, syncedCount = 0;
+
+    // Number of locations in the log, guarded by this
+    private long loggedCount = 0;
+
+    // Whether store content is pinned for pending objects, guarded by this
+    private boolean pinned = false;
+
+    public StoreBatchWriter(RandomAccessStore<E> store) {
+        this.store = store;
+        this.logFile = null;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+    }
+
+    public StoreBatchWriter(RandomAccessStore<E> store, File logFile) throws IOException {
+        this(store, logFile, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Create batch writer with write-ahead log, recovering objects logged but not committed
+     *
+     * @param store target store
+     * @param logFile write-ahead log file, null to disable logging
+     * @param batchSize commit automatically once this number of objects are pending
+     * @throws IOException failed to recover or open the log
+     */
+    public StoreBatchWriter(RandomAccessStore<E> store, File logFile, int batchSize) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        this.store = store;
+        this.logFile = logFile;
+        this.batchSize = batchSize;
+
+        if (logFile != null) {
+            recover();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (this) {
+            return pendingObjects.size();
+        }
+    }
+
+    /**
+     * Add object to current batch, objects equal to stored or pending ones replace them on commit
+     *
+     * @param obj object to add
+     * @throws IOException failed to write the store or log
+     */
+    public void add(E obj) throws IOException {
+        boolean full;
+
+        synchronized (this) {
+            pin();
+
+            long location = store.append(obj);
+
+            if (log != null) {
+                ByteBuffer.wrap(logEntry).putLong(0, location);
+                log.write(logEntry);
+                loggedCount++;
+            }
+
+            addPending(obj, location);
+            addedCount++;
+
+            full = pendingObjects.size() >= batchSize;
+        }
+
+        if (full) {
+            commit();
+        }
+    }
+
+    /**
+     * Make all objects added so far durable. Concurrent callers share a single force of content and log,
+     * a caller whose objects were covered by another caller's force returns immediately.
+     *
+     * @throws IOException failed to force content or log
+     */
+    public void sync() throws IOException {
+        long target;
+
+        synchronized (this) {
+            target = addedCount;
+        }
+
+        synchronized (syncLock) {
+            if (syncedCount >= target) {
+                return;
+            }
+
+            long covered, logged;
+
+            synchronized (this) {
+                covered = addedCount;
+                logged = loggedCount;
+            }
+
+            // Content first, the marker must never cover locations of content not yet written
+            store.getUnderlyingContentFile().getChannel().force(false);
+
+            RandomAccessFile syncedLog;
+
+            synchronized (this) {
+                syncedLog = log;
+
+                if (syncedLog != null) {
+                    ByteBuffer.wrap(logEntry).putLong(0, ~logged);
+                    syncedLog.write(logEntry);
+                }
+            }
+
+            if (syncedLog != null) {
+                syncedLog.getChannel().force(false);
+            }
+
+            syncedCount = covered;
+        }
+    }
+
+    /**
+     * Merge pending objects into the store index, then clear the log
+     *
+     * @throws IOException failed to merge or clear the log
+     */
+    public void commit() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (!pendingObjects.isEmpty()) {
+                    store.insertAll(pendingObjects, pendingLocations, log != null);
+
+                    pendingObjects = new ArrayList<>();
+                    pendingLocations = new long[16];
+                }
+
+                if (pinned) {
+                    store.unpinContent();
+                    pinned = false;
+                }
+
+                if (log != null) {
+                    log.setLength(HEADER_LENGTH);
+                    log.seek(HEADER_LENGTH);
+                    log.getChannel().force(false);
+                }
+
+                syncedCount = addedCount;
+                loggedCount = 0;
+            }
+        }
+    }
+
+    /**
+     * Commit pending objects and release the log, the store remains open
+     *
+     * @throws IOException failed to commit or close the log
+     */
+    @Override
+    public void close() throws IOException {
+        commit();
+
+        synchronized (this) {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        }
+    }
+
+    /**
+     * Pin store content before appending, so a concurrent save cannot move content appended for this batch
+     */
+    private void pin() {
+        if (!pinned) {
+            store.pinContent();
+            pinned = true;
+        }
+    }
+
+    private void addPending(E obj, long location) {
+        int count = pendingObjects.size();
+
+        if (count == pendingLocations.length) {
+            long[] locations = new long[count * 2];
+
+            System.arraycopy(pendingLocations, 0, locations, 0, count);
+            pendingLocations = locations;
+        }
+
+        pendingObjects.add(obj);
+        pendingLocations[count] = location;
+    }
+
+    private void recover() throws IOException {
+        log = new RandomAccessFile(logFile, "rw");
+
+        if (log.length() < HEADER_LENGTH) {
+            log.setLength(0);
+            log.writeInt(MAGIC);
+            log.writeByte(VERSION);
+            log.getChannel().force(false);
+
+            return;
+        }
+
+        if (log.readInt() != MAGIC || log.readByte() != VERSION) {
+            log.close();
+            log = null;
+
+            throw new IOException("Not a store write-ahead log: " + logFile);
+        }
+
+        // A partially written entry is discarded, its object was never synced
+        int count = (int) ((log.length() - HEADER_LENGTH) / 8), synced = 0;
+        long[] locations = new long[count];
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile), 65536));
+
+        try {
+            in.skipBytes(HEADER_LENGTH);
+
+            for (int i = 0, logged = 0; i < count; i++) {
+                long entry = in.readLong();
+
+                if (entry < 0) {
+                    synced = (int) Math.min(~entry, logged);
+                } else {
+                    locations[logged++] = entry;
+                }
+            }
+        } finally {
+            in.close();
+        }
+
+        // Objects covered by a sync marker were forced to content before the marker was written
+        pin();
+        for (int i = 0; i < synced; i++) {
+            addPending(store.readAt(locations[i]), locations[i]);
+        }
+
+        commit();
+    }
+}
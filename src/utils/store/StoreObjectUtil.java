@@ -0,0 +1,115 @@
+package utils.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Helpers for store object implementations
+ */
+public class StoreObjectUtil {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private StoreObjectUtil() {}
+
+    /**
+     * Compare string with UTF-8 bytes stored in buffer without decoding them into a string.
+     * The sign of result is the same as value.compareTo(new String(bytes, UTF8)).
+     *
+     * @param value string to compare
+     * @param buffer buffer containing UTF-8 bytes, only absolute reads are performed
+     * @param offset start offset of bytes
+     * @param length byte length
+     * @return comparison result of value against the decoded bytes
+     */
+    public static int compareUtf8(String value, ByteBuffer buffer, int offset, int length) {
+        int i = 0, p = offset, end = offset + length, valueLength = value.length();
+
+        while (p < end) {
+            int b = buffer.get(p) & 0xFF, codePoint, byteCount;
+
+            if (b < 0x80) {
+                codePoint = b;
+                byteCount = 1;
+            } else if (b >= 0xC2 && b < 0xE0) {
+                codePoint = b & 0x1F;
+                byteCount = 2;
+            } else if (b >= 0xE0 && b < 0xF0) {
+                codePoint = b & 0x0F;
+                byteCount = 3;
+            } else if (b >= 0xF0 && b < 0xF5) {
+                codePoint = b & 0x07;
+                byteCount = 4;
+            } else {
+                return compareDecoded(value, buffer, offset, length);
+            }
+
+            if (p + byteCount > end) {
+                return compareDecoded(value, buffer, offset, length);
+            }
+
+            for (int j = 1; j < byteCount; j++) {
+                int c = buffer.get(p + j) & 0xFF;
+
+                if ((c & 0xC0) != 0x80) {
+                    return compareDecoded(value, buffer, offset, length);
+                }
+
+                codePoint = (codePoint << 6) | (c & 0x3F);
+            }
+
+            // Overlong, surrogate & out of range sequences are replaced by the decoder
+            if ((byteCount == 3 && (codePoint < 0x800 || (codePoint >= 0xD800 && codePoint <= 0xDFFF))) ||
+                    (byteCount == 4 && (codePoint < 0x10000 || codePoint > 0x10FFFF))) {
+                return compareDecoded(value, buffer, offset, length);
+            }
+
+            p += byteCount;
+
+            if (codePoint < 0x10000) {
+                if (i >= valueLength) {
+                    return -1;
+                }
+
+                char c = value.charAt(i++);
+
+                if (c != codePoint) {
+                    return c - codePoint;
+                }
+            } else {
+                char high = Character.highSurrogate(codePoint), low = Character.lowSurrogate(codePoint);
+
+                if (i >= valueLength) {
+                    return -1;
+                }
+
+                char c = value.charAt(i++);
+
+                if (c != high) {
+                    return c - high;
+                }
+
+                if (i >= valueLength) {
+                    return -1;
+                }
+
+                c = value.charAt(i++);
+
+                if (c != low) {
+                    return c - low;
+                }
+            }
+        }
+
+        return (i < valueLength)? 1 : 0;
+    }
+
+    private static int compareDecoded(String value, ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+
+        return value.compareTo(new String(bytes, UTF8));
+    }
+}
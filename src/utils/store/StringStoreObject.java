@@ -2,9 +2,10 @@ package utils.store;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
-public class StringStoreObject implements StoreObject {
+public class StringStoreObject implements BufferedStoreObject {
     public static final Charset UTF8 = Charset.forName("UTF-8");
     
     private String value;
@@ -53,6 +54,11 @@ public class StringStoreObject implements StoreObject {
         return value.compareTo(new String(bytes, UTF8));
     }
 
+    @Override
+    public int storeCompare(ByteBuffer content, int location) {
+        return StoreObjectUtil.compareUtf8(value, content, location+4, content.getInt(location));
+    }
+    
     @Override
     public void refreshRead(RandomAccessStore<? extends StoreObject> store, long location) throws IOException {
         RandomAccessFile contentFile = store.getUnderlyingContentFile();
@@ -88,4 +94,14 @@ public class StringStoreObject implements StoreObject {
         contentFile.readFully(bytes);
         return new StringStoreObject(new String(bytes, UTF8));
     }
+    
+    public static StringStoreObject read(ByteBuffer content, int location) {
+        byte[] bytes = new byte[content.getInt(location)];
+        
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = content.get(location + 4 + i);
+        }
+        
+        return new StringStoreObject(new String(bytes, UTF8));
+    }
 }
@@ -0,0 +1,367 @@
+package utils.sync;
+
+import utils.hash.HashUtil;
+import utils.string.StringUtil;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Log entry holder backed by a binary, append-only log file.
+ *
+ * Unlike LogEntryHolder, which reads and rewrites the whole text file, entries are only appended when they change
+ * and the log is compacted once superseded records dominate it. Unchanged length and last modification time
+ * is trusted as unmodified, so unchanged files are never hashed. The log is loaded on first access.
+ *
+ * Log layout: magic int, version byte, followed by records of
+ * PUT (type byte, path UTF, hash length byte, hash bytes, last modification time long, length long) or
+ * REMOVE (type byte, path UTF).
+ */
+public class IncrementalLogEntryHolder implements Closeable {
+    private static final int MAGIC = 0x534C4F47; // "SLOG"
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 5;
+
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_REMOVE = 2;
+
+    // Minimum record count before compaction is considered
+    private static final int MIN_COMPACTION_RECORD_COUNT = 1024;
+
+    private final File logFile;
+
+    // Compact when record count exceeds live entry count times this ratio
+    private double compactionRatio = 2.0;
+
+    private Map<String, LogEntry> logEntryMap = null;
+    private int recordCount = 0;
+    private DataOutputStream appender = null;
+
+    public IncrementalLogEntryHolder(String logFilePath) {
+        this(new File(logFilePath));
+    }
+
+    public IncrementalLogEntryHolder(File logFile) {
+        this.logFile = logFile;
+    }
+
+    public File getLogFile() {
+        return logFile;
+    }
+
+    public double getCompactionRatio() {
+        return compactionRatio;
+    }
+
+    public void setCompactionRatio(double compactionRatio) {
+        if (compactionRatio < 1) {
+            throw new IllegalArgumentException("Compaction ratio must not be less than 1");
+        }
+        this.compactionRatio = compactionRatio;
+    }
+
+    /**
+     * Check modification of file and record its latest state
+     *
+     * @param file target file
+     * @return true if file is new, modified since last record or could not be read
+     * @throws IOException failed to read or append the log
+     */
+    public boolean checkModified(File file) throws IOException {
+        ensureLoaded();
+
+        String absolutePath = file.getAbsolutePath();
+        LogEntry logEntry = logEntryMap.get(absolutePath);
+
+        long length = file.length(), lastModificationTime = file.lastModified();
+
+        if (logEntry != null && logEntry.getLength() == length && logEntry.getLastModificationTime() == lastModificationTime) {
+            // Unchanged length and last modification time, trusted without hashing
+            return logEntry.isModified(file, true);
+        }
+
+        // Hash once, for both comparison and the new entry
+        String hash;
+        try {
+            hash = HashUtil.getFileSha1Hash(file);
+        } catch (IOException iox) {
+            hash = null;
+        }
+
+        boolean modified = logEntry == null || logEntry.isModified(length, hash);
+
+        if (hash == null) {
+            // Not readable, reported as modified while its entry is left as it is, so it is hashed again next time
+            return true;
+        } else if (modified) {
+            LogEntry newEntry = new LogEntry(absolutePath, hash, lastModificationTime, length);
+            newEntry.setNew(true);
+
+            logEntryMap.put(absolutePath, newEntry);
+            appendPut(newEntry);
+
+            return true;
+        } else {
+            // Content unchanged but touched, record new time to take the fast path next time
+            logEntry.setLastModificationTime(lastModificationTime);
+            appendPut(logEntry);
+
+            return false;
+        }
+    }
+
+    public LogEntry getLogEntry(String absolutePath) throws IOException {
+        ensureLoaded();
+
+        return logEntryMap.get(absolutePath);
+    }
+
+    public int size() throws IOException {
+        ensureLoaded();
+
+        return logEntryMap.size();
+    }
+
+    /**
+     * Remove entries neither new nor compared since loaded, i.e. files no longer exist in the synced set
+     *
+     * @throws IOException failed to append the log
+     */
+    public void removeNotComparedEntries() throws IOException {
+        ensureLoaded();
+
+        List<String> filePathNotCompared = new ArrayList<>();
+
+        for (LogEntry logEntry : logEntryMap.values()) {
+            if (!logEntry.isNew() && !logEntry.isCompared()) {
+                filePathNotCompared.add(logEntry.getPath());
+            }
+        }
+
+        for (String filePath : filePathNotCompared) {
+            logEntryMap.remove(filePath);
+            appendRemove(filePath);
+        }
+    }
+
+    /**
+     * Flush appended records to the log file
+     *
+     * @throws IOException failed to flush
+     */
+    public void flush() throws IOException {
+        if (appender != null) {
+            appender.flush();
+        }
+    }
+
+    /**
+     * Rewrite the log with live entries only
+     *
+     * @throws IOException failed to rewrite the log
+     */
+    public void compact() throws IOException {
+        ensureLoaded();
+        closeAppender();
+
+        File tempFile = new File(logFile.getAbsolutePath() + ".compact");
+
+        try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 65536));
+
+            writeHeader(out);
+
+            for (LogEntry logEntry : logEntryMap.values()) {
+                writePut(out, logEntry);
+            }
+
+            // Compacted log must be on disk before it replaces the old one
+            out.flush();
+            fileOut.getFD().sync();
+        }
+
+        // Replace atomically, a crash leaves either the old or the compacted log
+        Files.move(
+                tempFile.toPath(), logFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+        );
+
+        recordCount = logEntryMap.size();
+    }
+
+    /**
+     * Compact the log if superseded records dominate it, then release the log file
+     *
+     * @throws IOException failed to compact or close the log
+     */
+    @Override
+    public void close() throws IOException {
+        if (logEntryMap != null && recordCount > MIN_COMPACTION_RECORD_COUNT &&
+                recordCount > logEntryMap.size() * compactionRatio) {
+            compact();
+        } else {
+            closeAppender();
+        }
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (logEntryMap == null) {
+            logEntryMap = new HashMap<>();
+            recordCount = 0;
+
+            if (logFile.length() >= HEADER_LENGTH) {
+                load();
+            } else if (logFile.length() > 0) {
+                // Header not completely written, start over
+                new FileOutputStream(logFile).close();
+            }
+        }
+    }
+
+    private void load() throws IOException {
+        long validLength = HEADER_LENGTH;
+
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(logFile), 65536))) {
+            DataInputStream in = new DataInputStream(counter);
+
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Not a sync log file: " + logFile);
+            }
+
+            try {
+                while (true) {
+                    byte type = in.readByte();
+                    String path = in.readUTF();
+
+                    if (type == RECORD_PUT) {
+                        byte[] hashBytes = new byte[in.readUnsignedByte()];
+
+                        in.readFully(hashBytes);
+
+                        String hash = (hashBytes.length > 0)? StringUtil.getHexStringFromBytes(hashBytes) : null;
+                        long lastModificationTime = in.readLong();
+                        long length = in.readLong();
+
+                        logEntryMap.put(path, new LogEntry(path, hash, lastModificationTime, length));
+                    } else if (type == RECORD_REMOVE) {
+                        logEntryMap.remove(path);
+                    } else {
+                        throw new IOException("Corrupted sync log record at " + validLength + ": " + logFile);
+                    }
+
+                    recordCount++;
+                    validLength = counter.getCount();
+                }
+            } catch (EOFException eofe) {
+                // End of log, a partially written record is discarded below
+            }
+        }
+
+        if (validLength < logFile.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(logFile, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+    }
+
+    private void appendPut(LogEntry logEntry) throws IOException {
+        writePut(getAppender(), logEntry);
+        recordCount++;
+    }
+
+    private void appendRemove(String path) throws IOException {
+        DataOutputStream out = getAppender();
+
+        out.writeByte(RECORD_REMOVE);
+        out.writeUTF(path);
+        recordCount++;
+    }
+
+    private DataOutputStream getAppender() throws IOException {
+        if (appender == null) {
+            boolean newFile = !logFile.exists() || logFile.length() == 0;
+
+            appender = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true), 65536));
+
+            if (newFile) {
+                writeHeader(appender);
+            }
+        }
+
+        return appender;
+    }
+
+    private void closeAppender() throws IOException {
+        if (appender != null) {
+            appender.close();
+            appender = null;
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    private static void writePut(DataOutputStream out, LogEntry logEntry) throws IOException {
+        byte[] hashBytes = (logEntry.getHash() != null)? StringUtil.hexToBytes(logEntry.getHash()) : new byte[0];
+
+        out.writeByte(RECORD_PUT);
+        out.writeUTF(logEntry.getPath());
+        out.writeByte(hashBytes.length);
+        out.write(hashBytes);
+        out.writeLong(logEntry.getLastModificationTime());
+        out.writeLong(logEntry.getLength());
+    }
+
+    /**
+     * Input stream counting consumed bytes, used to locate the end of the last complete record
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+
+            if (b != -1) {
+                count++;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+
+            if (n > 0) {
+                count += n;
+            }
+
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+
+            count += skipped;
+
+            return skipped;
+        }
+    }
+}
@@ -59,6 +59,35 @@ public class LogEntry {
         }
     }
 
+    /**
+     * Check modification of file, optionally trusting unchanged length and last modification time 
+     * as unmodified without hashing the file
+     *
+     * @param file target file
+     * @param trustModificationTime skip hashing when both length and last modification time are unchanged
+     * @return modified or not
+     */
+    public boolean isModified(File file, boolean trustModificationTime) {
+        if (trustModificationTime && length == file.length() && lastModificationTime == file.lastModified()) {
+            compareCount++;
+            return false;
+        } else {
+            return isModified(file);
+        }
+    }
+
+    /**
+     * Check modification against a hash already computed from the file, so the file is not read again
+     *
+     * @param length current file length
+     * @param hash current file hash, null if the file could not be read
+     * @return modified or not
+     */
+    public boolean isModified(long length, String hash) {
+        compareCount++;
+        return trivialModificationCheck(length) || (hash != null && !hash.equals(this.hash));
+    }
+
     private boolean trivialModificationCheck(long length) {
         return this.length != length;
     }
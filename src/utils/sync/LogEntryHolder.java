@@ -60,7 +60,7 @@ public class LogEntryHolder {
                 logEntryMap.put(absolutePath, new LogEntry(file));
             }
 
-            return logEntry.isModified(file);
+            return modified;
         } else {
             logEntryMap.put(absolutePath, new LogEntry(file));
             return true;
@@ -80,4 +80,142 @@ class TestCRC {
             assertTrue(verifyPass, "CRC verify does not pass!")
         }
     }
-}
\ No newline at end of file
+    
+    @Test
+    fun testBulkUpdate() {
+        val bytes = ByteArray(1037)
+        
+        java.util.Random(20181023).nextBytes(bytes)
+        
+        for (parameter in CRC.PredefinedParameter.values()) {
+            val bulkCrc = CRC(parameter)
+            val byteCrc = CRC(parameter)
+            
+            bulkCrc.update(bytes, 0, 13)
+            bulkCrc.update(bytes, 13, bytes.size - 13)
+            bulkCrc.digest()
+            
+            for (byt in bytes) {
+                byteCrc.update(byt.toInt())
+            }
+            byteCrc.digest()
+            
+            assertEquals(bulkCrc.crc, byteCrc.crc, "Bulk update result does not match for $parameter!")
+            assertTrue(bulkCrc.verify(bytes, bulkCrc.crc), "CRC verify does not pass for $parameter!")
+        }
+    }
+    
+    @Test
+    fun testByteBufferUpdate() {
+        val directBuffer = java.nio.ByteBuffer.allocateDirect(testBytes.size)
+        
+        directBuffer.put(testBytes)
+        
+        for (key in expectedHexResult.keys) {
+            val heapCrc = CRC(key)
+            val directCrc = CRC(key)
+            
+            directBuffer.flip()
+            
+            heapCrc.update(java.nio.ByteBuffer.wrap(testBytes))
+            heapCrc.digest()
+            
+            directCrc.update(directBuffer)
+            directCrc.digest()
+            
+            assertEquals(heapCrc.crcHexExpression, expectedHexResult[key], "Heap buffer CRC HEX result does not match!")
+            assertEquals(directCrc.crcHexExpression, expectedHexResult[key], "Direct buffer CRC HEX result does not match!")
+        }
+    }
+    
+    @Test
+    fun testCombine() {
+        for (parameter in CRC.PredefinedParameter.values()) {
+            for (split in intArrayOf(0, 1, 9, testBytes.size)) {
+                val crc1 = CRC(parameter)
+                val crc2 = CRC(parameter)
+                val wholeCrc = CRC(parameter)
+                
+                crc1.update(testBytes, 0, split)
+                crc1.digest()
+                
+                crc2.update(testBytes, split, testBytes.size - split)
+                crc2.digest()
+                
+                wholeCrc.update(testBytes, 0, testBytes.size)
+                wholeCrc.digest()
+                
+                assertEquals(
+                    CRC.combine(parameter, crc1.crc, crc2.crc, (testBytes.size - split).toLong()), wholeCrc.crc, 
+                    "Combined CRC does not match for $parameter!"
+                )
+            }
+        }
+    }
+    
+    @Test
+    fun testUpdateFileParallel() {
+        // 10007 bytes, not a multiple of any chunk size but 1 and the file size
+        val bytes = ByteArray(10007)
+        
+        java.util.Random(20181024).nextBytes(bytes)
+        
+        val file = java.io.File.createTempFile("crc", ".bin")
+        val emptyFile = java.io.File.createTempFile("crc-empty", ".bin")
+        val executor = java.util.concurrent.Executors.newFixedThreadPool(4)
+        
+        try {
+            file.writeBytes(bytes)
+            
+            val parameters = arrayOf(
+                CRC.PredefinedParameter.CRC8_DEFAULT, CRC.PredefinedParameter.CRC8_MAXIM,
+                CRC.PredefinedParameter.CRC16_ARC, CRC.PredefinedParameter.CRC16_CCITT_FALSE,
+                CRC.PredefinedParameter.CRC32_DEFAULT, CRC.PredefinedParameter.CRC32_BZIP2, 
+                CRC.PredefinedParameter.CRC32_C
+            )
+            
+            for (parameter in parameters) {
+                val sequentialCrc = CRC(parameter)
+                
+                sequentialCrc.update(bytes, 0, bytes.size)
+                sequentialCrc.digest()
+                
+                for (chunkSize in longArrayOf(1, 7, 64, 4096, bytes.size.toLong(), bytes.size + 1L)) {
+                    val parallelCrc = CRC(parameter)
+                    
+                    parallelCrc.updateFileParallel(file, executor, chunkSize)
+                    parallelCrc.digest()
+                    
+                    assertEquals(parallelCrc.crc, sequentialCrc.crc, "Parallel CRC does not match for $parameter, chunk size $chunkSize!")
+                }
+                
+                // Data updated before the file is kept, with the default executor and chunk size
+                val prefixedCrc = CRC(parameter)
+                val sequentialPrefixedCrc = CRC(parameter)
+                
+                prefixedCrc.update(testBytes, 0, testBytes.size)
+                prefixedCrc.updateFileParallel(file)
+                prefixedCrc.digest()
+                
+                sequentialPrefixedCrc.update(testBytes, 0, testBytes.size)
+                sequentialPrefixedCrc.update(bytes, 0, bytes.size)
+                sequentialPrefixedCrc.digest()
+                
+                assertEquals(prefixedCrc.crc, sequentialPrefixedCrc.crc, "Prefixed parallel CRC does not match for $parameter!")
+                
+                val emptyCrc = CRC(parameter)
+                val expectedEmptyCrc = CRC(parameter)
+                
+                emptyCrc.updateFileParallel(emptyFile, executor, 7)
+                emptyCrc.digest()
+                expectedEmptyCrc.digest()
+                
+                assertEquals(emptyCrc.crc, expectedEmptyCrc.crc, "Empty file CRC does not match for $parameter!")
+            }
+        } finally {
+            executor.shutdown()
+            file.delete()
+            emptyFile.delete()
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package testng;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.store.ConcurrentRandomAccessStore;
+import utils.store.StoreObject;
+import utils.store.StringStoreObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+public class TestConcurrentRandomAccessStore {
+    private static final int VALUE_COUNT = 2000;
+
+    private File directory;
+    private ConcurrentRandomAccessStore<StringStoreObject> store;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("concurrent-store").toFile();
+        store = new ConcurrentRandomAccessStore<>(
+            StringStoreObject.class, new File(directory, "store.idx"), new File(directory, "store.dat")
+        );
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        store.close();
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testParallelReadersAgainstWriter() throws Exception {
+        List<String> values = values();
+        Queue<Throwable> failures = runReadersAgainstWriter(values, 4, false);
+
+        assertTrue(failures.isEmpty(), "Reader failures: " + failures);
+        checkStored(values);
+
+        // Replaced copies are reclaimed and published
+        store.saveAll(Arrays.asList(new StringStoreObject(values.get(0)), new StringStoreObject(values.get(1))));
+        long storageSize = store.getStorageSize();
+        store.compact();
+        assertTrue(store.getStorageSize() < storageSize);
+        checkStored(values);
+    }
+
+    @Test
+    public void testInterruptedReader() throws Exception {
+        List<String> values = values();
+        Queue<Throwable> failures = runReadersAgainstWriter(values, 4, true);
+
+        // Interrupted reads fail alone, other readers and the writer are not affected
+        assertTrue(failures.isEmpty(), "Reader failures: " + failures);
+        checkStored(values);
+
+        Thread.currentThread().interrupt();
+        try {
+            store.indexOf(new StringStoreObject("key00000"), 0);
+            fail("Interrupted read should fail");
+        } catch (IOException e) {
+            // Expected
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(store.indexOf(new StringStoreObject("key00000"), 0), 0);
+        store.save(new StringStoreObject("zzzzz"));
+        assertEquals(store.get(VALUE_COUNT).getValue(), "zzzzz");
+    }
+
+    @Test(timeOut = 30000)
+    public void testReadersDuringBatchMerge() throws Exception {
+        final List<String> values = values().subList(0, 500);
+        List<StringStoreObject> stored = new ArrayList<>();
+
+        for (String value : values) {
+            stored.add(new StringStoreObject(value));
+        }
+        store.saveAll(stored);
+
+        // Batch objects block the merge once it starts sorting them
+        final CountDownLatch merging = new CountDownLatch(1), merge = new CountDownLatch(1);
+        final List<StringStoreObject> batch = new ArrayList<>();
+
+        for (final String value : new String[] {"new1", "new0"}) {
+            batch.add(new StringStoreObject(value) {
+                @Override
+                public int compareTo(StoreObject o) {
+                    merging.countDown();
+                    try {
+                        merge.await();
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.compareTo(o);
+                }
+            });
+        }
+
+        final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    store.saveAll(batch);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }
+        };
+        writer.setDaemon(true);
+        writer.start();
+        merging.await();
+
+        // Batch is appended and being merged, readers use the published store meanwhile
+        checkStored(values);
+        assertEquals(store.indexOf(new StringStoreObject("new0"), 0), -1);
+
+        merge.countDown();
+        writer.join();
+        assertTrue(failures.isEmpty(), "Writer failures: " + failures);
+
+        List<String> saved = new ArrayList<>(values);
+        saved.add("new0");
+        saved.add("new1");
+        checkStored(saved);
+    }
+
+    /**
+     * Save values with single saves and batches while readers look up the values saved so far
+     *
+     * @return failures of the writer and of the readers which are not interrupted
+     */
+    private Queue<Throwable> runReadersAgainstWriter(
+        final List<String> values, int readerCount, final boolean interrupting
+    ) throws InterruptedException {
+        final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        final List<String> saved = Collections.synchronizedList(new ArrayList<String>());
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicInteger interruptedReads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(readerCount + (interrupting? 1 : 0));
+        List<Thread> threads = new ArrayList<>();
+
+        for (int r = 0; r < readerCount; r++) {
+            final Random random = new Random(r);
+
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    started.countDown();
+
+                    try {
+                        while (writing.get()) {
+                            int count = store.getCount();
+
+                            if (count > 0) {
+                                StringStoreObject obj = store.get(random.nextInt(count));
+                                assertNotNull(obj, "Stored object not read");
+                            }
+
+                            if (!saved.isEmpty()) {
+                                String value = saved.get(random.nextInt(saved.size()));
+                                assertTrue(store.indexOf(new StringStoreObject(value), 0) >= 0, value + " not found");
+                            }
+                        }
+                    } catch (Throwable t) {
+                        failures.add(t);
+                    }
+                }
+            });
+        }
+
+        if (interrupting) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    started.countDown();
+
+                    while (writing.get()) {
+                        int count = store.getCount();
+
+                        Thread.currentThread().interrupt();
+                        try {
+                            if (count > 0) {
+                                store.get(count - 1);
+                            }
+                            store.indexOf(new StringStoreObject("key"), 0);
+                        } catch (IOException e) {
+                            interruptedReads.incrementAndGet();
+                        } finally {
+                            Thread.interrupted();
+                        }
+                    }
+                }
+            });
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        started.await();
+
+        try {
+            for (int i = 0; i < values.size(); ) {
+                if (i % 3 == 0) {
+                    store.save(new StringStoreObject(values.get(i)));
+                    saved.add(values.get(i++));
+                } else {
+                    List<StringStoreObject> batch = new ArrayList<>();
+                    int end = Math.min(i + 50, values.size());
+
+                    for (int j = i; j < end; j++) {
+                        batch.add(new StringStoreObject(values.get(j)));
+                    }
+                    store.saveAll(batch);
+                    saved.addAll(values.subList(i, end));
+                    i = end;
+                }
+            }
+        } catch (Throwable t) {
+            failures.add(t);
+        } finally {
+            writing.set(false);
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (interrupting) {
+            assertTrue(interruptedReads.get() > 0, "No read was interrupted");
+        }
+
+        return failures;
+    }
+
+    private void checkStored(List<String> values) throws IOException {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+
+        assertEquals(store.getCount(), values.size());
+
+        List<StringStoreObject> stored = store.toList();
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(stored.get(i).getValue(), sorted.get(i));
+            assertEquals(store.indexOf(new StringStoreObject(sorted.get(i)), 0), i);
+        }
+    }
+
+    private static List<String> values() {
+        List<String> values = new ArrayList<>();
+
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            values.add(String.format("key%05d", i));
+        }
+        Collections.shuffle(values, new Random(7));
+
+        return values;
+    }
+}
@@ -0,0 +1,191 @@
+package testng;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.file.DirectoryWalker;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.*;
+
+public class TestDirectoryWalker {
+    private Path root;
+    private ForkJoinPool pool;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        root = createTree();
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        deleteTree(root.toFile());
+    }
+
+    @Test
+    public void testIterator() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        Iterator<Path> iterator = DirectoryWalker.iterator(root);
+
+        while (iterator.hasNext()) {
+            paths.add(iterator.next());
+        }
+
+        assertEquals(paths.size(), new HashSet<>(paths).size(), "Path listed twice");
+        assertEquals(new TreeSet<>(paths), baseline(root));
+
+        // Depth first, the paths under any directory are listed together
+        Map<Path, int[]> ranges = new HashMap<>();
+        for (int i = 0; i < paths.size(); i++) {
+            for (Path dir = paths.get(i).getParent(); !dir.equals(root); dir = dir.getParent()) {
+                int[] range = ranges.get(dir);
+
+                if (range == null) {
+                    ranges.put(dir, new int[] {i, i, 1});
+                } else {
+                    range[1] = i;
+                    range[2]++;
+                }
+            }
+        }
+        for (Map.Entry<Path, int[]> range : ranges.entrySet()) {
+            assertEquals(range.getValue()[1] - range.getValue()[0] + 1, range.getValue()[2], range.getKey() + " split");
+        }
+
+        // Root file is listed by itself
+        Path file = root.resolve("d.txt");
+        iterator = DirectoryWalker.iterator(file);
+        assertEquals(iterator.next(), file);
+        assertFalse(iterator.hasNext());
+
+        assertFalse(DirectoryWalker.iterator(root.resolve("missing")).hasNext());
+        assertFalse(DirectoryWalker.iterator(root.resolve("e")).hasNext());
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        Set<Path> paths = new TreeSet<>();
+
+        try (Stream<Path> stream = DirectoryWalker.stream(root)) {
+            Iterator<Path> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                paths.add(iterator.next());
+            }
+        }
+        assertEquals(paths, baseline(root));
+
+        // Abandoned early, directory streams are released on close
+        try (Stream<Path> stream = DirectoryWalker.stream(root)) {
+            assertEquals(stream.limit(3).count(), 3L);
+        }
+    }
+
+    @Test
+    public void testListFilesParallel() throws IOException {
+        List<Path> paths = DirectoryWalker.listFilesParallel(root, pool);
+
+        assertEquals(paths.size(), new HashSet<>(paths).size(), "Path listed twice");
+        assertEquals(new TreeSet<>(paths), baseline(root));
+    }
+
+    @Test
+    public void testWalkParallelSkipsDirectories() throws IOException {
+        final Set<Path> visited = Collections.synchronizedSet(new TreeSet<Path>());
+        final AtomicInteger directories = new AtomicInteger();
+        final Path skipped = root.resolve("f");
+
+        DirectoryWalker.walkParallel(root, pool, new DirectoryWalker.Visitor() {
+            @Override
+            public boolean preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                assertTrue(attrs.isDirectory());
+                directories.incrementAndGet();
+
+                return !dir.equals(skipped);
+            }
+
+            @Override
+            public void visitFile(Path file, BasicFileAttributes attrs) {
+                assertFalse(attrs.isDirectory());
+                assertEquals(attrs.size(), file.toFile().length());
+                visited.add(file);
+            }
+        });
+
+        Set<Path> expected = baseline(root);
+        expected.removeAll(baseline(skipped));
+
+        assertEquals(visited, expected);
+        assertEquals(directories.get(), 107);
+    }
+
+    /**
+     * Non-directory paths under root listed by Files.walk
+     */
+    static Set<Path> baseline(Path root) throws IOException {
+        Set<Path> paths = new TreeSet<>();
+
+        try (Stream<Path> stream = Files.walk(root)) {
+            Iterator<Path> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+
+                if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    paths.add(path);
+                }
+            }
+        }
+
+        return paths;
+    }
+
+    /**
+     * Temporary tree with nested, empty and wide directories
+     */
+    static Path createTree() throws IOException {
+        Path root = Files.createTempDirectory("directory-walker");
+
+        for (String file : new String[] {
+            "a/a1.txt", "a/a2.log", "a/b/b1.txt", "a/b/c2/c.txt", "d.txt", "f/g/h/i/deep.txt", "f/g/g.log"
+        }) {
+            Path path = root.resolve(file);
+
+            Files.createDirectories(path.getParent());
+            Files.write(path, file.getBytes("UTF-8"));
+        }
+        Files.createDirectories(root.resolve("a/b/c"));
+        Files.createDirectories(root.resolve("e"));
+
+        for (int i = 0; i < 100; i++) {
+            Path dir = Files.createDirectories(root.resolve("w/" + i));
+
+            for (int j = 0; j < i % 5; j++) {
+                Files.write(dir.resolve(j + ((j % 2 == 0)? ".txt" : ".log")), new byte[j]);
+            }
+        }
+
+        return root;
+    }
+
+    static void deleteTree(File file) {
+        File[] children = file.listFiles();
+
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,98 @@
+package testng;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.file.FileLister;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.testng.Assert.*;
+
+public class TestFileLister {
+    private Path root;
+    private ForkJoinPool pool;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        root = TestDirectoryWalker.createTree();
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        pool.shutdown();
+        TestDirectoryWalker.deleteTree(root.toFile());
+    }
+
+    @Test
+    public void testFilePattern() throws IOException {
+        checkPattern("**", "");
+        checkPattern("**/*.txt", "", ".txt");
+        checkPattern("a/**/*.txt", "a/", ".txt");
+        checkPattern("w/*/*.log", "w/", ".log");
+        checkPattern("f/**", "f/");
+        checkPattern("*.txt", "d.txt");
+        checkPattern("missing/**", "missing/");
+    }
+
+    @Test
+    public void testIncludesAndExcludes() throws IOException {
+        FileLister lister = new FileLister();
+        File dir = root.toFile();
+
+        lister.addIncludes(dir, "**/*.txt", "a/**");
+        lister.addExclude(dir, "w/**");
+
+        Set<File> expected = new LinkedHashSet<>();
+        for (File file : baseline("", ".txt")) {
+            expected.add(file);
+        }
+        expected.addAll(baseline("a/", ""));
+        expected.removeAll(baseline("w/", ""));
+
+        List<File> files = lister.listFiles();
+        assertEquals(new TreeSet<>(files), new TreeSet<>(expected));
+        assertEquals(files.size(), expected.size(), "File listed twice");
+        assertEquals(lister.listFiles(pool), files);
+    }
+
+    /**
+     * Check sequential and parallel listing of a pattern against the files under root with the prefix and suffix
+     */
+    private void checkPattern(String pattern, String prefix, String suffix) throws IOException {
+        FileLister.FilePattern filePattern = new FileLister.FilePattern(root.toFile(), pattern);
+        List<File> files = filePattern.listFiles();
+
+        assertEquals(new TreeSet<>(files), baseline(prefix, suffix), pattern);
+        assertEquals(files.size(), new HashSet<>(files).size(), pattern + " listed a file twice");
+
+        // Same files in the same order
+        assertEquals(filePattern.listFiles(pool), files, pattern);
+    }
+
+    private void checkPattern(String pattern, String prefix) throws IOException {
+        checkPattern(pattern, prefix, "");
+    }
+
+    /**
+     * Files under root listed by Files.walk, with relative path starting with prefix and ending with suffix
+     */
+    private Set<File> baseline(String prefix, String suffix) throws IOException {
+        Set<File> files = new TreeSet<>();
+
+        for (Path path : TestDirectoryWalker.baseline(root)) {
+            String relative = root.relativize(path).toString().replace(File.separatorChar, '/');
+
+            if (relative.startsWith(prefix) && relative.endsWith(suffix)) {
+                files.add(path.toFile());
+            }
+        }
+
+        return files;
+    }
+}
@@ -0,0 +1,241 @@
+package testng;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.hash.FileHashResult;
+import utils.hash.HashAlgorithm;
+import utils.hash.HashUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.testng.Assert.*;
+
+public class TestHashUtil {
+    private File directory;
+    private List<File> files;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("hash-util").toFile();
+        files = new ArrayList<>();
+
+        Random random = new Random(17);
+        for (int i = 0; i < 24; i++) {
+            byte[] content = new byte[random.nextInt(1 << 16)];
+            random.nextBytes(content);
+
+            File file = new File(directory, "file" + i + ".bin");
+            Files.write(file.toPath(), content);
+            files.add(file);
+        }
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testHashFilesConcurrently() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            for (HashAlgorithm algorithm : new HashAlgorithm[] {HashAlgorithm.CRC32, HashAlgorithm.MD5, HashAlgorithm.SHA256}) {
+                Map<File, byte[]> digests = new HashMap<>();
+                Iterator<FileHashResult> results = HashUtil.hashFilesConcurrently(files, algorithm, executor);
+
+                while (results.hasNext()) {
+                    FileHashResult result = results.next();
+
+                    assertTrue(result.isSuccess());
+                    assertEquals(result.getLength(), result.getFile().length());
+                    assertNull(digests.put(result.getFile(), result.getDigest()), "File hashed twice");
+                }
+
+                assertEquals(digests.size(), files.size());
+                for (File file : files) {
+                    assertEquals(digests.get(file), HashUtil.getFileHashDigest(file, algorithm));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testIndividualFilesHashDigest() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Map<File, byte[]> digests = HashUtil.getIndividualFilesHashDigest(files, HashAlgorithm.SHA1, executor);
+            List<byte[]> expected = HashUtil.getIndividualFilesHashDigest(new ArrayList<Object>(files), HashAlgorithm.SHA1);
+
+            // Iteration order of the files is kept
+            assertEquals(new ArrayList<>(digests.keySet()), files);
+
+            int i = 0;
+            for (byte[] digest : digests.values()) {
+                assertEquals(digest, expected.get(i++));
+            }
+
+            // Missing files have an empty digest, as when hashed sequentially
+            File missing = new File(directory, "missing.bin");
+            assertEquals(HashUtil.getIndividualFilesHashDigest(Arrays.asList(missing), HashAlgorithm.SHA1, executor).get(missing), new byte[0]);
+
+            // Unreadable files fail
+            List<File> withUnreadable = new ArrayList<>(files);
+            withUnreadable.add(directory);
+            try {
+                HashUtil.getIndividualFilesHashDigest(withUnreadable, HashAlgorithm.SHA1, executor);
+                fail("Directory should not be readable as a file");
+            } catch (IOException e) {
+                // Expected
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMaxInFlightBytes() throws IOException {
+        long largest = 0;
+        for (File file : files) {
+            largest = Math.max(largest, file.length());
+        }
+
+        // Every file is larger than the budget, so only one may be in flight at a time
+        checkInFlight(1, 1);
+
+        // Budget of about three files
+        checkInFlight(largest * 3, Integer.MAX_VALUE);
+
+        // Budget larger than all files
+        checkInFlight(Long.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testMappedFileHash() throws IOException {
+        int window = 4096;
+        Random random = new Random(23);
+
+        // Empty, just below, at and above the mapping window, and several windows with a partial one
+        for (int size : new int[] {0, window - 1, window, window + 1, window * 3 + 5}) {
+            byte[] content = new byte[size];
+            random.nextBytes(content);
+
+            File file = new File(directory, "mapped" + size + ".bin");
+            Files.write(file.toPath(), content);
+
+            assertEquals(HashUtil.getMappedFileCrc32HashValue(file, window), HashUtil.getFileCrc32HashValue(file), "Size: " + size);
+            assertEquals(HashUtil.getMappedFileCrc32HashValue(file), HashUtil.getFileCrc32HashValue(file), "Size: " + size);
+
+            for (HashAlgorithm algorithm : new HashAlgorithm[] {HashAlgorithm.CRC32, HashAlgorithm.MD5, HashAlgorithm.SHA1, HashAlgorithm.SHA256}) {
+                String message = algorithm + ", size: " + size;
+
+                assertEquals(HashUtil.getMappedFileHashDigest(file, algorithm, window), HashUtil.getFileHashDigest(file, algorithm), message);
+                assertEquals(HashUtil.getMappedFileHashDigest(file, algorithm), HashUtil.getFileHashDigest(file, algorithm), message);
+                assertEquals(HashUtil.getMappedFileHash(file, algorithm, window), HashUtil.getFileHash(file, algorithm), message);
+                assertEquals(HashUtil.getMappedFileHash(file, algorithm), HashUtil.getFileHash(file, algorithm), message);
+            }
+        }
+
+        // Missing files, as when hashed by stream
+        File missing = new File(directory, "missing.bin");
+        assertEquals(HashUtil.getMappedFileCrc32HashValue(missing), -1L);
+        assertEquals(HashUtil.getMappedFileHashDigest(missing, HashAlgorithm.MD5), new byte[0]);
+
+        try {
+            HashUtil.getMappedFileHashDigest(files.get(0), HashAlgorithm.MD5, 0);
+            fail("Window size must be positive");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testFailedTaskReleasesBudget() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<File> failing = new ArrayList<>();
+
+        // Files failing with a runtime exception while hashed, not reported as an IO failure
+        for (File file : files) {
+            failing.add(new File(file.getPath()) {
+                @Override
+                public boolean exists() {
+                    throw new IllegalStateException("Not accessible: " + getName());
+                }
+            });
+        }
+
+        try {
+            Iterator<FileHashResult> results = HashUtil.hashFilesConcurrently(failing, HashAlgorithm.MD5, executor, 1);
+            int failures = 0;
+
+            while (results.hasNext()) {
+                try {
+                    results.next();
+                    fail("Hashing should fail");
+                } catch (RuntimeException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                    failures++;
+                }
+            }
+
+            // Failed files leave the budget, so every file is still submitted and taken
+            assertEquals(failures, files.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Hash with an executor running tasks on submission, in file order, and check the files submitted but not
+     * yet returned against the budget whenever a file is submitted
+     */
+    private void checkInFlight(final long maxInFlightBytes, int maxInFlightFiles) throws IOException {
+        // Submitted files, files and bytes in flight, peak files in flight
+        final long[] state = new long[4];
+
+        Executor direct = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                long length = files.get((int) state[0]++).length();
+
+                state[1]++;
+                state[2] += length;
+                state[3] = Math.max(state[3], state[1]);
+
+                // A single file may exceed the budget, more may not
+                assertTrue(state[1] == 1 || state[2] <= maxInFlightBytes, "Bytes in flight: " + state[2]);
+
+                command.run();
+            }
+        };
+
+        Iterator<FileHashResult> results = HashUtil.hashFilesConcurrently(files, HashAlgorithm.SHA1, direct, maxInFlightBytes);
+        int count = 0;
+
+        while (results.hasNext()) {
+            FileHashResult result = results.next();
+
+            assertTrue(result.isSuccess());
+            assertEquals(result.getDigest(), HashUtil.getFileHashDigest(result.getFile(), HashAlgorithm.SHA1));
+
+            state[1]--;
+            state[2] -= result.getLength();
+            count++;
+        }
+
+        assertEquals(count, files.size());
+        assertEquals(state[1], 0L);
+        assertTrue(state[3] <= maxInFlightFiles, "Files in flight: " + state[3]);
+    }
+}
@@ -0,0 +1,218 @@
+package testng;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.hash.HashUtil;
+import utils.sync.IncrementalLogEntryHolder;
+import utils.sync.LogEntry;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.testng.Assert.*;
+
+public class TestIncrementalLogEntryHolder {
+    private File directory, logFile;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("sync-log").toFile();
+        logFile = new File(directory, "sync.log");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        File[] files = directory.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testLoadAppendRoundTrip() throws IOException {
+        File a = writeFile("a.txt", "alpha"), b = writeFile("b.txt", "beta");
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertTrue(holder.checkModified(a));
+            assertTrue(holder.checkModified(b));
+            assertFalse(holder.checkModified(a));
+        }
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertEquals(holder.size(), 2);
+
+            LogEntry entry = holder.getLogEntry(a.getAbsolutePath());
+            assertEquals(entry.getHash(), HashUtil.getFileSha1Hash(a));
+            assertEquals(entry.getLength(), a.length());
+            assertEquals(entry.getLastModificationTime(), a.lastModified());
+
+            assertFalse(holder.checkModified(a));
+
+            writeFile("b.txt", "beta, changed");
+            assertTrue(b.setLastModified(b.lastModified() + 2000));
+            assertTrue(holder.checkModified(b));
+        }
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertEquals(holder.getLogEntry(b.getAbsolutePath()).getHash(), HashUtil.getFileSha1Hash(b));
+            assertFalse(holder.checkModified(a));
+            assertFalse(holder.checkModified(b));
+
+            // Entries not checked since loaded are removed
+            assertTrue(a.delete());
+            holder.removeNotComparedEntries();
+            assertEquals(holder.size(), 2);
+        }
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertFalse(holder.checkModified(b));
+            holder.removeNotComparedEntries();
+            assertEquals(holder.size(), 1);
+        }
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertNull(holder.getLogEntry(a.getAbsolutePath()));
+            assertNotNull(holder.getLogEntry(b.getAbsolutePath()));
+        }
+    }
+
+    @Test
+    public void testTruncatedRecordRecovery() throws IOException {
+        File a = writeFile("a.txt", "alpha"), b = writeFile("b.txt", "beta");
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            holder.checkModified(a);
+        }
+
+        long validLength = logFile.length();
+        byte[] record = Files.readAllBytes(logFile.toPath());
+
+        // Append the first half of another PUT record, as left by a crash while appending
+        try (FileOutputStream out = new FileOutputStream(logFile, true)) {
+            out.write(record, 5, (record.length - 5) / 2);
+        }
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertEquals(holder.size(), 1);
+            assertEquals(logFile.length(), validLength, "Partial record should be truncated");
+
+            assertFalse(holder.checkModified(a));
+            assertTrue(holder.checkModified(b));
+        }
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertEquals(holder.size(), 2);
+            assertEquals(holder.getLogEntry(b.getAbsolutePath()).getHash(), HashUtil.getFileSha1Hash(b));
+        }
+    }
+
+    @Test
+    public void testUnchangedLengthAndTimeFastPath() throws IOException {
+        File a = writeFile("a.txt", "alpha");
+        long lastModificationTime = a.lastModified();
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertTrue(holder.checkModified(a));
+
+            // Same length and time are trusted, the changed content is not hashed
+            writeFile("a.txt", "omega");
+            assertTrue(a.setLastModified(lastModificationTime));
+            assertFalse(holder.checkModified(a));
+
+            // Touched without content change, hashed and recorded with the new time
+            writeFile("a.txt", "alpha");
+            assertTrue(a.setLastModified(lastModificationTime + 2000));
+            assertFalse(holder.checkModified(a));
+            assertEquals(holder.getLogEntry(a.getAbsolutePath()).getLastModificationTime(), a.lastModified());
+
+            // Changed content with the same length and a new time
+            writeFile("a.txt", "omega");
+            assertTrue(a.setLastModified(lastModificationTime + 4000));
+            assertTrue(holder.checkModified(a));
+            assertEquals(holder.getLogEntry(a.getAbsolutePath()).getHash(), HashUtil.getFileSha1Hash(a));
+        }
+    }
+
+    @Test
+    public void testHashFailure() throws IOException {
+        // A directory in place of a file cannot be hashed, a file of the same length is replaced by one
+        File probe = new File(directory, "probe");
+        assertTrue(probe.mkdir());
+        int directoryLength = (int) probe.length();
+
+        File a = writeFile("a.txt", new String(new char[directoryLength]).replace('\0', 'a'));
+        long lastModificationTime = a.lastModified();
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertTrue(holder.checkModified(a));
+
+            // New file failed to hash is reported without an entry
+            assertTrue(holder.checkModified(probe));
+            assertNull(holder.getLogEntry(probe.getAbsolutePath()));
+
+            assertTrue(a.delete());
+            assertTrue(a.mkdir());
+            assertEquals(a.length(), (long) directoryLength);
+            assertTrue(a.setLastModified(lastModificationTime + 2000));
+
+            // Same length, new time and failed to hash, reported and the entry kept as it is
+            assertTrue(holder.checkModified(a));
+            assertEquals(holder.getLogEntry(a.getAbsolutePath()).getLastModificationTime(), lastModificationTime);
+
+            // Readable again with the same length and time, hashed rather than trusted
+            assertTrue(a.delete());
+            writeFile("a.txt", new String(new char[directoryLength]).replace('\0', 'b'));
+            assertTrue(a.setLastModified(lastModificationTime + 2000));
+            assertTrue(holder.checkModified(a));
+            assertEquals(holder.getLogEntry(a.getAbsolutePath()).getHash(), HashUtil.getFileSha1Hash(a));
+
+            holder.removeNotComparedEntries();
+            assertEquals(holder.size(), 1);
+        }
+    }
+
+    @Test
+    public void testCompactionOnClose() throws IOException {
+        File a = writeFile("a.txt", "alpha");
+        long lastModificationTime = a.lastModified();
+        long singleRecordLength;
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            holder.checkModified(a);
+            holder.flush();
+            singleRecordLength = logFile.length();
+
+            // Every touch appends a record superseding the previous one
+            for (int i = 1; i <= 1100; i++) {
+                assertTrue(a.setLastModified(lastModificationTime + i * 1000L));
+                assertFalse(holder.checkModified(a));
+            }
+
+            holder.flush();
+            assertTrue(logFile.length() > singleRecordLength * 1000);
+        }
+
+        assertEquals(logFile.length(), singleRecordLength, "Log should be compacted to the live entry");
+        assertFalse(new File(logFile.getAbsolutePath() + ".compact").exists());
+
+        try (IncrementalLogEntryHolder holder = new IncrementalLogEntryHolder(logFile)) {
+            assertEquals(holder.size(), 1);
+            assertEquals(holder.getLogEntry(a.getAbsolutePath()).getLastModificationTime(), a.lastModified());
+            assertFalse(holder.checkModified(a));
+        }
+    }
+
+    private File writeFile(String name, String content) throws IOException {
+        File file = new File(directory, name);
+
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+        return file;
+    }
+}
@@ -0,0 +1,295 @@
+package testng;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.data.DoubleSortedList;
+import utils.data.IntSortedList;
+import utils.data.LongSortedList;
+import utils.math.MathUtil;
+
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class TestIntSortedList {
+    private int testSize = 10000;
+
+    private IntSortedList list;
+
+    @BeforeMethod
+    public void setup() {
+        // Small leaves to have a few levels of inner nodes
+        list = new IntSortedList(8, false);
+
+        ArrayList<Integer> aList = new ArrayList<>(testSize);
+
+        for (int i = 1; i <= testSize; i++) {
+            aList.add(i);
+        }
+
+        while (!aList.isEmpty()) {
+            int n = MathUtil.randomInteger(0, aList.size()-1);
+
+            list.add(aList.get(n).intValue());
+            aList.remove(n);
+        }
+    }
+
+    @Test
+    public void testAdd() {
+        assertEquals(list.size(), testSize);
+
+        int[] array = list.toIntArray();
+        assertEquals(array.length, testSize);
+
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(array[i], i + 1);
+            assertEquals(list.getInt(i), i + 1);
+        }
+
+        assertEquals(list.getMinInt(), 1);
+        assertEquals(list.getMaxInt(), testSize);
+    }
+
+    @Test
+    public void testAddDuplicate() {
+        for (int i = 1; i <= testSize; i++) {
+            assertFalse(list.add(i, false));
+        }
+        assertEquals(list.size(), testSize);
+
+        list.addAll(list.toIntArray());
+        assertEquals(list.size(), testSize * 2);
+
+        for (int i = 1; i <= testSize; i++) {
+            assertEquals(list.indexOf(i), (i - 1) * 2);
+            assertEquals(list.lastIndexOf(i), (i - 1) * 2 + 1);
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        for (int i = 1; i <= testSize; i += 2) {
+            assertTrue(list.removeValue(i));
+        }
+        assertFalse(list.removeValue(1));
+        assertEquals(list.size(), testSize / 2);
+
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(list.getInt(i), (i + 1) * 2);
+        }
+
+        while (!list.isEmpty()) {
+            list.removeInt(MathUtil.randomInteger(0, list.size()-1));
+        }
+        assertNull(list.getMin());
+    }
+
+    @Test
+    public void testIndexOf() {
+        for (int i = 1; i <= testSize; i++) {
+            assertEquals(list.indexOf(i), i - 1);
+            assertEquals(list.indexOf((Integer) i), i - 1);
+        }
+
+        assertEquals(list.indexOf(0), -1);
+        assertEquals(list.indexOf(testSize + 1), -1);
+    }
+
+    @Test
+    public void testRangeIndexOf() {
+        for (int i = 0; i <= testSize + 1; i++) {
+            assertEquals(list.smallerIndexOf(i), Math.max(Math.min(i - 2, testSize - 1), -1));
+            assertEquals(list.smallerOrEqualsIndexOf(i), Math.min(i - 1, testSize - 1));
+            assertEquals(list.greaterIndexOf(i), (i < testSize)? i : -1);
+            assertEquals(list.greaterOrEqualsIndexOf(i), (i <= testSize)? Math.max(i - 1, 0) : -1);
+        }
+    }
+
+    @Test
+    public void testIterator() {
+        Iterator<Integer> iterator = list.iterator();
+
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(list.size(), testSize / 2);
+
+        PrimitiveIterator.OfInt values = list.intIterator();
+        int expected = 1;
+
+        while (values.hasNext()) {
+            assertEquals(values.nextInt(), expected);
+            expected += 2;
+        }
+    }
+
+    @Test
+    public void testBidirectionalIterator() {
+        ListIterator<Integer> iterator = list.listIterator(testSize);
+
+        for (int i = testSize; i > 0; i--) {
+            assertEquals(iterator.previousIndex(), i - 1);
+            assertEquals(iterator.previous().intValue(), i);
+        }
+        assertFalse(iterator.hasPrevious());
+
+        // Change direction across leaf boundaries
+        for (int i = 1; i <= 20; i++) {
+            assertEquals(iterator.next().intValue(), i);
+        }
+        assertEquals(iterator.previous().intValue(), 20);
+        assertEquals(iterator.previous().intValue(), 19);
+        assertEquals(iterator.next().intValue(), 19);
+
+        // Remove after moving backwards
+        iterator = list.listIterator(testSize / 2);
+        assertEquals(iterator.previous().intValue(), testSize / 2);
+        iterator.remove();
+        assertEquals(iterator.previous().intValue(), testSize / 2 - 1);
+        assertEquals(iterator.next().intValue(), testSize / 2 - 1);
+        assertEquals(iterator.next().intValue(), testSize / 2 + 1);
+        assertEquals(list.size(), testSize - 1);
+        assertEquals(list.indexOf(testSize / 2), -1);
+    }
+
+    @Test
+    public void testLongSortedList() {
+        LongSortedList longs = new LongSortedList(8, false);
+
+        for (int i = 0; i < testSize; i++) {
+            longs.add(list.getInt(i) * (long) Integer.MAX_VALUE);
+        }
+
+        // Remove
+        for (int i = 1; i <= testSize; i += 2) {
+            assertTrue(longs.removeValue(i * (long) Integer.MAX_VALUE));
+        }
+        assertFalse(longs.removeValue(Integer.MAX_VALUE));
+        assertEquals(longs.size(), testSize / 2);
+        assertEquals(longs.removeLong(0), 2L * Integer.MAX_VALUE);
+
+        // Range queries, values are now 4, 6, 8, ... times Integer.MAX_VALUE
+        long step = Integer.MAX_VALUE;
+        assertEquals(longs.greaterOrEqualsIndexOf(4 * step), 0);
+        assertEquals(longs.greaterIndexOf(4 * step), 1);
+        assertEquals(longs.greaterIndexOf(5 * step), 1);
+        assertEquals(longs.smallerIndexOf(4 * step), -1);
+        assertEquals(longs.smallerOrEqualsIndexOf(4 * step), 0);
+        assertEquals(longs.smallerIndexOf(7 * step), 1);
+        assertEquals(longs.greaterIndexOf(testSize * step), -1);
+        assertEquals(longs.lowerBound(Long.MIN_VALUE), 0);
+        assertEquals(longs.upperBound(Long.MAX_VALUE), longs.size());
+
+        // Bidirectional iteration
+        ListIterator<Long> iterator = longs.listIterator(longs.size());
+        for (int i = longs.size() - 1; i >= 0; i--) {
+            assertEquals(iterator.previous().longValue(), (i + 2) * 2 * step);
+        }
+        assertFalse(iterator.hasPrevious());
+        assertEquals(iterator.next().longValue(), 4 * step);
+
+        PrimitiveIterator.OfLong values = longs.longIterator();
+        int count = 0;
+        while (values.hasNext()) {
+            assertEquals(values.nextLong(), (count + 2) * 2 * step);
+            count++;
+        }
+        assertEquals(count, longs.size());
+    }
+
+    @Test
+    public void testDoubleSortedList() {
+        DoubleSortedList doubles = new DoubleSortedList(8, false);
+
+        for (int i = 0; i < testSize; i++) {
+            doubles.add(list.getInt(i) / 2.0);
+        }
+        doubles.add(Double.NaN);
+        doubles.add(0.0);
+        doubles.add(-0.0);
+        doubles.add(Double.NaN);
+
+        // NaN is greatest and -0.0 is smaller than 0.0, as Double.compare
+        assertEquals(doubles.getDouble(0), -0.0);
+        assertEquals(Double.doubleToRawLongBits(doubles.getDouble(0)), Double.doubleToRawLongBits(-0.0));
+        assertEquals(Double.doubleToRawLongBits(doubles.getDouble(1)), Double.doubleToRawLongBits(0.0));
+        assertEquals(doubles.indexOf(-0.0), 0);
+        assertEquals(doubles.indexOf(0.0), 1);
+        assertEquals(doubles.indexOf(Double.NaN), testSize + 2);
+        assertEquals(doubles.lastIndexOf(Double.NaN), testSize + 3);
+
+        // Range queries
+        assertEquals(doubles.smallerIndexOf(0.0), 0);
+        assertEquals(doubles.greaterIndexOf(-0.0), 1);
+        assertEquals(doubles.greaterIndexOf(Double.POSITIVE_INFINITY), testSize + 2);
+        assertEquals(doubles.smallerIndexOf(Double.NaN), testSize + 1);
+        assertEquals(doubles.greaterOrEqualsIndexOf(1.0), 3);
+        assertEquals(doubles.smallerOrEqualsIndexOf(1.0), 3);
+        assertEquals(doubles.greaterIndexOf(Double.NaN), -1);
+
+        // Remove
+        assertTrue(doubles.removeValue(Double.NaN));
+        assertTrue(doubles.removeValue(-0.0));
+        assertFalse(doubles.removeValue(-0.0));
+        assertEquals(Double.doubleToRawLongBits(doubles.getDouble(0)), Double.doubleToRawLongBits(0.0));
+        assertTrue(Double.isNaN(doubles.getMaxDouble()));
+        assertTrue(doubles.removeValue(Double.NaN));
+        assertFalse(doubles.contains(Double.NaN));
+        assertEquals(doubles.getMaxDouble(), testSize / 2.0);
+        for (int i = 1; i <= testSize; i += 2) {
+            assertTrue(doubles.removeValue(i / 2.0));
+        }
+        assertEquals(doubles.size(), testSize / 2 + 1);
+
+        // Bidirectional iteration, values are now 0.0, 1.0, 2.0, ...
+        ListIterator<Double> iterator = doubles.listIterator(doubles.size());
+        for (int i = doubles.size() - 1; i >= 0; i--) {
+            assertEquals(iterator.previous(), (double) i);
+        }
+        assertFalse(iterator.hasPrevious());
+        assertEquals(iterator.next(), 0.0);
+        assertEquals(iterator.next(), 1.0);
+        assertEquals(iterator.previous(), 1.0);
+
+        PrimitiveIterator.OfDouble values = doubles.doubleIterator();
+        for (int i = 0; i < doubles.size(); i++) {
+            assertEquals(values.nextDouble(), (double) i);
+        }
+        assertFalse(values.hasNext());
+    }
+
+    @Test
+    public void testClone() {
+        IntSortedList clone = list.clone();
+
+        assertEquals(clone, list);
+        assertEquals(list.getSubList(10, 20), Arrays.asList(11, 12, 13, 14, 15, 16, 17, 18, 19, 20));
+
+        clone.removeInt(0);
+        assertEquals(list.size(), testSize);
+    }
+
+    @Test
+    public void testOffHeap() {
+        LongSortedList longs = new LongSortedList(true);
+        DoubleSortedList doubles = new DoubleSortedList(16, true);
+
+        for (int i = 0; i < testSize; i++) {
+            longs.add(list.getInt(testSize - i - 1) * (long) Integer.MAX_VALUE);
+            doubles.add(list.getInt(i) / 2.0);
+        }
+
+        for (int i = 0; i < testSize; i++) {
+            assertEquals(longs.getLong(i), (i + 1) * (long) Integer.MAX_VALUE);
+            assertEquals(doubles.getDouble(i), (i + 1) / 2.0);
+        }
+
+        doubles.add(Double.NaN);
+        doubles.add(-0.0);
+        assertEquals(doubles.getDouble(0), -0.0);
+        assertTrue(Double.isNaN(doubles.getMaxDouble()));
+    }
+}
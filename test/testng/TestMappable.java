@@ -7,6 +7,7 @@ import org.testng.annotations.Test;
 import utils.data.DataComparator;
 import utils.data.DataManipulator;
 import utils.data.Mappable;
+import utils.data.SortedListAvl;
 import utils.data.query.*;
 import utils.math.MathUtil;
 import utils.string.StringUtil;
@@ -346,6 +347,119 @@ public class TestMappable {
         assertEquals(results.size(), 0, "Results size should be empty");
     }
 
+    @Test(groups = {"matcher"})
+    public void testCompiledMatcherGroup() {
+        MappableQueryMatcherGroup<String, MappableQueryMatcher> matcherGroup =
+            new MappableQueryMatcherGroup<String, MappableQueryMatcher>();
+
+        matcherGroup.setKeyMatcher("stringValue", MappableLikeMatcher.getInstance());
+        matcherGroup.setKeyMatcher("integerValue", MappableGreaterMatcher.getInstance());
+        matcherGroup.setKeyMatcher("bigDecimalValue", MappableSmallerMatcher.getInstance());
+
+        Map<String, Object> sample = new HashMap<String, Object>();
+        sample.put("stringValue", "?b*");
+        sample.put("integerValue", 2);
+        sample.put("bigDecimalValue", new BigDecimal("11.11"));
+
+        for (QueryJoinCondition joinCondition : QueryJoinCondition.values()) {
+            matcherGroup.setJoinCondition(joinCondition);
+
+            CompiledMappableQuery<String, Object> compiledQuery = matcherGroup.compile(sample);
+            for (TestMappableModel mappable : mappables) {
+                assertEquals(compiledQuery.match(mappable), matcherGroup.match(mappable, sample), joinCondition.toString());
+            }
+        }
+
+        // Key without matcher never matches with AND
+        matcherGroup.setJoinCondition(QueryJoinCondition.AND);
+        sample.put("noMatcherValue", 1);
+        assertEquals(MappableQueryer.query(mappables, sample, matcherGroup).size(), 0);
+
+        // Selectivity estimated from the rows
+        sample = new HashMap<String, Object>();
+        sample.put("integerValue", 9000);
+        sample.put("bigDecimalValue", new BigDecimal("9000"));
+
+        CompiledMappableQuery<String, Object> compiledQuery = matcherGroup.compile(sample, randomMappables);
+        assertEquals(compiledQuery.getKeyOrder(), Arrays.asList("integerValue", "bigDecimalValue"));
+        List<TestMappableModel> expected = new ArrayList<TestMappableModel>();
+        for (TestMappableModel mappable : randomMappables) {
+            if (mappable.getIntegerValue() > 9000 && mappable.getBigDecimalValue().compareTo(new BigDecimal("9000")) < 0) {
+                expected.add(mappable);
+            }
+        }
+        assertEquals(MappableQueryer.query(randomMappables, compiledQuery), expected);
+
+        matcherGroup.setJoinCondition(QueryJoinCondition.OR);
+        compiledQuery = matcherGroup.compile(sample, randomMappables);
+        assertEquals(compiledQuery.getKeyOrder(), Arrays.asList("bigDecimalValue", "integerValue"));
+
+        // Subclass of the LIKE matcher keeps its own matching
+        matcherGroup = new MappableQueryMatcherGroup<String, MappableQueryMatcher>();
+        matcherGroup.setKeyMatcher("stringValue", new MappableLikeMatcher() {
+            @Override
+            public boolean match(Mappable mappable, Object key, Object value) {
+                return super.match(mappable, key, value.toString().toLowerCase());
+            }
+        });
+
+        sample = DataManipulator.<String, Object>createSimpleMap("stringValue", "AB*");
+        compiledQuery = matcherGroup.compile(sample);
+        for (TestMappableModel mappable : mappables) {
+            assertEquals(compiledQuery.match(mappable), matcherGroup.match(mappable, sample));
+        }
+        assertTrue(MappableQueryer.query(mappables, compiledQuery).size() > 0);
+
+        // Subclass of the matcher group keeps its own matching, it is not compiled
+        final TestMappableModel first = mappables.get(0);
+        matcherGroup = new MappableQueryMatcherGroup<String, MappableQueryMatcher>() {
+            @Override
+            public boolean match(Mappable mappable, Map sample) {
+                return mappable == first;
+            }
+        };
+        matcherGroup.setKeyMatcher("stringValue", MappableEqualMatcher.getInstance());
+
+        sample = DataManipulator.<String, Object>createSimpleMap("stringValue", "zzz");
+        assertEquals(MappableQueryer.query(mappables, sample, matcherGroup), Arrays.asList(first));
+        assertEquals(
+            MappableQueryer.<TestMappableModel, String, Object>queryCursor(mappables, sample, matcherGroup).toList(),
+            Arrays.asList(first)
+        );
+        assertEquals(MappableQueryer.parallelQuery(mappables, sample, matcherGroup, 4), Arrays.asList(first));
+    }
+
+    @Test(groups = {"query"})
+    public void testParallelQuery() {
+        Map<String, Object> sample = DataManipulator.<String, Object>createSimpleMap("stringValue", "abc");
+
+        assertEquals(MappableQueryer.parallelQuery(mappables, sample, 4), MappableQueryer.query(mappables, sample));
+        assertEquals(
+            MappableQueryer.parallelQuery(new LinkedList<TestMappableModel>(mappables), "stringValue", (Object)"abc", 4),
+            MappableQueryer.query(mappables, "stringValue", "abc")
+        );
+
+        MappableQueryMatcherGroup<String, MappableQueryMatcher> matcherGroup =
+            new MappableQueryMatcherGroup<String, MappableQueryMatcher>(QueryJoinCondition.OR);
+        matcherGroup.setKeyMatcher("integerValue", MappableGreaterMatcher.getInstance());
+        matcherGroup.setKeyMatcher("bigDecimalValue", MappableSmallerMatcher.getInstance());
+
+        sample = new HashMap<String, Object>();
+        sample.put("integerValue", 9000);
+        sample.put("bigDecimalValue", new BigDecimal("1000"));
+
+        List<TestMappableModel> results = MappableQueryer.parallelQuery(randomMappables, sample, matcherGroup, 16);
+        assertEquals(results, MappableQueryer.query(randomMappables, sample, matcherGroup));
+        assertTrue(results.size() > 0, "Results size should not be empty");
+
+        List<Map<String, Object>> maps = new ArrayList<Map<String, Object>>();
+        for (TestMappableModel m : randomMappables) {
+            maps.add(m.toMap());
+        }
+        Object value = randomMappables.get(0).getIntegerValue();
+        assertEquals(MapQueryer.parallelQuery(maps, "integerValue", value, 16), MapQueryer.query(maps, "integerValue", value));
+    }
+
     @Test(groups = {"query"})
     public void testKeyValueQuery() {
         List<TestMappableModel> results = MappableQueryer.query(mappables, "stringValue", "abc");
@@ -387,6 +501,81 @@ public class TestMappable {
         assertTrue(results.size() == 0, "Size should be zero!");
     }
 
+    @Test(groups = {"query"})
+    public void testQueryCursor() {
+        Map<String, Object> sample = DataManipulator.<String, Object>createSimpleMap("stringValue", "abc");
+        List<TestMappableModel> expected = MappableQueryer.query(mappables, sample);
+
+        assertTrue(expected.size() > 2, "Size should be greater than 2!");
+
+        assertEquals(MappableQueryer.<TestMappableModel, String, Object>queryCursor(mappables, sample).toList(), expected);
+        assertEquals(MappableQueryer.queryCursor(mappables, "stringValue", (Object)"abc").count(), (long)expected.size());
+        assertEquals(
+            MappableQueryer.<TestMappableModel, String, Object>queryCursor(mappables, sample).skip(1).limit(1).toList(),
+            expected.subList(1, 2)
+        );
+
+        QueryCursor<TestMappableModel> cursor = MappableQueryer.queryCursor(mappables, sample);
+        assertSame(cursor.next(), expected.get(0));
+        try {
+            cursor.limit(1);
+            fail("Expected IllegalStateException but none is thrown!");
+        } catch (IllegalStateException ise) {
+            // Pass
+        }
+
+        int sum = 0;
+        for (TestMappableModel m : expected) {
+            sum += m.getIntegerValue();
+        }
+        int streamSum = MappableQueryer.<TestMappableModel, String, Object>queryCursor(mappables, sample).stream()
+            .mapToInt(new java.util.function.ToIntFunction<TestMappableModel>() {
+                @Override
+                public int applyAsInt(TestMappableModel m) {
+                    return m.getIntegerValue();
+                }
+            }).sum();
+        assertEquals(streamSum, sum);
+
+        List<TestMappableModel> max = MappableQueryer.queryMax(
+            MappableQueryer.<TestMappableModel, String, Object>queryCursor(mappables, sample), "integerValue"
+        );
+        assertEquals(max, MappableQueryer.queryMax(expected, "integerValue"));
+
+        List<Map<String, Object>> maps = new ArrayList<Map<String, Object>>();
+        for (TestMappableModel m : mappables) {
+            maps.add(m.toMap());
+        }
+        assertEquals(MapQueryer.queryCursor(maps, sample).limit(2).toList(), MapQueryer.query(maps, sample).subList(0, 2));
+
+        // Sorted lists without subList support
+        MappableIndexComparator<String, Object> indexComparator =
+            new DefaultMappableIndexComparator<String, Object>("stringValue");
+        SortedListAvl<TestMappableModel> sortedMappables =
+            new SortedListAvl<TestMappableModel>(mappables, (Comparator<TestMappableModel>)(Comparator)indexComparator);
+
+        List<TestMappableModel> sortedExpected = MappableQueryer.query(sortedMappables, sample, indexComparator);
+        assertEquals(sortedExpected.size(), expected.size());
+        assertEquals(
+            MappableQueryer.<TestMappableModel, String, Object>queryCursor(sortedMappables, sample, indexComparator).toList(),
+            sortedExpected
+        );
+        assertEquals(
+            MappableQueryer.<TestMappableModel, String, Object>queryCursor(
+                sortedMappables, DataManipulator.<String, Object>createSimpleMap("stringValue", "no such value"), indexComparator
+            ).count(),
+            0L
+        );
+
+        SortedListAvl<Map<String, Object>> sortedMaps = new SortedListAvl<Map<String, Object>>(
+            maps, (Comparator<Map<String, Object>>)(Comparator)new DefaultMapIndexComparator<String, Object>("stringValue")
+        );
+        assertEquals(
+            MapQueryer.queryCursor(sortedMaps, sample, new DefaultMapIndexComparator<String, Object>("stringValue")).toList(),
+            MapQueryer.query(sortedMaps, sample, new DefaultMapIndexComparator<String, Object>("stringValue"))
+        );
+    }
+
     @Test(groups = {"matcher"})
     public void testQueryMatcher() {
         List<TestMappableModel> results = MappableQueryer.query(
@@ -4,12 +4,15 @@ import data.TestMappableModel;
 import org.testng.annotations.Test;
 import utils.data.DataManipulator;
 import utils.data.query.DefaultMappableIndexComparator;
+import utils.data.query.MappableIndex;
 import utils.data.query.MappableIndexComparator;
 import utils.data.query.MappableStore;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.testng.Assert.*;
 
@@ -196,6 +199,127 @@ public class TestMappableStore {
         assertEquals(results.size(), 0, "Expected empty results, but actual is ["+results.size()+"]");
     }
 
+    @Test
+    public void testSecondaryIndexes() {
+        MappableStore<TestMappableModel, String, Object> mappableStore = createInitialUnorderedMappableStore();
+
+        MappableIndex<TestMappableModel, String, Object> hashIndex = mappableStore.addHashIndex("string", "stringValue");
+        MappableIndex<TestMappableModel, String, Object> sortedIndex = mappableStore.addSortedIndex(
+            "bigDecimal", new DefaultMappableIndexComparator<String, Object>("bigDecimalValue")
+        );
+
+        assertEquals(mappableStore.getIndexNames(), new HashSet<>(Arrays.asList("string", "bigDecimal")));
+
+        Map<String, Object> sample = DataManipulator.<String, Object>createSimpleMap("stringValue", "2, 20");
+        assertSame(mappableStore.selectIndex(sample), hashIndex);
+        assertEquals(mappableStore.query(sample).size(), 2);
+
+        sample = DataManipulator.<String, Object>createSimpleMap("bigDecimalValue", new BigDecimal("10"));
+        assertSame(mappableStore.selectIndex(sample), sortedIndex);
+        assertEquals(mappableStore.query(sample).size(), 6);
+
+        sample = DataManipulator.createMap(
+            Arrays.asList("stringValue", "bigDecimalValue"), Arrays.<Object>asList("2, 20", new BigDecimal("20"))
+        );
+        assertSame(mappableStore.selectIndex(sample), hashIndex, "Hash index has the smaller candidate set");
+        assertEquals(mappableStore.query(sample).size(), 2);
+
+        sample = DataManipulator.createMap(
+            Arrays.asList("stringValue", "bigDecimalValue"), Arrays.<Object>asList("2, 20", new BigDecimal("10"))
+        );
+        assertEquals(mappableStore.query(sample).size(), 0);
+
+        List<TestMappableModel> results = mappableStore.query("bigDecimalValue", new BigDecimal("20"));
+        for (TestMappableModel result : results) {
+            assertTrue(mappableStore.remove(result));
+        }
+        assertEquals(mappableStore.query("bigDecimalValue", new BigDecimal("20")).size(), 0);
+        assertEquals(mappableStore.query("stringValue", "2, 20").size(), 0);
+        assertEquals(hashIndex.size(), mappableStore.size());
+        assertEquals(sortedIndex.size(), mappableStore.size());
+
+        mappableStore.removeIndex("string");
+        assertNull(mappableStore.selectIndex(DataManipulator.<String, Object>createSimpleMap("stringValue", "2, 10")));
+        assertEquals(mappableStore.query("stringValue", "2, 10").size(), 2);
+    }
+
+    @Test
+    public void testRemoveEqualMappables() {
+        MappableStore<TestMappableModel, String, Object> mappableStore = new MappableStore<TestMappableModel, String, Object>(
+            new DefaultMappableIndexComparator<String, Object>("integerValue")
+        );
+        TestMappableModel m1 = new TestMappableModel("1", 1, new BigDecimal("10"));
+        TestMappableModel m2 = new TestMappableModel("2", 1, new BigDecimal("20"));
+        TestMappableModel m3 = new TestMappableModel("3", 1, new BigDecimal("30"));
+
+        mappableStore.add(m1);
+        mappableStore.add(m2);
+        mappableStore.add(m3);
+        MappableIndex<TestMappableModel, String, Object> hashIndex = mappableStore.addHashIndex("string", "stringValue");
+
+        // Equal by store order, only the given mappable is removed from the store and its indexes
+        assertTrue(mappableStore.remove(m3));
+        assertEquals(new HashSet<>(mappableStore.getMappables()), new HashSet<>(Arrays.asList(m1, m2)));
+        assertEquals(mappableStore.query("stringValue", "2"), Arrays.asList(m2));
+        assertEquals(mappableStore.query("stringValue", "3").size(), 0);
+        assertEquals(hashIndex.size(), 2);
+
+        assertFalse(mappableStore.remove(m3));
+        assertFalse(mappableStore.remove(new TestMappableModel("1", 1, new BigDecimal("10"))));
+        assertEquals(mappableStore.size(), 2);
+
+        assertTrue(mappableStore.remove(m1));
+        assertEquals(mappableStore.getMappables(), Arrays.asList(m2));
+        assertEquals(mappableStore.query("stringValue", "1").size(), 0);
+        assertEquals(hashIndex.size(), 1);
+    }
+
+    @Test
+    public void testRangeQuery() {
+        MappableStore<TestMappableModel, String, Object> mappableStore = createOrderedMappableStore();
+
+        assertEquals(mappableStore.queryGreater("integerValue", 1).size(), 12);
+        assertEquals(mappableStore.querySmallerOrEqual("integerValue", 2).size(), 12);
+        assertEquals(mappableStore.queryRange("integerValue", 1, false, 3, false).size(), 6);
+        assertEquals(mappableStore.queryRange("integerValue", 1, true, 3, true).size(), 18);
+        assertEquals(mappableStore.queryGreater("integerValue", 3).size(), 0);
+        assertEquals(mappableStore.querySmaller("integerValue", 1).size(), 0);
+
+        List<TestMappableModel> results = mappableStore.queryGreaterOrEqual("integerValue", 2);
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).getIntegerValue() <= results.get(i).getIntegerValue());
+        }
+
+        mappableStore = createInitialUnorderedMappableStore();
+
+        // Without any sorted order on the key, every mappable is compared
+        assertEquals(mappableStore.querySmaller("integerValue", 2).size(), 6);
+
+        mappableStore.addSortedIndex("bigDecimal", new DefaultMappableIndexComparator<String, Object>("bigDecimalValue"));
+        mappableStore.addSortedIndex("string", new DefaultMappableIndexComparator<String, Object>("stringValue"));
+
+        assertEquals(mappableStore.queryGreaterOrEqual("bigDecimalValue", new BigDecimal("20")).size(), 12);
+        assertEquals(mappableStore.querySmaller("bigDecimalValue", new BigDecimal("20")).size(), 6);
+
+        results = mappableStore.queryLike("stringValue", "2*");
+        assertEquals(results.size(), 6);
+        for (TestMappableModel result : results) {
+            assertTrue(result.getStringValue().startsWith("2"));
+        }
+        assertEquals(mappableStore.queryLike("stringValue", "2, ?0").size(), 6);
+        assertEquals(mappableStore.queryLike("stringValue", "3, 10").size(), 2);
+        assertEquals(mappableStore.queryLike("stringValue", "*0").size(), 18);
+        assertEquals(mappableStore.queryLike("stringValue", "4*").size(), 0);
+
+        // Sorted keys holding other values are matched on their toString
+        assertEquals(mappableStore.queryLike("bigDecimalValue", "1*").size(), 6);
+        assertEquals(mappableStore.queryLike("bigDecimalValue", "?0").size(), 18);
+
+        mappableStore = createOrderedMappableStore();
+        assertEquals(mappableStore.queryLike("integerValue", "2").size(), 6);
+        assertEquals(mappableStore.queryLike("integerValue", "2*").size(), 6);
+    }
+
     private MappableIndexComparator<String, Object> createMappableIndexComparator() {
         return new DefaultMappableIndexComparator<String, Object>("integerValue", "bigDecimalValue");
     }
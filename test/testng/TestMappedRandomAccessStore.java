@@ -0,0 +1,241 @@
+package testng;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.store.MappedRandomAccessStore;
+import utils.store.NameCounterStoreObject;
+import utils.store.TestNameValueStoreObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class TestMappedRandomAccessStore {
+    private File directory;
+    private MappedRandomAccessStore<NameCounterStoreObject> store;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mapped-random-access-store").toFile();
+        store = open();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        store.close();
+
+        for (File file : directory.listFiles()) {
+            assertTrue(file.delete(), file.getName());
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testSave() throws IOException {
+        Map<String, Integer> expected = new TreeMap<>();
+
+        assertEquals(store.indexOf(new NameCounterStoreObject("a", 0)), -1);
+
+        for (int i = 0; i < 200; i++) {
+            String name = String.format("n%04d", (i * 37) % 200);
+
+            store.save(new NameCounterStoreObject(name, i));
+            expected.put(name, i);
+        }
+        checkStore(expected);
+
+        // Replace stored objects in place while mapped
+        store.save(new NameCounterStoreObject("n0100", 1000000));
+        expected.put("n0100", 1000000);
+        checkStore(expected);
+
+        store.save(new NameCounterStoreObject("n0100", 1));
+        expected.put("n0100", 1);
+        checkStore(expected);
+
+        assertEquals(store.indexOf(new NameCounterStoreObject("m", 0)), -1);
+        assertEquals(store.indexOf(new NameCounterStoreObject("z", 0)), -1);
+        assertTrue(store.contains(new NameCounterStoreObject("n0000", 0)));
+
+        store.close();
+        store = open();
+        checkStore(expected);
+    }
+
+    @Test
+    public void testSaveAll() throws IOException {
+        Map<String, Integer> expected = new TreeMap<>();
+
+        List<NameCounterStoreObject> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String name = String.format("n%04d", (i * 7) % 400);
+
+            batch.add(new NameCounterStoreObject(name, i));
+            expected.put(name, i);
+        }
+        store.saveAll(batch);
+        checkStore(expected);
+
+        // Index file is rewritten while mapped
+        store.save(new NameCounterStoreObject("m0000", 1));
+        expected.put("m0000", 1);
+
+        batch.clear();
+        for (int i = 0; i < 300; i++) {
+            String name = String.format("n%04d", i * 3 + 1);
+
+            batch.add(new NameCounterStoreObject(name, -i));
+            expected.put(name, -i);
+        }
+        Collections.shuffle(batch, new Random(3));
+        store.saveAll(batch);
+        checkStore(expected);
+
+        // Content file shrinks while mapped
+        store.compact();
+        checkStore(expected);
+
+        store.close();
+        store = open();
+        checkStore(expected);
+        assertFalse(new File(directory, "store.idx.merge").exists());
+    }
+
+    @Test
+    public void testRemove() throws IOException {
+        Map<String, Integer> expected = new TreeMap<>();
+
+        for (int i = 0; i < 100; i++) {
+            String name = String.format("n%04d", i);
+
+            store.save(new NameCounterStoreObject(name, i));
+            expected.put(name, i);
+        }
+        checkStore(expected);
+
+        // Index file shrinks while mapped
+        for (int i = 0; i < 100; i += 3) {
+            String name = String.format("n%04d", i);
+
+            store.remove(new NameCounterStoreObject(name, 0));
+            expected.remove(name);
+        }
+        store.remove(new NameCounterStoreObject("x", 0));
+        checkStore(expected);
+
+        store.remove(0);
+        expected.remove(expected.keySet().iterator().next());
+        store.remove(store.getCount() - 1);
+        expected.remove(((TreeMap<String, Integer>) expected).lastKey());
+        checkStore(expected);
+
+        store.close();
+        store = open();
+        checkStore(expected);
+    }
+
+    @Test
+    public void testGrowBeyondMappings() throws IOException {
+        Map<String, Integer> expected = new TreeMap<>();
+        List<NameCounterStoreObject> batch = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i += 2) {
+            String name = String.format("n%06d", i);
+
+            batch.add(new NameCounterStoreObject(name, i));
+            expected.put(name, i);
+        }
+        store.saveAll(batch);
+        checkStore(expected);
+
+        // Appended entries and records lie beyond the mappings until the files grew enough to be mapped again
+        for (int round = 0; round < 3; round++) {
+            batch.clear();
+            for (int i = round * 2000 + 1; i < round * 2000 + 2000; i += 2) {
+                String name = String.format("n%06d", i);
+
+                batch.add(new NameCounterStoreObject(name, -i));
+                expected.put(name, -i);
+            }
+            store.saveAll(batch);
+            store.save(new NameCounterStoreObject(String.format("z%06d", round), round));
+            expected.put(String.format("z%06d", round), round);
+            checkStore(expected);
+        }
+
+        store.close();
+        store = open();
+        checkStore(expected);
+    }
+
+    @Test
+    public void testShiftBeyondMapping() throws IOException {
+        Map<String, String> expected = new TreeMap<>();
+        MappedRandomAccessStore<TestNameValueStoreObject> values = new MappedRandomAccessStore<>(
+            TestNameValueStoreObject.class, new File(directory, "values.idx"), new File(directory, "values.dat")
+        );
+
+        try {
+            List<TestNameValueStoreObject> batch = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                String name = String.format("n%06d", i);
+
+                batch.add(new TestNameValueStoreObject(name, "v"));
+                expected.put(name, "v");
+            }
+            values.saveAll(batch);
+            checkValues(values, expected);
+
+            // Records after the replaced one are shifted, the last one partly beyond the content mapping
+            values.save(new TestNameValueStoreObject("n000000", "123456789"));
+            expected.put("n000000", "123456789");
+            checkValues(values, expected);
+
+            // Content file shrinks while mapped
+            values.save(new TestNameValueStoreObject("n000000", ""));
+            expected.put("n000000", "");
+            checkValues(values, expected);
+        } finally {
+            values.close();
+        }
+    }
+
+    private MappedRandomAccessStore<NameCounterStoreObject> open() throws IOException {
+        return new MappedRandomAccessStore<>(
+            NameCounterStoreObject.class, new File(directory, "store.idx"), new File(directory, "store.dat")
+        );
+    }
+
+    private void checkStore(Map<String, Integer> expected) throws IOException {
+        List<NameCounterStoreObject> stored = store.toList();
+
+        assertEquals(store.getCount(), expected.size());
+        assertEquals(stored.size(), expected.size());
+
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(stored.get(i).getName(), entry.getKey());
+            assertEquals(stored.get(i).getCounter(), entry.getValue().intValue(), entry.getKey());
+            assertEquals(store.indexOf(new NameCounterStoreObject(entry.getKey(), 0)), i);
+            i++;
+        }
+    }
+
+    private void checkValues(MappedRandomAccessStore<TestNameValueStoreObject> values, Map<String, String> expected)
+            throws IOException {
+        assertEquals(values.getCount(), expected.size());
+
+        int i = 0;
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            int index = values.indexOf(new TestNameValueStoreObject(entry.getKey(), ""));
+
+            assertEquals(index, i, entry.getKey());
+            assertEquals(values.get(index).getValue(), entry.getValue(), entry.getKey());
+            i++;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package testng;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import utils.file.FileUtil;
+import utils.file.path.CompiledPathPatternMatcherGroup;
 import utils.file.path.PathPatternMatcherGroup;
 import utils.file.path.PathPatternMatcherGroupParser;
 
@@ -82,4 +83,19 @@ public class TestPathMatcherGroup {
             assertTrue(pathPatternMatcherGroup.match(ignoredEntry), ignoredEntry + " should be ignored but not!");
         }
     }
+
+    @Test
+    public void testCompiledIgnoreMatcher() {
+        CompiledPathPatternMatcherGroup compiledGroup = pathPatternMatcherGroup.compile();
+
+        assertTrue(compiledGroup.isAutomaton(), "Ignore patterns should be compiled into automaton!");
+
+        for (String acceptedEntry : acceptedEntries) {
+            assertFalse(compiledGroup.match(acceptedEntry), acceptedEntry + " should be accepted but not!");
+        }
+
+        for (String ignoredEntry : ignoredEntries) {
+            assertTrue(compiledGroup.match(ignoredEntry), ignoredEntry + " should be ignored but not!");
+        }
+    }
 }
@@ -0,0 +1,227 @@
+package testng;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.store.NameCounterStoreObject;
+import utils.store.RandomAccessStore;
+import utils.store.StoreBatchWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.testng.Assert.*;
+
+public class TestRandomAccessStore {
+    private File directory;
+    private RandomAccessStore<NameCounterStoreObject> store;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("random-access-store").toFile();
+        store = open();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        store.close();
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testSaveAllBatchMerge() throws IOException {
+        Map<String, Integer> expected = new TreeMap<>();
+
+        // Into an empty store, with equal objects in the batch where the last one wins
+        List<NameCounterStoreObject> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String name = String.format("n%04d", (i * 7) % 400);
+
+            batch.add(new NameCounterStoreObject(name, i));
+            expected.put(name, i);
+        }
+        store.saveAll(batch);
+        checkStore(expected);
+
+        // Interleaved with stored objects, replacing some of them, merged after single saves
+        store.save(new NameCounterStoreObject("m0000", 1));
+        expected.put("m0000", 1);
+
+        batch.clear();
+        for (int i = 0; i < 300; i++) {
+            String name = String.format("n%04d", i * 3 + 1);
+
+            batch.add(new NameCounterStoreObject(name, -i));
+            expected.put(name, -i);
+        }
+        Collections.shuffle(batch, new Random(3));
+        store.saveAll(batch);
+        checkStore(expected);
+
+        store.saveAll(Collections.<NameCounterStoreObject>emptyList());
+        checkStore(expected);
+
+        // Merged index is copied into the index file, so the store keeps working after reopening
+        store.close();
+        store = open();
+        checkStore(expected);
+
+        store.remove(new NameCounterStoreObject("m0000", 0));
+        expected.remove("m0000");
+        store.save(new NameCounterStoreObject("z", 9));
+        expected.put("z", 9);
+        checkStore(expected);
+        assertFalse(new File(directory, "store.idx.merge").exists());
+    }
+
+    @Test
+    public void testSaveAllRecoversMergedIndex() throws IOException {
+        Map<String, Integer> expected = new TreeMap<>();
+
+        for (int i = 0; i < 10; i++) {
+            String name = String.format("n%04d", i * 2);
+
+            store.save(new NameCounterStoreObject(name, i));
+            expected.put(name, i);
+        }
+
+        // Index file is written in place, channels opened before the merge see the merged index
+        try (FileChannel channel = FileChannel.open(new File(directory, "store.idx").toPath(), StandardOpenOption.READ)) {
+            List<NameCounterStoreObject> batch = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                String name = String.format("n%04d", i * 2 + 1);
+
+                batch.add(new NameCounterStoreObject(name, -i));
+                expected.put(name, -i);
+            }
+            store.saveAll(batch);
+
+            assertEquals(channel.size(), 8L * expected.size());
+        }
+        checkStore(expected);
+
+        byte[] merged = Files.readAllBytes(new File(directory, "store.idx").toPath());
+        store.close();
+
+        // Crash while copying the merged index, with a partially written merge left behind
+        Files.write(new File(directory, "store.idx.merge").toPath(), merged);
+        Files.write(new File(directory, "store.idx.merge.tmp").toPath(), new byte[] {1, 2, 3});
+        try (RandomAccessFile index = new RandomAccessFile(new File(directory, "store.idx"), "rw")) {
+            index.setLength(8L * 7);
+        }
+
+        store = open();
+        checkStore(expected);
+        assertFalse(new File(directory, "store.idx.merge").exists());
+        assertFalse(new File(directory, "store.idx.merge.tmp").exists());
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        Map<String, Integer> expected = new TreeMap<>();
+
+        for (int round = 0; round < 3; round++) {
+            List<NameCounterStoreObject> batch = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String name = String.format("n%04d", (i * 7 + round * 50) % 300);
+
+                batch.add(new NameCounterStoreObject(name, round * 1000 + i));
+                expected.put(name, round * 1000 + i);
+            }
+            store.saveAll(batch);
+        }
+        store.save(new NameCounterStoreObject("m0000", 1));
+        expected.put("m0000", 1);
+        checkStore(expected);
+
+        // Content of objects replaced by saveAll is unused
+        long compactSize = 8L * expected.size();
+        for (String name : expected.keySet()) {
+            compactSize += new NameCounterStoreObject(name, 0).getByteLength();
+        }
+        assertTrue(store.getStorageSize() > compactSize);
+
+        store.compact();
+        assertEquals(store.getStorageSize(), compactSize);
+        assertEquals(new File(directory, "store.dat").length(), compactSize - 8L * expected.size());
+        checkStore(expected);
+
+        store.compact();
+        assertEquals(store.getStorageSize(), compactSize);
+
+        store.close();
+        store = open();
+        checkStore(expected);
+
+        // Not while a batch writer holds appended objects
+        StoreBatchWriter<NameCounterStoreObject> writer = new StoreBatchWriter<>(store);
+        writer.add(new NameCounterStoreObject("n0000", -1));
+        expected.put("n0000", -1);
+        try {
+            store.compact();
+            fail("Compacted while objects are pending");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        writer.close();
+        store.compact();
+        assertEquals(store.getStorageSize(), compactSize);
+        checkStore(expected);
+    }
+
+    @Test
+    public void testSaveAllKeepsLock() throws IOException {
+        store.close();
+        store = new RandomAccessStore<>(
+            NameCounterStoreObject.class, new File(directory, "store.idx"), new File(directory, "store.dat"), true, true
+        );
+
+        store.saveAll(Arrays.asList(new NameCounterStoreObject("a", 1), new NameCounterStoreObject("b", 2)));
+
+        // The index file is still locked by the store, so locking it again in this JVM overlaps
+        try (FileChannel channel = FileChannel.open(new File(directory, "store.idx").toPath(), StandardOpenOption.WRITE)) {
+            channel.tryLock();
+            fail("Index file is not locked after saveAll");
+        } catch (OverlappingFileLockException ofle) {
+            // Expected
+        }
+
+        store.release();
+
+        try (FileChannel channel = FileChannel.open(new File(directory, "store.idx").toPath(), StandardOpenOption.WRITE)) {
+            assertNotNull(channel.tryLock());
+        }
+    }
+
+    private RandomAccessStore<NameCounterStoreObject> open() throws IOException {
+        return new RandomAccessStore<>(
+            NameCounterStoreObject.class, new File(directory, "store.idx"), new File(directory, "store.dat")
+        );
+    }
+
+    private void checkStore(Map<String, Integer> expected) throws IOException {
+        List<NameCounterStoreObject> stored = store.toList();
+
+        assertEquals(store.getCount(), expected.size());
+        assertEquals(stored.size(), expected.size());
+
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(stored.get(i).getName(), entry.getKey());
+            assertEquals(stored.get(i).getCounter(), entry.getValue().intValue(), entry.getKey());
+            assertEquals(store.indexOf(new NameCounterStoreObject(entry.getKey(), 0)), i);
+            i++;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.testng.annotations.Test;
 import utils.data.SortedList;
 import utils.data.SortedListArray;
 import utils.data.SortedListAvl;
+import utils.data.SortedListBTree;
 import utils.data.sort.MultiSort;
 import utils.math.MathUtil;
 
@@ -15,12 +16,13 @@ import static org.testng.Assert.*;
 public class TestSortedList {
     private int testSize = 10000;
 
-    private SortedList<Integer> listArray, listAvl;
+    private SortedList<Integer> listArray, listAvl, listBTree;
 
     @BeforeMethod
     public void setup() {
         listArray = new SortedListArray<>();
         listAvl = new SortedListAvl<>();
+        listBTree = new SortedListBTree<>();
 
         List<Integer> aList = new ArrayList<>(testSize);
 
@@ -34,6 +36,7 @@ public class TestSortedList {
             Integer v = aList.get(n);
             listArray.add(v);
             listAvl.add(v);
+            listBTree.add(v);
             aList.remove(n);
         }
     }
@@ -115,6 +118,7 @@ public class TestSortedList {
     public void testAddAll() {
         testAddAll(new SortedListArray<Integer>());
         testAddAll(new SortedListAvl<Integer>());
+        testAddAll(new SortedListBTree<Integer>());
     }
 
     @Test
@@ -126,6 +130,10 @@ public class TestSortedList {
         for (int i = 0; i < listAvl.size(); i++) {
             assertEquals(listAvl.get(i), new Integer(i + 1));
         }
+
+        for (int i = 0; i < listBTree.size(); i++) {
+            assertEquals(listBTree.get(i), new Integer(i + 1));
+        }
     }
 
     private void testRemove(SortedList<Integer> list) {
@@ -151,6 +159,7 @@ public class TestSortedList {
     public void testRemove() {
         testRemove(listArray);
         testRemove(listAvl);
+        testRemove(listBTree);
     }
 
     @Test
@@ -167,6 +176,7 @@ public class TestSortedList {
     @Test
     public void testSmallerIndexOf() {
         testSmallerIndexOf(new SortedListAvl<Integer>());
+        testSmallerIndexOf(new SortedListBTree<Integer>());
         testSmallerIndexOf(new SortedListArray<Integer>());
     }
     
@@ -235,6 +245,7 @@ public class TestSortedList {
     @Test
     public void testSmallerOrEqualsIndexOf() {
         testSmallerOrEqualsIndexOf(new SortedListAvl<Integer>());
+        testSmallerOrEqualsIndexOf(new SortedListBTree<Integer>());
         testSmallerOrEqualsIndexOf(new SortedListArray<Integer>());
     }
     
@@ -303,6 +314,7 @@ public class TestSortedList {
     @Test
     public void testGreaterIndexOf() {
         testGreaterIndexOf(new SortedListAvl<Integer>());
+        testGreaterIndexOf(new SortedListBTree<Integer>());
         testGreaterIndexOf(new SortedListArray<Integer>());
     }
     
@@ -370,6 +382,7 @@ public class TestSortedList {
     @Test
     public void testGreaterOrEqualsIndexOf() {
         testGreaterOrEqualsIndexOf(new SortedListAvl<Integer>());
+        testGreaterOrEqualsIndexOf(new SortedListBTree<Integer>());
         testGreaterOrEqualsIndexOf(new SortedListArray<Integer>());
     }
     
@@ -584,6 +597,7 @@ public class TestSortedList {
     public void testIterator() {
         testIterator(listArray);
         testIterator(listAvl);
+        testIterator(listBTree);
     }
 
     private void testSet(SortedList<Integer> list) {
@@ -629,6 +643,7 @@ public class TestSortedList {
     public void testSet() {
         testSet(new SortedListArray<Integer>());
         testSet(new SortedListAvl<Integer>());
+        testSet(new SortedListBTree<Integer>());
     }
 
     @Test
@@ -673,6 +688,7 @@ public class TestSortedList {
     public void testRemoveAll() {
         testRemoveAll(listArray);
         testRemoveAll(listAvl);
+        testRemoveAll(listBTree);
     }
 
     private void testRetainAll(SortedList<Integer> list) {
@@ -730,6 +746,7 @@ public class TestSortedList {
     public void testRetainAll() {
         testRetainAll(listArray);
         testRetainAll(listAvl);
+        testRetainAll(listBTree);
 
     }
 
@@ -767,6 +784,7 @@ public class TestSortedList {
     public void testClone() {
         testClone(listArray);
         testClone(listAvl);
+        testClone(listBTree);
     }
 
     private void testIterAddSetRemove(SortedList<Integer> list) {
@@ -824,6 +842,7 @@ public class TestSortedList {
     public void testIterAddSetRemove() {
         testIterAddSetRemove(listArray);
         testIterAddSetRemove(listAvl);
+        testIterAddSetRemove(listBTree);
     }
 
     private void testIndexOfWithSameValues(SortedList<Integer> sList) {
@@ -869,6 +888,7 @@ public class TestSortedList {
     public void testIndexOfWithSameValues() {
         testIndexOfWithSameValues(new SortedListArray<Integer>());
         testIndexOfWithSameValues(new SortedListAvl<Integer>());
+        testIndexOfWithSameValues(new SortedListBTree<Integer>());
     }
 
     private void testGetSubList(SortedList<Integer> list) {
@@ -887,6 +907,7 @@ public class TestSortedList {
     public void testGetSubList() {
         testGetSubList(listArray);
         testGetSubList(listAvl);
+        testGetSubList(listBTree);
     }
 
     private void testForEachLoop(SortedList<Integer> list) {
@@ -900,6 +921,7 @@ public class TestSortedList {
     public void testForEachLoop() {
         testForEachLoop(listArray);
         testForEachLoop(listAvl);
+        testForEachLoop(listBTree);
     }
 
     public void testResort(SortedList<IntegerValue> sortedList) {
@@ -940,6 +962,7 @@ public class TestSortedList {
     public void testResort() {
         testResort(new SortedListArray<IntegerValue>());
         testResort(new SortedListAvl<IntegerValue>());
+        testResort(new SortedListBTree<IntegerValue>());
     }
 
     private void testNullValues(SortedList<Integer> list) {
@@ -988,6 +1011,7 @@ public class TestSortedList {
     public void testNullValues() {
         testNullValues(listArray);
         testNullValues(listAvl);
+        testNullValues(listBTree);
     }
 
     private void testSortOrder(SortedList<Integer> ascList) {
@@ -1099,6 +1123,7 @@ public class TestSortedList {
     public void testSortOrder() {
         testSortOrder(new SortedListArray<Integer>());
         testSortOrder(new SortedListAvl<Integer>());
+        testSortOrder(new SortedListBTree<Integer>());
     }
 
     private static class IntegerValue implements Comparable<IntegerValue> {
@@ -137,6 +137,38 @@ class TestSortedListAvl {
         assertEquals(DataManipulator.integerSumOf(list).toLong(), MathUtil.sumOfSeq(0, testSize-1))
     }
 
+    @Test
+    fun testBulkAddAll() {
+        val values = ArrayList<Int?>(testSize)
+
+        for (i in 0 .. testSize - 1) {
+            values.add(if (i % 100 == 0) null else MathUtil.randomInteger(0, testSize / 10))
+        }
+
+        // Built in bulk into an empty list, then merged with a batch of same size
+        val list = SortedListAvl<Int?>(values)
+        list.addAll(values)
+
+        assertEquals(list.size, testSize * 2)
+        assertTrue(list.getTreeDepth() <= 32 - Integer.numberOfLeadingZeros(list.size))
+        verifyListOrder(list)
+
+        val reference = ArrayList<Int?>(values)
+        reference.addAll(values)
+        Collections.sort(reference, DataComparator.buildComparator<Int>(true, true))
+
+        for (i in 0 .. reference.size - 1) {
+            assertEquals(list[i], reference[i])
+            assertEquals(list.indexOf(reference[i]), reference.indexOf(reference[i]))
+        }
+
+        // Small batch is added one by one
+        list.addAll(listOf(-1, testSize))
+
+        assertEquals(list[testSize / 50], -1)
+        assertEquals(list.getMax(), testSize)
+    }
+
     @Test
     fun testGet() {
         for (i in 0 .. list.size - 1) {
@@ -2,9 +2,17 @@ package testng;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
+import utils.data.DataComparator;
 import utils.data.sort.*;
 import utils.math.MathUtil;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestSorter {
@@ -55,6 +63,560 @@ public class TestSorter {
         checkValidOrder();
     }
     
+    @Test
+    public void testParallelSort() {
+        Integer[] source = array.clone();
+        Comparator<Integer> comparator = DataComparator.buildComparator();
+        
+        MergeSort.parallelSort(array, comparator, 1000);
+        checkValidOrder();
+        
+        array = source.clone();
+        TimSort.parallelSort(array, comparator, 1000);
+        checkValidOrder();
+        
+        array = source.clone();
+        IntroSort.parallelSort(array, comparator, 1000);
+        checkValidOrder();
+        
+        array = source.clone();
+        MultiSort.parallelSort(array, comparator, 1000);
+        checkValidOrder();
+        
+        array = source;
+        DualPivotQuickSort.parallelSort(array, comparator, 1000);
+        checkValidOrder();
+    }
+    
+    @Test
+    public void testParallelPrimitiveSort() {
+        int[] values = new int[testSize], expected;
+        
+        for (int i = 0; i < values.length; i++) {
+            values[i] = MathUtil.randomInteger(0, testSize);
+        }
+        
+        expected = values.clone();
+        Arrays.sort(expected);
+        
+        int[] sorted = values.clone();
+        IntroSort.parallelSort(sorted, 1000);
+        assertEquals(sorted, expected);
+        
+        sorted = values.clone();
+        DualPivotQuickSort.parallelSort(sorted, 1000);
+        assertEquals(sorted, expected);
+    }
+    
+    @Test
+    public void testParallelIntegralSort() {
+        long[] longs = new long[testSize];
+        short[] shorts = new short[testSize];
+        char[] chars = new char[testSize];
+        byte[] bytes = new byte[testSize];
+        
+        for (int i = 0; i < testSize; i++) {
+            int value = array[i] - testSize / 2;
+            
+            longs[i] = value * (long) testSize;
+            shorts[i] = (short) value;
+            chars[i] = (char) value;
+            bytes[i] = (byte) value;
+        }
+        
+        long[] expectedLongs = longs.clone();
+        short[] expectedShorts = shorts.clone();
+        char[] expectedChars = chars.clone();
+        byte[] expectedBytes = bytes.clone();
+        Arrays.sort(expectedLongs);
+        Arrays.sort(expectedShorts);
+        Arrays.sort(expectedChars);
+        Arrays.sort(expectedBytes);
+        
+        for (int algorithm = 0; algorithm < 4; algorithm++) {
+            long[] sortedLongs = longs.clone();
+            short[] sortedShorts = shorts.clone();
+            char[] sortedChars = chars.clone();
+            byte[] sortedBytes = bytes.clone();
+            
+            switch (algorithm) {
+                case 0:
+                    MergeSort.parallelSort(sortedLongs, 1000);
+                    MergeSort.parallelSort(sortedShorts, 1000);
+                    MergeSort.parallelSort(sortedChars, 1000);
+                    MergeSort.parallelSort(sortedBytes, 1000);
+                    break;
+                case 1:
+                    IntroSort.parallelSort(sortedLongs, 1000);
+                    IntroSort.parallelSort(sortedShorts, 1000);
+                    IntroSort.parallelSort(sortedChars, 1000);
+                    IntroSort.parallelSort(sortedBytes, 1000);
+                    break;
+                case 2:
+                    MultiSort.parallelSort(sortedLongs, 1000);
+                    MultiSort.parallelSort(sortedShorts, 1000);
+                    MultiSort.parallelSort(sortedChars, 1000);
+                    MultiSort.parallelSort(sortedBytes, 1000);
+                    break;
+                default:
+                    DualPivotQuickSort.parallelSort(sortedLongs, 1000);
+                    DualPivotQuickSort.parallelSort(sortedShorts, 1000);
+                    DualPivotQuickSort.parallelSort(sortedChars, 1000);
+                    DualPivotQuickSort.parallelSort(sortedBytes, 1000);
+            }
+            
+            assertTrue(Arrays.equals(sortedLongs, expectedLongs), "long[], algorithm " + algorithm);
+            assertTrue(Arrays.equals(sortedShorts, expectedShorts), "short[], algorithm " + algorithm);
+            assertTrue(Arrays.equals(sortedChars, expectedChars), "char[], algorithm " + algorithm);
+            assertTrue(Arrays.equals(sortedBytes, expectedBytes), "byte[], algorithm " + algorithm);
+        }
+    }
+    
+    @Test
+    public void testParallelFloatingPointSort() {
+        double[] special = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] doubles = new double[testSize];
+        float[] floats = new float[testSize];
+        
+        for (int i = 0; i < testSize; i++) {
+            doubles[i] = (i % 7 == 0)? special[(i / 7) % special.length] : (array[i] - testSize / 2) / 8.0;
+            floats[i] = (float) doubles[i];
+        }
+        
+        // Arrays.sort orders -0.0 before 0.0 and NaN last
+        double[] expectedDoubles = doubles.clone();
+        float[] expectedFloats = floats.clone();
+        Arrays.sort(expectedDoubles);
+        Arrays.sort(expectedFloats);
+        
+        for (int algorithm = 0; algorithm < 4; algorithm++) {
+            double[] sortedDoubles = doubles.clone();
+            float[] sortedFloats = floats.clone();
+            
+            switch (algorithm) {
+                case 0:
+                    MergeSort.parallelSort(sortedDoubles, 1000);
+                    MergeSort.parallelSort(sortedFloats, 1000);
+                    break;
+                case 1:
+                    IntroSort.parallelSort(sortedDoubles, 1000);
+                    IntroSort.parallelSort(sortedFloats, 1000);
+                    break;
+                case 2:
+                    MultiSort.parallelSort(sortedDoubles, 1000);
+                    MultiSort.parallelSort(sortedFloats, 1000);
+                    break;
+                default:
+                    DualPivotQuickSort.parallelSort(sortedDoubles, 1000);
+                    DualPivotQuickSort.parallelSort(sortedFloats, 1000);
+            }
+            
+            // Arrays.equals tells -0.0 from 0.0 and matches NaN
+            assertTrue(Arrays.equals(sortedDoubles, expectedDoubles), "double[], algorithm " + algorithm);
+            assertTrue(Arrays.equals(sortedFloats, expectedFloats), "float[], algorithm " + algorithm);
+        }
+    }
+    
+    @Test
+    public void testRadixSort() {
+        long[] values = new long[testSize], expected;
+        String[] strings = new String[testSize], expectedStrings;
+        
+        for (int i = 0; i < values.length; i++) {
+            values[i] = MathUtil.randomInteger(-testSize, testSize) * (long) testSize;
+            strings[i] = String.valueOf(values[i]);
+        }
+        
+        expected = values.clone();
+        Arrays.sort(expected);
+        RadixSort.sort(values, new long[testSize]);
+        assertEquals(values, expected);
+        
+        expectedStrings = strings.clone();
+        Arrays.sort(expectedStrings);
+        RadixSort.sort(strings);
+        assertEquals(strings, expectedStrings);
+    }
+
+    @Test
+    public void testRadixSortIntegral() {
+        // Empty, one element, below the LSD threshold and large
+        for (int size : new int[] {0, 1, 2, RadixSort.LSD_THRESHOLD - 1, testSize}) {
+            int[] ints = new int[size];
+            short[] shorts = new short[size];
+            char[] chars = new char[size];
+            byte[] bytes = new byte[size];
+            
+            for (int i = 0; i < size; i++) {
+                int value = (array[i] - testSize / 2) * 4099;
+                
+                ints[i] = value;
+                shorts[i] = (short) value;
+                chars[i] = (char) value;
+                bytes[i] = (byte) value;
+            }
+            if (size > 2) {
+                ints[0] = Integer.MIN_VALUE;
+                ints[1] = Integer.MAX_VALUE;
+                shorts[0] = Short.MIN_VALUE;
+                chars[0] = Character.MAX_VALUE;
+                bytes[0] = Byte.MIN_VALUE;
+            }
+            
+            int[] expectedInts = ints.clone();
+            short[] expectedShorts = shorts.clone();
+            char[] expectedChars = chars.clone();
+            byte[] expectedBytes = bytes.clone();
+            Arrays.sort(expectedInts);
+            Arrays.sort(expectedShorts);
+            Arrays.sort(expectedChars);
+            Arrays.sort(expectedBytes);
+            
+            int[] sortedInts = ints.clone();
+            RadixSort.sort(sortedInts);
+            assertTrue(Arrays.equals(sortedInts, expectedInts), "int[], size " + size);
+            RadixSort.sort(ints, new int[size]);
+            assertTrue(Arrays.equals(ints, expectedInts), "int[] with scratch, size " + size);
+            
+            short[] sortedShorts = shorts.clone();
+            RadixSort.sort(sortedShorts);
+            assertTrue(Arrays.equals(sortedShorts, expectedShorts), "short[], size " + size);
+            RadixSort.sort(shorts, new short[size]);
+            assertTrue(Arrays.equals(shorts, expectedShorts), "short[] with scratch, size " + size);
+            
+            char[] sortedChars = chars.clone();
+            RadixSort.sort(sortedChars);
+            assertTrue(Arrays.equals(sortedChars, expectedChars), "char[], size " + size);
+            RadixSort.sort(chars, new char[size]);
+            assertTrue(Arrays.equals(chars, expectedChars), "char[] with scratch, size " + size);
+            
+            RadixSort.sort(bytes);
+            assertTrue(Arrays.equals(bytes, expectedBytes), "byte[], size " + size);
+        }
+        
+        // Portion of the array, elements outside are untouched
+        int[] ints = {5, -3, 9, -8, 0, 7, -1, 2};
+        RadixSort.sort(ints, 2, 5);
+        assertTrue(Arrays.equals(ints, new int[] {5, -3, -8, 0, 7, 9, -1, 2}));
+    }
+    
+    @Test
+    public void testRadixSortCharArrays() {
+        for (int size : new int[] {0, 1, 2, RadixSort.MSD_THRESHOLD - 1, testSize / 10}) {
+            char[][] values = new char[size][];
+            
+            for (int i = 0; i < size; i++) {
+                // Shared prefixes, empty arrays, and chars above 0xFF so both bytes of a char are used
+                int value = array[i] % 5000;
+                String s = (value % 97 == 0)? "" : Integer.toString(value, 36);
+                
+                values[i] = ((value % 3 == 0)? s + (char) (0x100 + value % 7) : s).toCharArray();
+            }
+            
+            char[][] expected = values.clone();
+            Arrays.sort(expected, new Comparator<char[]>() {
+                @Override
+                public int compare(char[] c1, char[] c2) {
+                    return new String(c1).compareTo(new String(c2));
+                }
+            });
+            
+            char[][] sorted = values.clone();
+            RadixSort.sort(sorted);
+            assertEquals(toStrings(sorted), toStrings(expected), "size " + size);
+            
+            RadixSort.sort(values, new char[size][]);
+            assertEquals(toStrings(values), toStrings(expected), "size " + size + " with scratch");
+        }
+    }
+    
+    private static String[] toStrings(char[][] values) {
+        String[] strings = new String[values.length];
+        
+        for (int i = 0; i < values.length; i++) {
+            strings[i] = new String(values[i]);
+        }
+        
+        return strings;
+    }
+
+    @Test
+    public void testKeySort() {
+        String[] strings = new String[testSize], expected;
+
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = String.valueOf(MathUtil.randomInteger(0, testSize));
+        }
+
+        Comparator<String> byLength = new Comparator<String>() {
+            @Override
+            public int compare(String s1, String s2) {
+                return Integer.compare(s1.length(), s2.length());
+            }
+        };
+
+        KeySort.IntKeyExtractor<String> length = new KeySort.IntKeyExtractor<String>() {
+            @Override
+            public int extractKey(String s) {
+                return s.length();
+            }
+        };
+
+        expected = strings.clone();
+        TimSort.sort(expected, byLength);
+
+        int[] order = KeySort.orderByIntKey(strings, length);
+        for (int i = 0; i < order.length; i++) {
+            assertEquals(strings[order[i]], expected[i]);
+        }
+
+        KeySort.sortByIntKey(strings, length);
+        assertEquals(strings, expected);
+    }
+
+    @Test
+    public void testLongKeySort() {
+        final long[] keys = new long[testSize];
+        Integer[] elements = new Integer[testSize];
+        
+        // Few distinct keys so many are equal, negative and extreme keys included
+        for (int i = 0; i < testSize; i++) {
+            keys[i] = (i % 11 == 0)? ((i % 2 == 0)? Long.MIN_VALUE : Long.MAX_VALUE) : (array[i] % 1000 - 500) * 1000000007L;
+            elements[i] = i;
+        }
+        
+        KeySort.LongKeyExtractor<Integer> extractor = new KeySort.LongKeyExtractor<Integer>() {
+            @Override
+            public long extractKey(Integer i) {
+                return keys[i];
+            }
+        };
+        
+        // Arrays.sort of objects is stable
+        Integer[] expected = elements.clone();
+        Arrays.sort(expected, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return Long.compare(keys[i1], keys[i2]);
+            }
+        });
+        
+        int[] order = KeySort.orderByLongKey(elements, extractor);
+        for (int i = 0; i < order.length; i++) {
+            assertEquals(order[i], expected[i].intValue());
+        }
+        
+        KeySort.sortByLongKey(elements, extractor);
+        assertEquals(elements, expected);
+        checkStableKeyOrder(elements, new KeyEquality() {
+            @Override
+            public boolean equalKeys(int i1, int i2) {
+                return keys[i1] == keys[i2];
+            }
+        });
+    }
+    
+    @Test
+    public void testDoubleKeySort() {
+        double[] special = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        final double[] keys = new double[testSize];
+        Integer[] elements = new Integer[testSize];
+        
+        for (int i = 0; i < testSize; i++) {
+            keys[i] = (i % 7 == 0)? special[(i / 7) % special.length] : (array[i] % 1000 - 500) / 8.0;
+            elements[i] = i;
+        }
+        
+        KeySort.DoubleKeyExtractor<Integer> extractor = new KeySort.DoubleKeyExtractor<Integer>() {
+            @Override
+            public double extractKey(Integer i) {
+                return keys[i];
+            }
+        };
+        
+        // Double.compare orders -0.0 before 0.0 and NaN last
+        Integer[] expected = elements.clone();
+        Arrays.sort(expected, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return Double.compare(keys[i1], keys[i2]);
+            }
+        });
+        
+        int[] order = KeySort.orderByDoubleKey(elements, extractor);
+        for (int i = 0; i < order.length; i++) {
+            assertEquals(order[i], expected[i].intValue());
+        }
+        
+        KeySort.sortByDoubleKey(elements, extractor);
+        assertEquals(elements, expected);
+        checkStableKeyOrder(elements, new KeyEquality() {
+            @Override
+            public boolean equalKeys(int i1, int i2) {
+                return Double.compare(keys[i1], keys[i2]) == 0;
+            }
+        });
+        
+        int firstZero = 0;
+        while (keys[elements[firstZero]] < 0) {
+            firstZero++;
+        }
+        assertEquals(Double.doubleToRawLongBits(keys[elements[firstZero]]), Double.doubleToRawLongBits(-0.0));
+        assertTrue(Double.isNaN(keys[elements[testSize - 1]]));
+    }
+    
+    @Test
+    public void testIntKeyOrderStability() {
+        final int[] keys = new int[testSize];
+        Integer[] elements = new Integer[testSize];
+        
+        for (int i = 0; i < testSize; i++) {
+            keys[i] = (i % 13 == 0)? Integer.MIN_VALUE : array[i] % 100 - 50;
+            elements[i] = i;
+        }
+        
+        int[] order = KeySort.orderByIntKey(elements, new KeySort.IntKeyExtractor<Integer>() {
+            @Override
+            public int extractKey(Integer i) {
+                return keys[i];
+            }
+        });
+        
+        Integer[] ordered = new Integer[order.length];
+        for (int i = 0; i < order.length; i++) {
+            ordered[i] = order[i];
+        }
+        
+        for (int i = 1; i < ordered.length; i++) {
+            assertTrue(keys[ordered[i - 1]] <= keys[ordered[i]], "Invalid order at " + i);
+        }
+        checkStableKeyOrder(ordered, new KeyEquality() {
+            @Override
+            public boolean equalKeys(int i1, int i2) {
+                return keys[i1] == keys[i2];
+            }
+        });
+    }
+    
+    private interface KeyEquality {
+        boolean equalKeys(int i1, int i2);
+    }
+    
+    /**
+     * Check elements, the original indices, with equal keys are still in their original order
+     */
+    private static void checkStableKeyOrder(Integer[] sorted, KeyEquality equality) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (equality.equalKeys(sorted[i - 1], sorted[i])) {
+                assertTrue(sorted[i - 1] < sorted[i], "Equal keys reordered at " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testArgSort() {
+        Integer[] expected = array.clone();
+        Arrays.sort(expected);
+
+        int[] permutation = ArgSort.argsort(array);
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(array[permutation[i]], expected[i]);
+        }
+
+        int[] values = new int[array.length];
+        for (int i = 0; i < array.length; i++) {
+            values[i] = array[i];
+        }
+
+        permutation = ArgSort.argsort(values);
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(values[permutation[i]], expected[i].intValue());
+        }
+    }
+
+    @Test
+    public void testPartialSort() {
+        Integer[] expected = array.clone();
+        Arrays.sort(expected);
+
+        int k = testSize / 10;
+        assertEquals(IntroSort.nthElement(array.clone(), k), expected[k]);
+
+        IntroSort.partialSort(array, k);
+        assertEquals(Arrays.copyOf(array, k), Arrays.copyOf(expected, k));
+    }
+
+    @Test
+    public void testPartialSortFloatingPoint() {
+        double[] special = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] doubles = new double[10000];
+        float[] floats = new float[doubles.length];
+
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = (i % 7 == 0)? special[(i / 7) % special.length] : (array[i] % 100) / 4.0 - 12.5;
+            floats[i] = (float) doubles[i];
+        }
+
+        // Same order as ArgSort and RadixSort, -0.0 before 0.0 and NaN last
+        double[] expectedDoubles = doubles.clone();
+        float[] expectedFloats = floats.clone();
+        RadixSort.sort(expectedDoubles);
+        RadixSort.sort(expectedFloats);
+
+        for (int k : new int[] {0, 1, 100, 4000, 5000, 6000, 9000, 9999}) {
+            assertEquals(IntroSort.nthElement(doubles.clone(), k), expectedDoubles[k]);
+            assertEquals(IntroSort.nthElement(floats.clone(), k), expectedFloats[k]);
+
+            double[] partialDoubles = doubles.clone();
+            float[] partialFloats = floats.clone();
+            IntroSort.partialSort(partialDoubles, k);
+            IntroSort.partialSort(partialFloats, k);
+            assertTrue(Arrays.equals(Arrays.copyOf(partialDoubles, k), Arrays.copyOf(expectedDoubles, k)));
+            assertTrue(Arrays.equals(Arrays.copyOf(partialFloats, k), Arrays.copyOf(expectedFloats, k)));
+        }
+
+        int firstZero = 0;
+        while (expectedDoubles[firstZero] < 0) {
+            firstZero++;
+        }
+        assertEquals(IntroSort.nthElement(doubles.clone(), firstZero), -0.0);
+        assertTrue(Double.isNaN(IntroSort.nthElement(doubles.clone(), doubles.length - 1)));
+    }
+
+    @Test
+    public void testAdaptiveSort() {
+        int[] values = new int[testSize], expected;
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array[i];
+        }
+
+        expected = values.clone();
+        Arrays.sort(expected);
+        AdaptiveSort.sort(values);
+        assertEquals(values, expected);
+        assertEquals(AdaptiveSort.classify(values, AdaptiveSort.getDefaultSelection()), AdaptiveSort.InputClass.PRESORTED);
+
+        AdaptiveSort.sort(array);
+        checkValidOrder();
+    }
+
+    @Test
+    public void testExternalSort() throws IOException {
+        Integer[] expected = array.clone();
+        Arrays.sort(expected);
+
+        ExternalSort<Integer> sorter = new ExternalSort<>(
+                ExternalSort.INT_CODEC, DataComparator.<Integer>buildComparator(), testSize / 10, 4, null
+        );
+        Iterator<Integer> sorted = sorter.sort(Arrays.asList(array));
+
+        for (Integer value : expected) {
+            assertEquals(sorted.next(), value);
+        }
+        assertFalse(sorted.hasNext());
+    }
+
     private void checkValidOrder() {
         for (int i = 1; i < array.length; i++) {
             assertTrue(
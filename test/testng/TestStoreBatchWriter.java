@@ -0,0 +1,324 @@
+package testng;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.store.NameCounterStoreObject;
+import utils.store.RandomAccessStore;
+import utils.store.StoreBatchWriter;
+import utils.store.TestNameValueStoreObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.testng.Assert.*;
+
+public class TestStoreBatchWriter {
+    private File directory;
+    private RandomAccessStore<NameCounterStoreObject> store;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("store-batch-writer").toFile();
+        store = open("store");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        store.close();
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testBatchCommit() throws IOException {
+        Map<String, Integer> expected = new TreeMap<>();
+        StoreBatchWriter<NameCounterStoreObject> writer = new StoreBatchWriter<>(store, logFile("store"), 100);
+
+        for (int i = 0; i < 250; i++) {
+            String name = String.format("n%04d", (i * 13) % 150);
+
+            writer.add(new NameCounterStoreObject(name, i));
+            expected.put(name, i);
+
+            // Committed automatically once the batch is full
+            assertEquals(writer.getPendingCount(), (i + 1) % 100);
+        }
+        assertEquals(store.getCount(), 150);
+
+        writer.close();
+        checkStore(store, expected);
+        assertEquals(logFile("store").length(), 5L);
+
+        // Without log
+        writer = new StoreBatchWriter<>(store);
+        writer.add(new NameCounterStoreObject("n0000", -1));
+        writer.add(new NameCounterStoreObject("a", 1));
+        writer.sync();
+        assertEquals(store.getCount(), 150);
+
+        writer.commit();
+        expected.put("n0000", -1);
+        expected.put("a", 1);
+        checkStore(store, expected);
+        writer.close();
+    }
+
+    @Test
+    public void testRecoverPartialWrite() throws IOException {
+        Map<String, Integer> expected = new TreeMap<>();
+        StoreBatchWriter<NameCounterStoreObject> writer = new StoreBatchWriter<>(store, logFile("store"));
+
+        for (int i = 0; i < 20; i++) {
+            String name = "c" + (i % 10);
+
+            writer.add(new NameCounterStoreObject(name, i));
+            expected.put(name, i);
+        }
+        writer.commit();
+
+        for (int i = 0; i < 30; i++) {
+            String name = "r" + (i % 20);
+
+            writer.add(new NameCounterStoreObject(name, i));
+            expected.put(name, i);
+        }
+        writer.sync();
+
+        // Crash after sync, with a partially written log entry
+        snapshot("store", "crash");
+        try (RandomAccessFile log = new RandomAccessFile(logFile("crash"), "rw")) {
+            log.seek(log.length());
+            log.writeInt(123);
+        }
+        checkRecovered("crash", expected);
+
+        // Crash with a location logged after sync while its content pages were never written
+        snapshot("store", "zeroed");
+        try (RandomAccessFile content = new RandomAccessFile(new File(directory, "zeroed.dat"), "rw");
+             RandomAccessFile log = new RandomAccessFile(logFile("zeroed"), "rw")) {
+            log.seek(log.length());
+            log.writeLong(content.length());
+            content.setLength(content.length() + 64);
+        }
+        checkRecovered("zeroed", expected);
+
+        // Crash with the last logged object partially written to content
+        writer.add(new NameCounterStoreObject("partial", 1));
+        snapshot("store", "torn");
+        try (RandomAccessFile content = new RandomAccessFile(new File(directory, "torn.dat"), "rw")) {
+            content.setLength(content.length() - 3);
+        }
+        checkRecovered("torn", expected);
+
+        // Log of a store without pending objects is left alone
+        writer.close();
+        expected.put("partial", 1);
+        snapshot("store", "clean");
+        checkRecovered("clean", expected);
+
+        File invalid = logFile("invalid");
+        Files.write(invalid.toPath(), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        try {
+            new StoreBatchWriter<>(store, invalid);
+            fail("Invalid log recovered");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        final StoreBatchWriter<NameCounterStoreObject> writer = new StoreBatchWriter<>(store, logFile("store"));
+        final int threads = 8, objects = 200;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+
+                        for (int i = 0; i < objects; i++) {
+                            writer.add(new NameCounterStoreObject(String.format("t%d-%04d", thread, i), i));
+
+                            if (i % 10 == 9) {
+                                writer.sync();
+                            }
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, Integer> expected = new TreeMap<>();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < objects; i++) {
+                expected.put(String.format("t%d-%04d", t, i), i);
+            }
+        }
+
+        // Every synced object is recovered without commit
+        assertEquals(writer.getPendingCount(), threads * objects);
+        assertEquals(store.getCount(), 0);
+        assertTrue(logFile("store").length() > 5L + 8L * threads * objects);
+        snapshot("store", "crash");
+        checkRecovered("crash", expected);
+
+        writer.close();
+        checkStore(store, expected);
+    }
+
+    @Test
+    public void testSaveBetweenAddAndCommit() throws IOException {
+        Map<String, String> expected = new TreeMap<>();
+        RandomAccessStore<TestNameValueStoreObject> values = openValues("values");
+
+        try {
+            for (String name : new String[] {"a", "b", "c", "e"}) {
+                values.save(new TestNameValueStoreObject(name, name + name));
+                expected.put(name, name + name);
+            }
+
+            StoreBatchWriter<TestNameValueStoreObject> writer = new StoreBatchWriter<>(values, logFile("values"));
+            writer.add(new TestNameValueStoreObject("d", "pending"));
+            writer.add(new TestNameValueStoreObject("e", "replaced by batch"));
+            writer.sync();
+
+            // Replacements of different length stored before the pending objects must not move them
+            values.save(new TestNameValueStoreObject("a", "longer replacement of a"));
+            values.save(new TestNameValueStoreObject("b", ""));
+            expected.put("a", "longer replacement of a");
+            expected.put("b", "");
+            checkValues(values, expected);
+
+            Map<String, String> committed = new TreeMap<>(expected);
+            committed.put("d", "pending");
+            committed.put("e", "replaced by batch");
+
+            // Logged locations are still valid after the saves
+            snapshot("values", "crash");
+            RandomAccessStore<TestNameValueStoreObject> recovered = openValues("crash");
+            try {
+                new StoreBatchWriter<>(recovered, logFile("crash")).close();
+                checkValues(recovered, committed);
+            } finally {
+                recovered.close();
+            }
+
+            writer.commit();
+            checkValues(values, committed);
+
+            // Content is shifted again once nothing is pending
+            long storageSize = values.getStorageSize();
+            values.save(new TestNameValueStoreObject("c", "c"));
+            committed.put("c", "c");
+            checkValues(values, committed);
+            assertEquals(values.getStorageSize(), storageSize - 1);
+
+            writer.close();
+        } finally {
+            values.close();
+        }
+    }
+
+    private File logFile(String name) {
+        return new File(directory, name + ".wal");
+    }
+
+    private RandomAccessStore<NameCounterStoreObject> open(String name) throws IOException {
+        return new RandomAccessStore<>(
+            NameCounterStoreObject.class, new File(directory, name + ".idx"), new File(directory, name + ".dat")
+        );
+    }
+
+    private RandomAccessStore<TestNameValueStoreObject> openValues(String name) throws IOException {
+        return new RandomAccessStore<>(
+            TestNameValueStoreObject.class, new File(directory, name + ".idx"), new File(directory, name + ".dat")
+        );
+    }
+
+    /**
+     * Copy store and log files as left by a crash at this point
+     */
+    private void snapshot(String source, String target) throws IOException {
+        for (String extension : new String[] {".idx", ".dat", ".wal"}) {
+            Files.copy(
+                new File(directory, source + extension).toPath(), new File(directory, target + extension).toPath(),
+                StandardCopyOption.REPLACE_EXISTING
+            );
+        }
+    }
+
+    private void checkRecovered(String name, Map<String, Integer> expected) throws IOException {
+        RandomAccessStore<NameCounterStoreObject> recovered = open(name);
+
+        try {
+            StoreBatchWriter<NameCounterStoreObject> writer = new StoreBatchWriter<>(recovered, logFile(name));
+
+            checkStore(recovered, expected);
+            assertEquals(logFile(name).length(), 5L);
+
+            // Recovered store accepts new objects
+            writer.add(new NameCounterStoreObject("new", 0));
+            writer.close();
+            assertEquals(recovered.getCount(), expected.size() + 1);
+            assertEquals(recovered.get(recovered.indexOf(new NameCounterStoreObject("new", 0))).getCounter(), 0);
+        } finally {
+            recovered.close();
+        }
+    }
+
+    private void checkStore(RandomAccessStore<NameCounterStoreObject> store, Map<String, Integer> expected)
+            throws IOException {
+        List<NameCounterStoreObject> stored = store.toList();
+
+        assertEquals(store.getCount(), expected.size());
+        assertEquals(stored.size(), expected.size());
+
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(stored.get(i).getName(), entry.getKey());
+            assertEquals(stored.get(i).getCounter(), entry.getValue().intValue(), entry.getKey());
+            i++;
+        }
+    }
+
+    private void checkValues(RandomAccessStore<TestNameValueStoreObject> store, Map<String, String> expected)
+            throws IOException {
+        List<TestNameValueStoreObject> stored = store.toList();
+
+        assertEquals(store.getCount(), expected.size());
+        assertEquals(stored.size(), expected.size());
+
+        int i = 0;
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(stored.get(i).getName(), entry.getKey());
+            assertEquals(stored.get(i).getValue(), entry.getValue(), entry.getKey());
+            i++;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package utils.store;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Store object keyed by name with a value of any length, replacing a stored object may change its byte length
+ */
+public class TestNameValueStoreObject implements BufferedStoreObject {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final String name, value;
+    private final byte[] nameBytes, valueBytes;
+
+    public TestNameValueStoreObject(String name, String value) {
+        this.name = name;
+        this.value = value;
+        this.nameBytes = name.getBytes(UTF8);
+        this.valueBytes = value.getBytes(UTF8);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(StoreObject o) {
+        if (!(o instanceof TestNameValueStoreObject)) {
+            return -1;
+        } else {
+            return name.compareTo(((TestNameValueStoreObject) o).name);
+        }
+    }
+
+    @Override
+    public int storeCompare(RandomAccessStore<? extends StoreObject> store, long location) throws IOException {
+        RandomAccessFile contentFile = store.getUnderlyingContentFile();
+        contentFile.seek(location);
+
+        byte[] bytes = new byte[contentFile.readInt()];
+        contentFile.readFully(bytes);
+
+        return name.compareTo(new String(bytes, UTF8));
+    }
+
+    @Override
+    public int storeCompare(ByteBuffer content, int location) {
+        return StoreObjectUtil.compareUtf8(name, content, location + 4, content.getInt(location));
+    }
+
+    @Override
+    public void refreshRead(RandomAccessStore<? extends StoreObject> store, long location) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void updateWrite(RandomAccessStore<? extends StoreObject> store, long location) throws IOException {
+        write(store, location);
+    }
+
+    @Override
+    public void write(RandomAccessStore<? extends StoreObject> store, long location) throws IOException {
+        RandomAccessFile contentFile = store.getUnderlyingContentFile();
+        contentFile.seek(location);
+
+        contentFile.writeInt(nameBytes.length);
+        contentFile.write(nameBytes);
+        contentFile.writeInt(valueBytes.length);
+        contentFile.write(valueBytes);
+    }
+
+    @Override
+    public long getByteLength() {
+        return nameBytes.length + valueBytes.length + 8;
+    }
+
+    public static TestNameValueStoreObject read(
+            RandomAccessStore<? extends TestNameValueStoreObject> store, long location
+    ) throws IOException {
+        RandomAccessFile contentFile = store.getUnderlyingContentFile();
+        contentFile.seek(location);
+
+        byte[] nameBytes = new byte[contentFile.readInt()];
+        contentFile.readFully(nameBytes);
+        byte[] valueBytes = new byte[contentFile.readInt()];
+        contentFile.readFully(valueBytes);
+
+        return new TestNameValueStoreObject(new String(nameBytes, UTF8), new String(valueBytes, UTF8));
+    }
+
+    public static TestNameValueStoreObject read(ByteBuffer content, int location) {
+        byte[] nameBytes = new byte[content.getInt(location)];
+        for (int i = 0; i < nameBytes.length; i++) {
+            nameBytes[i] = content.get(location + 4 + i);
+        }
+
+        int valueLocation = location + 4 + nameBytes.length;
+        byte[] valueBytes = new byte[content.getInt(valueLocation)];
+        for (int i = 0; i < valueBytes.length; i++) {
+            valueBytes[i] = content.get(valueLocation + 4 + i);
+        }
+
+        return new TestNameValueStoreObject(new String(nameBytes, UTF8), new String(valueBytes, UTF8));
+    }
+}